@@ -35,6 +35,7 @@ CREATE INDEX IDX_SupplierMaster_NextReviewDate ON SupplierMaster(NextReviewDate)
 CREATE INDEX IDX_SupplierMaster_CurrentRating ON SupplierMaster(CurrentRating);
 CREATE INDEX IDX_SupplierMaster_Status ON SupplierMaster(SupplierStatus);
 CREATE INDEX IDX_SupplierMaster_ISO9001 ON SupplierMaster(ISO9001Certified);
+CREATE INDEX IDX_SupplierMaster_UpdatedAt ON SupplierMaster(UpdatedAt);
 
 COMMENT ON TABLE SupplierMaster IS '購買先マスター - 購買先の基本情報と現行ステータスを管理';
 COMMENT ON COLUMN SupplierMaster.SupplierID IS '購買先ID (形式: SUP-YYYYMMDD-XXX)';
@@ -127,6 +128,9 @@ CREATE INDEX IDX_CorrectiveAction_AuditID ON CorrectiveActionHistory(AuditID);
 CREATE INDEX IDX_CorrectiveAction_Deadline ON CorrectiveActionHistory(CorrectiveActionDeadline);
 CREATE INDEX IDX_CorrectiveAction_Status ON CorrectiveActionHistory(Status);
 CREATE INDEX IDX_CorrectiveAction_IsApproved ON CorrectiveActionHistory(IsApproved);
+CREATE INDEX IDX_CorrectiveAction_UpdatedAt ON CorrectiveActionHistory(UpdatedAt);
+CREATE INDEX IDX_CorrectiveAction_Open_Deadline_ID ON CorrectiveActionHistory(CorrectiveActionDeadline, CorrectiveActionID)
+    WHERE Status IN ('OPEN', 'IN_PROGRESS', 'OVERDUE');
 
 COMMENT ON TABLE CorrectiveActionHistory IS '是正処置履歴 - 不適合発生時の是正計画と実施状況を管理';
 COMMENT ON COLUMN CorrectiveActionHistory.CorrectiveActionID IS '是正処置ID (形式: CA-YYYYMMDD-XXX)';
@@ -180,7 +184,8 @@ CREATE TABLE NotificationHistory (
     CONSTRAINT PK_NotificationHistory PRIMARY KEY (NotificationID),
     
     CONSTRAINT CHK_NotificationHistory_Type CHECK (NotificationType IN 
-        ('REVIEW_REMINDER', 'CORRECTIVE_ACTION_REMINDER', 'CORRECTIVE_ACTION_OVERDUE', 'AUDIT_APPROVAL_REQUEST')),
+        ('REVIEW_REMINDER', 'CORRECTIVE_ACTION_REMINDER', 'CORRECTIVE_ACTION_OVERDUE', 'AUDIT_APPROVAL_REQUEST',
+         'REMINDER_DIGEST')),
     CONSTRAINT CHK_NotificationHistory_Status CHECK (Status IN ('SENT', 'FAILED', 'PENDING'))
 );
 
@@ -189,4 +194,131 @@ CREATE INDEX IDX_NotificationHistory_SentDate ON NotificationHistory(SentDate);
 CREATE INDEX IDX_NotificationHistory_Recipient ON NotificationHistory(RecipientUserID);
 
 COMMENT ON TABLE NotificationHistory IS '通知履歴 - 送信した通知の履歴を管理';
-COMMENT ON COLUMN NotificationHistory.NotificationType IS '通知種別 (REVIEW_REMINDER:再評価通知, CORRECTIVE_ACTION_REMINDER:是正期限通知, etc.)';
+COMMENT ON COLUMN NotificationHistory.NotificationType IS '通知種別 (REVIEW_REMINDER:再評価通知, CORRECTIVE_ACTION_REMINDER:是正期限通知, REMINDER_DIGEST:宛先別まとめ通知, etc.)';
+
+CREATE TABLE BatchJobState (
+    JobName VARCHAR(50) NOT NULL,
+    RunID VARCHAR(40) NOT NULL,
+    LastProcessedKey VARCHAR(100),
+    ProcessedCount INTEGER NOT NULL DEFAULT 0,
+    Status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    ClaimedBy VARCHAR(40),
+    StartedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UpdatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    CONSTRAINT PK_BatchJobState PRIMARY KEY (JobName),
+    
+    CONSTRAINT CHK_BatchJobState_Status CHECK (Status IN ('RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+COMMENT ON TABLE BatchJobState IS 'バッチジョブ状態 - チャンク単位のチェックポイントを記録し、再実行時に続きから再開する';
+COMMENT ON COLUMN BatchJobState.RunID IS '実行ID - 再開時は同一のRunIDを引き継ぐ';
+COMMENT ON COLUMN BatchJobState.LastProcessedKey IS '最後にコミットしたチャンクの最終キー';
+COMMENT ON COLUMN BatchJobState.Status IS 'ステータス (RUNNING:実行中（UpdatedAt が5分以上前の場合は中断）, COMPLETED:完了, FAILED:異常終了)';
+COMMENT ON COLUMN BatchJobState.ClaimedBy IS '所有者トークン - 実行中のプロセスが開始・再開ごとに発行し、チェックポイント・完了の記録はトークンが一致する場合のみ行う';
+COMMENT ON COLUMN BatchJobState.UpdatedAt IS '更新日時 - 実行中は1分ごとにハートビートで更新する';
+
+CREATE TABLE BatchJobFailure (
+    JobName VARCHAR(50) NOT NULL,
+    RunID VARCHAR(40) NOT NULL,
+    FailedKey VARCHAR(100) NOT NULL,
+    ErrorMessage VARCHAR(1000),
+    FailedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    CONSTRAINT PK_BatchJobFailure PRIMARY KEY (JobName, RunID, FailedKey)
+);
+
+COMMENT ON TABLE BatchJobFailure IS 'バッチジョブ処理エラー - チェックポイントを進めた後も再処理が必要なキー（審査ID等）を実行ごとに記録';
+COMMENT ON COLUMN BatchJobFailure.FailedKey IS '処理に失敗したキー - 原因を解消した後の次回の実行で再処理する';
+
+CREATE TABLE IdSequence (
+    Prefix VARCHAR(3) NOT NULL,
+    SequenceDate DATE NOT NULL,
+    LastValue INTEGER NOT NULL DEFAULT 0,
+    UpdatedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    CONSTRAINT PK_IdSequence PRIMARY KEY (Prefix, SequenceDate),
+    
+    CONSTRAINT CHK_IdSequence_Prefix CHECK (Prefix IN ('SUP', 'AUD', 'CA'))
+);
+
+COMMENT ON TABLE IdSequence IS '採番管理 - 接頭辞・日付ごとの予約済最終連番（ブロック単位で予約）';
+COMMENT ON COLUMN IdSequence.LastValue IS '予約済の最終連番 - 999を超えた場合その日の採番は不可';
+
+CREATE TABLE ReportJobQueue (
+    TicketID VARCHAR(40) NOT NULL,
+    AuditID VARCHAR(20) NOT NULL,
+    ReportForm VARCHAR(10) NOT NULL,
+    OutputFormat VARCHAR(10) NOT NULL,
+    OutputPath VARCHAR(500) NOT NULL,
+    Status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    ClaimedBy VARCHAR(100),
+    RequestCount INTEGER NOT NULL DEFAULT 1,
+    ErrorMessage VARCHAR(1000),
+    RequestedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    StartedAt TIMESTAMP,
+    LeaseRenewedAt TIMESTAMP,
+    CompletedAt TIMESTAMP,
+    
+    CONSTRAINT PK_ReportJobQueue PRIMARY KEY (TicketID),
+    
+    CONSTRAINT FK_ReportJobQueue_Audit FOREIGN KEY (AuditID) 
+        REFERENCES AuditHistory(AuditID) ON DELETE CASCADE,
+    
+    CONSTRAINT CHK_ReportJobQueue_Form CHECK (ReportForm IN ('FORM8', 'FORM11')),
+    CONSTRAINT CHK_ReportJobQueue_Format CHECK (OutputFormat IN ('TEXT', 'PDF')),
+    CONSTRAINT CHK_ReportJobQueue_Status CHECK (Status IN ('PENDING', 'RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+CREATE UNIQUE INDEX UX_ReportJobQueue_Pending ON ReportJobQueue(AuditID, ReportForm, OutputFormat) WHERE Status = 'PENDING';
+CREATE INDEX IDX_ReportJobQueue_Status_RequestedAt ON ReportJobQueue(Status, RequestedAt);
+
+COMMENT ON TABLE ReportJobQueue IS '帳票生成依頼 - 非同期に生成する様式-8/様式-11の依頼と処理状況を管理';
+COMMENT ON COLUMN ReportJobQueue.TicketID IS '受付番号 - 依頼時に返却し、状態の照会に使用する';
+COMMENT ON COLUMN ReportJobQueue.Status IS 'ステータス (PENDING:未着手, RUNNING:生成中, COMPLETED:完了, FAILED:失敗)';
+COMMENT ON COLUMN ReportJobQueue.ClaimedBy IS '取得ノード - 生成中の依頼を取得したノードのID（LeaseRenewedAt とあわせてリースとして扱う）';
+COMMENT ON COLUMN ReportJobQueue.LeaseRenewedAt IS 'リース更新日時 - 生成中にリース期間の1/3ごとに更新し、リース期間を過ぎた依頼は中断されたとみなす';
+COMMENT ON COLUMN ReportJobQueue.RequestCount IS '依頼件数 - 未着手の間に受け付けた同一依頼（審査ID・様式・出力形式）をまとめた件数';
+
+CREATE TABLE AuditReportOutput (
+    AuditID VARCHAR(20) NOT NULL,
+    ReportForm VARCHAR(10) NOT NULL,
+    OutputFormat VARCHAR(10) NOT NULL,
+    FilePath VARCHAR(500) NOT NULL,
+    TicketID VARCHAR(40),
+    GeneratedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    CONSTRAINT PK_AuditReportOutput PRIMARY KEY (AuditID, ReportForm, OutputFormat),
+    
+    CONSTRAINT FK_AuditReportOutput_Audit FOREIGN KEY (AuditID) 
+        REFERENCES AuditHistory(AuditID) ON DELETE CASCADE,
+    
+    CONSTRAINT CHK_AuditReportOutput_Form CHECK (ReportForm IN ('FORM8', 'FORM11')),
+    CONSTRAINT CHK_AuditReportOutput_Format CHECK (OutputFormat IN ('TEXT', 'PDF'))
+);
+
+COMMENT ON TABLE AuditReportOutput IS '審査帳票出力 - 生成した帳票ファイルパスを審査ID・様式・出力形式ごとに記録';
+COMMENT ON COLUMN AuditReportOutput.FilePath IS '帳票ファイルパス - 最後に生成した帳票のパス（AuditHistory.AuditReportFile は審査種別の正本の様式のPDFのみ）';
+COMMENT ON COLUMN AuditReportOutput.TicketID IS '受付番号 - 帳票を生成した ReportJobQueue の依頼';
+
+CREATE SEQUENCE NotificationID_Seq MAXVALUE 9999999 CYCLE;
+
+COMMENT ON SEQUENCE NotificationID_Seq IS '通知ID採番 - NotificationHistory.NotificationID（NTF-yyyyMMdd-nnnnnnn）の連番部分';
+
+CREATE TABLE NotificationHistoryTarget (
+    NotificationID VARCHAR(20) NOT NULL,
+    NotificationType VARCHAR(30) NOT NULL,
+    TargetID VARCHAR(20) NOT NULL,
+    
+    CONSTRAINT PK_NotificationHistoryTarget PRIMARY KEY (NotificationID, TargetID),
+    
+    CONSTRAINT FK_NotificationHistoryTarget_Notification FOREIGN KEY (NotificationID) 
+        REFERENCES NotificationHistory(NotificationID) ON DELETE CASCADE,
+    
+    CONSTRAINT CHK_NotificationHistoryTarget_Type CHECK (NotificationType IN 
+        ('REVIEW_REMINDER', 'CORRECTIVE_ACTION_REMINDER', 'CORRECTIVE_ACTION_OVERDUE'))
+);
+
+CREATE INDEX IDX_NotificationHistoryTarget_Type_Target ON NotificationHistoryTarget(NotificationType, TargetID);
+
+COMMENT ON TABLE NotificationHistoryTarget IS '通知対象 - まとめ通知（REMINDER_DIGEST）に含めた対象と対象ごとの通知種別';
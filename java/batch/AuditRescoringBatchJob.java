@@ -0,0 +1,657 @@
+package jp.co.company.sqas.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import javax.naming.InitialContext;
+import javax.sql.DataSource;
+
+import jp.co.company.sqas.service.AuditScoreCalculationService;
+import jp.co.company.sqas.service.AuditScoreCalculationService.BulkAuditScoreResult;
+import jp.co.company.sqas.service.AuditScoreCalculationService.PackedAuditScores;
+import jp.co.company.sqas.service.MulticastInvalidationBroadcaster;
+import jp.co.company.sqas.service.ScoringPolicyRegistry;
+import jp.co.company.sqas.service.SupplierCache;
+
+/**
+ * 審査再採点バッチジョブ
+ * Audit Rescoring Batch Job
+ *
+ * 評価基準や書類審査/実地審査の重みを変更した際に、AuditHistory の
+ * TotalScore・Rating・FinalDecision と SupplierMaster.CurrentRating を再計算する
+ *
+ * 処理の流れ:
+ * 1. AuditScoreDetails を AuditID 順にストリーミング読込し、審査単位でチャンクにまとめる
+ * 2. チャンクを Fork/Join プールで並列に採点する
+ * 3. 読込順にチャンクの変更分を JDBC バッチで書き込み、同一トランザクションでチェックポイントと採点エラーを記録する
+ * 4. コミット後に、等級を更新した購買先を SupplierCache から無効化し、他ノードへ通知する
+ *
+ * 異常終了後に再実行すると、最後にコミットしたチャンクの次の AuditID から再開する。
+ * 別のインスタンスが実行中の場合は開始しない（BatchJobStates の所有者トークンとハートビート）。
+ * 変更前後の差分は CSV ファイルに追記出力し、コミットの前にディスクへ書き出す
+ * （コミット前に異常終了した場合、再開時に同じ審査の行が再度出力される。同じ AuditID の行は後の行が有効）。
+ * 採点エラーの審査は BatchJobFailure に記録する。チェックポイントは採点エラーの審査も含めて進めるため、
+ * 採点エラーの審査は原因を解消した後の次回の実行（全件を再採点する）で再処理する。
+ *
+ * 実行頻度: 随時（採点ルール変更時）
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class AuditRescoringBatchJob {
+
+    static final String JOB_NAME = "AUDIT_RESCORING";
+    private static final String FORM_DOCUMENT = "FORM-2";
+
+    private static final int DEFAULT_CHUNK_SIZE = 1000; // 1チャンクあたりの審査件数
+    private static final int FETCH_SIZE = 5000;
+    private static final String UPDATED_BY = "batch_rescoring";
+
+    private final DataSource dataSource;
+    private final SupplierCache supplierCache;
+    private final AuditScoreCalculationService scoreService;
+    private final BigDecimal documentWeight;
+    private final BigDecimal onSiteWeight;
+    private final Path diffFile;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param policies 採点ポリシーの履歴（各審査は審査実施日時点で有効なポリシーで再採点する）
+     * @param supplierCache 等級を更新した購買先を無効化するキャッシュ（他ノードへの通知を設定したもの）
+     * @param documentWeight 書類審査の重み（null の場合は採点ポリシーの重み、実地審査の重みと同時に指定する）
+     * @param onSiteWeight 実地審査の重み（null の場合は採点ポリシーの重み、書類審査の重みと同時に指定する）
+     */
+    public AuditRescoringBatchJob(DataSource dataSource, ScoringPolicyRegistry policies, SupplierCache supplierCache,
+                                  BigDecimal documentWeight, BigDecimal onSiteWeight, Path diffFile) {
+        this(dataSource, policies, supplierCache, documentWeight, onSiteWeight, diffFile, DEFAULT_CHUNK_SIZE,
+            ForkJoinPool.commonPool());
+    }
+
+    public AuditRescoringBatchJob(DataSource dataSource, ScoringPolicyRegistry policies, SupplierCache supplierCache,
+                                  BigDecimal documentWeight, BigDecimal onSiteWeight, Path diffFile,
+                                  int chunkSize, ForkJoinPool pool) {
+        validateWeights(documentWeight, onSiteWeight);
+        this.dataSource = dataSource;
+        this.supplierCache = supplierCache;
+        this.scoreService = new AuditScoreCalculationService(policies);
+        this.documentWeight = documentWeight;
+        this.onSiteWeight = onSiteWeight;
+        this.diffFile = diffFile;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    /**
+     * 重みを検証する（両方指定する場合は合計が1、片方のみの指定は不可）
+     */
+    static void validateWeights(BigDecimal documentWeight, BigDecimal onSiteWeight) {
+        if ((documentWeight == null) != (onSiteWeight == null)) {
+            throw new IllegalArgumentException("Document and on-site weights must be specified together");
+        }
+        if (documentWeight != null && documentWeight.add(onSiteWeight).compareTo(BigDecimal.ONE) != 0) {
+            throw new IllegalArgumentException("Sum of weights must equal 1.0");
+        }
+    }
+
+    /**
+     * 再採点対象の審査チャンク
+     *
+     * 書類審査（様式-2）と実地審査（様式-5）の回答をそれぞれパック形式で保持する。
+     * 様式の回答が無い審査は、その様式の範囲が空になる。
+     */
+    static class AuditChunk {
+        final List<String> auditIds = new ArrayList<>();
+        final List<LocalDate> auditDates = new ArrayList<>();
+        final List<String> supplierIds = new ArrayList<>();
+        final List<Boolean> latestApproved = new ArrayList<>();
+        final List<BigDecimal> oldTotalScores = new ArrayList<>();
+        final List<String> oldRatings = new ArrayList<>();
+        final List<String> oldDecisions = new ArrayList<>();
+        final List<Integer> oldGrades = new ArrayList<>();
+
+        final PackedBuilder document = new PackedBuilder();
+        final PackedBuilder onSite = new PackedBuilder();
+
+        int size() { return auditIds.size(); }
+
+        void startAudit(ResultSet rs) throws SQLException {
+            auditIds.add(rs.getString("AuditID"));
+            auditDates.add(rs.getDate("AuditDate").toLocalDate());
+            supplierIds.add(rs.getString("SupplierID"));
+            latestApproved.add(rs.getInt("IsLatestApproved") == 1);
+            oldTotalScores.add(rs.getBigDecimal("TotalScore"));
+            oldRatings.add(rs.getString("Rating"));
+            oldDecisions.add(rs.getString("FinalDecision"));
+            int grade = rs.getInt("CurrentRating");
+            oldGrades.add(rs.wasNull() ? null : grade);
+            document.startAudit();
+            onSite.startAudit();
+        }
+    }
+
+    /**
+     * 審査ごとの回答を PackedAuditScores 形式に詰めるビルダー
+     */
+    static class PackedBuilder {
+        private byte[] scores = new byte[1024];
+        private long[] naBits = new long[16];
+        private int[] offsets = new int[64];
+        private int answerCount;
+        private int auditCount = -1; // 最初の startAudit で 0 になる
+
+        void startAudit() {
+            auditCount++;
+            if (auditCount + 2 > offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[auditCount] = answerCount;
+            offsets[auditCount + 1] = answerCount;
+        }
+
+        void add(int score, boolean notApplicable) {
+            if (answerCount == scores.length) {
+                scores = Arrays.copyOf(scores, scores.length * 2);
+                naBits = Arrays.copyOf(naBits, (scores.length + 63) >>> 6);
+            }
+            scores[answerCount] = (byte) score;
+            if (notApplicable) {
+                naBits[answerCount >>> 6] |= 1L << answerCount;
+            }
+            answerCount++;
+            offsets[auditCount + 1] = answerCount;
+        }
+
+        boolean hasAnswers(int audit) {
+            return offsets[audit + 1] > offsets[audit];
+        }
+
+        boolean isNotApplicable(int answer) {
+            return (naBits[answer >>> 6] & (1L << answer)) != 0;
+        }
+
+        boolean isAllNotApplicable(int audit) {
+            for (int i = offsets[audit]; i < offsets[audit + 1]; i++) {
+                if (!isNotApplicable(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 全項目未調査の審査の回答を除いたコピーを作成する
+         */
+        PackedBuilder withoutUnscorable(int audits) {
+            PackedBuilder filtered = new PackedBuilder();
+            for (int a = 0; a < audits; a++) {
+                filtered.startAudit();
+                if (hasAnswers(a) && !isAllNotApplicable(a)) {
+                    for (int i = offsets[a]; i < offsets[a + 1]; i++) {
+                        filtered.add(scores[i], isNotApplicable(i));
+                    }
+                }
+            }
+            return filtered;
+        }
+
+        /**
+         * 回答のある審査のみを抜き出してパック形式に変換する
+         *
+         * @param index 各審査の結果格納位置（回答の無い審査は -1）
+         */
+        PackedAuditScores build(int audits, int[] index) {
+            byte[] packedScores = new byte[answerCount];
+            long[] packedBits = new long[(answerCount + 63) >>> 6];
+            int[] packedOffsets = new int[audits + 1];
+            int written = 0;
+            int position = 0;
+            for (int a = 0; a < audits; a++) {
+                if (!hasAnswers(a)) {
+                    index[a] = -1;
+                    continue;
+                }
+                index[a] = written;
+                for (int i = offsets[a]; i < offsets[a + 1]; i++) {
+                    packedScores[position] = scores[i];
+                    if (isNotApplicable(i)) {
+                        packedBits[position >>> 6] |= 1L << position;
+                    }
+                    position++;
+                }
+                written++;
+                packedOffsets[written] = position;
+            }
+            return new PackedAuditScores(packedScores, packedBits, Arrays.copyOf(packedOffsets, written + 1));
+        }
+    }
+
+    /**
+     * 審査ごとの再採点結果
+     */
+    static class RescoreResult {
+        final String auditId;
+        final String supplierId;
+        final boolean latestApproved;
+        final BigDecimal oldTotalScore;
+        final String oldRating;
+        final String oldDecision;
+        final Integer oldGrade;
+        final BigDecimal newTotalScore;
+        final String newRating;
+        final String newDecision;
+        final Integer newGrade;
+        final String error;
+
+        RescoreResult(AuditChunk chunk, int a, BigDecimal newTotalScore, String newRating, String newDecision,
+                      Integer newGrade, String error) {
+            this.auditId = chunk.auditIds.get(a);
+            this.supplierId = chunk.supplierIds.get(a);
+            this.latestApproved = chunk.latestApproved.get(a);
+            this.oldTotalScore = chunk.oldTotalScores.get(a);
+            this.oldRating = chunk.oldRatings.get(a);
+            this.oldDecision = chunk.oldDecisions.get(a);
+            this.oldGrade = chunk.oldGrades.get(a);
+            this.newTotalScore = newTotalScore;
+            this.newRating = newRating;
+            this.newDecision = newDecision;
+            this.newGrade = newGrade;
+            this.error = error;
+        }
+
+        boolean isAuditChanged() {
+            return error == null
+                && (oldTotalScore == null || oldTotalScore.compareTo(newTotalScore) != 0
+                    || !newRating.equals(oldRating) || !newDecision.equals(oldDecision));
+        }
+
+        boolean isGradeChanged() {
+            return error == null && latestApproved && !Objects.equals(oldGrade, newGrade);
+        }
+    }
+
+    /**
+     * バッチジョブのメイン処理
+     *
+     * @return 処理結果（0: 正常終了, 1: エラー）
+     */
+    public int execute() {
+        try {
+            System.out.println("=== Audit Rescoring Batch Job Started ===");
+            System.out.println("Execution Date: " + LocalDate.now());
+            System.out.println("Weights: " + (documentWeight == null && onSiteWeight == null
+                ? "scoring policy in effect on each audit date"
+                : "document=" + documentWeight + ", onSite=" + onSiteWeight));
+
+            long startNanos = System.nanoTime();
+            int[] totals = run();
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+            System.out.println("\n=== Batch Job Summary ===");
+            System.out.println("Audits Processed: " + totals[0]);
+            System.out.println("Audits Updated: " + totals[1]);
+            System.out.println("Supplier Grades Updated: " + totals[2]);
+            System.out.println("Failures: " + totals[3]);
+            System.out.println("Elapsed: " + elapsedMillis + " ms");
+            System.out.println("=== Audit Rescoring Batch Job Completed ===");
+
+            return totals[3] > 0 ? 1 : 0;
+
+        } catch (Exception e) {
+            System.err.println("Critical error in batch job execution: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    /**
+     * 読込・並列採点・書込を実行する
+     *
+     * 採点は Fork/Join プールで並列に行い、書込は読込順に行うことで
+     * チェックポイントより前のチャンクが全てコミット済であることを保証する。
+     *
+     * @return {処理件数, 審査更新件数, 等級更新件数, 失敗件数}
+     */
+    int[] run() throws SQLException, IOException, InterruptedException, ExecutionException {
+        int[] totals = new int[4];
+
+        try (Connection readConnection = dataSource.getConnection();
+             Connection writeConnection = dataSource.getConnection();
+             FileChannel diffChannel = FileChannel.open(diffFile,
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+
+            BufferedWriter diff = openDiffWriter(diffChannel);
+
+            readConnection.setAutoCommit(false); // カーソルによるフェッチを有効化
+            readConnection.setReadOnly(true);
+            writeConnection.setAutoCommit(false);
+
+            try (BatchJobStates.RunLease lease = BatchJobStates.startOrResume(dataSource, writeConnection, JOB_NAME)) {
+                if (lease.getLastKey() != null) {
+                    System.out.println("Resuming run " + lease.getRunId() + " after AuditID " + lease.getLastKey());
+                }
+                try {
+                    rescoreAll(readConnection, writeConnection, lease, diff, diffChannel, totals);
+                    BatchJobStates.complete(writeConnection, lease);
+                    writeConnection.commit();
+                } catch (SQLException | IOException | InterruptedException | ExecutionException | RuntimeException e) {
+                    BatchJobStates.fail(writeConnection, lease);
+                    throw e;
+                }
+            }
+        }
+
+        return totals;
+    }
+
+    /**
+     * チェックポイントの次の審査から全審査を読み込み、採点してチャンクごとに書き込む
+     */
+    private void rescoreAll(Connection readConnection, Connection writeConnection, BatchJobStates.RunLease lease,
+                            BufferedWriter diff, FileChannel diffChannel, int[] totals)
+            throws SQLException, IOException, InterruptedException, ExecutionException {
+        int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        Deque<ForkJoinTask<List<RescoreResult>>> inFlight = new ArrayDeque<>();
+
+        try (PreparedStatement ps = readConnection.prepareStatement(SELECT_SCORE_DETAILS)) {
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setString(1, lease.getLastKey() != null ? lease.getLastKey() : "");
+            try (ResultSet rs = ps.executeQuery()) {
+                AuditChunk chunk = new AuditChunk();
+                String currentAuditId = null;
+                while (rs.next()) {
+                    String auditId = rs.getString("AuditID");
+                    if (!auditId.equals(currentAuditId)) {
+                        if (chunk.size() == chunkSize) {
+                            inFlight.addLast(pool.submit(scoringTask(chunk)));
+                            chunk = new AuditChunk();
+                            while (inFlight.size() >= maxInFlight) {
+                                writeChunk(writeConnection, lease, inFlight.removeFirst().get(), diff, diffChannel, totals);
+                            }
+                        }
+                        chunk.startAudit(rs);
+                        currentAuditId = auditId;
+                    }
+                    PackedBuilder target = FORM_DOCUMENT.equals(rs.getString("FormType")) ? chunk.document : chunk.onSite;
+                    target.add(rs.getInt("Score"), "1".equals(rs.getString("IsNotApplicable")));
+                }
+                if (chunk.size() > 0) {
+                    inFlight.addLast(pool.submit(scoringTask(chunk)));
+                }
+            }
+        }
+
+        while (!inFlight.isEmpty()) {
+            writeChunk(writeConnection, lease, inFlight.removeFirst().get(), diff, diffChannel, totals);
+        }
+    }
+
+    /**
+     * チャンクの採点タスクを作成する
+     */
+    private ForkJoinTask<List<RescoreResult>> scoringTask(AuditChunk chunk) {
+        return ForkJoinTask.adapt(() -> scoreChunk(chunk));
+    }
+
+    /**
+     * チャンク内の全審査を採点する
+     *
+     * 様式ごとに一括採点し、両方の様式がある審査は重み付けで統合する。
+     */
+    List<RescoreResult> scoreChunk(AuditChunk chunk) {
+        int audits = chunk.size();
+        int[] documentIndex = new int[audits];
+        int[] onSiteIndex = new int[audits];
+        BulkAuditScoreResult documentScores = scoreForm(chunk.document, audits, documentIndex);
+        BulkAuditScoreResult onSiteScores = scoreForm(chunk.onSite, audits, onSiteIndex);
+
+        List<RescoreResult> results = new ArrayList<>(audits);
+        for (int a = 0; a < audits; a++) {
+            try {
+                LocalDate auditDate = chunk.auditDates.get(a);
+                BigDecimal documentScore = documentIndex[a] >= 0 ? documentScores.getTotalScore(documentIndex[a]) : null;
+                BigDecimal onSiteScore = onSiteIndex[a] >= 0 ? onSiteScores.getTotalScore(onSiteIndex[a]) : null;
+
+                BigDecimal totalScore;
+                if (documentScore == null && onSiteScore == null) {
+                    throw new IllegalArgumentException("All items are marked as not applicable. Cannot calculate score.");
+                } else if (documentScore != null && onSiteScore != null) {
+                    totalScore = scoreService.calculateIntegratedScore(documentScore, onSiteScore, documentWeight,
+                        onSiteWeight, auditDate);
+                } else if (documentScore != null) {
+                    totalScore = documentScore;
+                } else {
+                    totalScore = onSiteScore;
+                }
+
+                results.add(new RescoreResult(chunk, a, totalScore,
+                    scoreService.determineRating(totalScore, auditDate),
+                    scoreService.determineDecision(totalScore, auditDate),
+                    scoreService.determineGrade(totalScore, auditDate), null));
+            } catch (RuntimeException e) {
+                results.add(new RescoreResult(chunk, a, null, null, null, null, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 1様式分を一括採点する
+     *
+     * 全項目未調査の審査はその様式なしとして扱う（もう一方の様式も無い場合は採点エラー）。
+     */
+    private BulkAuditScoreResult scoreForm(PackedBuilder builder, int audits, int[] index) {
+        PackedBuilder source = builder;
+        for (int a = 0; a < audits; a++) {
+            if (builder.hasAnswers(a) && builder.isAllNotApplicable(a)) {
+                source = builder.withoutUnscorable(audits);
+                break;
+            }
+        }
+        PackedAuditScores packed = source.build(audits, index);
+        return packed.getAuditCount() == 0 ? null : scoreService.calculateTotalScores(packed);
+    }
+
+    /**
+     * チャンクの変更分・採点エラーを書き込み、チェックポイントを更新してコミットする
+     *
+     * 差分はコミットの前にディスクへ書き出す（コミット後に異常終了しても差分が失われないため）。
+     * コミット後に、等級を更新した購買先をキャッシュから無効化する。
+     */
+    private void writeChunk(Connection connection, BatchJobStates.RunLease lease, List<RescoreResult> results,
+                            BufferedWriter diff, FileChannel diffChannel, int[] totals)
+            throws SQLException, IOException {
+        int auditUpdates = 0;
+        int gradeUpdates = 0;
+        Map<String, String> failures = new LinkedHashMap<>();
+        Set<String> gradeChangedSuppliers = new LinkedHashSet<>();
+
+        try (PreparedStatement updateAudit = connection.prepareStatement(UPDATE_AUDIT_HISTORY);
+             PreparedStatement updateGrade = connection.prepareStatement(UPDATE_SUPPLIER_RATING)) {
+
+            for (RescoreResult result : results) {
+                if (result.error != null) {
+                    System.err.println("Failed to rescore audit: " + result.auditId);
+                    System.err.println("Error: " + result.error);
+                    failures.put(result.auditId, result.error);
+                    continue;
+                }
+                if (result.isAuditChanged()) {
+                    updateAudit.setBigDecimal(1, result.newTotalScore);
+                    updateAudit.setString(2, result.newRating);
+                    updateAudit.setString(3, result.newDecision);
+                    updateAudit.setString(4, UPDATED_BY);
+                    updateAudit.setString(5, result.auditId);
+                    updateAudit.addBatch();
+                    auditUpdates++;
+                }
+                // 60点未満（登録不可）への変更は自動更新せず、差分出力のみ行う
+                if (result.isGradeChanged() && result.newGrade != null) {
+                    updateGrade.setInt(1, result.newGrade);
+                    updateGrade.setString(2, UPDATED_BY);
+                    updateGrade.setString(3, result.supplierId);
+                    updateGrade.addBatch();
+                    gradeUpdates++;
+                    gradeChangedSuppliers.add(result.supplierId);
+                }
+            }
+
+            if (auditUpdates > 0) {
+                updateAudit.executeBatch();
+            }
+            if (gradeUpdates > 0) {
+                updateGrade.executeBatch();
+            }
+
+            if (!failures.isEmpty()) {
+                BatchJobStates.recordFailures(connection, lease, failures);
+            }
+            String lastAuditId = results.get(results.size() - 1).auditId;
+            BatchJobStates.checkpoint(connection, lease, lastAuditId, results.size());
+
+            // コミットの前に差分をディスクへ書き出す
+            for (RescoreResult result : results) {
+                if (result.isAuditChanged() || result.isGradeChanged()) {
+                    diff.write(toDiffLine(result));
+                    diff.newLine();
+                }
+            }
+            diff.flush();
+            diffChannel.force(false);
+
+            connection.commit();
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        }
+
+        for (String supplierId : gradeChangedSuppliers) {
+            try {
+                supplierCache.invalidate(supplierId);
+            } catch (RuntimeException e) {
+                // 通知できなかったノードのキャッシュは最大保持期間の経過後に読み込み直される
+                System.err.println("Failed to invalidate cached supplier: " + supplierId);
+                System.err.println("Error: " + e.getMessage());
+            }
+        }
+
+        totals[0] += results.size();
+        totals[1] += auditUpdates;
+        totals[2] += gradeUpdates;
+        totals[3] += failures.size();
+    }
+
+    private BufferedWriter openDiffWriter(FileChannel channel) throws IOException {
+        BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+        if (channel.size() == 0) {
+            writer.write("AuditID,SupplierID,OldTotalScore,NewTotalScore,OldRating,NewRating,"
+                + "OldDecision,NewDecision,OldGrade,NewGrade");
+            writer.newLine();
+            writer.flush();
+        }
+        return writer;
+    }
+
+    private String toDiffLine(RescoreResult r) {
+        return String.join(",",
+            r.auditId,
+            r.supplierId,
+            Objects.toString(r.oldTotalScore, ""),
+            r.newTotalScore.toPlainString(),
+            Objects.toString(r.oldRating, ""),
+            r.newRating,
+            Objects.toString(r.oldDecision, ""),
+            r.newDecision,
+            Objects.toString(r.oldGrade, ""),
+            r.latestApproved ? Objects.toString(r.newGrade, "登録不可") : "");
+    }
+
+    /*
+     * AuditID > ? の採点詳細を審査順に取得する。
+     * IsLatestApproved: 購買先ごとに最新の承認済審査であれば 1（SupplierMaster.CurrentRating の基準）
+     */
+    private static final String SELECT_SCORE_DETAILS =
+        "WITH LatestApproved AS ("
+        + " SELECT AuditID, ROW_NUMBER() OVER (PARTITION BY SupplierID ORDER BY AuditDate DESC, AuditID DESC) AS rn"
+        + " FROM AuditHistory WHERE ApprovedDate IS NOT NULL"
+        + ") "
+        + "SELECT ah.AuditID, ah.AuditDate, ah.SupplierID, ah.TotalScore, ah.Rating, ah.FinalDecision, s.CurrentRating,"
+        + " CASE WHEN la.rn = 1 THEN 1 ELSE 0 END AS IsLatestApproved,"
+        + " d.FormType, d.Score, d.IsNotApplicable "
+        + "FROM AuditHistory ah "
+        + "JOIN SupplierMaster s ON ah.SupplierID = s.SupplierID "
+        + "JOIN AuditScoreDetails d ON d.AuditID = ah.AuditID "
+        + "LEFT JOIN LatestApproved la ON la.AuditID = ah.AuditID "
+        + "WHERE ah.AuditID > ? "
+        + "ORDER BY ah.AuditID, d.FormType, d.QuestionNumber";
+
+    private static final String UPDATE_AUDIT_HISTORY =
+        "UPDATE AuditHistory SET TotalScore = ?, Rating = ?, FinalDecision = ?,"
+        + " UpdatedAt = CURRENT_TIMESTAMP, UpdatedBy = ? WHERE AuditID = ?";
+
+    private static final String UPDATE_SUPPLIER_RATING =
+        "UPDATE SupplierMaster SET CurrentRating = ?, UpdatedAt = CURRENT_TIMESTAMP, UpdatedBy = ?"
+        + " WHERE SupplierID = ?";
+
+    /**
+     * バッチジョブのエントリーポイント
+     *
+     * 評価基準と重みは config/scoring_policies.properties の採点ポリシーのうち、審査実施日時点で有効なものを使用する。
+     * 等級を更新した購買先は、アプリケーションと同じマルチキャストグループ（sqas.cache.invalidation.group/port）へ
+     * 無効化を通知する。
+     *
+     * @param args [0] 差分出力ファイルパス, [1] 書類審査の重み, [2] 実地審査の重み
+     *             （重みは両方指定するか、両方省略する。省略時: 採点ポリシーの重み）
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2) {
+            throw new IllegalArgumentException("Document and on-site weights must be specified together");
+        }
+        Path diffFile = Paths.get(args.length > 0 ? args[0] : "rescoring_diff_" + UUID.randomUUID() + ".csv");
+        BigDecimal documentWeight = args.length > 1 ? new BigDecimal(args[1]) : null;
+        BigDecimal onSiteWeight = args.length > 2 ? new BigDecimal(args[2]) : null;
+        validateWeights(documentWeight, onSiteWeight);
+        ScoringPolicyRegistry policies = ScoringPolicyRegistry.load(ScoringPolicyRegistry.DEFAULT_CONFIG_FILE);
+
+        DataSource dataSource = (DataSource) new InitialContext().lookup("java:comp/env/jdbc/sqas");
+        // 購買先情報は保持せず、無効化の通知のみに使用する
+        SupplierCache supplierCache = new SupplierCache(1, supplierId -> null);
+        MulticastInvalidationBroadcaster broadcaster = new MulticastInvalidationBroadcaster(supplierCache);
+        int exitCode;
+        try {
+            AuditRescoringBatchJob job = new AuditRescoringBatchJob(dataSource, policies, supplierCache,
+                documentWeight, onSiteWeight, diffFile);
+            exitCode = job.execute();
+        } finally {
+            broadcaster.close();
+        }
+        System.exit(exitCode);
+    }
+}
@@ -0,0 +1,293 @@
+package jp.co.company.sqas.batch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+/**
+ * バッチジョブ状態管理
+ * Batch Job State Repository
+ *
+ * BatchJobState テーブルにジョブごとの実行IDとチェックポイントを記録する。
+ * チェックポイントの更新はチャンクの書込と同一トランザクションで行うこと。
+ * チェックポイントは処理に失敗したキーも含めて進めるため、失敗したキーは BatchJobFailure に記録する。
+ *
+ * 実行中のジョブは実行ごとの所有者トークン（ClaimedBy）を記録し、ハートビートで UpdatedAt を更新する。
+ * 最後の更新から LEASE_TIMEOUT 以内の実行中のジョブは別のインスタンスからは開始・再開できず、
+ * チェックポイント・完了・異常終了の記録は所有者トークンが一致する場合のみ行う。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class BatchJobStates {
+
+    /** 最後の更新からこの期間を過ぎた実行中のジョブは、異常終了したとみなして再開できる */
+    static final Duration LEASE_TIMEOUT = Duration.ofMinutes(5);
+
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofMinutes(1);
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 1000;
+
+    /** 所有者トークンが一致する実行 */
+    private static final String OWNED_CONDITION = "JobName = ? AND RunID = ? AND ClaimedBy = ?";
+
+    private BatchJobStates() {
+    }
+
+    /**
+     * 実行の所有権
+     *
+     * 所有している間はハートビートで BatchJobState.UpdatedAt を更新する。close でハートビートを停止する。
+     */
+    static final class RunLease implements AutoCloseable {
+        private final String jobName;
+        private final String runId;
+        private final String lastKey;
+        private final String owner;
+        private final ScheduledExecutorService heartbeat;
+
+        private RunLease(DataSource dataSource, String jobName, String runId, String lastKey, String owner) {
+            this.jobName = jobName;
+            this.runId = runId;
+            this.lastKey = lastKey;
+            this.owner = owner;
+            this.heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "batch-job-heartbeat-" + jobName);
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = HEARTBEAT_INTERVAL.toMillis();
+            heartbeat.scheduleWithFixedDelay(() -> beat(dataSource), intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+        }
+
+        /** 実行ID（再開時は中断された実行のものを引き継ぐ） */
+        String getRunId() { return runId; }
+
+        /** 最後に処理したキー（新規実行の場合は null） */
+        String getLastKey() { return lastKey; }
+
+        private void beat(DataSource dataSource) {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement ps = connection.prepareStatement(
+                     "UPDATE BatchJobState SET UpdatedAt = CURRENT_TIMESTAMP"
+                     + " WHERE " + OWNED_CONDITION + " AND Status = 'RUNNING'")) {
+                connection.setAutoCommit(true);
+                bindOwner(ps, 1, this);
+                if (ps.executeUpdate() != 1) {
+                    // 以降のチェックポイントは所有者トークンの不一致で失敗する
+                    System.err.println("Lost ownership of " + jobName + " run " + runId);
+                    heartbeat.shutdown();
+                }
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Failed to update heartbeat of " + jobName + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    /**
+     * ジョブを開始する（中断された実行があれば再開する）
+     *
+     * @param dataSource ハートビートの更新先
+     * @param connection DB接続（自動コミット無効）
+     * @param jobName ジョブ名
+     * @return 実行の所有権（呼び出し側で close すること）
+     * @throws IllegalStateException 別のインスタンスが実行中の場合
+     */
+    static RunLease startOrResume(DataSource dataSource, Connection connection, String jobName) throws SQLException {
+        return startOrResume(dataSource, connection, jobName, null);
+    }
+
+    /**
+     * ジョブを開始する（本日開始した中断された実行があれば再開する）
+     *
+     * 対象を実行日基準で抽出する日次ジョブ用。前日以前に開始した実行や、最後の更新から
+     * staleAfter を過ぎた実行のチェックポイントは破棄して新規に実行する。
+     *
+     * @param dataSource ハートビートの更新先
+     * @param connection DB接続（自動コミット無効）
+     * @param jobName ジョブ名
+     * @param staleAfter 最後の更新からこの期間を過ぎた実行は再開しない
+     * @return 実行の所有権（呼び出し側で close すること）
+     * @throws IllegalStateException 別のインスタンスが実行中の場合
+     */
+    static RunLease startOrResumeToday(DataSource dataSource, Connection connection, String jobName,
+                                       Duration staleAfter) throws SQLException {
+        return startOrResume(dataSource, connection, jobName, staleAfter);
+    }
+
+    private static RunLease startOrResume(DataSource dataSource, Connection connection, String jobName,
+                                          Duration staleAfter) throws SQLException {
+        // 行を先に作成し、同時に開始したインスタンスを行ロックで直列化する
+        try (PreparedStatement ensure = connection.prepareStatement(
+                "INSERT INTO BatchJobState (JobName, RunID, Status) VALUES (?, ?, 'COMPLETED')"
+                + " ON CONFLICT (JobName) DO NOTHING")) {
+            ensure.setString(1, jobName);
+            ensure.setString(2, UUID.randomUUID().toString());
+            ensure.executeUpdate();
+        }
+        connection.commit();
+
+        String owner = UUID.randomUUID().toString();
+        String resumable = staleAfter == null ? "TRUE"
+            : "StartedAt >= CURRENT_DATE AND UpdatedAt >= CURRENT_TIMESTAMP - make_interval(secs => ?)";
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT RunID, LastProcessedKey, Status, ClaimedBy, " + resumable + " AS Resumable,"
+                + " UpdatedAt >= CURRENT_TIMESTAMP - make_interval(secs => ?) AS Live"
+                + " FROM BatchJobState WHERE JobName = ? FOR UPDATE")) {
+            int index = 1;
+            if (staleAfter != null) {
+                select.setLong(index++, staleAfter.getSeconds());
+            }
+            select.setLong(index++, LEASE_TIMEOUT.getSeconds());
+            select.setString(index, jobName);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                String status = rs.getString("Status");
+                String runId = rs.getString("RunID");
+                if ("RUNNING".equals(status) && rs.getBoolean("Live")) {
+                    String runningOwner = rs.getString("ClaimedBy");
+                    connection.rollback();
+                    throw new IllegalStateException(jobName + " is already running (run " + runId
+                        + ", owner " + runningOwner + "); retry after " + LEASE_TIMEOUT.toMinutes()
+                        + " minutes if that process has stopped");
+                }
+                if (!"COMPLETED".equals(status)) {
+                    if (!rs.getBoolean("Resumable")) {
+                        System.out.println("Discarding checkpoint of stale run " + runId + " for " + jobName);
+                        return start(dataSource, connection, jobName, owner);
+                    }
+                    String lastKey = rs.getString("LastProcessedKey");
+                    try (PreparedStatement update = connection.prepareStatement(
+                            "UPDATE BatchJobState SET Status = 'RUNNING', ClaimedBy = ?, UpdatedAt = CURRENT_TIMESTAMP"
+                            + " WHERE JobName = ?")) {
+                        update.setString(1, owner);
+                        update.setString(2, jobName);
+                        update.executeUpdate();
+                    }
+                    connection.commit();
+                    return new RunLease(dataSource, jobName, runId, lastKey, owner);
+                }
+            }
+        }
+
+        return start(dataSource, connection, jobName, owner);
+    }
+
+    /**
+     * 新規に実行を開始する（既存の状態は置き換える）
+     */
+    private static RunLease start(DataSource dataSource, Connection connection, String jobName, String owner)
+            throws SQLException {
+        String runId = UUID.randomUUID().toString();
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE BatchJobState SET RunID = ?, LastProcessedKey = NULL, ProcessedCount = 0, Status = 'RUNNING',"
+                + " ClaimedBy = ?, StartedAt = CURRENT_TIMESTAMP, UpdatedAt = CURRENT_TIMESTAMP WHERE JobName = ?")) {
+            update.setString(1, runId);
+            update.setString(2, owner);
+            update.setString(3, jobName);
+            update.executeUpdate();
+        }
+        connection.commit();
+        return new RunLease(dataSource, jobName, runId, null, owner);
+    }
+
+    /**
+     * チェックポイントを更新する（コミットは呼び出し側で行う）
+     *
+     * @param processed 今回のチャンクで処理した件数
+     */
+    static void checkpoint(Connection connection, RunLease lease, String lastKey, int processed)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "UPDATE BatchJobState SET LastProcessedKey = ?, ProcessedCount = ProcessedCount + ?,"
+                + " UpdatedAt = CURRENT_TIMESTAMP WHERE " + OWNED_CONDITION)) {
+            ps.setString(1, lastKey);
+            ps.setInt(2, processed);
+            bindOwner(ps, 3, lease);
+            if (ps.executeUpdate() != 1) {
+                throw new IllegalStateException("Job state for " + lease.jobName + " was taken over by another run");
+            }
+        }
+    }
+
+    /**
+     * 処理に失敗したキーを記録する（コミットは呼び出し側で行う、チェックポイントと同一トランザクションで行うこと）
+     *
+     * @param failures キー → エラーメッセージ
+     */
+    static void recordFailures(Connection connection, RunLease lease, Map<String, String> failures)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO BatchJobFailure (JobName, RunID, FailedKey, ErrorMessage) VALUES (?, ?, ?, ?)"
+                + " ON CONFLICT (JobName, RunID, FailedKey)"
+                + " DO UPDATE SET ErrorMessage = EXCLUDED.ErrorMessage, FailedAt = CURRENT_TIMESTAMP")) {
+            for (Map.Entry<String, String> failure : failures.entrySet()) {
+                String message = failure.getValue();
+                if (message != null && message.length() > MAX_ERROR_MESSAGE_LENGTH) {
+                    message = message.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+                }
+                ps.setString(1, lease.jobName);
+                ps.setString(2, lease.runId);
+                ps.setString(3, failure.getKey());
+                ps.setString(4, message);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * ジョブを完了状態にする（コミットは呼び出し側で行う）
+     */
+    static void complete(Connection connection, RunLease lease) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "UPDATE BatchJobState SET Status = 'COMPLETED', UpdatedAt = CURRENT_TIMESTAMP WHERE " + OWNED_CONDITION)) {
+            bindOwner(ps, 1, lease);
+            if (ps.executeUpdate() != 1) {
+                throw new IllegalStateException("Job state for " + lease.jobName + " was taken over by another run");
+            }
+        }
+    }
+
+    /**
+     * ジョブを異常終了状態にする（未コミットの変更はロールバックし、状態の更新はコミットする）
+     *
+     * 異常終了した実行は LEASE_TIMEOUT を待たずに再実行で再開できる。
+     * 状態を更新できない場合はログ出力のみ行う（LEASE_TIMEOUT の経過後に再開できる）。
+     */
+    static void fail(Connection connection, RunLease lease) {
+        try {
+            connection.rollback();
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "UPDATE BatchJobState SET Status = 'FAILED', UpdatedAt = CURRENT_TIMESTAMP WHERE " + OWNED_CONDITION)) {
+                bindOwner(ps, 1, lease);
+                ps.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Failed to record failure of " + lease.jobName + " run " + lease.runId
+                + ": " + e.getMessage());
+        }
+    }
+
+    private static void bindOwner(PreparedStatement ps, int index, RunLease lease) throws SQLException {
+        ps.setString(index, lease.jobName);
+        ps.setString(index + 1, lease.runId);
+        ps.setString(index + 2, lease.owner);
+    }
+}
@@ -1,9 +1,22 @@
 package jp.co.company.sqas.batch;
 
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.naming.InitialContext;
+import javax.sql.DataSource;
 
 /**
  * 是正処置期限リマインダーバッチジョブ
@@ -14,6 +27,20 @@ import java.util.List;
  * 
  * 実行頻度: 日次（毎日深夜実行を推奨）
  * 
+ * 期限超過・期限間近の是正処置を（期限, 是正処置ID）順にチャンク単位で処理し、
+ * チャンクごとにチェックポイントを記録する（ReminderPipeline）。
+ * 宛先ごとのまとめ通知は、再評価とあわせて ReminderDigestBatchJob が送信する。
+ * 
+ * 期限超過・期限間近の判定は実行開始時の日付（実行日）で行い、対象の抽出SQL・ステータス更新・
+ * 通知本文の日数も同じ実行日を基準とする（日付をまたいで実行しても判定がずれない）。
+ * 
+ * 期限超過通知の送信に失敗した是正処置は、期限から OVERDUE_RETRY_DAYS 日間だけ毎回の実行で再送する。
+ * 期間内に送信できなかった是正処置は再送を打ち切り、BatchJobFailure（RunID = OVERDUE_RETRY_EXPIRED）に
+ * 1件ずつ記録してエラー出力に出力する（終了コードは 1 となる）。
+ * 
+ * 通知時刻の到来時には常駐の ResidentReminderService が remindNow() で即時に通知するため、
+ * 本バッチは停止中や更新漏れによる取りこぼしを補う整合性確認として実行する（通知済・更新済の是正処置は除外される）。
+ * 
  * @author Supplier Quality Audit System Development Team
  * @version 1.0
  * @since 2025-11-20
@@ -21,8 +48,31 @@ import java.util.List;
 public class CorrectiveActionReminderBatchJob {
 
     private static final int REMINDER_DAYS_BEFORE = 3; // 3日前に通知
-    private static final String NOTIFICATION_TYPE_REMINDER = "CORRECTIVE_ACTION_REMINDER";
-    private static final String NOTIFICATION_TYPE_OVERDUE = "CORRECTIVE_ACTION_OVERDUE";
+    private static final int RENOTIFY_INTERVAL_DAYS = 1; // 1日以内に期限前通知済の是正処置は再通知しない
+    /** 期限超過通知の送信に失敗した是正処置を再送する期間（期限からの日数）。超過後は再送を打ち切り記録する */
+    static final int OVERDUE_RETRY_DAYS = 7;
+    /** 再送を打ち切った期限超過通知を記録する BatchJobFailure.RunID */
+    static final String OVERDUE_RETRY_EXPIRED_RUN_ID = "OVERDUE_RETRY_EXPIRED";
+    static final String NOTIFICATION_TYPE_REMINDER = "CORRECTIVE_ACTION_REMINDER";
+    static final String NOTIFICATION_TYPE_OVERDUE = "CORRECTIVE_ACTION_OVERDUE";
+    private static final String JOB_NAME = "CORRECTIVE_ACTION_REMINDER";
+    private static final String UPDATED_BY = "CA_REMINDER_BATCH";
+    private static final char KEY_SEPARATOR = ' ';
+    private static final String STATUS_OVERDUE = "OVERDUE";
+
+    /** 対象の読込・通知履歴とステータスの書込先 */
+    private final DataSource dataSource;
+
+    public CorrectiveActionReminderBatchJob() {
+        this(null);
+    }
+
+    /**
+     * @param dataSource 対象の読込・通知履歴とステータスの書込先
+     */
+    public CorrectiveActionReminderBatchJob(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
 
     /**
      * 是正処置情報クラス
@@ -36,10 +86,21 @@ public class CorrectiveActionReminderBatchJob {
         private LocalDate deadline;
         private String status;
         private String createdBy;
+        private LocalDate asOf;
 
         public CorrectiveActionInfo(String correctiveActionId, String auditId, String supplierId,
                                    String companyName, String nonConformityDetails, LocalDate deadline,
                                    String status, String createdBy) {
+            this(correctiveActionId, auditId, supplierId, companyName, nonConformityDetails, deadline,
+                status, createdBy, LocalDate.now());
+        }
+
+        /**
+         * @param asOf 期限超過・期限間近の判定の基準日（対象を抽出した実行日）
+         */
+        public CorrectiveActionInfo(String correctiveActionId, String auditId, String supplierId,
+                                   String companyName, String nonConformityDetails, LocalDate deadline,
+                                   String status, String createdBy, LocalDate asOf) {
             this.correctiveActionId = correctiveActionId;
             this.auditId = auditId;
             this.supplierId = supplierId;
@@ -48,6 +109,7 @@ public class CorrectiveActionReminderBatchJob {
             this.deadline = deadline;
             this.status = status;
             this.createdBy = createdBy;
+            this.asOf = asOf;
         }
 
         public String getCorrectiveActionId() { return correctiveActionId; }
@@ -58,14 +120,15 @@ public class CorrectiveActionReminderBatchJob {
         public LocalDate getDeadline() { return deadline; }
         public String getStatus() { return status; }
         public String getCreatedBy() { return createdBy; }
+        public LocalDate getAsOf() { return asOf; }
 
         public boolean isOverdue() {
-            return deadline.isBefore(LocalDate.now());
+            return deadline.isBefore(asOf);
         }
 
         public boolean isDueSoon(int daysBeforeDue) {
-            LocalDate thresholdDate = LocalDate.now().plusDays(daysBeforeDue);
-            return deadline.isAfter(LocalDate.now()) && 
+            LocalDate thresholdDate = asOf.plusDays(daysBeforeDue);
+            return deadline.isAfter(asOf) && 
                    (deadline.isBefore(thresholdDate) || deadline.isEqual(thresholdDate));
         }
     }
@@ -76,52 +139,52 @@ public class CorrectiveActionReminderBatchJob {
      * @return 処理結果（0: 正常終了, 1: エラー）
      */
     public int execute() {
+        if (dataSource == null) {
+            System.err.println("No data source configured for corrective action reminder batch job");
+            return 1;
+        }
         try {
+            LocalDate runDate = LocalDate.now();
             System.out.println("=== Corrective Action Reminder Batch Job Started ===");
-            System.out.println("Execution Date: " + LocalDate.now());
-
-            int totalNotifications = 0;
-            int successCount = 0;
-            int failureCount = 0;
-
-            List<CorrectiveActionInfo> actionsDueSoon = getCorrectiveActionsDueSoon();
-            System.out.println("Found " + actionsDueSoon.size() + " corrective actions due soon (within 3 days)");
-
-            for (CorrectiveActionInfo action : actionsDueSoon) {
-                try {
-                    sendReminderNotification(action);
-                    successCount++;
-                    totalNotifications++;
-                } catch (Exception e) {
-                    System.err.println("Failed to send reminder for: " + action.getCorrectiveActionId());
-                    System.err.println("Error: " + e.getMessage());
-                    failureCount++;
-                }
+            System.out.println("Execution Date: " + runDate);
+
+            Predicate<CorrectiveActionInfo> alreadyNotified;
+            try (Connection connection = dataSource.getConnection()) {
+                alreadyNotified = loadAlreadyNotified(connection, runDate);
             }
 
-            List<CorrectiveActionInfo> overdueActions = getOverdueCorrectiveActions();
-            System.out.println("Found " + overdueActions.size() + " overdue corrective actions");
-
-            for (CorrectiveActionInfo action : overdueActions) {
-                try {
-                    sendOverdueNotification(action);
-                    updateCorrectiveActionStatus(action.getCorrectiveActionId(), "OVERDUE");
-                    successCount++;
-                    totalNotifications++;
-                } catch (Exception e) {
-                    System.err.println("Failed to send overdue notification for: " + action.getCorrectiveActionId());
-                    System.err.println("Error: " + e.getMessage());
-                    failureCount++;
-                }
+            NotificationDispatcher dispatcher = new NotificationDispatcher(this::sendEmail);
+            NotificationHistoryWriter historyWriter = new NotificationHistoryWriter();
+            ReminderPipeline<CorrectiveActionInfo> pipeline = new ReminderPipeline<>(JOB_NAME, dataSource,
+                ReminderPipeline.DEFAULT_CHUNK_SIZE,
+                (connection, afterKey, limit) -> getCorrectiveActionsToNotify(connection, runDate, afterKey, limit),
+                CorrectiveActionReminderBatchJob::checkpointKeyOf, alreadyNotified,
+                this::sendNotifications, this::updateOverdueStatus);
+
+            ReminderPipeline.PipelineResult result;
+            try {
+                result = pipeline.run(dispatcher, historyWriter);
+            } finally {
+                dispatcher.awaitCompletion();
             }
 
+            int abandonedCount = recordExpiredOverdueRetries(runDate);
+            int successCount = result.getSucceeded();
+            int failureCount = result.getFailed();
+            int historyFailures = historyWriter.getFailedCount();
+
             System.out.println("\n=== Batch Job Summary ===");
-            System.out.println("Total Notifications: " + totalNotifications);
+            System.out.println("Total Corrective Actions: " + result.getProcessed());
+            System.out.println("Skipped (Reminded Recently): " + result.getSkipped());
             System.out.println("Notifications Sent: " + successCount);
             System.out.println("Failures: " + failureCount);
+            System.out.println("History Write Failures: " + historyFailures);
+            System.out.println("Status Updated to OVERDUE: " + result.getUpdated());
+            System.out.println("Overdue Notifications Abandoned: " + abandonedCount);
+            System.out.println("Chunks Committed: " + result.getChunks());
             System.out.println("=== Corrective Action Reminder Batch Job Completed ===");
 
-            return failureCount > 0 ? 1 : 0;
+            return failureCount > 0 || historyFailures > 0 || abandonedCount > 0 ? 1 : 0;
 
         } catch (Exception e) {
             System.err.println("Critical error in batch job execution: " + e.getMessage());
@@ -131,141 +194,273 @@ public class CorrectiveActionReminderBatchJob {
     }
 
     /**
-     * 期限3日前の是正処置を取得
+     * 送信を見送る是正処置の判定を読み込む
+     * （直近1日以内に期限前通知済、または OVERDUE に更新済で期限超過通知済の是正処置。
+     * OVERDUE に更新済の是正処置は、期限超過通知の履歴が無い（送信に失敗した）場合のみ再送する）
+     * 
+     * @param connection DB接続
+     * @param runDate 実行日
+     * @return 送信を見送る是正処置の判定
+     */
+    Predicate<CorrectiveActionInfo> loadAlreadyNotified(Connection connection, LocalDate runDate)
+            throws SQLException {
+        RecentNotificationSet recentlyReminded = new RecentNotificationSet();
+        recentlyReminded.load(connection, NOTIFICATION_TYPE_REMINDER, RENOTIFY_INTERVAL_DAYS, runDate);
+        System.out.println("Recently reminded corrective actions: " + recentlyReminded.size());
+
+        RecentNotificationSet overdueNotified = new RecentNotificationSet();
+        overdueNotified.load(connection, NOTIFICATION_TYPE_OVERDUE, OVERDUE_RETRY_DAYS, runDate);
+
+        return action -> action.isOverdue()
+            ? STATUS_OVERDUE.equals(action.getStatus())
+                && overdueNotified.contains(NOTIFICATION_TYPE_OVERDUE, action.getCorrectiveActionId())
+            : recentlyReminded.contains(NOTIFICATION_TYPE_REMINDER, action.getCorrectiveActionId());
+    }
+
+    /**
+     * 通知対象の是正処置（期限超過・期限3日前、期限超過通知の再送対象）を（期限, 是正処置ID）順に取得
      * 
+     * @param connection DB接続
+     * @param runDate 実行日（期限超過・期限3日前の判定の基準日）
+     * @param afterKey このキー（{@link #checkpointKeyOf}）より後を取得する（先頭から取得する場合は null）
+     * @param limit 最大件数（1回の取得件数）
      * @return 是正処置リスト
      */
-    private List<CorrectiveActionInfo> getCorrectiveActionsDueSoon() {
-        List<CorrectiveActionInfo> actions = new ArrayList<>();
-
-        /*
-        SELECT 
-            ca.CorrectiveActionID,
-            ca.AuditID,
-            s.SupplierID,
-            s.CompanyName,
-            ca.NonConformityDetails,
-            ca.CorrectiveActionDeadline,
-            ca.Status,
-            ca.CreatedBy
-        FROM CorrectiveActionHistory ca
-        JOIN AuditHistory ah ON ca.AuditID = ah.AuditID
-        JOIN SupplierMaster s ON ah.SupplierID = s.SupplierID
-        WHERE ca.Status IN ('OPEN', 'IN_PROGRESS')
-          AND ca.CorrectiveActionDeadline = CURRENT_DATE + INTERVAL '3 days'
-          AND NOT EXISTS (
-              SELECT 1 FROM NotificationHistory n
-              WHERE n.NotificationType = 'CORRECTIVE_ACTION_REMINDER'
-                AND n.TargetID = ca.CorrectiveActionID
-                AND n.SentDate >= CURRENT_DATE - INTERVAL '1 day'
-          )
-        ORDER BY ca.CorrectiveActionDeadline ASC
-        */
-
-        LocalDate threeDaysFromNow = LocalDate.now().plusDays(3);
-        
-        actions.add(new CorrectiveActionInfo(
-            "CA-20251015-002",
-            "AUD-20251015-005",
-            "SUP-20240615-005",
-            "東北製造株式会社",
-            "製造工程における検査工程の欠落",
-            threeDaysFromNow,
-            "IN_PROGRESS",
-            "qa_auditor"
-        ));
+    List<CorrectiveActionInfo> getCorrectiveActionsToNotify(Connection connection, LocalDate runDate,
+                                                            String afterKey, int limit) throws SQLException {
+        List<CorrectiveActionInfo> actions = new ArrayList<>(limit);
+
+        boolean first = afterKey == null;
+        try (PreparedStatement ps = connection.prepareStatement(
+                first ? SELECT_CORRECTIVE_ACTIONS_FIRST : SELECT_CORRECTIVE_ACTIONS_AFTER)) {
+            ps.setFetchSize(limit);
+            ps.setDate(1, Date.valueOf(runDate));
+            int index = 2;
+            if (!first) {
+                int separator = afterKey.indexOf(KEY_SEPARATOR);
+                ps.setDate(index++, Date.valueOf(LocalDate.parse(afterKey.substring(0, separator))));
+                ps.setString(index++, afterKey.substring(separator + 1));
+            }
+            ps.setInt(index, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    actions.add(toCorrectiveActionInfo(rs));
+                }
+            }
+        }
 
         return actions;
     }
 
+    private static CorrectiveActionInfo toCorrectiveActionInfo(ResultSet rs) throws SQLException {
+        return new CorrectiveActionInfo(
+            rs.getString("CorrectiveActionID"),
+            rs.getString("AuditID"),
+            rs.getString("SupplierID"),
+            rs.getString("CompanyName"),
+            rs.getString("NonConformityDetails"),
+            rs.getDate("CorrectiveActionDeadline").toLocalDate(),
+            rs.getString("Status"),
+            rs.getString("CreatedBy"),
+            rs.getDate("RunDate").toLocalDate()
+        );
+    }
+
     /**
-     * 期限超過の是正処置を取得
+     * 是正処置1件の期限前通知・期限超過通知を即時に送信する（常駐の ResidentReminderService から通知時刻の到来時に呼び出す）
+     * 通知対象外（完了・期限の変更・直近1日以内に期限前通知済・期限超過通知済）の場合は送信しない。
+     * 他のノードが同じ対象へ送信中の場合も送信しない（NotificationLocks で送信前にロックを取得する）。
+     * 期限超過の場合はステータスを OVERDUE に更新する。
      * 
-     * @return 是正処置リスト
+     * @param correctiveActionId 是正処置ID
+     * @return 送信した場合 true
      */
-    private List<CorrectiveActionInfo> getOverdueCorrectiveActions() {
-        List<CorrectiveActionInfo> actions = new ArrayList<>();
-
-        /*
-        SELECT 
-            ca.CorrectiveActionID,
-            ca.AuditID,
-            s.SupplierID,
-            s.CompanyName,
-            ca.NonConformityDetails,
-            ca.CorrectiveActionDeadline,
-            ca.Status,
-            ca.CreatedBy
-        FROM CorrectiveActionHistory ca
-        JOIN AuditHistory ah ON ca.AuditID = ah.AuditID
-        JOIN SupplierMaster s ON ah.SupplierID = s.SupplierID
-        WHERE ca.Status IN ('OPEN', 'IN_PROGRESS')
-          AND ca.CorrectiveActionDeadline < CURRENT_DATE
-        ORDER BY ca.CorrectiveActionDeadline ASC
-        */
-
-        actions.add(new CorrectiveActionInfo(
-            "CA-20251101-003",
-            "AUD-20251101-003",
-            "SUP-20231201-003",
-            "関西精密株式会社",
-            "校正記録の一部に記入漏れがある",
-            LocalDate.of(2025, 12, 1),
-            "OPEN",
-            "qa_auditor"
-        ));
+    boolean remindNow(String correctiveActionId) throws SQLException, InterruptedException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            if (!NotificationLocks.tryLock(connection, JOB_NAME, correctiveActionId)) {
+                connection.rollback();
+                System.out.println("Reminder for corrective action " + correctiveActionId + " is being sent by another node");
+                return false;
+            }
+            List<CorrectiveActionInfo> actions = new ArrayList<>(1);
+            try (PreparedStatement ps = connection.prepareStatement(SELECT_CORRECTIVE_ACTION_NOW)) {
+                ps.setDate(1, Date.valueOf(LocalDate.now()));
+                ps.setString(2, correctiveActionId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        actions.add(toCorrectiveActionInfo(rs));
+                    }
+                }
+            }
+            if (actions.isEmpty()) {
+                connection.rollback();
+                return false;
+            }
 
-        return actions;
+            NotificationDispatcher dispatcher = new NotificationDispatcher(this::sendEmail);
+            NotificationHistoryWriter historyWriter = new NotificationHistoryWriter();
+            Set<String> failedIds;
+            try {
+                failedIds = sendNotifications(actions, dispatcher, historyWriter);
+            } finally {
+                dispatcher.awaitCompletion();
+            }
+            try {
+                historyWriter.flushTo(connection);
+                updateOverdueStatus(connection, actions);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+            return failedIds.isEmpty();
+        }
     }
 
     /**
-     * 期限前リマインダー通知を送信
+     * チェックポイントのキー（期限 yyyy-MM-dd と是正処置IDの連結。文字列の順序が読込順と一致する）
      * 
      * @param action 是正処置情報
+     * @return キー
      */
-    private void sendReminderNotification(CorrectiveActionInfo action) {
+    static String checkpointKeyOf(CorrectiveActionInfo action) {
+        return action.getDeadline().toString() + KEY_SEPARATOR + action.getCorrectiveActionId();
+    }
+
+    /**
+     * チャンク内の是正処置へ通知を送信する（期限超過は期限超過通知、それ以外は期限前リマインダー）
+     * 
+     * @param actions 是正処置情報（チャンク）
+     * @param dispatcher 通知メール並列送信
+     * @param historyWriter 通知履歴一括書込
+     * @return 送信に失敗した是正処置ID
+     */
+    private Set<String> sendNotifications(List<CorrectiveActionInfo> actions, NotificationDispatcher dispatcher,
+                                          NotificationHistoryWriter historyWriter) throws InterruptedException {
+        int overdueCount = 0;
+        for (CorrectiveActionInfo action : actions) {
+            if (action.isOverdue()) {
+                overdueCount++;
+                sendOverdueNotification(dispatcher, historyWriter, action);
+            } else {
+                sendReminderNotification(dispatcher, historyWriter, action);
+            }
+        }
+        System.out.println("Found " + (actions.size() - overdueCount) + " corrective actions due soon (within 3 days)");
+        System.out.println("Found " + overdueCount + " overdue corrective actions");
+
+        Set<String> failedIds = new LinkedHashSet<>(dispatcher.drain());
+        for (CorrectiveActionInfo action : actions) {
+            if (failedIds.contains(action.getCorrectiveActionId())) {
+                System.err.println((action.isOverdue() ? "Failed to send overdue notification for: "
+                    : "Failed to send reminder for: ") + action.getCorrectiveActionId());
+            }
+        }
+        return failedIds;
+    }
+
+    /**
+     * チャンク内の期限超過の是正処置のステータスを OVERDUE に更新する（チャンクのコミット前に実行）
+     * ステータスは期限に基づいて更新し、通知の送信結果には依存しない
+     * （送信に失敗した期限超過通知は、通知履歴が無い OVERDUE の是正処置として次回の実行で再送する）。
+     * 
+     * @param connection DB接続（自動コミット無効）
+     * @param actions 是正処置情報（チャンク）
+     * @return OVERDUE に更新した件数
+     */
+    int updateOverdueStatus(Connection connection, List<CorrectiveActionInfo> actions) throws SQLException {
+        List<String> overdueIds = new ArrayList<>();
+        LocalDate runDate = null;
+        for (CorrectiveActionInfo action : actions) {
+            if (action.isOverdue() && !STATUS_OVERDUE.equals(action.getStatus())) {
+                overdueIds.add(action.getCorrectiveActionId());
+                runDate = action.getAsOf();
+            }
+        }
+        if (overdueIds.isEmpty()) {
+            return 0;
+        }
+        int updated = markOverdue(connection, overdueIds, runDate);
+        System.out.println("Updated status to OVERDUE: " + updated + " of " + overdueIds.size());
+        return updated;
+    }
+
+    /**
+     * 期限前リマインダー通知の送信を登録
+     * 
+     * @param dispatcher 通知メール並列送信
+     * @param historyWriter 通知履歴一括書込
+     * @param action 是正処置情報
+     */
+    private void sendReminderNotification(NotificationDispatcher dispatcher,
+                                        NotificationHistoryWriter historyWriter,
+                                        CorrectiveActionInfo action)
+            throws InterruptedException {
         String subject = "【注意】是正処置期限のお知らせ";
         String messageBody = createReminderMessage(action);
 
         List<String> recipients = getNotificationRecipients(action);
 
-        for (String recipientEmail : recipients) {
-            sendEmail(recipientEmail, subject, messageBody);
-            saveNotificationHistory(
+        dispatcher.submit(action.getCorrectiveActionId(), recipients, subject, messageBody,
+            recipientEmail -> saveNotificationHistory(
+                historyWriter,
                 action.getCorrectiveActionId(),
                 NOTIFICATION_TYPE_REMINDER,
                 recipientEmail,
                 subject,
                 messageBody
-            );
-        }
-
-        System.out.println("Reminder notification sent for: " + action.getCorrectiveActionId());
+            ),
+            () -> System.out.println("Reminder notification sent for: " + action.getCorrectiveActionId()));
     }
 
     /**
-     * 期限超過通知を送信
+     * 期限超過通知の送信を登録
      * 
+     * @param dispatcher 通知メール並列送信
+     * @param historyWriter 通知履歴一括書込
      * @param action 是正処置情報
      */
-    private void sendOverdueNotification(CorrectiveActionInfo action) {
+    private void sendOverdueNotification(NotificationDispatcher dispatcher,
+                                        NotificationHistoryWriter historyWriter,
+                                        CorrectiveActionInfo action)
+            throws InterruptedException {
         String subject = "【緊急】是正処置期限超過のお知らせ";
         String messageBody = createOverdueMessage(action);
 
         List<String> recipients = getNotificationRecipients(action);
 
-        for (String recipientEmail : recipients) {
-            sendEmail(recipientEmail, subject, messageBody);
-            saveNotificationHistory(
+        dispatcher.submit(action.getCorrectiveActionId(), recipients, subject, messageBody,
+            recipientEmail -> saveNotificationHistory(
+                historyWriter,
                 action.getCorrectiveActionId(),
                 NOTIFICATION_TYPE_OVERDUE,
                 recipientEmail,
                 subject,
                 messageBody
-            );
-        }
+            ),
+            () -> System.out.println("Overdue notification sent for: " + action.getCorrectiveActionId()));
+    }
 
-        System.out.println("Overdue notification sent for: " + action.getCorrectiveActionId());
+    /**
+     * 是正処置を全宛先のまとめ通知に追加（期限超過は期限超過通知、それ以外は期限前リマインダーとして記録する）
+     * 
+     * @param digest 宛先別リマインダーまとめ
+     * @param action 是正処置情報
+     */
+    void addToDigest(ReminderDigest digest, CorrectiveActionInfo action) {
+        boolean overdue = action.isOverdue();
+        ReminderDigest.Item item = new ReminderDigest.Item(
+            overdue ? ReminderDigest.Category.OVERDUE : ReminderDigest.Category.DUE_SOON,
+            overdue ? NOTIFICATION_TYPE_OVERDUE : NOTIFICATION_TYPE_REMINDER,
+            action.getCorrectiveActionId(),
+            action.getCompanyName(),
+            action.getDeadline(),
+            action.getNonConformityDetails()
+        );
+        for (String recipientEmail : getNotificationRecipients(action)) {
+            digest.add(recipientEmail, item);
+        }
     }
 
     /**
@@ -274,7 +469,7 @@ public class CorrectiveActionReminderBatchJob {
      * @param action 是正処置情報
      * @return メッセージ本文
      */
-    private String createReminderMessage(CorrectiveActionInfo action) {
+    String createReminderMessage(CorrectiveActionInfo action) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy年MM月dd日");
         
         StringBuilder message = new StringBuilder();
@@ -287,7 +482,7 @@ public class CorrectiveActionReminderBatchJob {
         message.append("是正期限: ").append(action.getDeadline().format(formatter)).append("\n");
         message.append("現在のステータス: ").append(action.getStatus()).append("\n\n");
         
-        long daysUntilDeadline = java.time.temporal.ChronoUnit.DAYS.between(LocalDate.now(), action.getDeadline());
+        long daysUntilDeadline = java.time.temporal.ChronoUnit.DAYS.between(action.getAsOf(), action.getDeadline());
         message.append("※ 期限まで残り ").append(daysUntilDeadline).append(" 日です。\n\n");
         
         message.append("【対応事項】\n");
@@ -310,7 +505,7 @@ public class CorrectiveActionReminderBatchJob {
      * @param action 是正処置情報
      * @return メッセージ本文
      */
-    private String createOverdueMessage(CorrectiveActionInfo action) {
+    String createOverdueMessage(CorrectiveActionInfo action) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy年MM月dd日");
         
         StringBuilder message = new StringBuilder();
@@ -323,7 +518,7 @@ public class CorrectiveActionReminderBatchJob {
         message.append("是正期限: ").append(action.getDeadline().format(formatter)).append(" ★期限超過★\n");
         message.append("現在のステータス: OVERDUE（期限超過）\n\n");
         
-        long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(action.getDeadline(), LocalDate.now());
+        long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(action.getDeadline(), action.getAsOf());
         message.append("※ 期限超過から ").append(daysOverdue).append(" 日経過しています。\n\n");
         
         message.append("【緊急対応事項】\n");
@@ -359,19 +554,54 @@ public class CorrectiveActionReminderBatchJob {
     }
 
     /**
-     * 是正処置のステータスを更新
+     * 是正処置のステータスを1回の UPDATE で OVERDUE に更新（コミットは呼び出し側で行う）
+     * 未完了（OPEN / IN_PROGRESS）かつ期限超過の行のみを更新するため、再実行しても結果は変わらない。
      * 
-     * @param correctiveActionId 是正処置ID
-     * @param newStatus 新しいステータス
+     * @param connection DB接続
+     * @param correctiveActionIds 是正処置ID
+     * @param runDate 実行日（この日より前が期限の行のみを更新する）
+     * @return 実際に更新した件数（更新済・完了済・期限変更済の行は含まない）
      */
-    private void updateCorrectiveActionStatus(String correctiveActionId, String newStatus) {
-        /*
-        UPDATE CorrectiveActionHistory
-        SET Status = newStatus, UpdatedAt = CURRENT_TIMESTAMP
-        WHERE CorrectiveActionID = correctiveActionId
-        */
-        
-        System.out.println("Updated status to " + newStatus + " for: " + correctiveActionId);
+    private int markOverdue(Connection connection, List<String> correctiveActionIds, LocalDate runDate)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(UPDATE_STATUS_OVERDUE)) {
+            ps.setString(1, UPDATED_BY);
+            ps.setArray(2, connection.createArrayOf("varchar", correctiveActionIds.toArray()));
+            ps.setDate(3, Date.valueOf(runDate));
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * 再送期間（期限から OVERDUE_RETRY_DAYS 日）を過ぎても期限超過通知を送信できなかった是正処置を
+     * BatchJobFailure に記録し、再送の打ち切りをエラー出力に出力する（記録済の是正処置は再度出力しない）
+     * 
+     * @param runDate 実行日
+     * @return 今回の実行で新たに再送を打ち切った件数
+     */
+    int recordExpiredOverdueRetries(LocalDate runDate) throws SQLException {
+        Map<String, String> expired = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_EXPIRED_OVERDUE_RETRIES)) {
+                ps.setString(1, JOB_NAME);
+                ps.setString(2, OVERDUE_RETRY_EXPIRED_RUN_ID);
+                ps.setDate(3, Date.valueOf(runDate));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        expired.put(rs.getString("FailedKey"), rs.getString("ErrorMessage"));
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        for (Map.Entry<String, String> entry : expired.entrySet()) {
+            System.err.println("Gave up overdue notification for: " + entry.getKey() + " (" + entry.getValue() + ")");
+        }
+        return expired.size();
     }
 
     /**
@@ -387,26 +617,121 @@ public class CorrectiveActionReminderBatchJob {
     }
 
     /**
-     * 通知履歴をDBに保存
+     * 通知履歴をDBに保存（チャンクのコミット時に書き込む）
      * 
+     * @param historyWriter 通知履歴一括書込
      * @param targetId 対象ID（是正処置ID）
      * @param notificationType 通知種別
      * @param recipientEmail 送信先メールアドレス
      * @param subject 件名
      * @param messageBody 本文
      */
-    private void saveNotificationHistory(String targetId, String notificationType,
-                                        String recipientEmail, String subject, String messageBody) {
-        System.out.println("Notification history saved for target: " + targetId);
+    private void saveNotificationHistory(NotificationHistoryWriter historyWriter, String targetId,
+                                        String notificationType, String recipientEmail,
+                                        String subject, String messageBody) {
+        historyWriter.add(notificationType, targetId, recipientEmail, subject, messageBody);
     }
 
+    /*
+     * 通知対象（未完了で期限超過・期限3日前、および期限から7日以内の OVERDUE）を
+     * （期限, 是正処置ID）のキーセットで取得する（チャンクの読込）。
+     * 最初のパラメータは実行日（RunDate）。CURRENT_DATE は使用せず、読み込んだ RunDate を判定の基準日とする。
+     * 部分インデックス IDX_CorrectiveAction_Open_Deadline_ID を範囲検索し、キーより後の limit 件のみを読む。
+     * 直近に通知済か（OVERDUE の場合は期限超過通知済か）の判定は RecentNotificationSet で行う。
+     */
+    private static final String SELECT_CORRECTIVE_ACTIONS =
+        "SELECT ca.CorrectiveActionID, ca.AuditID, s.SupplierID, s.CompanyName, ca.NonConformityDetails,"
+        + " ca.CorrectiveActionDeadline, ca.Status, ca.CreatedBy, run.RunDate "
+        + "FROM (SELECT CAST(? AS DATE) AS RunDate) run "
+        + "CROSS JOIN CorrectiveActionHistory ca "
+        + "JOIN AuditHistory ah ON ca.AuditID = ah.AuditID "
+        + "JOIN SupplierMaster s ON ah.SupplierID = s.SupplierID "
+        + "WHERE ((ca.Status IN ('OPEN', 'IN_PROGRESS')"
+        + " AND (ca.CorrectiveActionDeadline < run.RunDate"
+        + " OR ca.CorrectiveActionDeadline = run.RunDate + " + REMINDER_DAYS_BEFORE + "))"
+        + " OR (ca.Status = '" + STATUS_OVERDUE + "'"
+        + " AND ca.CorrectiveActionDeadline >= run.RunDate - " + OVERDUE_RETRY_DAYS + ")) ";
+
+    /*
+     * 是正処置1件が通知対象かを確認して取得する（即時通知）。1件のみのため通知履歴は副問合せで確認する。
+     */
+    private static final String SELECT_CORRECTIVE_ACTION_NOW =
+        SELECT_CORRECTIVE_ACTIONS
+        + "AND ca.CorrectiveActionID = ? "
+        + "AND CASE WHEN ca.Status = '" + STATUS_OVERDUE + "' THEN NOT EXISTS ("
+        + "  SELECT 1 FROM NotificationHistory n"
+        + "  WHERE n.NotificationType = '" + NOTIFICATION_TYPE_OVERDUE + "'"
+        + "  AND n.TargetID = ca.CorrectiveActionID)"
+        + " AND NOT EXISTS ("
+        + "  SELECT 1 FROM NotificationHistoryTarget t"
+        + "  WHERE t.NotificationType = '" + NOTIFICATION_TYPE_OVERDUE + "'"
+        + "  AND t.TargetID = ca.CorrectiveActionID) "
+        + "ELSE (ca.CorrectiveActionDeadline < run.RunDate"
+        + " OR (NOT EXISTS ("
+        + "  SELECT 1 FROM NotificationHistory n"
+        + "  WHERE n.NotificationType = '" + NOTIFICATION_TYPE_REMINDER + "'"
+        + "  AND n.TargetID = ca.CorrectiveActionID"
+        + "  AND n.SentDate >= run.RunDate - " + RENOTIFY_INTERVAL_DAYS + ")"
+        + " AND NOT EXISTS ("
+        + "  SELECT 1 FROM NotificationHistoryTarget t"
+        + "  JOIN NotificationHistory n ON n.NotificationID = t.NotificationID"
+        + "  WHERE t.NotificationType = '" + NOTIFICATION_TYPE_REMINDER + "'"
+        + "  AND t.TargetID = ca.CorrectiveActionID"
+        + "  AND n.SentDate >= run.RunDate - " + RENOTIFY_INTERVAL_DAYS + "))) END";
+
+    private static final String ORDER_BY_KEY_LIMIT =
+        "ORDER BY ca.CorrectiveActionDeadline, ca.CorrectiveActionID "
+        + "LIMIT ?";
+
+    private static final String SELECT_CORRECTIVE_ACTIONS_FIRST =
+        SELECT_CORRECTIVE_ACTIONS + ORDER_BY_KEY_LIMIT;
+
+    private static final String SELECT_CORRECTIVE_ACTIONS_AFTER =
+        SELECT_CORRECTIVE_ACTIONS
+        + "AND (ca.CorrectiveActionDeadline, ca.CorrectiveActionID) > (?, ?) "
+        + ORDER_BY_KEY_LIMIT;
+
+    /*
+     * チャンク内の期限超過の是正処置を一括で OVERDUE に更新する（未完了かつ期限超過の行のみ、冪等）。
+     */
+    private static final String UPDATE_STATUS_OVERDUE =
+        "UPDATE CorrectiveActionHistory "
+        + "SET Status = 'OVERDUE', UpdatedAt = CURRENT_TIMESTAMP, UpdatedBy = ? "
+        + "WHERE CorrectiveActionID = ANY (?) "
+        + "AND Status IN ('OPEN', 'IN_PROGRESS') "
+        + "AND CorrectiveActionDeadline < ?";
+
+    /*
+     * 再送期間を過ぎても期限超過通知の履歴（個別通知・まとめ通知）が無い OVERDUE の是正処置を
+     * BatchJobFailure に記録する。記録済の是正処置は主キーの重複で除外し、新たに記録した行のみを返す。
+     */
+    private static final String INSERT_EXPIRED_OVERDUE_RETRIES =
+        "INSERT INTO BatchJobFailure (JobName, RunID, FailedKey, ErrorMessage) "
+        + "SELECT ?, ?, ca.CorrectiveActionID,"
+        + " 'Overdue notification not sent within " + OVERDUE_RETRY_DAYS + " days after deadline '"
+        + " || TO_CHAR(ca.CorrectiveActionDeadline, 'YYYY-MM-DD') "
+        + "FROM CorrectiveActionHistory ca "
+        + "WHERE ca.Status = '" + STATUS_OVERDUE + "' "
+        + "AND ca.CorrectiveActionDeadline < CAST(? AS DATE) - " + OVERDUE_RETRY_DAYS + " "
+        + "AND NOT EXISTS ("
+        + " SELECT 1 FROM NotificationHistory n"
+        + " WHERE n.NotificationType = '" + NOTIFICATION_TYPE_OVERDUE + "'"
+        + " AND n.TargetID = ca.CorrectiveActionID) "
+        + "AND NOT EXISTS ("
+        + " SELECT 1 FROM NotificationHistoryTarget t"
+        + " WHERE t.NotificationType = '" + NOTIFICATION_TYPE_OVERDUE + "'"
+        + " AND t.TargetID = ca.CorrectiveActionID) "
+        + "ON CONFLICT (JobName, RunID, FailedKey) DO NOTHING "
+        + "RETURNING FailedKey, ErrorMessage";
+
     /**
      * バッチジョブのエントリーポイント
      * 
-     * @param args コマンドライン引数
+     * @param args コマンドライン引数（未使用。宛先ごとのまとめ通知は ReminderDigestBatchJob を実行する）
      */
-    public static void main(String[] args) {
-        CorrectiveActionReminderBatchJob job = new CorrectiveActionReminderBatchJob();
+    public static void main(String[] args) throws Exception {
+        DataSource dataSource = (DataSource) new InitialContext().lookup("java:comp/env/jdbc/sqas");
+        CorrectiveActionReminderBatchJob job = new CorrectiveActionReminderBatchJob(dataSource);
         int exitCode = job.execute();
         System.exit(exitCode);
     }
@@ -0,0 +1,328 @@
+package jp.co.company.sqas.batch;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 通知メール並列送信
+ * Notification Dispatcher
+ *
+ * リマインダーバッチの通知メールを並列に送信する。メールサーバーの応答待ちの間も他の送信を進めるため、
+ * 実行環境が仮想スレッドに対応している場合（Java 21 以降）は1送信1仮想スレッドで実行し、
+ * 対応していない場合は maxInFlight 本の固定スレッドプールで実行する。
+ *
+ * 送信は次の3つで制限する。
+ * <ul>
+ *   <li>送信レート: トークンバケット（毎秒 ratePerSecond 通、最大 burst 通まで連続送信可）</li>
+ *   <li>宛先ドメインごとの同時送信数: maxPerDomain（社内メールサーバーへの同時接続数の上限）</li>
+ *   <li>全体の同時送信数: maxInFlight（上限に達している間は submit を待たせる）</li>
+ * </ul>
+ *
+ * 通知対象（購買先・是正処置）ごとに全宛先の送信が成功した場合を成功、1件でも失敗した場合を失敗として集計する。
+ * 1インスタンスは1回のバッチ実行でのみ使用すること（submit → awaitCompletion）。
+ * チャンク単位で処理する場合は、チャンクごとに submit → drain を繰り返した後に awaitCompletion を呼び出す。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class NotificationDispatcher {
+
+    static final double DEFAULT_RATE_PER_SECOND = 20.0;
+    static final int DEFAULT_BURST = 20;
+    static final int DEFAULT_MAX_PER_DOMAIN = 4;
+    static final int DEFAULT_MAX_IN_FLIGHT = 256;
+
+    /**
+     * メール送信処理
+     */
+    interface EmailSender {
+        void send(String recipientEmail, String subject, String messageBody) throws Exception;
+    }
+
+    /**
+     * 1宛先への送信が成功した後の処理（通知履歴の保存など）
+     */
+    interface SentCallback {
+        void sent(String recipientEmail) throws Exception;
+    }
+
+    /**
+     * 通知対象の処理（全宛先への送信成功後のステータス更新など）
+     */
+    interface TargetCallback {
+        void completed() throws Exception;
+    }
+
+    /**
+     * 送信結果の集計
+     */
+    static final class DispatchSummary {
+        private final int targetsSucceeded;
+        private final int targetsFailed;
+        private final int emailsSent;
+        private final int emailsFailed;
+        private final List<String> failedTargets;
+
+        DispatchSummary(int targetsSucceeded, int targetsFailed, int emailsSent, int emailsFailed,
+                        List<String> failedTargets) {
+            this.targetsSucceeded = targetsSucceeded;
+            this.targetsFailed = targetsFailed;
+            this.emailsSent = emailsSent;
+            this.emailsFailed = emailsFailed;
+            this.failedTargets = Collections.unmodifiableList(failedTargets);
+        }
+
+        int getTargetsSucceeded() { return targetsSucceeded; }
+        int getTargetsFailed() { return targetsFailed; }
+        int getEmailsSent() { return emailsSent; }
+        int getEmailsFailed() { return emailsFailed; }
+        List<String> getFailedTargets() { return failedTargets; }
+    }
+
+    /**
+     * トークンバケット
+     *
+     * 取得時にトークンが不足している場合は、補充されるまでの待ち時間を予約して返す（待機はロック外で行う）。
+     */
+    static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double ratePerSecond, int burst) {
+            if (ratePerSecond <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("Rate and burst must be positive");
+            }
+            this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = burst;
+            this.tokens = burst;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * トークンを1つ予約する
+         *
+         * @return 送信可能になるまでの待ち時間（ナノ秒、0 の場合は即時）
+         */
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos = reserve();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+
+    private final EmailSender sender;
+    private final TokenBucket rateLimiter;
+    private final int maxPerDomain;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final ConcurrentHashMap<String, Semaphore> domainPermits = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    private final AtomicInteger targetsSucceeded = new AtomicInteger();
+    private final AtomicInteger targetsFailed = new AtomicInteger();
+    private final AtomicInteger emailsSent = new AtomicInteger();
+    private final AtomicInteger emailsFailed = new AtomicInteger();
+    private final List<String> failedTargets = Collections.synchronizedList(new ArrayList<>());
+
+    /** 送信が完了していない通知対象の数と、前回の drain 以降に失敗した通知対象（this で保護） */
+    private int pendingTargets;
+    private List<String> failedSinceDrain = new ArrayList<>();
+
+    NotificationDispatcher(EmailSender sender) {
+        this(sender, DEFAULT_RATE_PER_SECOND, DEFAULT_BURST, DEFAULT_MAX_PER_DOMAIN, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param sender メール送信処理（複数スレッドから同時に呼び出される）
+     * @param ratePerSecond 毎秒の最大送信数
+     * @param burst 連続送信できる最大数
+     * @param maxPerDomain 宛先ドメインごとの同時送信数の上限
+     * @param maxInFlight 全体の同時送信数（送信待ちを含む）の上限
+     */
+    NotificationDispatcher(EmailSender sender, double ratePerSecond, int burst, int maxPerDomain, int maxInFlight) {
+        if (maxPerDomain <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Concurrency limits must be positive");
+        }
+        this.sender = sender;
+        this.rateLimiter = new TokenBucket(ratePerSecond, burst);
+        this.maxPerDomain = maxPerDomain;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.executor = createExecutor(maxInFlight);
+    }
+
+    /**
+     * 通知対象の全宛先への送信を登録する（全体の同時送信数が上限の間は待機する）
+     *
+     * @param targetId 通知対象ID（購買先ID・是正処置ID）
+     * @param recipients 宛先
+     * @param subject 件名
+     * @param messageBody 本文
+     * @param onSent 1宛先への送信成功後の処理
+     * @param onTargetCompleted 全宛先への送信成功後の処理（null 可）
+     */
+    void submit(String targetId, List<String> recipients, String subject, String messageBody,
+                SentCallback onSent, TargetCallback onTargetCompleted) throws InterruptedException {
+        synchronized (this) {
+            pendingTargets++;
+        }
+        if (recipients.isEmpty()) {
+            completeTarget(targetId, false, onTargetCompleted);
+            return;
+        }
+        AtomicInteger remaining = new AtomicInteger(recipients.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        int submitted = 0;
+        try {
+            for (String recipient : recipients) {
+                inFlight.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            send(targetId, recipient, subject, messageBody, onSent);
+                        } catch (Exception e) {
+                            failed.set(true);
+                            emailsFailed.incrementAndGet();
+                            if (e instanceof InterruptedException) {
+                                Thread.currentThread().interrupt();
+                            }
+                            System.err.println("Failed to send notification to " + recipient + " for: " + targetId);
+                            System.err.println("Error: " + e.getMessage());
+                        } finally {
+                            inFlight.release();
+                            if (remaining.decrementAndGet() == 0) {
+                                completeTarget(targetId, failed.get(), onTargetCompleted);
+                            }
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                submitted++;
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            // 登録できなかった宛先は送信失敗として対象を完了させる（drain が完了しない対象を待ち続けないため）
+            failed.set(true);
+            if (remaining.addAndGet(submitted - recipients.size()) == 0) {
+                completeTarget(targetId, true, onTargetCompleted);
+            }
+            throw e;
+        }
+    }
+
+    private void send(String targetId, String recipient, String subject, String messageBody, SentCallback onSent)
+            throws Exception {
+        Semaphore domain = domainPermits.computeIfAbsent(domainOf(recipient), d -> new Semaphore(maxPerDomain));
+        domain.acquire();
+        try {
+            rateLimiter.acquire();
+            sender.send(recipient, subject, messageBody);
+        } finally {
+            domain.release();
+        }
+        emailsSent.incrementAndGet();
+        onSent.sent(recipient);
+    }
+
+    private void completeTarget(String targetId, boolean failed, TargetCallback onTargetCompleted) {
+        if (!failed && onTargetCompleted != null) {
+            try {
+                onTargetCompleted.completed();
+            } catch (Exception e) {
+                System.err.println("Failed to complete notification for: " + targetId);
+                System.err.println("Error: " + e.getMessage());
+                failed = true;
+            }
+        }
+        if (failed) {
+            targetsFailed.incrementAndGet();
+            failedTargets.add(targetId);
+        } else {
+            targetsSucceeded.incrementAndGet();
+        }
+        synchronized (this) {
+            if (failed) {
+                failedSinceDrain.add(targetId);
+            }
+            if (--pendingTargets == 0) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 登録済の全送信の完了を待つ（実行基盤は停止しないため、続けて submit できる）
+     *
+     * @return 前回の drain 以降に失敗した通知対象ID
+     */
+    synchronized List<String> drain() throws InterruptedException {
+        while (pendingTargets > 0) {
+            wait();
+        }
+        List<String> failed = failedSinceDrain;
+        failedSinceDrain = new ArrayList<>();
+        return failed;
+    }
+
+    /**
+     * 登録済の全送信の完了を待つ
+     *
+     * @return 送信結果の集計
+     */
+    DispatchSummary awaitCompletion() throws InterruptedException {
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            System.out.println("Waiting for " + (maxInFlight - inFlight.availablePermits())
+                + " notification(s) to finish... (sent so far: " + emailsSent.get() + ")");
+        }
+        synchronized (failedTargets) {
+            return new DispatchSummary(targetsSucceeded.get(), targetsFailed.get(), emailsSent.get(),
+                emailsFailed.get(), new ArrayList<>(failedTargets));
+        }
+    }
+
+    static String domainOf(String email) {
+        int at = email.lastIndexOf('@');
+        return at >= 0 ? email.substring(at + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * 仮想スレッドの実行基盤を作成する（未対応の実行環境では固定スレッドプール）
+     */
+    private static ExecutorService createExecutor(int maxInFlight) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(maxInFlight, runnable -> {
+                Thread thread = new Thread(runnable, "notification-sender-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
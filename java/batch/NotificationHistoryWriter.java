@@ -0,0 +1,400 @@
+package jp.co.company.sqas.batch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * 通知履歴一括書込
+ * Notification History Writer
+ *
+ * 通知履歴を蓄積し、addBatch / executeBatch で NotificationHistory テーブルへ書き込む。
+ * NotificationID は NotificationID_Seq から INSERT 文の中で採番する（NTF-yyyyMMdd-nnnnnnn）。
+ * まとめ通知（ReminderDigest）の履歴は宛先ごとに1件とし、含めた全対象を NotificationHistoryTarget に記録する。
+ *
+ * 書込方法は次の2つ。
+ * <ul>
+ *   <li>DataSource を指定した場合: batchSize 件に達した時点または flushIntervalMillis ごとに、
+ *       1回の書込を1トランザクションとして書き込む</li>
+ *   <li>DataSource を指定しない場合: flushTo で呼び出し側のトランザクション内に書き込む
+ *       （チャンクのチェックポイントと同時にコミットする）</li>
+ * </ul>
+ *
+ * 一括書込が失敗した場合はその回の全件をセーブポイントまでロールバックし、1件ずつ書き込み直す。
+ * 書き直しでも失敗した履歴はエラー出力に記録し、失敗件数に計上する。
+ * flushTo の場合は失敗した履歴を除外せず SQLException を送出する（呼び出し側はチャンク全体をロールバックし、
+ * 通知履歴のない対象のチェックポイントをコミットしない）。
+ *
+ * 複数スレッドから同時に add を呼び出してよい（通知メール並列送信の送信完了処理から呼び出される）。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class NotificationHistoryWriter implements AutoCloseable {
+
+    static final int DEFAULT_BATCH_SIZE = 500;
+    static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+    /** RecipientUserID の桁数 */
+    private static final int MAX_USER_ID_LENGTH = 50;
+
+    private static final String NOTIFICATION_ID =
+        "'NTF-' || TO_CHAR(CURRENT_DATE, 'YYYYMMDD') || '-'"
+        + " || LPAD(CAST(nextval('NotificationID_Seq') AS VARCHAR), 7, '0')";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO NotificationHistory (NotificationID, NotificationType, TargetID,"
+        + " RecipientUserID, RecipientEmail, Subject, MessageBody, Status)"
+        + " VALUES (" + NOTIFICATION_ID + ", ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_DIGEST_SQL =
+        "INSERT INTO NotificationHistory (NotificationID, NotificationType, TargetID,"
+        + " RecipientUserID, RecipientEmail, Subject, MessageBody, Status)"
+        + " VALUES (" + NOTIFICATION_ID + ", '" + ReminderDigest.NOTIFICATION_TYPE + "', NULL, ?, ?, ?, ?, 'SENT')"
+        + " RETURNING NotificationID";
+
+    private static final String INSERT_DIGEST_TARGET_SQL =
+        "INSERT INTO NotificationHistoryTarget (NotificationID, NotificationType, TargetID) VALUES (?, ?, ?)";
+
+    /**
+     * 通知履歴1件
+     */
+    static final class HistoryRow {
+        private final String notificationType;
+        private final String targetId;
+        private final String recipientEmail;
+        private final String subject;
+        private final String messageBody;
+        private final String status;
+        /** まとめ通知に含めた対象（まとめ通知以外は null） */
+        private final List<ReminderDigest.Item> digestItems;
+
+        HistoryRow(String notificationType, String targetId, String recipientEmail,
+                   String subject, String messageBody, String status, List<ReminderDigest.Item> digestItems) {
+            this.notificationType = notificationType;
+            this.targetId = targetId;
+            this.recipientEmail = recipientEmail;
+            this.subject = subject;
+            this.messageBody = messageBody;
+            this.status = status;
+            this.digestItems = digestItems;
+        }
+    }
+
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+
+    /** 未書込の履歴（this で保護） */
+    private List<HistoryRow> buffer = new ArrayList<>();
+
+    /** 書込処理の直列化用（書込中も add はブロックしない） */
+    private final Object writeLock = new Object();
+
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger batches = new AtomicInteger();
+
+    /**
+     * 呼び出し側のトランザクション内に書き込む（flushTo）
+     */
+    NotificationHistoryWriter() {
+        this.dataSource = null;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        this.flusher = null;
+    }
+
+    NotificationHistoryWriter(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param dataSource 書込先
+     * @param batchSize 1回の書込件数
+     * @param flushIntervalMillis 件数に達していない履歴を書き込む間隔（ミリ秒）
+     */
+    NotificationHistoryWriter(DataSource dataSource, int batchSize, long flushIntervalMillis) {
+        if (batchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Batch size and flush interval must be positive");
+        }
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-history-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly,
+            flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 送信済の通知履歴を追加する
+     *
+     * @param notificationType 通知種別
+     * @param targetId 対象ID
+     * @param recipientEmail 送信先メールアドレス
+     * @param subject 件名
+     * @param messageBody 本文
+     */
+    void add(String notificationType, String targetId, String recipientEmail, String subject, String messageBody) {
+        append(new HistoryRow(notificationType, targetId, recipientEmail, subject, messageBody, "SENT", null));
+    }
+
+    /**
+     * 送信済のまとめ通知の履歴を追加する
+     *
+     * @param recipientEmail 送信先メールアドレス
+     * @param subject 件名
+     * @param messageBody 本文
+     * @param items まとめた対象
+     */
+    void addDigest(String recipientEmail, String subject, String messageBody, List<ReminderDigest.Item> items) {
+        append(new HistoryRow(ReminderDigest.NOTIFICATION_TYPE, null, recipientEmail, subject, messageBody,
+            "SENT", items));
+    }
+
+    private void append(HistoryRow row) {
+        List<HistoryRow> full = null;
+        synchronized (this) {
+            buffer.add(row);
+            if (dataSource != null && buffer.size() >= batchSize) {
+                full = takeBuffer();
+            }
+        }
+        if (full != null) {
+            write(full);
+        }
+    }
+
+    private synchronized List<HistoryRow> takeBuffer() {
+        List<HistoryRow> rows = buffer;
+        buffer = new ArrayList<>();
+        return rows;
+    }
+
+    /**
+     * 未書込の履歴を書き込む
+     */
+    void flush() {
+        if (dataSource == null) {
+            throw new IllegalStateException("No data source; use flushTo(Connection)");
+        }
+        List<HistoryRow> pending = takeBuffer();
+        if (!pending.isEmpty()) {
+            write(pending);
+        }
+    }
+
+    /**
+     * 未書込の履歴を呼び出し側のトランザクション内に書き込む（コミットは呼び出し側で行う）
+     *
+     * @param connection DB接続（自動コミット無効）
+     * @throws SQLException 1件でも書き込めなかった場合（呼び出し側はロールバックすること）
+     */
+    void flushTo(Connection connection) throws SQLException {
+        List<HistoryRow> pending = takeBuffer();
+        if (!pending.isEmpty()) {
+            synchronized (writeLock) {
+                int writtenBefore = written.get();
+                try {
+                    insertRows(connection, pending);
+                } catch (SQLException e) {
+                    // 書き込んだ履歴も呼び出し側でロールバックされる
+                    written.set(writtenBefore);
+                    failed.addAndGet(pending.size());
+                    System.err.println("Failed to save " + pending.size()
+                        + " notification history rows; the chunk must be rolled back: " + e.getMessage());
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to flush notification history: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 定期書込を停止し、未書込の履歴を書き込む
+     */
+    @Override
+    public void close() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    int getWrittenCount() { return written.get(); }
+    int getFailedCount() { return failed.get(); }
+    int getBatchCount() { return batches.get(); }
+
+    private void write(List<HistoryRow> rows) {
+        synchronized (writeLock) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try {
+                    insertRows(connection, rows);
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                failed.addAndGet(rows.size());
+                System.err.println("Failed to save " + rows.size() + " notification history rows: " + e.getMessage());
+                for (HistoryRow row : rows) {
+                    logFailure(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * 履歴を書き込む（コミットは呼び出し側で行う）
+     */
+    private void insertRows(Connection connection, List<HistoryRow> rows) throws SQLException {
+        List<HistoryRow> batch = new ArrayList<>(Math.min(rows.size(), batchSize));
+        for (HistoryRow row : rows) {
+            if (row.digestItems != null) {
+                insertDigest(connection, row);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                insertBatch(connection, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(connection, batch);
+        }
+    }
+
+    private void insertBatch(Connection connection, List<HistoryRow> rows) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+            for (HistoryRow row : rows) {
+                bind(ps, row);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            connection.releaseSavepoint(savepoint);
+            written.addAndGet(rows.size());
+            batches.incrementAndGet();
+            return;
+        } catch (SQLException e) {
+            connection.rollback(savepoint);
+            System.err.println("Notification history batch of " + rows.size()
+                + " rows rolled back, retrying row by row: " + e.getMessage());
+        }
+        insertEach(connection, rows);
+    }
+
+    /**
+     * 一括書込の失敗後に1件ずつ書き込む（失敗した履歴のみを除外する。flushTo の場合は送出する）
+     */
+    private void insertEach(Connection connection, List<HistoryRow> rows) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+            for (HistoryRow row : rows) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    bind(ps, row);
+                    ps.executeUpdate();
+                    connection.releaseSavepoint(savepoint);
+                    written.incrementAndGet();
+                } catch (SQLException e) {
+                    connection.rollback(savepoint);
+                    logFailure(row);
+                    if (dataSource == null) {
+                        throw e;
+                    }
+                    failed.incrementAndGet();
+                    System.err.println("Error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void insertDigest(Connection connection, HistoryRow row) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_DIGEST_SQL);
+             PreparedStatement insertTarget = connection.prepareStatement(INSERT_DIGEST_TARGET_SQL)) {
+            insert.setString(1, userIdOf(row.recipientEmail));
+            insert.setString(2, row.recipientEmail);
+            insert.setString(3, row.subject);
+            insert.setString(4, row.messageBody);
+            String notificationId;
+            try (ResultSet rs = insert.executeQuery()) {
+                rs.next();
+                notificationId = rs.getString(1);
+            }
+            for (ReminderDigest.Item item : row.digestItems) {
+                insertTarget.setString(1, notificationId);
+                insertTarget.setString(2, item.getNotificationType());
+                insertTarget.setString(3, item.getTargetId());
+                insertTarget.addBatch();
+            }
+            insertTarget.executeBatch();
+            connection.releaseSavepoint(savepoint);
+            written.incrementAndGet();
+            batches.incrementAndGet();
+        } catch (SQLException e) {
+            connection.rollback(savepoint);
+            System.err.println("Failed to save digest notification history for: " + row.recipientEmail
+                + " (" + row.digestItems.size() + " targets)");
+            if (dataSource == null) {
+                throw e;
+            }
+            failed.incrementAndGet();
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+
+    private static void bind(PreparedStatement ps, HistoryRow row) throws SQLException {
+        ps.setString(1, row.notificationType);
+        ps.setString(2, row.targetId);
+        ps.setString(3, userIdOf(row.recipientEmail));
+        ps.setString(4, row.recipientEmail);
+        ps.setString(5, row.subject);
+        ps.setString(6, row.messageBody);
+        ps.setString(7, row.status);
+    }
+
+    private static void logFailure(HistoryRow row) {
+        System.err.println("Failed to save notification history for target: " + row.targetId
+            + " (" + row.notificationType + ", " + row.recipientEmail + ")");
+    }
+
+    /**
+     * 送信先メールアドレスからユーザーIDを求める（ローカル部の - を _ に置換、例: qa-manager@... → qa_manager）
+     */
+    static String userIdOf(String email) {
+        int at = email.indexOf('@');
+        String local = (at >= 0 ? email.substring(0, at) : email).replace('-', '_').toLowerCase(Locale.ROOT);
+        return local.length() > MAX_USER_ID_LENGTH ? local.substring(0, MAX_USER_ID_LENGTH) : local;
+    }
+}
@@ -0,0 +1,46 @@
+package jp.co.company.sqas.batch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 通知の送信ロック
+ * Notification Locks
+ *
+ * 全ノードの常駐リマインダーサービスが同じ対象へ同時に通知しないよう、（ロック種別, 対象ID）の
+ * トランザクション単位のアドバイザリロック（PostgreSQL の pg_try_advisory_xact_lock）を取得する。
+ *
+ * ロックはコミット・ロールバックで解放される。通知履歴の書込と同じトランザクションで、通知済の確認より前に取得すること
+ * （ロックを取得した後の確認では、先に送信したノードがコミットした通知履歴が参照できる）。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class NotificationLocks {
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtext(?), hashtext(?))";
+
+    private NotificationLocks() {
+    }
+
+    /**
+     * ロックを取得する（待機しない）
+     *
+     * @param connection DB接続（自動コミット無効）
+     * @param lockType ロック種別（ジョブ名）
+     * @param targetId 対象ID
+     * @return 取得した場合 true（他のノードが送信中の場合 false）
+     */
+    static boolean tryLock(Connection connection, String lockType, String targetId) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(TRY_LOCK_SQL)) {
+            ps.setString(1, lockType);
+            ps.setString(2, targetId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
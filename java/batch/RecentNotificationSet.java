@@ -0,0 +1,209 @@
+package jp.co.company.sqas.batch;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * 直近通知済セット
+ * Recent Notification Set
+ *
+ * 直近に通知済の（通知種別, 対象ID）を 64bit のフィンガープリントとして long 配列（オープンアドレス法）に保持する。
+ * バッチの実行開始時に通知履歴から1回だけ読み込み、対象ごとの「直近に通知済か」の判定を
+ * 相関副問合せ（NOT EXISTS）の代わりにメモリ上の O(1) の検索で行う。
+ *
+ * フィンガープリントが衝突した場合は未通知の対象を通知済と判定する（通知が翌日以降に見送られる）。
+ * 衝突の確率は1回の判定あたり 件数 / 2^64 程度であり、実運用上は無視できる。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class RecentNotificationSet {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+    private static final int FETCH_SIZE = 5000;
+
+    /** 空きスロット（フィンガープリントが 0 の場合は 1 として格納する） */
+    private static final long EMPTY = 0L;
+
+    /*
+     * 個別通知（NotificationHistory.TargetID）とまとめ通知（NotificationHistoryTarget.TargetID）の
+     * 両方から、送信日が基準日以降の対象IDを読み込む。SentDate の範囲検索のみで相関副問合せは行わない。
+     */
+    private static final String SELECT_RECENT_TARGETS =
+        "SELECT n.TargetID FROM NotificationHistory n "
+        + "WHERE n.NotificationType = ? AND n.TargetID IS NOT NULL AND n.SentDate >= CAST(? AS DATE) - ? "
+        + "UNION ALL "
+        + "SELECT t.TargetID FROM NotificationHistoryTarget t "
+        + "JOIN NotificationHistory n ON n.NotificationID = t.NotificationID "
+        + "WHERE t.NotificationType = ? AND n.SentDate >= CAST(? AS DATE) - ?";
+
+    private long[] slots;
+    private int size;
+
+    RecentNotificationSet() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 想定件数
+     */
+    RecentNotificationSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative");
+        }
+        slots = new long[tableSizeFor(expectedSize)];
+    }
+
+    /**
+     * 直近に通知した対象を通知履歴から読み込む
+     *
+     * @param connection DB接続（読込の間は自動コミットを無効にし、終了後に元に戻す）
+     * @param notificationType 通知種別
+     * @param windowDays 直近とみなす日数（本日 - windowDays 以降の送信を対象とする）
+     * @return 読み込んだ件数（重複を含む）
+     */
+    int load(Connection connection, String notificationType, int windowDays) throws SQLException {
+        return load(connection, notificationType, windowDays, LocalDate.now());
+    }
+
+    /**
+     * 基準日から見て直近に通知した対象を通知履歴から読み込む
+     *
+     * @param connection DB接続（読込の間は自動コミットを無効にし、終了後に元に戻す）
+     * @param notificationType 通知種別
+     * @param windowDays 直近とみなす日数（asOf - windowDays 以降の送信を対象とする）
+     * @param asOf 基準日（通知対象の抽出と同じ実行日を指定する）
+     * @return 読み込んだ件数（重複を含む）
+     */
+    int load(Connection connection, String notificationType, int windowDays, LocalDate asOf) throws SQLException {
+        if (windowDays < 0) {
+            throw new IllegalArgumentException("Window days must not be negative");
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        // PostgreSQL はカーソルによる分割取得に自動コミットの無効化が必要
+        connection.setAutoCommit(false);
+        int count = 0;
+        try (PreparedStatement ps = connection.prepareStatement(SELECT_RECENT_TARGETS)) {
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setString(1, notificationType);
+            ps.setDate(2, Date.valueOf(asOf));
+            ps.setInt(3, windowDays);
+            ps.setString(4, notificationType);
+            ps.setDate(5, Date.valueOf(asOf));
+            ps.setInt(6, windowDays);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    add(notificationType, rs.getString(1));
+                    count++;
+                }
+            }
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        }
+        return count;
+    }
+
+    /**
+     * 通知済の対象を追加する
+     *
+     * @param notificationType 通知種別
+     * @param targetId 対象ID
+     */
+    void add(String notificationType, String targetId) {
+        if ((size + 1) * 2 > slots.length) {
+            resize(slots.length * 2);
+        }
+        if (insert(slots, fingerprint(notificationType, targetId))) {
+            size++;
+        }
+    }
+
+    /**
+     * 直近に通知済かを判定する
+     *
+     * @param notificationType 通知種別
+     * @param targetId 対象ID
+     * @return 通知済の場合 true
+     */
+    boolean contains(String notificationType, String targetId) {
+        long fingerprint = fingerprint(notificationType, targetId);
+        int mask = slots.length - 1;
+        for (int i = (int) fingerprint & mask; ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == fingerprint) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return 保持している件数（重複を除く）
+     */
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        for (long slot : slots) {
+            if (slot != EMPTY) {
+                insert(resized, slot);
+            }
+        }
+        slots = resized;
+    }
+
+    /**
+     * @return 追加した場合 true（既に存在した場合 false）
+     */
+    private static boolean insert(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        for (int i = (int) fingerprint & mask; ; i = (i + 1) & mask) {
+            long slot = table[i];
+            if (slot == fingerprint) {
+                return false;
+            }
+            if (slot == EMPTY) {
+                table[i] = fingerprint;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * （通知種別, 対象ID）の 64bit フィンガープリント（FNV-1a の結果を攪拌したもの、0 は 1 に置き換える）
+     */
+    static long fingerprint(String notificationType, String targetId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < notificationType.length(); i++) {
+            hash = (hash ^ notificationType.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ 0xFFFF) * 0x100000001b3L; // 通知種別と対象IDの区切り
+        for (int i = 0; i < targetId.length(); i++) {
+            hash = (hash ^ targetId.charAt(i)) * 0x100000001b3L;
+        }
+        // 下位ビットをスロット位置に使うため全ビットを攪拌する
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        if (expectedSize > 1 << 29) {
+            throw new IllegalArgumentException("Expected size is too large: " + expectedSize);
+        }
+        return Integer.highestOneBit(Math.max(expectedSize * 2, 16) - 1) << 1;
+    }
+}
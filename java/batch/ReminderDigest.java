@@ -0,0 +1,203 @@
+package jp.co.company.sqas.batch;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 宛先別リマインダーまとめ
+ * Reminder Digest
+ *
+ * リマインダーの対象（期限超過・期限間近の是正処置、再評価期限の近い購買先）を宛先ごとにまとめ、
+ * 1通のメール本文（区分・期限・ID順の一覧表）を作成する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class ReminderDigest {
+
+    /** まとめ通知の通知種別（対象ごとの通知種別は NotificationHistoryTarget に記録する） */
+    static final String NOTIFICATION_TYPE = "REMINDER_DIGEST";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd");
+
+    /**
+     * 区分（一覧表の並び順）
+     */
+    enum Category {
+        OVERDUE("期限超過"),
+        DUE_SOON("期限間近"),
+        REVIEW("再評価");
+
+        private final String label;
+
+        Category(String label) {
+            this.label = label;
+        }
+
+        String getLabel() { return label; }
+    }
+
+    /**
+     * 一覧表の1行
+     */
+    static final class Item {
+        private final Category category;
+        private final String notificationType;
+        private final String targetId;
+        private final String companyName;
+        private final LocalDate dueDate;
+        private final String detail;
+
+        Item(Category category, String notificationType, String targetId, String companyName,
+             LocalDate dueDate, String detail) {
+            this.category = category;
+            this.notificationType = notificationType;
+            this.targetId = targetId;
+            this.companyName = companyName;
+            this.dueDate = dueDate;
+            this.detail = detail;
+        }
+
+        Category getCategory() { return category; }
+        String getNotificationType() { return notificationType; }
+        String getTargetId() { return targetId; }
+        String getCompanyName() { return companyName; }
+        LocalDate getDueDate() { return dueDate; }
+        String getDetail() { return detail; }
+    }
+
+    private static final Comparator<Item> ORDER = Comparator.comparing(Item::getCategory)
+        .thenComparing(Item::getDueDate)
+        .thenComparing(Item::getTargetId);
+
+    /** 宛先ごとの対象（宛先順） */
+    private final Map<String, List<Item>> itemsByRecipient = new TreeMap<>();
+
+    void add(String recipientEmail, Item item) {
+        itemsByRecipient.computeIfAbsent(recipientEmail, r -> new ArrayList<>()).add(item);
+    }
+
+    Set<String> getRecipients() {
+        return itemsByRecipient.keySet();
+    }
+
+    /**
+     * 宛先の対象を一覧表の順に取得する
+     */
+    List<Item> getItems(String recipientEmail) {
+        List<Item> items = itemsByRecipient.getOrDefault(recipientEmail, new ArrayList<>());
+        items.sort(ORDER);
+        return items;
+    }
+
+    /**
+     * 指定した宛先のいずれかに含まれる対象IDを取得する（送信に失敗した宛先から未通知の対象を求める）
+     */
+    Set<String> getTargetIds(Collection<String> recipientEmails) {
+        Set<String> targetIds = new HashSet<>();
+        for (String recipientEmail : recipientEmails) {
+            for (Item item : itemsByRecipient.getOrDefault(recipientEmail, new ArrayList<>())) {
+                targetIds.add(item.getTargetId());
+            }
+        }
+        return targetIds;
+    }
+
+    /**
+     * 区分ごとの件数を取得する
+     */
+    static Map<Category, Integer> countByCategory(List<Item> items) {
+        Map<Category, Integer> counts = new EnumMap<>(Category.class);
+        for (Item item : items) {
+            counts.merge(item.getCategory(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * まとめ通知の本文を作成する
+     *
+     * @param items 対象（一覧表の順）
+     * @param today 残日数の基準日
+     * @return メッセージ本文
+     */
+    static String createMessage(List<Item> items, LocalDate today) {
+        StringBuilder message = new StringBuilder();
+        message.append("購買先品質審査管理システムからのお知らせ\n\n");
+        message.append("対応が必要な案件は以下の ").append(items.size()).append(" 件です（");
+        Map<Category, Integer> counts = countByCategory(items);
+        boolean first = true;
+        for (Map.Entry<Category, Integer> count : counts.entrySet()) {
+            if (!first) message.append("、");
+            message.append(count.getKey().getLabel()).append(" ").append(count.getValue()).append(" 件");
+            first = false;
+        }
+        message.append("）。\n\n");
+
+        appendRow(message, "区分", "期限", "残日数", "ID", "購買先", "内容");
+        appendRow(message, "--------", "----------", "------", "----------------", "------------------------", "----");
+        for (Item item : items) {
+            appendRow(message,
+                item.getCategory().getLabel(),
+                item.getDueDate().format(DATE_FORMAT),
+                String.valueOf(ChronoUnit.DAYS.between(today, item.getDueDate())),
+                item.getTargetId(),
+                item.getCompanyName(),
+                item.getDetail());
+        }
+        message.append("\n");
+        message.append("※ 残日数が負の値の案件は期限を超過しています。至急対応してください。\n\n");
+
+        message.append("詳細は購買先品質審査管理システムをご確認ください。\n");
+        message.append("URL: [システムURL]\n\n");
+        message.append("---\n");
+        message.append("このメールは自動送信されています。\n");
+        message.append("購買先品質審査管理システム（GCP0602準拠）\n");
+
+        return message.toString();
+    }
+
+    private static void appendRow(StringBuilder message, String category, String dueDate, String days,
+                                  String targetId, String companyName, String detail) {
+        appendColumn(message, category, 8, false);
+        appendColumn(message, dueDate, 10, false);
+        appendColumn(message, days, 6, true);
+        appendColumn(message, targetId, 16, false);
+        appendColumn(message, companyName, 24, false);
+        message.append(detail).append("\n");
+    }
+
+    private static void appendColumn(StringBuilder message, String text, int width, boolean rightAlign) {
+        int padding = Math.max(0, width - displayWidth(text));
+        if (rightAlign) message.append(" ".repeat(padding));
+        message.append(text);
+        if (!rightAlign) message.append(" ".repeat(padding));
+        message.append("  ");
+    }
+
+    /**
+     * 表示幅を取得する（U+1100 以上の文字は全角として2桁と数える）
+     */
+    static int displayWidth(CharSequence text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLowSurrogate(c)) {
+                continue;
+            }
+            width += c < 0x1100 || (c >= 0xFF61 && c <= 0xFF9F) ? 1 : 2; // 半角カナは1桁
+        }
+        return width;
+    }
+}
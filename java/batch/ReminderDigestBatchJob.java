@@ -0,0 +1,271 @@
+package jp.co.company.sqas.batch;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.naming.InitialContext;
+import javax.sql.DataSource;
+
+import jp.co.company.sqas.batch.CorrectiveActionReminderBatchJob.CorrectiveActionInfo;
+import jp.co.company.sqas.batch.ReviewReminderBatchJob.SupplierForReview;
+
+/**
+ * リマインダーまとめ通知バッチジョブ
+ * Reminder Digest Batch Job
+ *
+ * 再評価期限の近い購買先と、期限超過・期限間近の是正処置を宛先ごとに1通のまとめ通知として送信する。
+ * 宛先が受け取るまとめ通知は1晩に1通となる（再評価・是正処置のバッチを個別に実行しない）。
+ *
+ * 実行頻度: 日次（ReviewReminderBatchJob・CorrectiveActionReminderBatchJob の代わりに実行する）
+ *
+ * 対象の抽出条件・直近に通知済の対象の除外・宛先は各バッチと同じ。再評価の購買先（購買先ID順）に続けて
+ * 是正処置（(期限, 是正処置ID) 順）を読み込み、全対象を読み込んでから送信する（ReminderPipeline.runDigest）。
+ * 送信後に通知履歴と是正処置の OVERDUE への更新を1トランザクションでコミットする。
+ * 是正処置の期限超過・期限間近の判定と本文の日数は、実行開始時の日付（実行日）を基準とする。
+ * 再送期間を過ぎた期限超過通知の打ち切りも CorrectiveActionReminderBatchJob と同様に記録する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class ReminderDigestBatchJob {
+
+    private static final String JOB_NAME = "REMINDER_DIGEST";
+
+    /** チェックポイントのキーの接頭辞（再評価の購買先が是正処置より先に並ぶ） */
+    private static final String REVIEW_KEY_PREFIX = "1 ";
+    private static final String CORRECTIVE_ACTION_KEY_PREFIX = "2 ";
+
+    /** 対象の読込・通知履歴とステータスの書込先 */
+    private final DataSource dataSource;
+    private final ReviewReminderBatchJob reviewJob;
+    private final CorrectiveActionReminderBatchJob correctiveActionJob;
+
+    /**
+     * @param dataSource 対象の読込・通知履歴とステータスの書込先
+     */
+    public ReminderDigestBatchJob(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.reviewJob = new ReviewReminderBatchJob(dataSource);
+        this.correctiveActionJob = new CorrectiveActionReminderBatchJob(dataSource);
+    }
+
+    /**
+     * まとめ通知の対象（再評価の購買先または是正処置）
+     */
+    static final class DigestTarget {
+        private final SupplierForReview supplier;
+        private final CorrectiveActionInfo action;
+
+        private DigestTarget(SupplierForReview supplier, CorrectiveActionInfo action) {
+            this.supplier = supplier;
+            this.action = action;
+        }
+
+        String getKey() {
+            return supplier != null
+                ? REVIEW_KEY_PREFIX + supplier.getSupplierId()
+                : CORRECTIVE_ACTION_KEY_PREFIX + CorrectiveActionReminderBatchJob.checkpointKeyOf(action);
+        }
+    }
+
+    /**
+     * バッチジョブのメイン処理
+     *
+     * @return 処理結果（0: 正常終了, 1: エラー）
+     */
+    public int execute() {
+        if (dataSource == null) {
+            System.err.println("No data source configured for reminder digest batch job");
+            return 1;
+        }
+        try {
+            LocalDate runDate = LocalDate.now();
+            System.out.println("=== Reminder Digest Batch Job Started ===");
+            System.out.println("Execution Date: " + runDate);
+
+            Predicate<SupplierForReview> supplierNotified;
+            Predicate<CorrectiveActionInfo> actionNotified;
+            try (Connection connection = dataSource.getConnection()) {
+                supplierNotified = reviewJob.loadAlreadyNotified(connection);
+                actionNotified = correctiveActionJob.loadAlreadyNotified(connection, runDate);
+            }
+
+            NotificationDispatcher dispatcher = new NotificationDispatcher(this::sendEmail);
+            NotificationHistoryWriter historyWriter = new NotificationHistoryWriter();
+            ReminderPipeline<DigestTarget> pipeline = new ReminderPipeline<>(JOB_NAME, dataSource,
+                ReminderPipeline.DEFAULT_CHUNK_SIZE,
+                (connection, afterKey, limit) -> getTargets(connection, runDate, afterKey, limit),
+                DigestTarget::getKey,
+                target -> target.supplier != null
+                    ? supplierNotified.test(target.supplier)
+                    : actionNotified.test(target.action),
+                (targets, chunkDispatcher, chunkHistoryWriter) ->
+                    sendDigestNotifications(targets, runDate, chunkDispatcher, chunkHistoryWriter),
+                this::updateOverdueStatus);
+
+            ReminderPipeline.PipelineResult result;
+            try {
+                result = pipeline.runDigest(dispatcher, historyWriter);
+            } finally {
+                dispatcher.awaitCompletion();
+            }
+
+            int abandonedCount = correctiveActionJob.recordExpiredOverdueRetries(runDate);
+            int failureCount = result.getFailed();
+            int historyFailures = historyWriter.getFailedCount();
+
+            System.out.println("\n=== Batch Job Summary ===");
+            System.out.println("Total Targets: " + result.getProcessed());
+            System.out.println("Skipped (Notified Recently): " + result.getSkipped());
+            System.out.println("Targets Notified: " + result.getSucceeded());
+            System.out.println("Failures: " + failureCount);
+            System.out.println("History Write Failures: " + historyFailures);
+            System.out.println("Status Updated to OVERDUE: " + result.getUpdated());
+            System.out.println("Overdue Notifications Abandoned: " + abandonedCount);
+            System.out.println("=== Reminder Digest Batch Job Completed ===");
+
+            return failureCount > 0 || historyFailures > 0 || abandonedCount > 0 ? 1 : 0;
+
+        } catch (Exception e) {
+            System.err.println("Critical error in batch job execution: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        }
+    }
+
+    /**
+     * 再評価の購買先、続けて是正処置を読み込む
+     *
+     * @param connection DB接続
+     * @param runDate 実行日（是正処置の期限超過・期限3日前の判定の基準日）
+     * @param afterKey このキー（{@link DigestTarget#getKey}）より後を取得する（先頭から取得する場合は null）
+     * @param limit 最大件数
+     * @return まとめ通知の対象
+     */
+    private List<DigestTarget> getTargets(Connection connection, LocalDate runDate, String afterKey, int limit)
+            throws SQLException {
+        List<DigestTarget> targets = new ArrayList<>(limit);
+        if (afterKey == null || afterKey.startsWith(REVIEW_KEY_PREFIX)) {
+            String afterSupplierId = afterKey != null ? afterKey.substring(REVIEW_KEY_PREFIX.length()) : null;
+            for (SupplierForReview supplier : reviewJob.getSuppliersRequiringReview(connection, afterSupplierId, limit)) {
+                targets.add(new DigestTarget(supplier, null));
+            }
+            if (targets.size() == limit) {
+                return targets;
+            }
+            afterKey = null; // 是正処置を先頭から読み込む
+        }
+        String afterActionKey = afterKey != null ? afterKey.substring(CORRECTIVE_ACTION_KEY_PREFIX.length()) : null;
+        for (CorrectiveActionInfo action
+                : correctiveActionJob.getCorrectiveActionsToNotify(connection, runDate, afterActionKey,
+                    limit - targets.size())) {
+            targets.add(new DigestTarget(null, action));
+        }
+        return targets;
+    }
+
+    /**
+     * 全対象を宛先ごとにまとめて送信する（宛先ごとに1通）
+     *
+     * @param targets まとめ通知の対象
+     * @param runDate 実行日（本文の残り日数・経過日数の基準日）
+     * @param dispatcher 通知メール並列送信
+     * @param historyWriter 通知履歴一括書込
+     * @return 送信に失敗した宛先に含めた対象ID
+     */
+    private Set<String> sendDigestNotifications(List<DigestTarget> targets, LocalDate runDate,
+                                                NotificationDispatcher dispatcher,
+                                                NotificationHistoryWriter historyWriter) throws InterruptedException {
+        ReminderDigest digest = new ReminderDigest();
+        for (DigestTarget target : targets) {
+            if (target.supplier != null) {
+                reviewJob.addToDigest(digest, target.supplier);
+            } else {
+                correctiveActionJob.addToDigest(digest, target.action);
+            }
+        }
+
+        for (String recipientEmail : digest.getRecipients()) {
+            List<ReminderDigest.Item> items = digest.getItems(recipientEmail);
+            String subject = createSubject(items);
+            String messageBody = ReminderDigest.createMessage(items, runDate);
+
+            dispatcher.submit(recipientEmail, List.of(recipientEmail), subject, messageBody,
+                sentTo -> historyWriter.addDigest(sentTo, subject, messageBody, items),
+                () -> System.out.println("Digest notification sent to: " + recipientEmail
+                    + " (" + items.size() + " items)"));
+        }
+
+        // 送信に失敗した宛先に含めた対象を失敗とする
+        Set<String> failedIds = digest.getTargetIds(dispatcher.drain());
+        for (String targetId : failedIds) {
+            System.err.println("Failed to send digest notification for: " + targetId);
+        }
+        return failedIds;
+    }
+
+    /**
+     * 件名を作成する（期限超過を含む場合は【緊急】、期限間近を含む場合は【注意】、再評価のみの場合は【重要】）
+     *
+     * @param items 宛先の対象
+     * @return 件名
+     */
+    static String createSubject(List<ReminderDigest.Item> items) {
+        Map<ReminderDigest.Category, Integer> counts = ReminderDigest.countByCategory(items);
+        int overdue = counts.getOrDefault(ReminderDigest.Category.OVERDUE, 0);
+        int dueSoon = counts.getOrDefault(ReminderDigest.Category.DUE_SOON, 0);
+        int review = counts.getOrDefault(ReminderDigest.Category.REVIEW, 0);
+        String priority = overdue > 0 ? "【緊急】" : dueSoon > 0 ? "【注意】" : "【重要】";
+        return priority + "購買先品質審査のお知らせ（期限超過 " + overdue + "件・期限間近 " + dueSoon
+            + "件・再評価 " + review + "件）";
+    }
+
+    /**
+     * 期限超過の是正処置のステータスを OVERDUE に更新する（通知履歴のコミット前に実行）
+     *
+     * @param connection DB接続（自動コミット無効）
+     * @param targets まとめ通知の対象
+     * @return OVERDUE に更新した件数
+     */
+    private int updateOverdueStatus(Connection connection, List<DigestTarget> targets) throws SQLException {
+        List<CorrectiveActionInfo> actions = new ArrayList<>();
+        for (DigestTarget target : targets) {
+            if (target.action != null) {
+                actions.add(target.action);
+            }
+        }
+        return correctiveActionJob.updateOverdueStatus(connection, actions);
+    }
+
+    /**
+     * メール送信処理
+     *
+     * @param recipientEmail 送信先メールアドレス
+     * @param subject 件名
+     * @param messageBody 本文
+     */
+    private void sendEmail(String recipientEmail, String subject, String messageBody) {
+        System.out.println("Email sent to: " + recipientEmail);
+        System.out.println("Subject: " + subject);
+    }
+
+    /**
+     * バッチジョブのエントリーポイント
+     * intra-mart のジョブスケジューラから実行される
+     *
+     * @param args コマンドライン引数（未使用）
+     */
+    public static void main(String[] args) throws Exception {
+        DataSource dataSource = (DataSource) new InitialContext().lookup("java:comp/env/jdbc/sqas");
+        ReminderDigestBatchJob job = new ReminderDigestBatchJob(dataSource);
+        int exitCode = job.execute();
+        System.exit(exitCode);
+    }
+}
@@ -0,0 +1,296 @@
+package jp.co.company.sqas.batch;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.sql.DataSource;
+
+/**
+ * リマインダー通知パイプライン
+ * Reminder Pipeline
+ *
+ * リマインダーバッチ共通の「読込 → 送信 → 書込」処理。対象をキー順にチャンク単位で読み込み、
+ * チャンクごとに通知を送信した後、通知履歴・ステータス更新・チェックポイント（BatchJobState）を
+ * 1トランザクションでコミットする。
+ *
+ * 読み込んだ対象のうち直近に通知済のもの（RecentNotificationSet）は送信前に除外する。
+ *
+ * 中断された実行を同じ日に再実行した場合は、最後にコミットしたチャンクの直後（チェックポイントのキーより後）から再開する。
+ * 送信済でコミット前に中断したチャンクの通知は再送される（重複はコミット前の1チャンク分に限られる）。
+ * 対象は実行日を基準に抽出するため、前日以前に開始した実行や長時間更新のない実行のチェックポイントは破棄する。
+ * 別のインスタンスが実行中の場合は開始しない。異常終了時はジョブ状態を FAILED とし、再実行で再開する。
+ *
+ * まとめ通知（runDigest）は宛先ごとに1通とするため、全チャンクを読み込んでから1回だけ送信し、
+ * 送信後に通知履歴・書込・チェックポイントを1トランザクションでコミットする。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class ReminderPipeline<T> {
+
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /** 最後のチェックポイントからこの期間を過ぎた実行は再開しない */
+    private static final Duration RESUME_STALE_AFTER = Duration.ofHours(6);
+
+    /**
+     * チャンクの読込処理
+     */
+    interface ChunkReader<T> {
+        /**
+         * @param connection DB接続（読込専用）
+         * @param afterKey このキーより後の対象を読み込む（先頭から読み込む場合は null）
+         * @param limit 最大件数
+         * @return キー順の対象（limit 件未満の場合は最後のチャンク）
+         */
+        List<T> read(Connection connection, String afterKey, int limit) throws SQLException;
+    }
+
+    /**
+     * チャンクの送信処理
+     */
+    interface ChunkProcessor<T> {
+        /**
+         * 通知を送信し、送信済の通知履歴を historyWriter に追加する
+         *
+         * @return 送信に失敗した対象ID
+         */
+        Set<String> process(List<T> chunk, NotificationDispatcher dispatcher, NotificationHistoryWriter historyWriter)
+            throws InterruptedException;
+    }
+
+    /**
+     * チャンクの送信後の書込処理（通知履歴と同じトランザクションで実行し、コミットは行わない）
+     */
+    interface ChunkWriter<T> {
+        /**
+         * @return 更新した行数
+         */
+        int write(Connection connection, List<T> chunk) throws SQLException;
+    }
+
+    /**
+     * 処理結果（今回の実行分）
+     */
+    static final class PipelineResult {
+        private int processed;
+        private int skipped;
+        private int failed;
+        private int updated;
+        private int chunks;
+        private boolean resumed;
+
+        int getProcessed() { return processed; }
+        int getSkipped() { return skipped; }
+        int getSucceeded() { return processed - failed; }
+        int getFailed() { return failed; }
+        int getUpdated() { return updated; }
+        int getChunks() { return chunks; }
+        boolean isResumed() { return resumed; }
+    }
+
+    private final String jobName;
+    private final DataSource dataSource;
+    private final int chunkSize;
+    private final ChunkReader<T> reader;
+    private final Function<T, String> keyOf;
+    private final Predicate<T> alreadyNotified;
+    private final ChunkProcessor<T> processor;
+    private final ChunkWriter<T> writer;
+
+    /**
+     * @param jobName ジョブ名（BatchJobState.JobName）
+     * @param dataSource 読込・書込先
+     * @param chunkSize 1チャンクあたりの対象数
+     * @param reader 読込処理
+     * @param keyOf 対象のキー（読込順、チェックポイントに記録する）
+     * @param alreadyNotified 直近に通知済で送信を見送る対象の判定（null 可）
+     * @param processor 送信処理
+     * @param writer 送信後の書込処理（null 可）
+     */
+    ReminderPipeline(String jobName, DataSource dataSource, int chunkSize, ChunkReader<T> reader,
+                     Function<T, String> keyOf, Predicate<T> alreadyNotified, ChunkProcessor<T> processor,
+                     ChunkWriter<T> writer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.jobName = jobName;
+        this.dataSource = dataSource;
+        this.chunkSize = chunkSize;
+        this.reader = reader;
+        this.keyOf = keyOf;
+        this.alreadyNotified = alreadyNotified;
+        this.processor = processor;
+        this.writer = writer;
+    }
+
+    /**
+     * 全チャンクを処理する
+     *
+     * @param dispatcher 通知メール並列送信（チャンクごとに drain する）
+     * @param historyWriter 通知履歴一括書込（DataSource を指定せずに作成したもの）
+     * @return 処理結果
+     * @throws SQLException 書込に失敗した場合（ジョブ状態は異常終了となり、再実行時に再開する）
+     */
+    PipelineResult run(NotificationDispatcher dispatcher, NotificationHistoryWriter historyWriter)
+            throws SQLException, InterruptedException {
+        PipelineResult result = new PipelineResult();
+
+        try (Connection readConnection = dataSource.getConnection();
+             Connection writeConnection = dataSource.getConnection()) {
+
+            readConnection.setAutoCommit(true);
+            readConnection.setReadOnly(true);
+            writeConnection.setAutoCommit(false);
+
+            try (BatchJobStates.RunLease lease = start(writeConnection, result)) {
+                try {
+                    String afterKey = lease.getLastKey();
+                    List<T> candidates;
+                    do {
+                        candidates = reader.read(readConnection, afterKey, chunkSize);
+                        if (candidates.isEmpty()) {
+                            break;
+                        }
+                        afterKey = keyOf.apply(candidates.get(candidates.size() - 1));
+                        List<T> chunk = removeAlreadyNotified(candidates);
+                        Set<String> failedIds = chunk.isEmpty()
+                            ? Collections.emptySet()
+                            : processor.process(chunk, dispatcher, historyWriter);
+                        commit(writeConnection, lease, afterKey, candidates.size(), chunk, failedIds, historyWriter,
+                            result);
+                    } while (candidates.size() == chunkSize);
+
+                    BatchJobStates.complete(writeConnection, lease);
+                    writeConnection.commit();
+                } catch (SQLException | InterruptedException | RuntimeException e) {
+                    BatchJobStates.fail(writeConnection, lease);
+                    throw e;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 全チャンクを読み込んでから、全対象をまとめて1回だけ送信する（まとめ通知用）
+     *
+     * 宛先ごとの通知を1通とするため、対象はすべてメモリに保持する。
+     * 送信前に中断した場合はチェックポイントが残らないため、再実行時は先頭から処理する。
+     *
+     * @param dispatcher 通知メール並列送信
+     * @param historyWriter 通知履歴一括書込（DataSource を指定せずに作成したもの）
+     * @return 処理結果
+     * @throws SQLException 書込に失敗した場合
+     */
+    PipelineResult runDigest(NotificationDispatcher dispatcher, NotificationHistoryWriter historyWriter)
+            throws SQLException, InterruptedException {
+        PipelineResult result = new PipelineResult();
+
+        try (Connection readConnection = dataSource.getConnection();
+             Connection writeConnection = dataSource.getConnection()) {
+
+            readConnection.setAutoCommit(true);
+            readConnection.setReadOnly(true);
+            writeConnection.setAutoCommit(false);
+
+            try (BatchJobStates.RunLease lease = start(writeConnection, result)) {
+                try {
+                    String afterKey = lease.getLastKey();
+                    List<T> targets = new ArrayList<>();
+                    int read = 0;
+                    List<T> candidates;
+                    do {
+                        candidates = reader.read(readConnection, afterKey, chunkSize);
+                        if (candidates.isEmpty()) {
+                            break;
+                        }
+                        afterKey = keyOf.apply(candidates.get(candidates.size() - 1));
+                        targets.addAll(removeAlreadyNotified(candidates));
+                        read += candidates.size();
+                    } while (candidates.size() == chunkSize);
+
+                    if (read > 0) {
+                        Set<String> failedIds = targets.isEmpty()
+                            ? Collections.emptySet()
+                            : processor.process(targets, dispatcher, historyWriter);
+                        commit(writeConnection, lease, afterKey, read, targets, failedIds, historyWriter, result);
+                    }
+
+                    BatchJobStates.complete(writeConnection, lease);
+                    writeConnection.commit();
+                } catch (SQLException | InterruptedException | RuntimeException e) {
+                    BatchJobStates.fail(writeConnection, lease);
+                    throw e;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 実行を開始する（同じ日に中断された実行があれば再開する）
+     *
+     * @return 実行の所有権
+     * @throws IllegalStateException 別のインスタンスが実行中の場合
+     */
+    private BatchJobStates.RunLease start(Connection writeConnection, PipelineResult result) throws SQLException {
+        BatchJobStates.RunLease lease =
+            BatchJobStates.startOrResumeToday(dataSource, writeConnection, jobName, RESUME_STALE_AFTER);
+        result.resumed = lease.getLastKey() != null;
+        if (result.resumed) {
+            System.out.println("Resuming run " + lease.getRunId() + " after " + lease.getLastKey());
+        }
+        return lease;
+    }
+
+    /**
+     * 送信済の対象の通知履歴・書込・チェックポイントをコミットする
+     *
+     * @param read チェックポイントまでに読み込んだ件数（送信を見送った対象を含む）
+     */
+    private void commit(Connection writeConnection, BatchJobStates.RunLease lease, String afterKey, int read,
+                        List<T> sent,
+                        Set<String> failedIds, NotificationHistoryWriter historyWriter, PipelineResult result)
+            throws SQLException {
+        int updated = 0;
+        try {
+            historyWriter.flushTo(writeConnection);
+            if (writer != null && !sent.isEmpty()) {
+                updated = writer.write(writeConnection, sent);
+            }
+            BatchJobStates.checkpoint(writeConnection, lease, afterKey, read);
+            writeConnection.commit();
+        } catch (SQLException | RuntimeException e) {
+            writeConnection.rollback();
+            throw e;
+        }
+
+        result.processed += sent.size();
+        result.skipped += read - sent.size();
+        result.failed += failedIds.size();
+        result.updated += updated;
+        result.chunks++;
+    }
+
+    private List<T> removeAlreadyNotified(List<T> candidates) {
+        if (alreadyNotified == null) {
+            return candidates;
+        }
+        List<T> chunk = new ArrayList<>(candidates.size());
+        for (T candidate : candidates) {
+            if (!alreadyNotified.test(candidate)) {
+                chunk.add(candidate);
+            }
+        }
+        return chunk;
+    }
+}
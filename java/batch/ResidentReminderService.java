@@ -0,0 +1,238 @@
+package jp.co.company.sqas.batch;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import jp.co.company.sqas.service.ReminderScheduler;
+
+/**
+ * 常駐リマインダーサービス
+ * Resident Reminder Service
+ *
+ * 起動時に有効な購買先の次回審査予定日と未完了の是正処置の期限を ReminderScheduler に登録し、
+ * 通知時刻の到来時に再評価通知・是正処置の期限前通知・期限超過通知を1件ずつ即時に送信する。
+ *
+ * 起動後の変更は getScheduler() で取得したスケジューラへ反映する（購買先は SupplierManagementService から反映される）。
+ * 画面・ワークフローでの更新など、スケジューラを経由しない変更を反映するため、5分ごとに前回の読込以降に
+ * UpdatedAt が更新された購買先・是正処置を読み込み直す（更新処理では UpdatedAt を更新すること）。
+ * 通知は全ノードで行うため、remindNow は対象ごとのロックを取得してから送信する（NotificationLocks）。
+ * 日次の ReviewReminderBatchJob / CorrectiveActionReminderBatchJob は、
+ * 本サービスの停止中や変更の反映漏れによる取りこぼしを補う整合性確認として引き続き実行する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class ResidentReminderService implements ReminderScheduler.ReminderListener, AutoCloseable {
+
+    private static final int FETCH_SIZE = 5000;
+
+    /** 変更の読込間隔 */
+    private static final Duration RELOAD_INTERVAL = Duration.ofMinutes(5);
+
+    /** 読込中にコミットされた更新を取りこぼさないよう、前回の読込時刻からこの期間さかのぼって読み込む */
+    private static final Duration RELOAD_OVERLAP = Duration.ofMinutes(5);
+
+    private static final String SELECT_CURRENT_TIMESTAMP = "SELECT CURRENT_TIMESTAMP";
+
+    private static final String SELECT_SUPPLIERS_TO_SCHEDULE =
+        "SELECT SupplierID, NextReviewDate, SupplierStatus FROM SupplierMaster "
+        + "WHERE SupplierStatus = 'ACTIVE' AND NextReviewDate > CURRENT_DATE";
+
+    private static final String SELECT_CORRECTIVE_ACTIONS_TO_SCHEDULE =
+        "SELECT CorrectiveActionID, CorrectiveActionDeadline, Status FROM CorrectiveActionHistory "
+        + "WHERE Status IN ('OPEN', 'IN_PROGRESS')";
+
+    private static final String SELECT_SUPPLIERS_CHANGED =
+        "SELECT SupplierID, NextReviewDate, SupplierStatus FROM SupplierMaster WHERE UpdatedAt >= ?";
+
+    private static final String SELECT_CORRECTIVE_ACTIONS_CHANGED =
+        "SELECT CorrectiveActionID, CorrectiveActionDeadline, Status FROM CorrectiveActionHistory "
+        + "WHERE UpdatedAt >= ?";
+
+    private final DataSource dataSource;
+    private final ReviewReminderBatchJob reviewJob;
+    private final CorrectiveActionReminderBatchJob correctiveActionJob;
+    private final ReminderScheduler scheduler;
+
+    /** 通知の送信と変更の読込（スケジューラの常駐スレッドを送信待ちで止めないよう別スレッドで行う） */
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "resident-reminder-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 前回の読込時刻（DBの時刻、sender スレッドのみが更新する） */
+    private Timestamp lastLoadedAt;
+
+    /**
+     * @param dataSource 対象の読込・通知履歴とステータスの書込先
+     */
+    public ResidentReminderService(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.reviewJob = new ReviewReminderBatchJob(dataSource);
+        this.correctiveActionJob = new CorrectiveActionReminderBatchJob(dataSource);
+        this.scheduler = new ReminderScheduler(this);
+    }
+
+    /**
+     * 通知対象を読み込んでスケジューラを開始する（アプリケーション起動時に1回実行）
+     */
+    public void start() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            lastLoadedAt = currentTimestamp(connection);
+            int suppliers = scheduleSuppliers(connection, SELECT_SUPPLIERS_TO_SCHEDULE, null);
+            int correctiveActions = scheduleCorrectiveActions(connection, SELECT_CORRECTIVE_ACTIONS_TO_SCHEDULE, null);
+            connection.rollback();
+            System.out.println("Resident reminder service scheduled " + suppliers + " suppliers and "
+                + correctiveActions + " corrective actions (" + scheduler.size() + " reminders)");
+        }
+        scheduler.start();
+        sender.scheduleWithFixedDelay(this::reloadChanged, RELOAD_INTERVAL.toMillis(), RELOAD_INTERVAL.toMillis(),
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 前回の読込以降に更新された購買先・是正処置をスケジューラへ反映する
+     */
+    private void reloadChanged() {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            Timestamp loadedAt = currentTimestamp(connection);
+            Timestamp since = new Timestamp(lastLoadedAt.getTime() - RELOAD_OVERLAP.toMillis());
+            int suppliers = scheduleSuppliers(connection, SELECT_SUPPLIERS_CHANGED, since);
+            int correctiveActions = scheduleCorrectiveActions(connection, SELECT_CORRECTIVE_ACTIONS_CHANGED, since);
+            connection.rollback();
+            lastLoadedAt = loadedAt;
+            if (suppliers > 0 || correctiveActions > 0) {
+                System.out.println("Resident reminder service rescheduled " + suppliers + " suppliers and "
+                    + correctiveActions + " corrective actions updated since " + since);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // 例外を送出すると以後の読込が停止するため、次回の読込で再試行する
+            System.err.println("Failed to reload reminder targets: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 購買先の次回審査予定日をスケジューラへ反映する（有効でない購買先は取り消す）
+     *
+     * @param since 更新日時の下限（全件の場合は null）
+     * @return 読み込んだ件数
+     */
+    private int scheduleSuppliers(Connection connection, String sql, Timestamp since) throws SQLException {
+        int count = 0;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setFetchSize(FETCH_SIZE);
+            if (since != null) {
+                ps.setTimestamp(1, since);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Date nextReviewDate = rs.getDate("NextReviewDate");
+                    boolean active = "ACTIVE".equals(rs.getString("SupplierStatus")) && nextReviewDate != null;
+                    scheduler.reviewDateChanged(rs.getString("SupplierID"),
+                        active ? nextReviewDate.toLocalDate() : null);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 是正処置の期限・ステータスをスケジューラへ反映する（未完了でない是正処置は取り消す）
+     *
+     * @param since 更新日時の下限（全件の場合は null）
+     * @return 読み込んだ件数
+     */
+    private int scheduleCorrectiveActions(Connection connection, String sql, Timestamp since) throws SQLException {
+        int count = 0;
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setFetchSize(FETCH_SIZE);
+            if (since != null) {
+                ps.setTimestamp(1, since);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Date deadline = rs.getDate("CorrectiveActionDeadline");
+                    scheduler.correctiveActionChanged(rs.getString("CorrectiveActionID"),
+                        deadline != null ? deadline.toLocalDate() : null, rs.getString("Status"));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static Timestamp currentTimestamp(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SELECT_CURRENT_TIMESTAMP);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    /**
+     * @return リマインダースケジューラ（次回審査予定日・是正処置の変更の反映先）
+     */
+    public ReminderScheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public void reviewReminderDue(String supplierId, LocalDate nextReviewDate) {
+        sender.execute(() -> {
+            try {
+                reviewJob.remindNow(supplierId);
+            } catch (SQLException e) {
+                System.err.println("Failed to send review reminder for supplier: " + supplierId
+                    + " - " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Override
+    public void correctiveActionReminderDue(String correctiveActionId, LocalDate deadline) {
+        remindCorrectiveAction(correctiveActionId);
+    }
+
+    @Override
+    public void correctiveActionOverdue(String correctiveActionId, LocalDate deadline) {
+        remindCorrectiveAction(correctiveActionId);
+    }
+
+    private void remindCorrectiveAction(String correctiveActionId) {
+        sender.execute(() -> {
+            try {
+                correctiveActionJob.remindNow(correctiveActionId);
+            } catch (SQLException e) {
+                System.err.println("Failed to send reminder for: " + correctiveActionId + " - " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.close();
+        sender.shutdown();
+    }
+}
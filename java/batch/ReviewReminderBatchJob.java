@@ -1,9 +1,19 @@
 package jp.co.company.sqas.batch;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import javax.naming.InitialContext;
+import javax.sql.DataSource;
 
 /**
  * 再評価リマインダーバッチジョブ
@@ -14,6 +24,12 @@ import java.util.List;
  * 
  * 実行頻度: 日次（毎日深夜実行を推奨）
  * 
+ * 対象は購買先ID順にチャンク単位で処理し、チャンクごとにチェックポイントを記録する（ReminderPipeline）。
+ * 宛先ごとのまとめ通知は、是正処置とあわせて ReminderDigestBatchJob が送信する。
+ * 
+ * 通知時刻の到来時には常駐の ResidentReminderService が remindNow() で即時に通知するため、
+ * 本バッチは停止中や更新漏れによる取りこぼしを補う整合性確認として実行する（通知済の購買先は除外される）。
+ * 
  * @author Supplier Quality Audit System Development Team
  * @version 1.0
  * @since 2025-11-20
@@ -21,7 +37,23 @@ import java.util.List;
 public class ReviewReminderBatchJob {
 
     private static final int REMINDER_DAYS_BEFORE = 30; // 30日前に通知
-    private static final String NOTIFICATION_TYPE = "REVIEW_REMINDER";
+    private static final int RENOTIFY_INTERVAL_DAYS = 7; // 7日以内に通知済の購買先は再通知しない
+    static final String NOTIFICATION_TYPE = "REVIEW_REMINDER";
+    private static final String JOB_NAME = "REVIEW_REMINDER";
+
+    /** 対象の読込・通知履歴の書込先 */
+    private final DataSource dataSource;
+
+    public ReviewReminderBatchJob() {
+        this(null);
+    }
+
+    /**
+     * @param dataSource 対象の読込・通知履歴の書込先
+     */
+    public ReviewReminderBatchJob(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
 
     /**
      * 通知対象購買先クラス
@@ -55,39 +87,50 @@ public class ReviewReminderBatchJob {
      * @return 処理結果（0: 正常終了, 1: エラー）
      */
     public int execute() {
+        if (dataSource == null) {
+            System.err.println("No data source configured for review reminder batch job");
+            return 1;
+        }
         try {
             System.out.println("=== Review Reminder Batch Job Started ===");
             System.out.println("Execution Date: " + LocalDate.now());
 
-            List<SupplierForReview> suppliersForReview = getSuppliersRequiringReview();
-            System.out.println("Found " + suppliersForReview.size() + " suppliers requiring review notification");
+            Predicate<SupplierForReview> alreadyNotified;
+            try (Connection connection = dataSource.getConnection()) {
+                alreadyNotified = loadAlreadyNotified(connection);
+            }
 
-            if (suppliersForReview.isEmpty()) {
-                System.out.println("No suppliers require review notification at this time.");
-                return 0;
+            NotificationDispatcher dispatcher = new NotificationDispatcher(this::sendEmail);
+            NotificationHistoryWriter historyWriter = new NotificationHistoryWriter();
+            ReminderPipeline<SupplierForReview> pipeline = new ReminderPipeline<>(JOB_NAME, dataSource,
+                ReminderPipeline.DEFAULT_CHUNK_SIZE, this::getSuppliersRequiringReview,
+                SupplierForReview::getSupplierId, alreadyNotified, this::sendReviewReminders, null);
+
+            ReminderPipeline.PipelineResult result;
+            try {
+                result = pipeline.run(dispatcher, historyWriter);
+            } finally {
+                dispatcher.awaitCompletion();
             }
 
-            int successCount = 0;
-            int failureCount = 0;
-
-            for (SupplierForReview supplier : suppliersForReview) {
-                try {
-                    sendReviewReminderNotification(supplier);
-                    successCount++;
-                } catch (Exception e) {
-                    System.err.println("Failed to send notification for supplier: " + supplier.getSupplierId());
-                    System.err.println("Error: " + e.getMessage());
-                    failureCount++;
-                }
+            if (result.getProcessed() == 0 && !result.isResumed()) {
+                System.out.println("No suppliers require review notification at this time.");
             }
 
+            int successCount = result.getSucceeded();
+            int failureCount = result.getFailed();
+            int historyFailures = historyWriter.getFailedCount();
+
             System.out.println("\n=== Batch Job Summary ===");
-            System.out.println("Total Suppliers: " + suppliersForReview.size());
+            System.out.println("Total Suppliers: " + result.getProcessed());
+            System.out.println("Skipped (Notified Recently): " + result.getSkipped());
             System.out.println("Notifications Sent: " + successCount);
             System.out.println("Failures: " + failureCount);
+            System.out.println("History Write Failures: " + historyFailures);
+            System.out.println("Chunks Committed: " + result.getChunks());
             System.out.println("=== Review Reminder Batch Job Completed ===");
 
-            return failureCount > 0 ? 1 : 0;
+            return failureCount > 0 || historyFailures > 0 ? 1 : 0;
 
         } catch (Exception e) {
             System.err.println("Critical error in batch job execution: " + e.getMessage());
@@ -96,73 +139,174 @@ public class ReviewReminderBatchJob {
         }
     }
 
+    /**
+     * 直近7日以内に通知済（個別通知・まとめ通知）で送信を見送る購買先の判定を読み込む
+     * 
+     * @param connection DB接続
+     * @return 送信を見送る購買先の判定
+     */
+    Predicate<SupplierForReview> loadAlreadyNotified(Connection connection) throws SQLException {
+        RecentNotificationSet recentlyNotified = new RecentNotificationSet();
+        recentlyNotified.load(connection, NOTIFICATION_TYPE, RENOTIFY_INTERVAL_DAYS);
+        System.out.println("Recently notified suppliers: " + recentlyNotified.size());
+        return supplier -> recentlyNotified.contains(NOTIFICATION_TYPE, supplier.getSupplierId());
+    }
+
+    /**
+     * チャンク内の購買先へ通知を送信する
+     * 
+     * @param suppliers 通知対象購買先（チャンク）
+     * @param dispatcher 通知メール並列送信
+     * @param historyWriter 通知履歴一括書込
+     * @return 送信に失敗した購買先ID
+     */
+    private Set<String> sendReviewReminders(List<SupplierForReview> suppliers, NotificationDispatcher dispatcher,
+                                            NotificationHistoryWriter historyWriter) throws InterruptedException {
+        System.out.println("Found " + suppliers.size() + " suppliers requiring review notification");
+
+        for (SupplierForReview supplier : suppliers) {
+            sendReviewReminderNotification(dispatcher, historyWriter, supplier);
+        }
+        Set<String> failedSupplierIds = new LinkedHashSet<>(dispatcher.drain());
+        for (String supplierId : failedSupplierIds) {
+            System.err.println("Failed to send notification for supplier: " + supplierId);
+        }
+        return failedSupplierIds;
+    }
+
     /**
      * 通知対象の購買先を取得
-     * NextReviewDateが30日後以内のACTIVE購買先を抽出
+     * NextReviewDateが30日後以内のACTIVE購買先を購買先ID順に抽出
      * 
+     * @param connection DB接続
+     * @param afterSupplierId この購買先IDより後を取得する（先頭から取得する場合は null）
+     * @param limit 最大件数
      * @return 通知対象購買先リスト
      */
-    private List<SupplierForReview> getSuppliersRequiringReview() {
+    List<SupplierForReview> getSuppliersRequiringReview(Connection connection, String afterSupplierId,
+                                                        int limit) throws SQLException {
         List<SupplierForReview> suppliers = new ArrayList<>();
 
-        /*
-        SELECT 
-            s.SupplierID,
-            s.CompanyName,
-            s.NextReviewDate,
-            s.CurrentRating,
-            s.ContactEmail
-        FROM SupplierMaster s
-        WHERE s.SupplierStatus = 'ACTIVE'
-          AND s.NextReviewDate IS NOT NULL
-          AND s.NextReviewDate <= CURRENT_DATE + INTERVAL '30 days'
-          AND s.NextReviewDate > CURRENT_DATE
-          AND NOT EXISTS (
-              SELECT 1 FROM NotificationHistory n
-              WHERE n.NotificationType = 'REVIEW_REMINDER'
-                AND n.TargetID = s.SupplierID
-                AND n.SentDate >= CURRENT_DATE - INTERVAL '7 days'
-          )
-        ORDER BY s.NextReviewDate ASC
-        */
-
-        LocalDate targetDate = LocalDate.now().plusDays(REMINDER_DAYS_BEFORE);
-        
-        suppliers.add(new SupplierForReview(
-            "SUP-20231201-003",
-            "関西精密株式会社",
-            LocalDate.of(2025, 12, 1),
-            3,
-            "ito@kansai-seimitsu.example.com"
-        ));
+        try (PreparedStatement ps = connection.prepareStatement(SELECT_SUPPLIERS_REQUIRING_REVIEW)) {
+            ps.setString(1, afterSupplierId != null ? afterSupplierId : "");
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    suppliers.add(toSupplierForReview(rs));
+                }
+            }
+        }
 
         return suppliers;
     }
 
+    private static SupplierForReview toSupplierForReview(ResultSet rs) throws SQLException {
+        int rating = rs.getInt("CurrentRating");
+        Integer currentRating = rs.wasNull() ? null : rating;
+        return new SupplierForReview(
+            rs.getString("SupplierID"),
+            rs.getString("CompanyName"),
+            rs.getDate("NextReviewDate").toLocalDate(),
+            currentRating,
+            rs.getString("ContactEmail")
+        );
+    }
+
     /**
-     * 再評価リマインダー通知を送信
+     * 購買先1件の再評価通知を即時に送信する（常駐の ResidentReminderService から通知時刻の到来時に呼び出す）
+     * 通知対象外（予定日の変更・有効でない・直近7日以内に通知済）の場合は送信しない。
+     * 他のノードが同じ対象へ送信中の場合も送信しない（NotificationLocks で送信前にロックを取得する）。
      * 
+     * @param supplierId 購買先ID
+     * @return 送信した場合 true
+     */
+    boolean remindNow(String supplierId) throws SQLException, InterruptedException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            if (!NotificationLocks.tryLock(connection, JOB_NAME, supplierId)) {
+                connection.rollback();
+                System.out.println("Review reminder for supplier " + supplierId + " is being sent by another node");
+                return false;
+            }
+            List<SupplierForReview> suppliers = new ArrayList<>(1);
+            try (PreparedStatement ps = connection.prepareStatement(SELECT_SUPPLIER_REQUIRING_REVIEW_NOW)) {
+                ps.setString(1, supplierId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        suppliers.add(toSupplierForReview(rs));
+                    }
+                }
+            }
+            if (suppliers.isEmpty()) {
+                connection.rollback();
+                return false;
+            }
+
+            NotificationDispatcher dispatcher = new NotificationDispatcher(this::sendEmail);
+            NotificationHistoryWriter historyWriter = new NotificationHistoryWriter();
+            Set<String> failedSupplierIds;
+            try {
+                failedSupplierIds = sendReviewReminders(suppliers, dispatcher, historyWriter);
+            } finally {
+                dispatcher.awaitCompletion();
+            }
+            try {
+                historyWriter.flushTo(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+            return failedSupplierIds.isEmpty();
+        }
+    }
+
+    /**
+     * 再評価リマインダー通知の送信を登録
+     * 
+     * @param dispatcher 通知メール並列送信
+     * @param historyWriter 通知履歴一括書込
      * @param supplier 通知対象購買先
      */
-    private void sendReviewReminderNotification(SupplierForReview supplier) {
+    private void sendReviewReminderNotification(NotificationDispatcher dispatcher,
+                                        NotificationHistoryWriter historyWriter,
+                                        SupplierForReview supplier)
+            throws InterruptedException {
         String subject = "【重要】購買先定期再評価のお知らせ";
         String messageBody = createNotificationMessage(supplier);
 
         List<String> recipients = getNotificationRecipients();
 
-        for (String recipientEmail : recipients) {
-            sendEmail(recipientEmail, subject, messageBody);
-            
-            saveNotificationHistory(
+        dispatcher.submit(supplier.getSupplierId(), recipients, subject, messageBody,
+            recipientEmail -> saveNotificationHistory(
+                historyWriter,
                 supplier.getSupplierId(),
                 NOTIFICATION_TYPE,
                 recipientEmail,
                 subject,
                 messageBody
-            );
-        }
+            ),
+            () -> System.out.println("Notification sent for supplier: " + supplier.getCompanyName()));
+    }
 
-        System.out.println("Notification sent for supplier: " + supplier.getCompanyName());
+    /**
+     * 再評価対象の購買先を全宛先のまとめ通知に追加
+     * 
+     * @param digest 宛先別リマインダーまとめ
+     * @param supplier 通知対象購買先
+     */
+    void addToDigest(ReminderDigest digest, SupplierForReview supplier) {
+        ReminderDigest.Item item = new ReminderDigest.Item(
+            ReminderDigest.Category.REVIEW,
+            NOTIFICATION_TYPE,
+            supplier.getSupplierId(),
+            supplier.getCompanyName(),
+            supplier.getNextReviewDate(),
+            "現行等級: " + getRatingText(supplier.getCurrentRating())
+        );
+        for (String recipientEmail : getNotificationRecipients()) {
+            digest.add(recipientEmail, item);
+        }
     }
 
     /**
@@ -171,7 +315,7 @@ public class ReviewReminderBatchJob {
      * @param supplier 通知対象購買先
      * @return 通知メッセージ本文
      */
-    private String createNotificationMessage(SupplierForReview supplier) {
+    String createNotificationMessage(SupplierForReview supplier) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy年MM月dd日");
         
         StringBuilder message = new StringBuilder();
@@ -228,27 +372,19 @@ public class ReviewReminderBatchJob {
     }
 
     /**
-     * 通知履歴をDBに保存
+     * 通知履歴をDBに保存（チャンクのコミット時に書き込む）
      * 
+     * @param historyWriter 通知履歴一括書込
      * @param targetId 対象ID（購買先ID）
      * @param notificationType 通知種別
      * @param recipientEmail 送信先メールアドレス
      * @param subject 件名
      * @param messageBody 本文
      */
-    private void saveNotificationHistory(String targetId, String notificationType, 
-                                        String recipientEmail, String subject, String messageBody) {
-        /*
-        INSERT INTO NotificationHistory (
-            NotificationID, NotificationType, TargetID,
-            RecipientUserID, RecipientEmail, Subject, MessageBody, Status
-        ) VALUES (
-            [生成したID], notificationType, targetId,
-            [ユーザーID], recipientEmail, subject, messageBody, 'SENT'
-        )
-        */
-        
-        System.out.println("Notification history saved for target: " + targetId);
+    private void saveNotificationHistory(NotificationHistoryWriter historyWriter, String targetId,
+                                        String notificationType, String recipientEmail,
+                                        String subject, String messageBody) {
+        historyWriter.add(notificationType, targetId, recipientEmail, subject, messageBody);
     }
 
     /**
@@ -267,14 +403,51 @@ public class ReviewReminderBatchJob {
         }
     }
 
+    private static final String SELECT_SUPPLIERS_DUE =
+        "SELECT s.SupplierID, s.CompanyName, s.NextReviewDate, s.CurrentRating, s.ContactEmail "
+        + "FROM SupplierMaster s "
+        + "WHERE s.SupplierStatus = 'ACTIVE' "
+        + "AND s.NextReviewDate IS NOT NULL "
+        + "AND s.NextReviewDate <= CURRENT_DATE + " + REMINDER_DAYS_BEFORE + " "
+        + "AND s.NextReviewDate > CURRENT_DATE ";
+
+    /*
+     * SupplierID > ? の通知対象を購買先ID順に取得する（チャンクの読込）。
+     * 直近7日以内に通知済（個別通知・まとめ通知）かの判定は RecentNotificationSet で行う。
+     */
+    private static final String SELECT_SUPPLIERS_REQUIRING_REVIEW =
+        SELECT_SUPPLIERS_DUE
+        + "AND s.SupplierID > ? "
+        + "ORDER BY s.SupplierID "
+        + "LIMIT ?";
+
+    /*
+     * 購買先1件が通知対象かを確認して取得する（即時通知）。1件のみのため通知履歴は副問合せで確認する。
+     */
+    private static final String SELECT_SUPPLIER_REQUIRING_REVIEW_NOW =
+        SELECT_SUPPLIERS_DUE
+        + "AND s.SupplierID = ? "
+        + "AND NOT EXISTS ("
+        + " SELECT 1 FROM NotificationHistory n"
+        + " WHERE n.NotificationType = '" + NOTIFICATION_TYPE + "'"
+        + " AND n.TargetID = s.SupplierID"
+        + " AND n.SentDate >= CURRENT_DATE - " + RENOTIFY_INTERVAL_DAYS + ") "
+        + "AND NOT EXISTS ("
+        + " SELECT 1 FROM NotificationHistoryTarget t"
+        + " JOIN NotificationHistory n ON n.NotificationID = t.NotificationID"
+        + " WHERE t.NotificationType = '" + NOTIFICATION_TYPE + "'"
+        + " AND t.TargetID = s.SupplierID"
+        + " AND n.SentDate >= CURRENT_DATE - " + RENOTIFY_INTERVAL_DAYS + ")";
+
     /**
      * バッチジョブのエントリーポイント
      * intra-mart のジョブスケジューラから実行される
      * 
-     * @param args コマンドライン引数
+     * @param args コマンドライン引数（未使用。宛先ごとのまとめ通知は ReminderDigestBatchJob を実行する）
      */
-    public static void main(String[] args) {
-        ReviewReminderBatchJob job = new ReviewReminderBatchJob();
+    public static void main(String[] args) throws Exception {
+        DataSource dataSource = (DataSource) new InitialContext().lookup("java:comp/env/jdbc/sqas");
+        ReviewReminderBatchJob job = new ReviewReminderBatchJob(dataSource);
         int exitCode = job.execute();
         System.exit(exitCode);
     }
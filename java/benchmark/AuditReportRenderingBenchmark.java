@@ -0,0 +1,113 @@
+package jp.co.company.sqas.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.co.company.sqas.service.AuditReportPDFService.AuditReportData;
+import jp.co.company.sqas.service.AuditReportPDFService.ScoreDetail;
+
+/**
+ * 審査報告書生成ベンチマーク
+ * Audit Report Rendering Benchmark
+ *
+ * 様式-8 / 様式-11 の生成性能を採点詳細件数ごとに計測する。
+ * 書類審査（様式-2）は約20問、実地審査（様式-5）は60〜200問を想定。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AuditReportRenderingBenchmark {
+
+    @Param({"20", "60", "200"})
+    public int detailCount;
+
+    private AuditReportPDFService service;
+    private AuditReportData reportData;
+    private File outputFile;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        service = new AuditReportPDFService();
+
+        List<ScoreDetail> details = new ArrayList<>(detailCount);
+        for (int i = 1; i <= detailCount; i++) {
+            boolean notApplicable = i % 17 == 0;
+            details.add(new ScoreDetail(i, "品質記録が適切に保管されているか（設問" + i + "）",
+                notApplicable ? null : (i % 3) * 2, notApplicable,
+                i % 4 == 0 ? "一部記録に不備あり" : ""));
+        }
+
+        reportData = new AuditReportData(
+            "AUD-20251120-001", "株式会社優良部品製作所", "東京都千代田区千代田1-1-1",
+            LocalDate.of(2025, 11, 20), "品質太郎", "品質保証部", "NEW",
+            BigDecimal.valueOf(85.50), BigDecimal.valueOf(88.00), BigDecimal.valueOf(87.00),
+            "優", "PASS", 1, "全体的に品質管理体制が整っており、優良な購買先として評価できる。",
+            details, "品質部長", LocalDate.of(2025, 11, 21));
+
+        outputFile = File.createTempFile("sqas-report-bench", ".txt");
+        outputFile.deleteOnExit();
+
+        // 生成メソッドの進捗ログを計測対象から外す
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+        outputFile.delete();
+    }
+
+    @Benchmark
+    public String generateForm8PDF() throws IOException {
+        return service.generateForm8PDF(reportData, outputFile.getPath());
+    }
+
+    @Benchmark
+    public String generateForm11PDF() throws IOException {
+        return service.generateForm11PDF(reportData, outputFile.getPath());
+    }
+
+    /**
+     * GCプロファイラ付きで実行する
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(AuditReportRenderingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package jp.co.company.sqas.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.co.company.sqas.service.AuditScoreCalculationService.AuditScoreItem;
+import jp.co.company.sqas.service.AuditScoreCalculationService.AuditScoreResult;
+import jp.co.company.sqas.service.AuditScoreCalculationService.BulkAuditScoreResult;
+import jp.co.company.sqas.service.AuditScoreCalculationService.PackedAuditScores;
+
+/**
+ * 採点計算ベンチマーク
+ * Audit Score Calculation Benchmark
+ *
+ * 設問数 10 / 50 / 200 における calculateTotalScore、一括採点、等級判定の性能を計測する。
+ * 一括採点は AUDITS_PER_BATCH 件の審査をまとめて1回として計測する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AuditScoreCalculationBenchmark {
+
+    static final int AUDITS_PER_BATCH = 1000;
+
+    @Param({"10", "50", "200"})
+    public int questions;
+
+    private AuditScoreCalculationService service;
+    private List<AuditScoreItem> items;
+    private PackedAuditScores packed;
+    private BigDecimal totalScore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new AuditScoreCalculationService();
+        Random random = new Random(42);
+
+        items = new ArrayList<>(questions);
+        for (int i = 0; i < questions; i++) {
+            boolean notApplicable = random.nextInt(20) == 0;
+            items.add(new AuditScoreItem(String.valueOf(i + 1), "設問" + (i + 1),
+                random.nextInt(3) * 2, notApplicable, null));
+        }
+        if (items.stream().allMatch(AuditScoreItem::isNotApplicable)) {
+            items.get(0).setNotApplicable(false);
+        }
+
+        int answers = questions * AUDITS_PER_BATCH;
+        byte[] scores = new byte[answers];
+        long[] naBits = new long[(answers + 63) >>> 6];
+        int[] offsets = new int[AUDITS_PER_BATCH + 1];
+        for (int a = 0; a < AUDITS_PER_BATCH; a++) {
+            offsets[a + 1] = offsets[a] + questions;
+        }
+        for (int i = 0; i < answers; i++) {
+            scores[i] = (byte) (random.nextInt(3) * 2);
+            // 各審査の先頭設問は調査済とし、全項目未調査を避ける
+            if (i % questions != 0 && random.nextInt(20) == 0) {
+                naBits[i >>> 6] |= 1L << i;
+            }
+        }
+        packed = new PackedAuditScores(scores, naBits, offsets);
+
+        totalScore = service.calculateTotalScore(items).getTotalScore();
+    }
+
+    @Benchmark
+    public AuditScoreResult calculateTotalScore() {
+        return service.calculateTotalScore(items);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BulkAuditScoreResult calculateTotalScoresBulk() {
+        return service.calculateTotalScores(packed);
+    }
+
+    @Benchmark
+    public Integer determineGrade() {
+        return service.determineGrade(totalScore);
+    }
+
+    /**
+     * GCプロファイラ付きで実行する
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(AuditScoreCalculationBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,112 @@
+package jp.co.company.sqas.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.co.company.sqas.service.AuditReportPDFService.AuditReportData;
+import jp.co.company.sqas.service.AuditReportPDFService.ReportForm;
+import jp.co.company.sqas.service.AuditReportPDFService.ScoreDetail;
+import jp.co.company.sqas.service.BulkReportGenerator.BulkReportResult;
+
+/**
+ * 帳票一括生成ベンチマーク
+ * Bulk Report Generation Benchmark
+ *
+ * 様式-8 を200件（採点詳細60件）一括生成する時間を同時生成数ごとに計測する。
+ * CPUコア数まではほぼ比例して短縮し、以降はディスクI/Oで頭打ちになることを確認する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkReportGenerationBenchmark {
+
+    private static final int REPORT_COUNT = 200;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int concurrency;
+
+    private BulkReportGenerator generator;
+    private List<AuditReportData> reports;
+    private Path outputDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        generator = new BulkReportGenerator(new AuditReportPDFService(), concurrency);
+
+        List<ScoreDetail> details = new ArrayList<>();
+        for (int i = 1; i <= 60; i++) {
+            details.add(new ScoreDetail(i, "品質記録が適切に保管されているか（設問" + i + "）",
+                (i % 3) * 2, false, i % 4 == 0 ? "一部記録に不備あり" : ""));
+        }
+        reports = new ArrayList<>(REPORT_COUNT);
+        for (int i = 1; i <= REPORT_COUNT; i++) {
+            reports.add(new AuditReportData(
+                String.format("AUD-20251120-%03d", i), "株式会社優良部品製作所", "東京都千代田区千代田1-1-1",
+                LocalDate.of(2025, 11, 20), "品質太郎", "品質保証部", "PERIODIC",
+                BigDecimal.valueOf(85.50), BigDecimal.valueOf(88.00), BigDecimal.valueOf(87.00),
+                "優", "PASS", 1, null, details, "品質部長", LocalDate.of(2025, 11, 21)));
+        }
+        outputDir = Files.createTempDirectory("sqas-bulk-bench");
+
+        // 失敗時のエラー出力を計測対象から外す
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(outputDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public BulkReportResult generateAll() throws InterruptedException {
+        return generator.generateAll(reports.stream(), ReportForm.FORM8,
+            data -> outputDir.resolve(data.getAuditId() + "_form8.txt"));
+    }
+
+    /**
+     * GCプロファイラ付きで実行する
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(BulkReportGenerationBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -0,0 +1,124 @@
+package jp.co.company.sqas.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 採番サービスベンチマーク
+ * ID Generator Benchmark
+ *
+ * 16スレッドから同時に購買先IDを採番した場合のスループットを計測する。
+ * blockSize=1 は従来の「1件ごとに採番テーブルの行ロックを取得する」方式に相当する。
+ *
+ * 1日の上限（999件）に達しないよう、時計は 900 件採番するごとに1日進める。
+ * ブロック予約には reserveCost で指定したCPU負荷を加え、DB往復を模擬する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(16)
+public class IdGeneratorBenchmark {
+
+    private static final int IDS_PER_DAY = 900;
+
+    @Param({"1", "20", "100"})
+    public int blockSize;
+
+    @Param({"0", "2000"})
+    public long reserveCost;
+
+    private IdGenerator generator;
+
+    /**
+     * 参照 IDS_PER_DAY 回ごとに1日進む時計
+     */
+    private static final class RollingClock extends Clock {
+        private static final long START_EPOCH_DAY = LocalDate.of(2025, 1, 1).toEpochDay();
+
+        /** withZone で作成した時計と共有する（タイムゾーンが異なっても同じ日付の進みとする） */
+        private final AtomicLong ticks;
+        private final ZoneId zone;
+
+        RollingClock() {
+            this(new AtomicLong(), ZoneOffset.UTC);
+        }
+
+        private RollingClock(AtomicLong ticks, ZoneId zone) {
+            this.ticks = ticks;
+            this.zone = zone;
+        }
+
+        @Override
+        public Instant instant() {
+            long day = START_EPOCH_DAY + ticks.getAndIncrement() / IDS_PER_DAY;
+            return Instant.ofEpochSecond(day * 86400L);
+        }
+
+        @Override
+        public ZoneId getZone() { return zone; }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return zone.equals(this.zone) ? this : new RollingClock(ticks, zone);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        IdGenerator.InMemoryBlockAllocator inMemory = new IdGenerator.InMemoryBlockAllocator();
+        long cost = reserveCost;
+        IdGenerator.BlockAllocator allocator = (prefix, date, size) -> {
+            synchronized (inMemory) { // 行ロックを保持したままDB往復する状態を模擬する
+                Blackhole.consumeCPU(cost);
+                return inMemory.reserve(prefix, date, size);
+            }
+        };
+        generator = new IdGenerator(allocator, blockSize, new RollingClock());
+    }
+
+    @Benchmark
+    public String nextSupplierId() {
+        return generator.nextSupplierId();
+    }
+
+    /**
+     * GCプロファイラ付きで実行する
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(IdGeneratorBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
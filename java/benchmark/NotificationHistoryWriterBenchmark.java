@@ -0,0 +1,144 @@
+package jp.co.company.sqas.batch;
+
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 通知履歴一括書込ベンチマーク
+ * Notification History Writer Benchmark
+ *
+ * 通知履歴 2,000 件（購買先 1,000 件 × 宛先 2 件）の書込時間を、1回の書込件数ごとに計測する。
+ * batchSize=1 は従来の「1件ごとに INSERT する」方式に相当する。
+ *
+ * DB は JDBC のプロキシで模擬し、executeUpdate / executeBatch / commit ごとに roundTripMicros の待ち、
+ * 一括書込では1件あたり rowMicros の待ちを加える。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationHistoryWriterBenchmark {
+
+    private static final int ROWS = 2000;
+
+    @Param({"1", "100", "500"})
+    public int batchSize;
+
+    @Param({"200"})
+    public long roundTripMicros;
+
+    @Param({"5"})
+    public long rowMicros;
+
+    @Benchmark
+    public int writeHistory() {
+        DataSource dataSource = simulatedDataSource(roundTripMicros, rowMicros);
+        NotificationHistoryWriter writer = new NotificationHistoryWriter(dataSource, batchSize, 60_000);
+        for (int i = 0; i < ROWS; i++) {
+            writer.add("REVIEW_REMINDER", "SUP-20251120-" + (i / 2),
+                i % 2 == 0 ? "qa-manager@company.example.com" : "procurement-manager@company.example.com",
+                "【重要】購買先定期再評価のお知らせ", "購買先品質審査管理システムからのお知らせ");
+        }
+        writer.close();
+        return writer.getWrittenCount();
+    }
+
+    /**
+     * DB往復の待ちのみを行う DataSource
+     */
+    static DataSource simulatedDataSource(long roundTripMicros, long rowMicros) {
+        long roundTrip = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        long perRow = TimeUnit.MICROSECONDS.toNanos(rowMicros);
+        PreparedStatement statement = proxy(PreparedStatement.class, new Object() {
+            int batched;
+        }, (state, method, args) -> {
+            switch (method) {
+                case "addBatch":
+                    state.batched++;
+                    return null;
+                case "executeBatch":
+                    LockSupport.parkNanos(roundTrip + perRow * state.batched);
+                    int[] counts = new int[state.batched];
+                    state.batched = 0;
+                    return counts;
+                case "executeUpdate":
+                    LockSupport.parkNanos(roundTrip);
+                    return 1;
+                default:
+                    return null;
+            }
+        });
+        Connection connection = proxy(Connection.class, null, (state, method, args) -> {
+            switch (method) {
+                case "prepareStatement":
+                    return statement;
+                case "commit":
+                case "rollback":
+                    LockSupport.parkNanos(roundTrip);
+                    return null;
+                default:
+                    return null;
+            }
+        });
+        DataSource dataSource = proxy(DataSource.class, null, (state, method, args) -> {
+            switch (method) {
+                case "getConnection":
+                    return connection;
+                case "getLogWriter":
+                    return new PrintWriter(System.out);
+                case "getParentLogger":
+                    return Logger.getGlobal();
+                default:
+                    return null;
+            }
+        });
+        return dataSource;
+    }
+
+    private interface Handler<S> {
+        Object invoke(S state, String method, Object[] args);
+    }
+
+    private static <T, S> T proxy(Class<T> type, S state, Handler<S> handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            (self, method, args) -> handler.invoke(state, method.getName(), args)));
+    }
+
+    /**
+     * GCプロファイラ付きで実行する
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(NotificationHistoryWriterBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
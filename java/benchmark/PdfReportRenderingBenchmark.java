@@ -0,0 +1,146 @@
+package jp.co.company.sqas.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.co.company.sqas.service.AuditReportPDFService.AuditReportData;
+import jp.co.company.sqas.service.AuditReportPDFService.OutputFormat;
+import jp.co.company.sqas.service.AuditReportPDFService.ReportForm;
+import jp.co.company.sqas.service.AuditReportPDFService.ScoreDetail;
+
+/**
+ * PDF帳票生成ベンチマーク
+ * PDF Report Rendering Benchmark
+ *
+ * 様式-8（採点詳細60件）のPDF生成1件あたりの時間を、フォントの読込方法ごとに計測する。
+ * <ul>
+ *   <li>coldFontLoad: フォントファイルの読込・解析とサブセット作成のみ（帳票ごとにフォントを読み込む場合の下限）</li>
+ *   <li>pdfEmbeddedFont: 読込済フォントで生成（帳票ごとに監査IDが異なり、サブセットは毎回作成）</li>
+ *   <li>pdfEmbeddedFontCachedSubset: 読込済フォントで生成（同じグリフ構成のサブセットを再利用）</li>
+ *   <li>pdfStandardFont: フォント埋め込みなしで生成</li>
+ *   <li>text: テキスト出力（比較用）</li>
+ * </ul>
+ * pdfEmbeddedFont が coldFontLoad を大きく下回ることを確認する。
+ *
+ * 埋め込むフォントは -p fontFile=... で指定する（既定値は Debian / Ubuntu の fonts-ipafont-gothic）。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfReportRenderingBenchmark {
+
+    @Param({"/usr/share/fonts/opentype/ipafont-gothic/ipag.ttf"})
+    public String fontFile;
+
+    private AuditReportPDFService standardService;
+    private AuditReportPDFService embeddedService;
+    private List<AuditReportData> reports;
+    private BitSet reportGlyphs;
+    private Path outputDir;
+    private String outputPath;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        standardService = new AuditReportPDFService();
+        embeddedService = new AuditReportPDFService(Paths.get(fontFile));
+
+        List<ScoreDetail> details = new ArrayList<>();
+        for (int i = 1; i <= 60; i++) {
+            details.add(new ScoreDetail(i, "品質記録が適切に保管されているか（設問" + i + "）",
+                (i % 3) * 2, false, i % 4 == 0 ? "一部記録に不備あり" : ""));
+        }
+        // 監査IDの数字の組合せを変え、帳票ごとにグリフ構成が異なるようにする
+        reports = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            reports.add(new AuditReportData(
+                "AUD-20251120-" + Integer.toString(i, 4) + "号", "株式会社優良部品製作所" + (char) ('亜' + i),
+                "東京都千代田区千代田1-1-1", LocalDate.of(2025, 11, 20), "品質太郎", "品質保証部", "PERIODIC",
+                BigDecimal.valueOf(85.50), BigDecimal.valueOf(88.00), BigDecimal.valueOf(87.00),
+                "優", "PASS", 1, "全体的に品質管理体制が整っている。", details, "品質部長", LocalDate.of(2025, 11, 21)));
+        }
+
+        TrueTypeFont font = new TrueTypeFont(Paths.get(fontFile));
+        reportGlyphs = new BitSet();
+        String sample = "株式会社優良部品製作所東京都千代田区品質太郎保証部審査結果報告書設問記録適切保管0123456789";
+        sample.codePoints().forEach(codePoint -> reportGlyphs.set(font.glyphId(codePoint)));
+
+        outputDir = Files.createTempDirectory("sqas-pdf-bench");
+        outputPath = outputDir.resolve("report.pdf").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get(outputPath));
+        Files.deleteIfExists(outputDir);
+    }
+
+    @Benchmark
+    public byte[] coldFontLoad() throws IOException {
+        return new TrueTypeFont(Paths.get(fontFile)).subset(reportGlyphs);
+    }
+
+    @Benchmark
+    public void pdfEmbeddedFont() throws IOException {
+        next = (next + 1) % reports.size();
+        embeddedService.generate(ReportForm.FORM8, OutputFormat.PDF, reports.get(next), outputPath);
+    }
+
+    @Benchmark
+    public void pdfEmbeddedFontCachedSubset() throws IOException {
+        embeddedService.generate(ReportForm.FORM8, OutputFormat.PDF, reports.get(0), outputPath);
+    }
+
+    @Benchmark
+    public void pdfStandardFont() throws IOException {
+        standardService.generate(ReportForm.FORM8, OutputFormat.PDF, reports.get(0), outputPath);
+    }
+
+    @Benchmark
+    public void text() throws IOException {
+        standardService.generate(ReportForm.FORM8, OutputFormat.TEXT, reports.get(0), outputPath);
+    }
+
+    /**
+     * GCプロファイラ付きで実行する
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(PdfReportRenderingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
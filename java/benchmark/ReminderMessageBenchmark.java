@@ -0,0 +1,89 @@
+package jp.co.company.sqas.batch;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.co.company.sqas.batch.CorrectiveActionReminderBatchJob.CorrectiveActionInfo;
+import jp.co.company.sqas.batch.ReviewReminderBatchJob.SupplierForReview;
+
+/**
+ * リマインダーメッセージ生成ベンチマーク
+ * Reminder Message Benchmark
+ *
+ * 再評価リマインダーおよび是正処置リマインダーのメッセージ生成スループットを計測する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ReminderMessageBenchmark {
+
+    private ReviewReminderBatchJob reviewJob;
+    private CorrectiveActionReminderBatchJob correctiveActionJob;
+    private SupplierForReview supplier;
+    private CorrectiveActionInfo dueSoonAction;
+    private CorrectiveActionInfo overdueAction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reviewJob = new ReviewReminderBatchJob();
+        correctiveActionJob = new CorrectiveActionReminderBatchJob();
+
+        LocalDate today = LocalDate.now();
+        supplier = new SupplierForReview("SUP-20231201-003", "関西精密株式会社",
+            today.plusDays(30), 3, "ito@kansai-seimitsu.example.com");
+        dueSoonAction = new CorrectiveActionInfo("CA-20251015-002", "AUD-20251015-005",
+            "SUP-20240615-005", "東北製造株式会社", "製造工程における検査工程の欠落",
+            today.plusDays(3), "IN_PROGRESS", "qa_auditor");
+        overdueAction = new CorrectiveActionInfo("CA-20251101-003", "AUD-20251101-003",
+            "SUP-20231201-003", "関西精密株式会社", "校正記録の一部に記入漏れがある",
+            today.minusDays(5), "OPEN", "qa_auditor");
+    }
+
+    @Benchmark
+    public String createNotificationMessage() {
+        return reviewJob.createNotificationMessage(supplier);
+    }
+
+    @Benchmark
+    public String createReminderMessage() {
+        return correctiveActionJob.createReminderMessage(dueSoonAction);
+    }
+
+    @Benchmark
+    public String createOverdueMessage() {
+        return correctiveActionJob.createOverdueMessage(overdueAction);
+    }
+
+    /**
+     * GCプロファイラ付きで実行する
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ReminderMessageBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
@@ -1,9 +1,9 @@
 package jp.co.company.sqas.service;
 
-import java.io.ByteArrayOutputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -16,6 +16,11 @@ import java.util.List;
  * 
  * 実際の実装では、Apache PDFBox、iText、JasperReportsなどのライブラリを使用
  * 
+ * 帳票は ReportTemplate で定義し、StreamingReportWriter で逐次ファイルへ出力する（全体をメモリ上に保持しない）
+ * 
+ * 出力形式はテキストとPDF（PdfReportWriter）から選択する。PDFに埋め込む日本語フォントは
+ * JVMで1回だけ読み込み、一括生成する全帳票で共有する
+ * 
  * @author Supplier Quality Audit System Development Team
  * @version 1.0
  * @since 2025-11-20
@@ -26,6 +31,23 @@ public class AuditReportPDFService {
     private static final String COMPANY_LOGO_PATH = "/path/to/company_logo.png";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy年MM月dd日");
 
+    /** PDFに埋め込むフォント（null の場合は埋め込みなし） */
+    private final PdfReportWriter.EmbeddedFont pdfFont;
+
+    /**
+     * PDFはフォントを埋め込まず、ビューア標準の日本語フォント（HeiseiKakuGo-W5）で表示する
+     */
+    public AuditReportPDFService() {
+        this.pdfFont = null;
+    }
+
+    /**
+     * @param pdfFontFile PDFに埋め込む日本語 TrueType フォント（.ttf、表の桁揃えには等幅フォントを使用）
+     */
+    public AuditReportPDFService(Path pdfFontFile) throws IOException {
+        this.pdfFont = PdfReportWriter.EmbeddedFont.load(pdfFontFile);
+    }
+
     /**
      * 審査結果報告書データクラス（様式-8）
      */
@@ -118,6 +140,177 @@ public class AuditReportPDFService {
         public String getRemarks() { return remarks; }
     }
 
+    /** 罫線 */
+    private static final String RULE = "==============================================\n";
+
+    /** 評価点の表示文字列（0〜4点は事前生成） */
+    private static final String[] SCORE_TEXTS = {"0点", "1点", "2点", "3点", "4点"};
+
+    /**
+     * 採点詳細の明細行
+     * 
+     * 桁揃えは表示幅（全角2桁）で行う。審査項目欄は全角30文字分（60桁）。
+     */
+    private static final ReportTemplate<ScoreDetail> SCORE_DETAIL_ROW = ReportTemplate.<ScoreDetail>builder()
+        .number(ScoreDetail::getQuestionNumber, 3).literal(" | ")
+        .text(ScoreDetail::getQuestionText, -60).literal(" | ")
+        .text(AuditReportPDFService::getScoreText, 6).literal(" | ")
+        .text(detail -> detail.getRemarks() != null ? detail.getRemarks() : "").literal("\n")
+        .build();
+
+    /** 採点詳細の罫線（明細行の桁に合わせる） */
+    private static final String SCORE_DETAIL_RULE = "----+" + "-".repeat(62) + "+" + "-".repeat(8) + "+------\n";
+
+    /**
+     * 採点詳細の見出し行・罫線（明細行と同じ表示幅で桁揃えする）
+     *
+     * @param itemLabel 項目欄の見出し（審査項目/監査項目）
+     */
+    private static ReportTemplate<AuditReportData> scoreDetailHeader(String itemLabel) {
+        return ReportTemplate.<AuditReportData>builder()
+            .literal("No. | ")
+            .text(data -> itemLabel, -60).literal(" | ")
+            .text(data -> "評価点", 6).literal(" | 備考\n")
+            .literal(SCORE_DETAIL_RULE)
+            .build();
+    }
+
+    /**
+     * 会社名・報告日（様式共通）
+     */
+    private static final ReportTemplate<AuditReportData> COMPANY_HEADER = ReportTemplate.<AuditReportData>builder()
+        .literal("会社名: " + COMPANY_NAME + "\n")
+        .literal("報告日: ").date(data -> LocalDate.now()).literal("\n\n")
+        .build();
+
+    /**
+     * 承認情報・フッター（様式共通）
+     */
+    private static final ReportTemplate<AuditReportData> APPROVAL_FOOTER = ReportTemplate.<AuditReportData>builder()
+        .literal("【承認情報】\n")
+        .literal("承認者: ").text(AuditReportData::getApproverName).literal("\n")
+        .literal("承認日: ").date(AuditReportData::getApprovalDate).literal("\n\n")
+        .literal(RULE)
+        .literal("※ このレポートはGCP0602に準拠して作成されました\n")
+        .literal(RULE)
+        .build();
+
+    /**
+     * 様式-8（審査結果報告書）
+     */
+    private static final ReportTemplate<AuditReportData> FORM8_TEMPLATE = ReportTemplate.<AuditReportData>builder()
+        .literal(RULE)
+        .literal("         審査結果報告書（様式-8）           \n")
+        .literal(RULE).literal("\n")
+        .include(COMPANY_HEADER)
+        .literal("【基本情報】\n")
+        .literal("審査ID: ").text(AuditReportData::getAuditId).literal("\n")
+        .literal("購買先名: ").text(AuditReportData::getSupplierName).literal("\n")
+        .literal("購買先住所: ").text(AuditReportData::getSupplierAddress).literal("\n")
+        .literal("審査実施日: ").date(AuditReportData::getAuditDate).literal("\n")
+        .literal("審査種別: ").text(data -> getAuditTypeText(data.getAuditType())).literal("\n\n")
+        .literal("【審査員情報】\n")
+        .literal("審査員名: ").text(AuditReportData::getAuditorName).literal("\n")
+        .literal("所属部門: ").text(AuditReportData::getAuditorDepartment).literal("\n\n")
+        .literal("【審査結果】\n")
+        .when(data -> data.getDocumentAuditScore() != null, ReportTemplate.<AuditReportData>builder()
+            .literal("書類審査点数: ").text(AuditReportData::getDocumentAuditScore).literal("点\n")
+            .build())
+        .when(data -> data.getOnSiteAuditScore() != null, ReportTemplate.<AuditReportData>builder()
+            .literal("実地審査点数: ").text(AuditReportData::getOnSiteAuditScore).literal("点\n")
+            .build())
+        .literal("総合点: ").text(AuditReportData::getTotalScore).literal("点\n")
+        .literal("評価: ").text(AuditReportData::getRating).literal("\n")
+        .literal("判定: ").text(data -> getDecisionText(data.getDecision())).literal("\n")
+        .when(data -> data.getGrade() != null, ReportTemplate.<AuditReportData>builder()
+            .literal("等級: ").number(AuditReportData::getGrade)
+            .literal(" (").text(data -> getGradeText(data.getGrade())).literal(")\n")
+            .build())
+        .literal("\n")
+        .literal("【採点詳細】\n")
+        .include(scoreDetailHeader("審査項目"))
+        .each(AuditReportData::getScoreDetails, SCORE_DETAIL_ROW)
+        .literal("\n")
+        .literal("【総合所見】\n")
+        .text(data -> data.getComments() != null ? data.getComments() : "特記事項なし")
+        .literal("\n\n")
+        .include(APPROVAL_FOOTER)
+        .build();
+
+    /**
+     * 様式-11（実施監査結果）
+     */
+    private static final ReportTemplate<AuditReportData> FORM11_TEMPLATE = ReportTemplate.<AuditReportData>builder()
+        .literal(RULE)
+        .literal("        実施監査結果（様式-11）            \n")
+        .literal(RULE).literal("\n")
+        .include(COMPANY_HEADER)
+        .literal("【基本情報】\n")
+        .literal("審査ID: ").text(AuditReportData::getAuditId).literal("\n")
+        .literal("購買先名: ").text(AuditReportData::getSupplierName).literal("\n")
+        .literal("購買先住所: ").text(AuditReportData::getSupplierAddress).literal("\n")
+        .literal("監査実施日: ").date(AuditReportData::getAuditDate).literal("\n")
+        .literal("監査種別: 定期再評価\n\n")
+        .literal("【監査員情報】\n")
+        .literal("監査員名: ").text(AuditReportData::getAuditorName).literal("\n")
+        .literal("所属部門: ").text(AuditReportData::getAuditorDepartment).literal("\n\n")
+        .literal("【監査結果】\n")
+        .literal("実地監査点数: ").text(AuditReportData::getOnSiteAuditScore).literal("点\n")
+        .literal("総合点: ").text(AuditReportData::getTotalScore).literal("点\n")
+        .literal("評価: ").text(AuditReportData::getRating).literal("\n")
+        .literal("判定: ").text(data -> getDecisionText(data.getDecision())).literal("\n")
+        .when(data -> data.getGrade() != null, ReportTemplate.<AuditReportData>builder()
+            .literal("更新後等級: ").number(AuditReportData::getGrade)
+            .literal(" (").text(data -> getGradeText(data.getGrade())).literal(")\n")
+            .build())
+        .literal("\n")
+        .literal("【監査項目評価】\n")
+        .include(scoreDetailHeader("監査項目"))
+        .each(AuditReportData::getScoreDetails, SCORE_DETAIL_ROW)
+        .literal("\n")
+        .literal("【監査所見】\n")
+        .text(data -> data.getComments() != null ? data.getComments() : "特記事項なし")
+        .literal("\n\n")
+        .include(APPROVAL_FOOTER)
+        .build();
+
+    /**
+     * 帳票様式
+     */
+    public enum ReportForm {
+        /** 様式-8（審査結果報告書） */
+        FORM8("FORM8-2"),
+        /** 様式-11（実施監査結果） */
+        FORM11("FORM11-2");
+
+        private final String templateVersion;
+
+        ReportForm(String templateVersion) {
+            this.templateVersion = templateVersion;
+        }
+
+        /**
+         * テンプレートのバージョン（レイアウト・固定文言を変更した場合は更新すること）
+         */
+        public String getTemplateVersion() {
+            return templateVersion;
+        }
+
+        ReportTemplate<AuditReportData> template() {
+            return this == FORM8 ? FORM8_TEMPLATE : FORM11_TEMPLATE;
+        }
+    }
+
+    /**
+     * 出力形式
+     */
+    public enum OutputFormat {
+        /** テキスト（UTF-8） */
+        TEXT,
+        /** PDF（A4 縦） */
+        PDF
+    }
+
     /**
      * 様式-8（審査結果報告書）のPDFを生成
      * 
@@ -128,69 +321,7 @@ public class AuditReportPDFService {
     public String generateForm8PDF(AuditReportData reportData, String outputPath) throws IOException {
         System.out.println("=== Generating Form-8 (Audit Result Report) PDF ===");
         
-        
-        StringBuilder pdfContent = new StringBuilder();
-        pdfContent.append("==============================================\n");
-        pdfContent.append("         審査結果報告書（様式-8）           \n");
-        pdfContent.append("==============================================\n\n");
-        
-        pdfContent.append("会社名: ").append(COMPANY_NAME).append("\n");
-        pdfContent.append("報告日: ").append(LocalDate.now().format(DATE_FORMATTER)).append("\n\n");
-        
-        pdfContent.append("【基本情報】\n");
-        pdfContent.append("審査ID: ").append(reportData.getAuditId()).append("\n");
-        pdfContent.append("購買先名: ").append(reportData.getSupplierName()).append("\n");
-        pdfContent.append("購買先住所: ").append(reportData.getSupplierAddress()).append("\n");
-        pdfContent.append("審査実施日: ").append(reportData.getAuditDate().format(DATE_FORMATTER)).append("\n");
-        pdfContent.append("審査種別: ").append(getAuditTypeText(reportData.getAuditType())).append("\n\n");
-        
-        pdfContent.append("【審査員情報】\n");
-        pdfContent.append("審査員名: ").append(reportData.getAuditorName()).append("\n");
-        pdfContent.append("所属部門: ").append(reportData.getAuditorDepartment()).append("\n\n");
-        
-        pdfContent.append("【審査結果】\n");
-        if (reportData.getDocumentAuditScore() != null) {
-            pdfContent.append("書類審査点数: ").append(reportData.getDocumentAuditScore()).append("点\n");
-        }
-        if (reportData.getOnSiteAuditScore() != null) {
-            pdfContent.append("実地審査点数: ").append(reportData.getOnSiteAuditScore()).append("点\n");
-        }
-        pdfContent.append("総合点: ").append(reportData.getTotalScore()).append("点\n");
-        pdfContent.append("評価: ").append(reportData.getRating()).append("\n");
-        pdfContent.append("判定: ").append(getDecisionText(reportData.getDecision())).append("\n");
-        if (reportData.getGrade() != null) {
-            pdfContent.append("等級: ").append(reportData.getGrade()).append(" (").append(getGradeText(reportData.getGrade())).append(")\n");
-        }
-        pdfContent.append("\n");
-        
-        pdfContent.append("【採点詳細】\n");
-        pdfContent.append("No. | 審査項目 | 評価点 | 備考\n");
-        pdfContent.append("----+----------+--------+------\n");
-        for (ScoreDetail detail : reportData.getScoreDetails()) {
-            pdfContent.append(String.format("%3d | %-30s | %6s | %s\n",
-                detail.getQuestionNumber(),
-                detail.getQuestionText(),
-                detail.isNotApplicable() ? "未調査" : detail.getScore() + "点",
-                detail.getRemarks() != null ? detail.getRemarks() : ""
-            ));
-        }
-        pdfContent.append("\n");
-        
-        pdfContent.append("【総合所見】\n");
-        pdfContent.append(reportData.getComments() != null ? reportData.getComments() : "特記事項なし");
-        pdfContent.append("\n\n");
-        
-        pdfContent.append("【承認情報】\n");
-        pdfContent.append("承認者: ").append(reportData.getApproverName()).append("\n");
-        pdfContent.append("承認日: ").append(reportData.getApprovalDate().format(DATE_FORMATTER)).append("\n\n");
-        
-        pdfContent.append("==============================================\n");
-        pdfContent.append("※ このレポートはGCP0602に準拠して作成されました\n");
-        pdfContent.append("==============================================\n");
-        
-        try (FileOutputStream fos = new FileOutputStream(outputPath)) {
-            fos.write(pdfContent.toString().getBytes("UTF-8"));
-        }
+        generate(ReportForm.FORM8, reportData, outputPath);
         
         System.out.println("PDF generated successfully: " + outputPath);
         return outputPath;
@@ -206,72 +337,59 @@ public class AuditReportPDFService {
     public String generateForm11PDF(AuditReportData reportData, String outputPath) throws IOException {
         System.out.println("=== Generating Form-11 (On-site Audit Result) PDF ===");
         
-        StringBuilder pdfContent = new StringBuilder();
-        pdfContent.append("==============================================\n");
-        pdfContent.append("        実施監査結果（様式-11）            \n");
-        pdfContent.append("==============================================\n\n");
-        
-        pdfContent.append("会社名: ").append(COMPANY_NAME).append("\n");
-        pdfContent.append("報告日: ").append(LocalDate.now().format(DATE_FORMATTER)).append("\n\n");
-        
-        pdfContent.append("【基本情報】\n");
-        pdfContent.append("審査ID: ").append(reportData.getAuditId()).append("\n");
-        pdfContent.append("購買先名: ").append(reportData.getSupplierName()).append("\n");
-        pdfContent.append("購買先住所: ").append(reportData.getSupplierAddress()).append("\n");
-        pdfContent.append("監査実施日: ").append(reportData.getAuditDate().format(DATE_FORMATTER)).append("\n");
-        pdfContent.append("監査種別: 定期再評価\n\n");
+        generate(ReportForm.FORM11, reportData, outputPath);
         
-        pdfContent.append("【監査員情報】\n");
-        pdfContent.append("監査員名: ").append(reportData.getAuditorName()).append("\n");
-        pdfContent.append("所属部門: ").append(reportData.getAuditorDepartment()).append("\n\n");
-        
-        pdfContent.append("【監査結果】\n");
-        pdfContent.append("実地監査点数: ").append(reportData.getOnSiteAuditScore()).append("点\n");
-        pdfContent.append("総合点: ").append(reportData.getTotalScore()).append("点\n");
-        pdfContent.append("評価: ").append(reportData.getRating()).append("\n");
-        pdfContent.append("判定: ").append(getDecisionText(reportData.getDecision())).append("\n");
-        if (reportData.getGrade() != null) {
-            pdfContent.append("更新後等級: ").append(reportData.getGrade()).append(" (").append(getGradeText(reportData.getGrade())).append(")\n");
+        System.out.println("PDF generated successfully: " + outputPath);
+        return outputPath;
+    }
+
+    /**
+     * 指定様式の帳票をファイルへ出力する（進捗ログなし、一括生成用）
+     * 
+     * @param form 帳票様式
+     * @param reportData 審査結果データ
+     * @param outputPath 出力ファイルパス
+     */
+    public void generate(ReportForm form, AuditReportData reportData, String outputPath) throws IOException {
+        generate(form, OutputFormat.TEXT, reportData, outputPath);
+    }
+
+    /**
+     * 指定様式の帳票を指定形式でファイルへ出力する（進捗ログなし、一括生成用）
+     * 
+     * @param form 帳票様式
+     * @param format 出力形式
+     * @param reportData 審査結果データ
+     * @param outputPath 出力ファイルパス
+     */
+    public void generate(ReportForm form, OutputFormat format, AuditReportData reportData, String outputPath)
+            throws IOException {
+        Path path = Paths.get(outputPath);
+        try (StreamingReportWriter out = format == OutputFormat.PDF
+                ? new StreamingReportWriter(PdfReportWriter.open(path, pdfFont))
+                : StreamingReportWriter.open(path)) {
+            form.template().render(reportData, out);
         }
-        pdfContent.append("\n");
-        
-        pdfContent.append("【監査項目評価】\n");
-        pdfContent.append("No. | 監査項目 | 評価点 | 備考\n");
-        pdfContent.append("----+----------+--------+------\n");
-        for (ScoreDetail detail : reportData.getScoreDetails()) {
-            pdfContent.append(String.format("%3d | %-30s | %6s | %s\n",
-                detail.getQuestionNumber(),
-                detail.getQuestionText(),
-                detail.isNotApplicable() ? "未調査" : detail.getScore() + "点",
-                detail.getRemarks() != null ? detail.getRemarks() : ""
-            ));
+    }
+
+    /**
+     * 評価点テキストを取得
+     */
+    private static String getScoreText(ScoreDetail detail) {
+        if (detail.isNotApplicable()) {
+            return "未調査";
         }
-        pdfContent.append("\n");
-        
-        pdfContent.append("【監査所見】\n");
-        pdfContent.append(reportData.getComments() != null ? reportData.getComments() : "特記事項なし");
-        pdfContent.append("\n\n");
-        
-        pdfContent.append("【承認情報】\n");
-        pdfContent.append("承認者: ").append(reportData.getApproverName()).append("\n");
-        pdfContent.append("承認日: ").append(reportData.getApprovalDate().format(DATE_FORMATTER)).append("\n\n");
-        
-        pdfContent.append("==============================================\n");
-        pdfContent.append("※ このレポートはGCP0602に準拠して作成されました\n");
-        pdfContent.append("==============================================\n");
-        
-        try (FileOutputStream fos = new FileOutputStream(outputPath)) {
-            fos.write(pdfContent.toString().getBytes("UTF-8"));
+        Integer score = detail.getScore();
+        if (score != null && score >= 0 && score < SCORE_TEXTS.length) {
+            return SCORE_TEXTS[score];
         }
-        
-        System.out.println("PDF generated successfully: " + outputPath);
-        return outputPath;
+        return score + "点";
     }
 
     /**
      * 審査種別テキストを取得
      */
-    private String getAuditTypeText(String auditType) {
+    private static String getAuditTypeText(String auditType) {
         switch (auditType) {
             case "NEW": return "新規審査";
             case "PERIODIC": return "定期再評価";
@@ -283,7 +401,7 @@ public class AuditReportPDFService {
     /**
      * 判定テキストを取得
      */
-    private String getDecisionText(String decision) {
+    private static String getDecisionText(String decision) {
         switch (decision) {
             case "PASS": return "合格";
             case "CONDITIONAL": return "是正指示";
@@ -295,7 +413,7 @@ public class AuditReportPDFService {
     /**
      * 等級テキストを取得
      */
-    private String getGradeText(Integer grade) {
+    private static String getGradeText(Integer grade) {
         if (grade == null) return "未評価";
         switch (grade) {
             case 1: return "優良";
@@ -348,6 +466,10 @@ public class AuditReportPDFService {
             service.generateForm11PDF(reportData, form11Path);
             System.out.println("Form-11 generated: " + form11Path);
 
+            String form8PdfPath = "/tmp/audit_report_form8.pdf";
+            service.generate(ReportForm.FORM8, OutputFormat.PDF, reportData, form8PdfPath);
+            System.out.println("Form-8 PDF generated: " + form8PdfPath);
+
         } catch (IOException e) {
             System.err.println("Error generating PDF: " + e.getMessage());
             e.printStackTrace();
@@ -2,6 +2,7 @@ package jp.co.company.sqas.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -17,6 +18,16 @@ import java.util.List;
  */
 public class AuditScoreCalculationService {
 
+    private final ScoringPolicyRegistry policies;
+
+    public AuditScoreCalculationService() {
+        this(ScoringPolicyRegistry.defaultRegistry());
+    }
+
+    public AuditScoreCalculationService(ScoringPolicyRegistry policies) {
+        this.policies = policies;
+    }
+
     /**
      * 審査採点項目クラス
      */
@@ -92,6 +103,145 @@ public class AuditScoreCalculationService {
         }
     }
 
+    /**
+     * 一括採点用のパック済み入力クラス
+     * 
+     * 複数審査の回答を1回答1バイトで連結し、未調査フラグをビットセットで保持する。
+     * 審査 a の回答は scores[offsets[a]] 〜 scores[offsets[a + 1] - 1] に格納される。
+     */
+    public static class PackedAuditScores {
+        private final byte[] scores; // 4: 適合, 2: 一部不適合, 0: 不適合
+        private final long[] notApplicableBits; // ビット i が立っていれば回答 i は未調査
+        private final int[] offsets; // 長さ = 審査件数 + 1
+
+        public PackedAuditScores(byte[] scores, long[] notApplicableBits, int[] offsets) {
+            if (scores == null || notApplicableBits == null || offsets == null || offsets.length == 0) {
+                throw new IllegalArgumentException("Scores, not-applicable bits and offsets cannot be null or empty");
+            }
+            if (offsets[0] != 0 || offsets[offsets.length - 1] != scores.length) {
+                throw new IllegalArgumentException("Offsets must start at 0 and end at scores.length");
+            }
+            if (notApplicableBits.length < (scores.length + 63) >>> 6) {
+                throw new IllegalArgumentException("Not-applicable bitset is shorter than the score array");
+            }
+            this.scores = scores;
+            this.notApplicableBits = notApplicableBits;
+            this.offsets = offsets;
+        }
+
+        public byte[] getScores() { return scores; }
+        public long[] getNotApplicableBits() { return notApplicableBits; }
+        public int[] getOffsets() { return offsets; }
+        public int getAuditCount() { return offsets.length - 1; }
+    }
+
+    /**
+     * 一括採点結果クラス（配列形式）
+     * 
+     * 総合点は100倍した整数（小数点以下2桁）で保持し、BigDecimalは参照時にのみ生成する。
+     */
+    public static class BulkAuditScoreResult {
+        private final long[] totalScoreHundredths;
+        private final int[] totalItems;
+        private final int[] notApplicableItems;
+        private final int[] scoreSums;
+        private final byte[] ratingCodes;
+        private final byte[] decisionCodes;
+
+        BulkAuditScoreResult(int auditCount) {
+            this.totalScoreHundredths = new long[auditCount];
+            this.totalItems = new int[auditCount];
+            this.notApplicableItems = new int[auditCount];
+            this.scoreSums = new int[auditCount];
+            this.ratingCodes = new byte[auditCount];
+            this.decisionCodes = new byte[auditCount];
+        }
+
+        public int size() { return totalItems.length; }
+        public long[] getTotalScoreHundredths() { return totalScoreHundredths; }
+        public int[] getTotalItems() { return totalItems; }
+        public int[] getNotApplicableItems() { return notApplicableItems; }
+        public int[] getScoreSums() { return scoreSums; }
+        public byte[] getRatingCodes() { return ratingCodes; }
+        public byte[] getDecisionCodes() { return decisionCodes; }
+
+        public BigDecimal getTotalScore(int index) { return BigDecimal.valueOf(totalScoreHundredths[index], 2); }
+        public String getRating(int index) { return FixedPointScoring.RATINGS[ratingCodes[index]]; }
+        public String getDecision(int index) { return FixedPointScoring.DECISIONS[decisionCodes[index]]; }
+
+        /**
+         * 指定した審査の結果を従来の結果クラスに変換する
+         */
+        public AuditScoreResult toAuditScoreResult(int index) {
+            return new AuditScoreResult(getTotalScore(index), totalItems[index], notApplicableItems[index],
+                scoreSums[index], getRating(index), getDecision(index));
+        }
+    }
+
+    /**
+     * 複数審査の総合点を一括計算する
+     * 
+     * 審査ごとに回答を1回だけ走査し、回答単位のオブジェクト生成を行わない。
+     * 総合点・評価・判定は calculateTotalScore と同一の結果となる。
+     * 
+     * @param packed パック済み採点データ
+     * @return 一括採点結果
+     * @throws IllegalArgumentException 回答が0件の審査、または全項目が未調査の審査を含む場合
+     */
+    public BulkAuditScoreResult calculateTotalScores(PackedAuditScores packed) {
+        return calculateTotalScores(packed, policies.current());
+    }
+
+    /**
+     * 指定した採点ポリシーで複数審査の総合点を一括計算する
+     * 
+     * @param packed パック済み採点データ
+     * @param policy 採点ポリシー
+     * @return 一括採点結果
+     */
+    public BulkAuditScoreResult calculateTotalScores(PackedAuditScores packed, ScoringPolicy policy) {
+        byte[] scores = packed.getScores();
+        long[] naBits = packed.getNotApplicableBits();
+        int[] offsets = packed.getOffsets();
+        int auditCount = packed.getAuditCount();
+
+        BulkAuditScoreResult result = new BulkAuditScoreResult(auditCount);
+
+        for (int a = 0; a < auditCount; a++) {
+            int from = offsets[a];
+            int to = offsets[a + 1];
+            if (to <= from) {
+                throw new IllegalArgumentException("Audit at index " + a + " has no score items");
+            }
+
+            int notApplicable = 0;
+            int scoreSum = 0;
+            for (int i = from; i < to; i++) {
+                int na = (int) (naBits[i >>> 6] >>> i) & 1;
+                notApplicable += na;
+                scoreSum += scores[i] & (na - 1); // 未調査の場合は 0 でマスク
+            }
+
+            int totalItems = to - from;
+            int denominator = (4 * totalItems) - (4 * notApplicable);
+            if (denominator == 0) {
+                throw new IllegalArgumentException("All items of audit at index " + a
+                    + " are marked as not applicable. Cannot calculate score.");
+            }
+
+            long hundredths = FixedPointScoring.roundHalfUpHundredths(scoreSum, denominator);
+
+            result.totalScoreHundredths[a] = hundredths;
+            result.totalItems[a] = totalItems;
+            result.notApplicableItems[a] = notApplicable;
+            result.scoreSums[a] = scoreSum;
+            result.ratingCodes[a] = (byte) policy.ratingCode(hundredths);
+            result.decisionCodes[a] = (byte) policy.decisionCode(hundredths);
+        }
+
+        return result;
+    }
+
     /**
      * 総合点を計算する
      * 
@@ -102,20 +252,35 @@ public class AuditScoreCalculationService {
      * @throws IllegalArgumentException 項目リストが空の場合、または全項目が未調査の場合
      */
     public AuditScoreResult calculateTotalScore(List<AuditScoreItem> scoreItems) {
+        return calculateTotalScore(scoreItems, policies.current());
+    }
+
+    /**
+     * 審査実施日時点で有効な採点ポリシーで総合点を計算する
+     * 
+     * @param scoreItems 審査採点項目リスト
+     * @param auditDate 審査実施日
+     * @return 審査採点結果
+     */
+    public AuditScoreResult calculateTotalScore(List<AuditScoreItem> scoreItems, LocalDate auditDate) {
+        return calculateTotalScore(scoreItems, policies.policyFor(auditDate));
+    }
+
+    private AuditScoreResult calculateTotalScore(List<AuditScoreItem> scoreItems, ScoringPolicy policy) {
         if (scoreItems == null || scoreItems.isEmpty()) {
             throw new IllegalArgumentException("Score items list cannot be null or empty");
         }
 
         int totalItems = scoreItems.size();
-        
-        int notApplicableItems = (int) scoreItems.stream()
-            .filter(AuditScoreItem::isNotApplicable)
-            .count();
-        
-        int scoreSum = scoreItems.stream()
-            .filter(item -> !item.isNotApplicable())
-            .mapToInt(AuditScoreItem::getScore)
-            .sum();
+        int notApplicableItems = 0;
+        int scoreSum = 0;
+        for (AuditScoreItem item : scoreItems) {
+            if (item.isNotApplicable()) {
+                notApplicableItems++;
+            } else {
+                scoreSum += item.getScore();
+            }
+        }
 
         int denominator = (4 * totalItems) - (4 * notApplicableItems);
         
@@ -123,14 +288,25 @@ public class AuditScoreCalculationService {
             throw new IllegalArgumentException("All items are marked as not applicable. Cannot calculate score.");
         }
 
-        BigDecimal totalScore = BigDecimal.valueOf(scoreSum)
-            .multiply(BigDecimal.valueOf(100))
-            .divide(BigDecimal.valueOf(denominator), 2, RoundingMode.HALF_UP);
+        // 100倍した整数で計算し、HALF_UPで小数点以下2桁に丸める
+        long hundredths = FixedPointScoring.roundHalfUpHundredths(scoreSum, denominator);
 
-        String rating = determineRating(totalScore);
-        String decision = determineDecision(totalScore);
+        String rating = FixedPointScoring.RATINGS[policy.ratingCode(hundredths)];
+        String decision = FixedPointScoring.DECISIONS[policy.decisionCode(hundredths)];
 
-        return new AuditScoreResult(totalScore, totalItems, notApplicableItems, scoreSum, rating, decision);
+        return new AuditScoreResult(BigDecimal.valueOf(hundredths, 2), totalItems, notApplicableItems, scoreSum, rating, decision);
+    }
+
+    /**
+     * 採点フォーム編集用のセッションを開始する
+     * 
+     * 以後の1設問ごとの変更は、全項目を再計算せずに総合点へ反映される。
+     * 
+     * @param scoreItems 審査採点項目リスト
+     * @return 審査採点セッション
+     */
+    public AuditScoringSession openScoringSession(List<AuditScoreItem> scoreItems) {
+        return new AuditScoringSession(scoreItems, policies.current());
     }
 
     /**
@@ -146,15 +322,14 @@ public class AuditScoreCalculationService {
      * @return 評価（優、良、可、不可）
      */
     public String determineRating(BigDecimal totalScore) {
-        if (totalScore.compareTo(BigDecimal.valueOf(80)) >= 0) {
-            return "優";
-        } else if (totalScore.compareTo(BigDecimal.valueOf(70)) >= 0) {
-            return "良";
-        } else if (totalScore.compareTo(BigDecimal.valueOf(60)) >= 0) {
-            return "可";
-        } else {
-            return "不可";
-        }
+        return policies.current().determineRating(totalScore);
+    }
+
+    /**
+     * 審査実施日時点で有効な採点ポリシーで評価を決定する
+     */
+    public String determineRating(BigDecimal totalScore, LocalDate auditDate) {
+        return policies.policyFor(auditDate).determineRating(totalScore);
     }
 
     /**
@@ -169,13 +344,14 @@ public class AuditScoreCalculationService {
      * @return 判定（PASS, CONDITIONAL, FAIL）
      */
     public String determineDecision(BigDecimal totalScore) {
-        if (totalScore.compareTo(BigDecimal.valueOf(80)) >= 0) {
-            return "PASS";
-        } else if (totalScore.compareTo(BigDecimal.valueOf(60)) >= 0) {
-            return "CONDITIONAL";
-        } else {
-            return "FAIL";
-        }
+        return policies.current().determineDecision(totalScore);
+    }
+
+    /**
+     * 審査実施日時点で有効な採点ポリシーで判定を決定する
+     */
+    public String determineDecision(BigDecimal totalScore, LocalDate auditDate) {
+        return policies.policyFor(auditDate).determineDecision(totalScore);
     }
 
     /**
@@ -191,15 +367,28 @@ public class AuditScoreCalculationService {
      * @return 等級（1, 2, 3, null）
      */
     public Integer determineGrade(BigDecimal totalScore) {
-        if (totalScore.compareTo(BigDecimal.valueOf(80)) >= 0) {
-            return 1; // 優良
-        } else if (totalScore.compareTo(BigDecimal.valueOf(70)) >= 0) {
-            return 2; // 良好
-        } else if (totalScore.compareTo(BigDecimal.valueOf(60)) >= 0) {
-            return 3; // 標準
-        } else {
-            return null; // 登録不可
-        }
+        return policies.current().determineGrade(totalScore);
+    }
+
+    /**
+     * 審査実施日時点で有効な採点ポリシーで等級を決定する
+     */
+    public Integer determineGrade(BigDecimal totalScore, LocalDate auditDate) {
+        return policies.policyFor(auditDate).determineGrade(totalScore);
+    }
+
+    /**
+     * 本日時点で有効な採点ポリシーを取得する
+     */
+    public ScoringPolicy getCurrentPolicy() {
+        return policies.current();
+    }
+
+    /**
+     * 審査実施日時点で有効な採点ポリシーを取得する
+     */
+    public ScoringPolicy getPolicy(LocalDate auditDate) {
+        return policies.policyFor(auditDate);
     }
 
     /**
@@ -207,8 +396,8 @@ public class AuditScoreCalculationService {
      * 
      * @param documentScore 書類審査点数（様式-2）
      * @param onSiteScore 実地審査点数（様式-5）
-     * @param documentWeight 書類審査の重み（デフォルト: 0.4）
-     * @param onSiteWeight 実地審査の重み（デフォルト: 0.6）
+     * @param documentWeight 書類審査の重み（省略時: 採点ポリシーの重み、初版は 0.4）
+     * @param onSiteWeight 実地審査の重み（省略時: 採点ポリシーの重み、初版は 0.6）
      * @return 統合総合点
      */
     public BigDecimal calculateIntegratedScore(
@@ -216,16 +405,45 @@ public class AuditScoreCalculationService {
             BigDecimal onSiteScore,
             BigDecimal documentWeight,
             BigDecimal onSiteWeight) {
+        return calculateIntegratedScore(documentScore, onSiteScore, documentWeight, onSiteWeight, policies.current());
+    }
+
+    /**
+     * 審査実施日時点で有効な採点ポリシーの重みで書類審査と実地審査の総合点を統合する
+     * 
+     * @param documentScore 書類審査点数（様式-2）
+     * @param onSiteScore 実地審査点数（様式-5）
+     * @param documentWeight 書類審査の重み（省略時: 審査実施日時点の採点ポリシーの重み）
+     * @param onSiteWeight 実地審査の重み（省略時: 審査実施日時点の採点ポリシーの重み）
+     * @param auditDate 審査実施日
+     * @return 統合総合点
+     */
+    public BigDecimal calculateIntegratedScore(
+            BigDecimal documentScore,
+            BigDecimal onSiteScore,
+            BigDecimal documentWeight,
+            BigDecimal onSiteWeight,
+            LocalDate auditDate) {
+        return calculateIntegratedScore(documentScore, onSiteScore, documentWeight, onSiteWeight,
+            policies.policyFor(auditDate));
+    }
+
+    private BigDecimal calculateIntegratedScore(
+            BigDecimal documentScore,
+            BigDecimal onSiteScore,
+            BigDecimal documentWeight,
+            BigDecimal onSiteWeight,
+            ScoringPolicy policy) {
         
         if (documentScore == null || onSiteScore == null) {
             throw new IllegalArgumentException("Document score and on-site score cannot be null");
         }
 
         if (documentWeight == null) {
-            documentWeight = BigDecimal.valueOf(0.4);
+            documentWeight = policy.getDocumentWeight();
         }
         if (onSiteWeight == null) {
-            onSiteWeight = BigDecimal.valueOf(0.6);
+            onSiteWeight = policy.getOnSiteWeight();
         }
 
         BigDecimal weightSum = documentWeight.add(onSiteWeight);
@@ -302,6 +520,16 @@ public class AuditScoreCalculationService {
         );
         System.out.println("Integrated Score: " + integratedScore);
 
+        PackedAuditScores packed = new PackedAuditScores(
+            new byte[] {4, 4, 4, 2, 0, 4, 2, 2},
+            new long[] {0b00010000L},
+            new int[] {0, 5, 8}
+        );
+        BulkAuditScoreResult bulkResult = service.calculateTotalScores(packed);
+        for (int i = 0; i < bulkResult.size(); i++) {
+            System.out.println("Bulk[" + i + "]: " + bulkResult.toAuditScoreResult(i));
+        }
+
         String nextReviewDate = service.calculateNextReviewDate("2023-11-15");
         System.out.println("Next Review Date: " + nextReviewDate);
     }
@@ -0,0 +1,151 @@
+package jp.co.company.sqas.service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jp.co.company.sqas.service.AuditScoreCalculationService.AuditScoreItem;
+import jp.co.company.sqas.service.AuditScoreCalculationService.AuditScoreResult;
+
+/**
+ * 審査採点セッション
+ * Audit Scoring Session
+ *
+ * 審査採点フォーム（audit_scoring_form.html）の編集中に、評価点合計・項目数・未調査項目数を
+ * 保持し続けるサーバー側セッション。1設問の変更は O(1) で反映し、
+ * 総合点・評価・判定を全項目の再走査なしで返す。
+ *
+ * 計算結果は AuditScoreCalculationService.calculateTotalScore と同一となる。
+ * 同一フォームからの同時更新に備え、更新・参照は同期化している。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class AuditScoringSession {
+
+    private final List<AuditScoreItem> items;
+    private final Map<String, Integer> indexByQuestionNumber;
+    private final ScoringPolicy policy;
+
+    private int scoreSum;
+    private int notApplicableItems;
+
+    /**
+     * 採点項目リストからセッションを開始する（初回のみ全項目を走査）
+     *
+     * @param items 審査採点項目リスト（セッションが以後の変更を管理する）
+     * @param policy 採点ポリシー
+     * @throws IllegalArgumentException 項目リストが空の場合
+     */
+    public AuditScoringSession(List<AuditScoreItem> items, ScoringPolicy policy) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("Score items list cannot be null or empty");
+        }
+        this.items = items;
+        this.policy = policy;
+        this.indexByQuestionNumber = new HashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            AuditScoreItem item = items.get(i);
+            indexByQuestionNumber.put(item.getQuestionNumber(), i);
+            if (item.isNotApplicable()) {
+                notApplicableItems++;
+            } else {
+                scoreSum += item.getScore();
+            }
+        }
+    }
+
+    /**
+     * 設問の評価点を変更する
+     *
+     * @param questionNumber 設問番号
+     * @param newScore 新しい評価点（4, 2, 0）
+     * @return 変更後の採点結果
+     */
+    public synchronized AuditScoreResult updateScore(String questionNumber, int newScore) {
+        AuditScoreItem item = findItem(questionNumber);
+        int oldScore = item.getScore();
+        item.setScore(newScore);
+        if (!item.isNotApplicable()) {
+            scoreSum += newScore - oldScore;
+        }
+        return currentResult();
+    }
+
+    /**
+     * 設問の未調査フラグを変更する
+     *
+     * @param questionNumber 設問番号
+     * @param notApplicable true: 未調査
+     * @return 変更後の採点結果
+     */
+    public synchronized AuditScoreResult updateNotApplicable(String questionNumber, boolean notApplicable) {
+        AuditScoreItem item = findItem(questionNumber);
+        if (item.isNotApplicable() != notApplicable) {
+            item.setNotApplicable(notApplicable);
+            if (notApplicable) {
+                notApplicableItems++;
+                scoreSum -= item.getScore();
+            } else {
+                notApplicableItems--;
+                scoreSum += item.getScore();
+            }
+        }
+        return currentResult();
+    }
+
+    /**
+     * 現在の採点結果を取得する
+     *
+     * @return 採点結果
+     * @throws IllegalArgumentException 全項目が未調査の場合
+     */
+    public synchronized AuditScoreResult currentResult() {
+        int totalItems = items.size();
+        int denominator = (4 * totalItems) - (4 * notApplicableItems);
+        if (denominator == 0) {
+            throw new IllegalArgumentException("All items are marked as not applicable. Cannot calculate score.");
+        }
+
+        long hundredths = FixedPointScoring.roundHalfUpHundredths(scoreSum, denominator);
+        return new AuditScoreResult(
+            BigDecimal.valueOf(hundredths, 2),
+            totalItems,
+            notApplicableItems,
+            scoreSum,
+            FixedPointScoring.RATINGS[policy.ratingCode(hundredths)],
+            FixedPointScoring.DECISIONS[policy.decisionCode(hundredths)]
+        );
+    }
+
+    private AuditScoreItem findItem(String questionNumber) {
+        Integer index = indexByQuestionNumber.get(questionNumber);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown question number: " + questionNumber);
+        }
+        return items.get(index);
+    }
+
+    /**
+     * サンプル使用例（テスト用）
+     */
+    public static void main(String[] args) {
+        List<AuditScoreItem> items = new java.util.ArrayList<>(List.of(
+            new AuditScoreItem("1", "品質マニュアルが整備されているか", 4, false, "ISO9001準拠"),
+            new AuditScoreItem("2", "組織図が明確に定義されているか", 4, false, "明確"),
+            new AuditScoreItem("3", "品質記録が適切に保管されているか", 4, false, "電子記録システム"),
+            new AuditScoreItem("4", "検査設備の校正は適切に実施されているか", 2, false, "一部期限近い"),
+            new AuditScoreItem("5", "環境管理体制が整備されているか", 0, true, "未調査")
+        ));
+
+        AuditScoringSession session = new AuditScoringSession(items, ScoringPolicy.GCP0602_V1);
+        System.out.println("Initial: " + session.currentResult());
+        System.out.println("Q4 -> 4: " + session.updateScore("4", 4));
+        System.out.println("Q5 investigated: " + session.updateNotApplicable("5", false));
+
+        AuditScoreCalculationService service = new AuditScoreCalculationService();
+        System.out.println("Full recalculation: " + service.calculateTotalScore(items));
+    }
+}
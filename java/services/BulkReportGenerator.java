@@ -0,0 +1,305 @@
+package jp.co.company.sqas.service;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import jp.co.company.sqas.service.AuditReportPDFService.AuditReportData;
+import jp.co.company.sqas.service.AuditReportPDFService.OutputFormat;
+import jp.co.company.sqas.service.AuditReportPDFService.ReportForm;
+import jp.co.company.sqas.service.AuditReportPDFService.ScoreDetail;
+
+/**
+ * 帳票一括生成サービス
+ * Bulk Report Generator
+ *
+ * 四半期締めなどで多数の様式-8 / 様式-11 を並列に生成する。
+ * 同時生成数は maxConcurrency で制限し、上限に達している間は入力（Stream）の読み進めを止める。
+ * 1件の失敗は記録して処理を継続し、全件の所要時間と失敗内容を BulkReportResult で返す。
+ *
+ * 実行環境が仮想スレッドに対応している場合（Java 21 以降）は1帳票1仮想スレッドで実行し、
+ * 対応していない場合は maxConcurrency 本の固定スレッドプールで実行する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class BulkReportGenerator {
+
+    private final AuditReportPDFService reportService;
+    private final int maxConcurrency;
+
+    /**
+     * 1帳票の生成結果
+     */
+    public static class ReportOutcome {
+        private final String auditId;
+        private final Path outputPath;
+        private final long latencyNanos;
+        private final Throwable error;
+
+        ReportOutcome(String auditId, Path outputPath, long latencyNanos, Throwable error) {
+            this.auditId = auditId;
+            this.outputPath = outputPath;
+            this.latencyNanos = latencyNanos;
+            this.error = error;
+        }
+
+        public String getAuditId() { return auditId; }
+        public Path getOutputPath() { return outputPath; }
+        public long getLatencyNanos() { return latencyNanos; }
+        /** 生成時の例外（Error を含む、成功した場合 null） */
+        public Throwable getError() { return error; }
+        public boolean isSuccess() { return error == null; }
+    }
+
+    /**
+     * 一括生成結果
+     */
+    public static class BulkReportResult {
+        private final List<ReportOutcome> outcomes;
+        private final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        BulkReportResult(List<ReportOutcome> outcomes, long elapsedNanos) {
+            this.outcomes = Collections.unmodifiableList(outcomes);
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = outcomes.stream().mapToLong(ReportOutcome::getLatencyNanos).sorted().toArray();
+        }
+
+        /** 入力順の生成結果 */
+        public List<ReportOutcome> getOutcomes() { return outcomes; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public int getSuccessCount() {
+            return (int) outcomes.stream().filter(ReportOutcome::isSuccess).count();
+        }
+
+        public int getFailureCount() {
+            return outcomes.size() - getSuccessCount();
+        }
+
+        public List<ReportOutcome> getFailures() {
+            List<ReportOutcome> failures = new ArrayList<>();
+            for (ReportOutcome outcome : outcomes) {
+                if (!outcome.isSuccess()) {
+                    failures.add(outcome);
+                }
+            }
+            return failures;
+        }
+
+        /**
+         * 生成時間のパーセンタイル値を取得する
+         *
+         * @param percentile 0〜100
+         * @return 生成時間（ナノ秒、結果なしの場合 0）
+         */
+        public long getLatencyPercentileNanos(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+
+        /** 1秒あたりの生成件数 */
+        public double getThroughputPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : outcomes.size() * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "BulkReportResult{reports=%d, success=%d, failed=%d, elapsed=%dms, throughput=%.1f/s, p50=%.2fms, p95=%.2fms, max=%.2fms}",
+                outcomes.size(), getSuccessCount(), getFailureCount(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getThroughputPerSecond(),
+                getLatencyPercentileNanos(50) / 1e6, getLatencyPercentileNanos(95) / 1e6,
+                getLatencyPercentileNanos(100) / 1e6
+            );
+        }
+    }
+
+    /**
+     * @param reportService 帳票生成サービス
+     * @param maxConcurrency 同時生成数の上限（ディスクI/Oが飽和しない程度、目安: CPUコア数〜2倍）
+     */
+    public BulkReportGenerator(AuditReportPDFService reportService, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be positive");
+        }
+        this.reportService = reportService;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * 帳票を一括生成する
+     *
+     * 入力は同時生成数に空きができるたびに1件ずつ読み進める。
+     *
+     * @param reports 帳票データ
+     * @param form 帳票様式
+     * @param outputPathResolver 帳票データから出力ファイルパスを決める処理
+     * @return 一括生成結果（入力順）
+     * @throws InterruptedException 待機中に割り込まれた場合（生成中の帳票の完了は待つ）
+     */
+    public BulkReportResult generateAll(Stream<AuditReportData> reports, ReportForm form,
+                                        Function<AuditReportData, Path> outputPathResolver)
+            throws InterruptedException {
+        return generateAll(reports, form, OutputFormat.TEXT, outputPathResolver);
+    }
+
+    /**
+     * 帳票を指定形式で一括生成する
+     *
+     * PDFの場合、フォントと定型オブジェクトは全帳票で共有する（帳票ごとの読込・符号化は行わない）。
+     *
+     * @param reports 帳票データ
+     * @param form 帳票様式
+     * @param format 出力形式
+     * @param outputPathResolver 帳票データから出力ファイルパスを決める処理
+     * @return 一括生成結果（入力順）
+     * @throws InterruptedException 待機中に割り込まれた場合（生成中の帳票の完了は待つ）
+     */
+    public BulkReportResult generateAll(Stream<AuditReportData> reports, ReportForm form, OutputFormat format,
+                                        Function<AuditReportData, Path> outputPathResolver)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        ConcurrentLinkedQueue<IndexedOutcome> completed = new ConcurrentLinkedQueue<>();
+        AtomicInteger submitted = new AtomicInteger();
+
+        ExecutorService executor = createExecutor(maxConcurrency);
+        try {
+            Iterator<AuditReportData> iterator = reports.iterator();
+            while (iterator.hasNext()) {
+                permits.acquire(); // 上限に達している間は入力を読み進めない
+                AuditReportData data;
+                try {
+                    data = iterator.next();
+                } catch (RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+                int index = submitted.getAndIncrement();
+                executor.execute(() -> {
+                    long taskStart = System.nanoTime();
+                    try {
+                        completed.add(new IndexedOutcome(index, generateOne(form, format, data, outputPathResolver)));
+                    } catch (Throwable t) {
+                        // OutOfMemoryError・StackOverflowError なども失敗として記録し、結果の欠落を防ぐ
+                        System.err.println("Failed to generate report for audit: " + data.getAuditId());
+                        System.err.println("Error: " + t);
+                        completed.add(new IndexedOutcome(index,
+                            new ReportOutcome(data.getAuditId(), null, System.nanoTime() - taskStart, t)));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("Waiting for " + (maxConcurrency - permits.availablePermits())
+                    + " report(s) to finish...");
+            }
+        }
+
+        ReportOutcome[] ordered = new ReportOutcome[submitted.get()];
+        for (IndexedOutcome outcome : completed) {
+            ordered[outcome.index] = outcome.outcome;
+        }
+        return new BulkReportResult(Arrays.asList(ordered), System.nanoTime() - start);
+    }
+
+    private ReportOutcome generateOne(ReportForm form, OutputFormat format, AuditReportData data,
+                                      Function<AuditReportData, Path> outputPathResolver) {
+        long start = System.nanoTime();
+        Path outputPath = null;
+        try {
+            outputPath = outputPathResolver.apply(data);
+            reportService.generate(form, format, data, outputPath.toString());
+            return new ReportOutcome(data.getAuditId(), outputPath, System.nanoTime() - start, null);
+        } catch (Exception e) {
+            System.err.println("Failed to generate report for audit: " + data.getAuditId());
+            System.err.println("Error: " + e.getMessage());
+            return new ReportOutcome(data.getAuditId(), outputPath, System.nanoTime() - start, e);
+        }
+    }
+
+    private static final class IndexedOutcome {
+        final int index;
+        final ReportOutcome outcome;
+
+        IndexedOutcome(int index, ReportOutcome outcome) {
+            this.index = index;
+            this.outcome = outcome;
+        }
+    }
+
+    /**
+     * 仮想スレッドの実行基盤を作成する（未対応の実行環境では固定スレッドプール）
+     */
+    static ExecutorService createExecutor(int maxConcurrency) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+                Thread thread = new Thread(runnable, "report-generator-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * サンプル使用例（テスト用）
+     *
+     * 引数: 生成件数（省略時: 200）、同時生成数（省略時: CPUコア数）
+     */
+    public static void main(String[] args) throws Exception {
+        int reportCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        List<ScoreDetail> details = new ArrayList<>();
+        for (int i = 1; i <= 60; i++) {
+            details.add(new ScoreDetail(i, "品質記録が適切に保管されているか（設問" + i + "）", 4, false, ""));
+        }
+
+        Path outputDir = Files.createTempDirectory("sqas-bulk-reports");
+        BulkReportGenerator generator = new BulkReportGenerator(new AuditReportPDFService(), concurrency);
+
+        // 50件ごとに採点詳細なしのデータを混ぜ、失敗が記録されても処理が継続することを確認する
+        Stream<AuditReportData> reports = Stream.iterate(1, i -> i + 1).limit(reportCount)
+            .map(i -> new AuditReportData(
+                String.format("AUD-20251120-%03d", i), "株式会社優良部品製作所", "東京都千代田区千代田1-1-1",
+                LocalDate.of(2025, 11, 20), "品質太郎", "品質保証部", "PERIODIC",
+                BigDecimal.valueOf(85.50), BigDecimal.valueOf(88.00), BigDecimal.valueOf(87.00),
+                "優", "PASS", 1, null, i % 50 == 0 ? null : details, "品質部長", LocalDate.of(2025, 11, 21)));
+
+        BulkReportResult result = generator.generateAll(reports, ReportForm.FORM8,
+            data -> outputDir.resolve(data.getAuditId() + "_form8.txt"));
+
+        System.out.println(result);
+        for (ReportOutcome failure : result.getFailures()) {
+            System.out.println("Failed: " + failure.getAuditId() + " - " + failure.getError());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package jp.co.company.sqas.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 固定小数点採点ロジック
+ * Fixed-Point Scoring
+ *
+ * 総合点を100倍した整数（小数点以下2桁）で扱う。
+ * 評価・判定・等級は ScoringPolicy が事前計算した閾値テーブルから決定する。
+ * BigDecimal は AuditScoreCalculationService の公開APIでのみ生成する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class FixedPointScoring {
+
+    /** 総合点の上限（100.00点）を100倍した値 */
+    static final int MAX_HUNDREDTHS = 10000;
+
+    /** 評価コード: 0=優, 1=良, 2=可, 3=不可 */
+    static final String[] RATINGS = {"優", "良", "可", "不可"};
+
+    /** 判定コード: 0=PASS, 1=CONDITIONAL, 2=FAIL */
+    static final String[] DECISIONS = {"PASS", "CONDITIONAL", "FAIL"};
+
+    /** 等級コード: 0=登録不可(null), 1=優良, 2=良好, 3=標準 */
+    static final Integer[] GRADES = {null, 1, 2, 3};
+
+    private static final BigDecimal MAX_SCORE = BigDecimal.valueOf(MAX_HUNDREDTHS, 2);
+
+    private FixedPointScoring() {
+    }
+
+    /**
+     * (scoreSum × 100) / denominator を小数点以下2桁で四捨五入（HALF_UP）し、100倍した値を返す
+     *
+     * @param scoreSum 評価点合計（0以上）
+     * @param denominator 4 × 総項目数 - 4 × 未調査項目数（1以上）
+     * @return 総合点 × 100
+     */
+    static long roundHalfUpHundredths(int scoreSum, int denominator) {
+        long numerator = (long) scoreSum * 10000L;
+        long hundredths = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder < 0) {
+            // 負の評価点は想定外だが、BigDecimal と同じく0から遠い方向へ丸める
+            if (-remainder * 2 >= denominator) {
+                hundredths--;
+            }
+        } else if (remainder * 2 >= denominator) {
+            hundredths++;
+        }
+        return hundredths;
+    }
+
+    /**
+     * BigDecimal の総合点を閾値判定用の100倍整数に変換する
+     *
+     * 閾値は全て0.01点単位のため、小数点以下3桁目以降は切り捨てても比較結果は変わらない。
+     * 範囲外の値は 0 〜 MAX_HUNDREDTHS に丸める。
+     */
+    static int toHundredths(BigDecimal totalScore) {
+        if (totalScore.signum() <= 0) {
+            return 0;
+        }
+        if (totalScore.compareTo(MAX_SCORE) >= 0) {
+            return MAX_HUNDREDTHS;
+        }
+        return totalScore.setScale(2, RoundingMode.FLOOR).unscaledValue().intValue();
+    }
+
+    /**
+     * 差分検証（テスト用）
+     *
+     * 全ての (総項目数, 未調査項目数, 評価点合計) の組み合わせについて、
+     * 固定小数点と GCP0602 初版ポリシーの結果が従来の BigDecimal 計算と一致することを確認する。
+     *
+     * 引数: 検証する最大項目数（省略時: 200）
+     */
+    public static void main(String[] args) {
+        int maxItems = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long checked = 0;
+        long mismatches = 0;
+        ScoringPolicy policy = ScoringPolicy.GCP0602_V1;
+
+        for (int totalItems = 1; totalItems <= maxItems; totalItems++) {
+            for (int notApplicable = 0; notApplicable < totalItems; notApplicable++) {
+                int denominator = (4 * totalItems) - (4 * notApplicable);
+                int maxSum = 4 * (totalItems - notApplicable);
+                for (int scoreSum = 0; scoreSum <= maxSum; scoreSum += 2) {
+                    BigDecimal expected = BigDecimal.valueOf(scoreSum)
+                        .multiply(BigDecimal.valueOf(100))
+                        .divide(BigDecimal.valueOf(denominator), 2, RoundingMode.HALF_UP);
+                    long hundredths = roundHalfUpHundredths(scoreSum, denominator);
+                    BigDecimal actual = BigDecimal.valueOf(hundredths, 2);
+
+                    boolean ok = expected.equals(actual)
+                        && referenceRating(expected).equals(RATINGS[policy.ratingCode(hundredths)])
+                        && referenceDecision(expected).equals(DECISIONS[policy.decisionCode(hundredths)])
+                        && java.util.Objects.equals(referenceGrade(expected), GRADES[policy.gradeCode(hundredths)])
+                        && hundredths == toHundredths(expected);
+                    if (!ok) {
+                        mismatches++;
+                        System.err.println(String.format("Mismatch: items=%d, na=%d, sum=%d, expected=%s, actual=%s",
+                            totalItems, notApplicable, scoreSum, expected, actual));
+                    }
+                    checked++;
+                }
+            }
+        }
+
+        System.out.println("Checked " + checked + " combinations, mismatches: " + mismatches);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String referenceRating(BigDecimal totalScore) {
+        if (totalScore.compareTo(BigDecimal.valueOf(80)) >= 0) return "優";
+        if (totalScore.compareTo(BigDecimal.valueOf(70)) >= 0) return "良";
+        if (totalScore.compareTo(BigDecimal.valueOf(60)) >= 0) return "可";
+        return "不可";
+    }
+
+    private static String referenceDecision(BigDecimal totalScore) {
+        if (totalScore.compareTo(BigDecimal.valueOf(80)) >= 0) return "PASS";
+        if (totalScore.compareTo(BigDecimal.valueOf(60)) >= 0) return "CONDITIONAL";
+        return "FAIL";
+    }
+
+    private static Integer referenceGrade(BigDecimal totalScore) {
+        if (totalScore.compareTo(BigDecimal.valueOf(80)) >= 0) return 1;
+        if (totalScore.compareTo(BigDecimal.valueOf(70)) >= 0) return 2;
+        if (totalScore.compareTo(BigDecimal.valueOf(60)) >= 0) return 3;
+        return null;
+    }
+}
@@ -0,0 +1,323 @@
+package jp.co.company.sqas.service;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+/**
+ * 等級移行シミュレーター
+ * Grade Migration Simulator
+ *
+ * calculateIntegratedScore の重みや determineGrade の等級基準を変更した場合に、
+ * 購買先の等級がどのように移行するか（1→2、2→3、登録不可など）を試算する
+ *
+ * 購買先ごとの最新承認済審査の書類審査点数・実地審査点数を一度だけ読み込み、
+ * 100倍した整数の配列として保持する。候補ごとの評価は配列の1回走査で完了し、
+ * 複数の候補は並列に評価する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class GradeMigrationSimulator {
+
+    /** 等級インデックス: 0=未評価/登録不可, 1=優良, 2=良好, 3=標準 */
+    public static final int GRADE_NONE = 0;
+    private static final int GRADE_SLOTS = 4;
+
+    /** 点数なしを表す値 */
+    private static final int NO_SCORE = -1;
+
+    /** 重みの最大小数桁数（0.0001単位） */
+    private static final int WEIGHT_SCALE = 4;
+    private static final long WEIGHT_UNIT = 10000L;
+
+    private final String[] supplierIds;
+    private final int[] documentScores; // 100倍値、NO_SCORE は点数なし
+    private final int[] onSiteScores;   // 100倍値、NO_SCORE は点数なし
+    private final int[] totalScores;    // 100倍値（重みを適用できない場合に使用）
+    private final byte[] currentGrades;
+
+    /**
+     * 重み・等級基準の候補クラス
+     */
+    public static class GradeCandidate {
+        private final String name;
+        private final BigDecimal documentWeight;
+        private final BigDecimal onSiteWeight;
+        private final BigDecimal grade1MinScore;
+        private final BigDecimal grade2MinScore;
+        private final BigDecimal grade3MinScore;
+
+        public GradeCandidate(String name, BigDecimal documentWeight, BigDecimal onSiteWeight,
+                              BigDecimal grade1MinScore, BigDecimal grade2MinScore, BigDecimal grade3MinScore) {
+            if (documentWeight.add(onSiteWeight).compareTo(BigDecimal.ONE) != 0) {
+                throw new IllegalArgumentException("Sum of weights must equal 1.0");
+            }
+            if (grade1MinScore.compareTo(grade2MinScore) < 0 || grade2MinScore.compareTo(grade3MinScore) < 0) {
+                throw new IllegalArgumentException("Grade thresholds must satisfy grade1 >= grade2 >= grade3");
+            }
+            this.name = name;
+            this.documentWeight = documentWeight;
+            this.onSiteWeight = onSiteWeight;
+            this.grade1MinScore = grade1MinScore;
+            this.grade2MinScore = grade2MinScore;
+            this.grade3MinScore = grade3MinScore;
+        }
+
+        public String getName() { return name; }
+        public BigDecimal getDocumentWeight() { return documentWeight; }
+        public BigDecimal getOnSiteWeight() { return onSiteWeight; }
+        public BigDecimal getGrade1MinScore() { return grade1MinScore; }
+        public BigDecimal getGrade2MinScore() { return grade2MinScore; }
+        public BigDecimal getGrade3MinScore() { return grade3MinScore; }
+    }
+
+    /**
+     * 等級移行マトリクスクラス
+     *
+     * counts[現行等級][新等級] に購買先数を保持する（等級インデックスは GRADE_NONE を参照）。
+     */
+    public static class GradeMigrationMatrix {
+        private final GradeCandidate candidate;
+        private final int[][] counts;
+        private final long elapsedNanos;
+
+        GradeMigrationMatrix(GradeCandidate candidate, int[][] counts, long elapsedNanos) {
+            this.candidate = candidate;
+            this.counts = counts;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public GradeCandidate getCandidate() { return candidate; }
+        public int getCount(int fromGrade, int toGrade) { return counts[fromGrade][toGrade]; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * 登録済購買先のうち等級が下がる購買先数（登録不可を含む）
+         */
+        public int getDowngradeCount() {
+            int total = 0;
+            for (int from = 1; from < GRADE_SLOTS; from++) {
+                for (int to = from + 1; to < GRADE_SLOTS; to++) {
+                    total += counts[from][to];
+                }
+                total += counts[from][GRADE_NONE];
+            }
+            return total;
+        }
+
+        /**
+         * 登録済購買先のうち登録不可（60点未満相当）となる購買先数
+         */
+        public int getDeregisteredCount() {
+            int total = 0;
+            for (int from = 1; from < GRADE_SLOTS; from++) {
+                total += counts[from][GRADE_NONE];
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== ").append(candidate.getName()).append(" ===\n");
+            sb.append("現行\\新 |   1 |   2 |   3 | 登録不可\n");
+            String[] labels = {"未評価  ", "1       ", "2       ", "3       "};
+            for (int from = 1; from <= GRADE_SLOTS; from++) {
+                int f = from % GRADE_SLOTS; // 未評価行は最後に表示
+                sb.append(labels[f]).append(String.format("| %3d | %3d | %3d | %5d\n",
+                    counts[f][1], counts[f][2], counts[f][3], counts[f][GRADE_NONE]));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * 読込済の配列からシミュレーターを作成する
+     *
+     * @param supplierIds 購買先ID
+     * @param documentScores 書類審査点数 × 100（点数なしは -1）
+     * @param onSiteScores 実地審査点数 × 100（点数なしは -1）
+     * @param totalScores 総合点 × 100（点数なしは -1）
+     * @param currentGrades 現行等級（未評価は 0）
+     */
+    public GradeMigrationSimulator(String[] supplierIds, int[] documentScores, int[] onSiteScores,
+                                   int[] totalScores, byte[] currentGrades) {
+        int n = supplierIds.length;
+        if (documentScores.length != n || onSiteScores.length != n || totalScores.length != n
+                || currentGrades.length != n) {
+            throw new IllegalArgumentException("All arrays must have the same length");
+        }
+        this.supplierIds = supplierIds;
+        this.documentScores = documentScores;
+        this.onSiteScores = onSiteScores;
+        this.totalScores = totalScores;
+        this.currentGrades = currentGrades;
+    }
+
+    /**
+     * 購買先ごとの最新承認済審査をDBから読み込む
+     *
+     * @param dataSource データソース
+     * @return シミュレーター
+     */
+    public static GradeMigrationSimulator load(DataSource dataSource) throws SQLException {
+        String sql =
+            "WITH LatestApproved AS ("
+            + " SELECT SupplierID, DocumentAuditScore, OnSiteAuditScore, TotalScore,"
+            + " ROW_NUMBER() OVER (PARTITION BY SupplierID ORDER BY AuditDate DESC, AuditID DESC) AS rn"
+            + " FROM AuditHistory WHERE ApprovedDate IS NOT NULL"
+            + ") "
+            + "SELECT s.SupplierID, s.CurrentRating, la.DocumentAuditScore, la.OnSiteAuditScore, la.TotalScore "
+            + "FROM SupplierMaster s "
+            + "JOIN LatestApproved la ON la.SupplierID = s.SupplierID AND la.rn = 1 "
+            + "WHERE s.SupplierStatus <> 'INACTIVE' "
+            + "ORDER BY s.SupplierID";
+
+        List<String> ids = new ArrayList<>();
+        int[] document = new int[1024];
+        int[] onSite = new int[1024];
+        int[] total = new int[1024];
+        byte[] grades = new byte[1024];
+        int n = 0;
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setFetchSize(5000);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (n == document.length) {
+                        document = Arrays.copyOf(document, n * 2);
+                        onSite = Arrays.copyOf(onSite, n * 2);
+                        total = Arrays.copyOf(total, n * 2);
+                        grades = Arrays.copyOf(grades, n * 2);
+                    }
+                    ids.add(rs.getString("SupplierID"));
+                    int grade = rs.getInt("CurrentRating");
+                    grades[n] = (byte) (rs.wasNull() ? GRADE_NONE : grade);
+                    document[n] = toHundredths(rs.getBigDecimal("DocumentAuditScore"));
+                    onSite[n] = toHundredths(rs.getBigDecimal("OnSiteAuditScore"));
+                    total[n] = toHundredths(rs.getBigDecimal("TotalScore"));
+                    n++;
+                }
+            }
+        }
+
+        return new GradeMigrationSimulator(ids.toArray(new String[0]), Arrays.copyOf(document, n),
+            Arrays.copyOf(onSite, n), Arrays.copyOf(total, n), Arrays.copyOf(grades, n));
+    }
+
+    private static int toHundredths(BigDecimal score) {
+        return score == null ? NO_SCORE : score.movePointRight(2).intValue();
+    }
+
+    public int getSupplierCount() {
+        return supplierIds.length;
+    }
+
+    /**
+     * 複数の候補を並列に評価する
+     *
+     * @param candidates 重み・等級基準の候補
+     * @return 候補ごとの等級移行マトリクス（候補と同じ順序）
+     */
+    public List<GradeMigrationMatrix> simulate(List<GradeCandidate> candidates) {
+        return candidates.parallelStream()
+            .map(this::simulate)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 1つの候補を評価する
+     *
+     * 統合点は calculateIntegratedScore と同じく小数点以下2桁で四捨五入（HALF_UP）する。
+     *
+     * @param candidate 重み・等級基準の候補
+     * @return 等級移行マトリクス
+     */
+    public GradeMigrationMatrix simulate(GradeCandidate candidate) {
+        long start = System.nanoTime();
+
+        long documentWeight = toWeightUnits(candidate.getDocumentWeight());
+        long onSiteWeight = toWeightUnits(candidate.getOnSiteWeight());
+        int grade1 = FixedPointScoring.toHundredths(candidate.getGrade1MinScore());
+        int grade2 = FixedPointScoring.toHundredths(candidate.getGrade2MinScore());
+        int grade3 = FixedPointScoring.toHundredths(candidate.getGrade3MinScore());
+        long half = WEIGHT_UNIT / 2;
+
+        int[][] counts = new int[GRADE_SLOTS][GRADE_SLOTS];
+        for (int i = 0; i < supplierIds.length; i++) {
+            int document = documentScores[i];
+            int onSite = onSiteScores[i];
+            long score;
+            if (document != NO_SCORE && onSite != NO_SCORE) {
+                score = (document * documentWeight + onSite * onSiteWeight + half) / WEIGHT_UNIT;
+            } else if (document != NO_SCORE) {
+                score = document;
+            } else if (onSite != NO_SCORE) {
+                score = onSite;
+            } else if (totalScores[i] != NO_SCORE) {
+                score = totalScores[i];
+            } else {
+                continue;
+            }
+            int newGrade = score >= grade1 ? 1 : score >= grade2 ? 2 : score >= grade3 ? 3 : GRADE_NONE;
+            counts[currentGrades[i]][newGrade]++;
+        }
+
+        return new GradeMigrationMatrix(candidate, counts, System.nanoTime() - start);
+    }
+
+    private static long toWeightUnits(BigDecimal weight) {
+        if (weight.stripTrailingZeros().scale() > WEIGHT_SCALE || weight.signum() < 0) {
+            throw new IllegalArgumentException("Weights must be non-negative with at most " + WEIGHT_SCALE + " decimal places");
+        }
+        return weight.movePointRight(WEIGHT_SCALE).longValueExact();
+    }
+
+    /**
+     * サンプル使用例（テスト用）
+     */
+    public static void main(String[] args) {
+        int n = 100_000;
+        java.util.Random random = new java.util.Random(42);
+        String[] ids = new String[n];
+        int[] document = new int[n];
+        int[] onSite = new int[n];
+        int[] total = new int[n];
+        byte[] grades = new byte[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = String.format("SUP-20240101-%03d", i % 1000);
+            document[i] = 5000 + random.nextInt(5001);
+            onSite[i] = 5000 + random.nextInt(5001);
+            total[i] = (int) ((document[i] * 4000L + onSite[i] * 6000L + 5000) / 10000);
+            grades[i] = (byte) (total[i] >= 8000 ? 1 : total[i] >= 7000 ? 2 : total[i] >= 6000 ? 3 : 0);
+        }
+        GradeMigrationSimulator simulator = new GradeMigrationSimulator(ids, document, onSite, total, grades);
+
+        List<GradeCandidate> candidates = List.of(
+            new GradeCandidate("現行 (0.4/0.6, 80/70/60)", new BigDecimal("0.4"), new BigDecimal("0.6"),
+                BigDecimal.valueOf(80), BigDecimal.valueOf(70), BigDecimal.valueOf(60)),
+            new GradeCandidate("実地重視 (0.3/0.7)", new BigDecimal("0.3"), new BigDecimal("0.7"),
+                BigDecimal.valueOf(80), BigDecimal.valueOf(70), BigDecimal.valueOf(60)),
+            new GradeCandidate("基準引上げ (85/75/65)", new BigDecimal("0.4"), new BigDecimal("0.6"),
+                BigDecimal.valueOf(85), BigDecimal.valueOf(75), BigDecimal.valueOf(65))
+        );
+
+        for (GradeMigrationMatrix matrix : simulator.simulate(candidates)) {
+            System.out.print(matrix);
+            System.out.println("Downgrades: " + matrix.getDowngradeCount()
+                + ", Deregistered: " + matrix.getDeregisteredCount()
+                + ", Elapsed: " + matrix.getElapsedNanos() / 1000 + " us\n");
+        }
+    }
+}
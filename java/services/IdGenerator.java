@@ -0,0 +1,216 @@
+package jp.co.company.sqas.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 採番サービス
+ * ID Generator
+ *
+ * 購買先ID（SUP-）・審査ID（AUD-）・是正処置ID（CA-）を「接頭辞-YYYYMMDD-XXX」形式で採番する。
+ *
+ * 連番は採番テーブルからブロック単位（既定 20件）で予約し、ブロック内は接頭辞・日付ごとの
+ * AtomicLong からロックなしで払い出す。DBの行ロックはブロック予約時のみ発生する。
+ * 複数ノードで動作してもIDは重複しないが、ノード間での払い出し順は連番順にならない。
+ * ノード停止時、予約済で未使用の連番は欠番となる。
+ *
+ * 日付は払い出しのたびに Clock から取得し、日付が変わった時点で新しい日付のブロックを予約する。
+ * 1日の連番が 999 を超える場合は IllegalStateException とする（3桁の形式を維持するため）。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class IdGenerator {
+
+    /** 1日あたりの最大連番（3桁） */
+    public static final int MAX_SEQUENCE = 999;
+
+    public static final int DEFAULT_BLOCK_SIZE = 20;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /**
+     * 連番ブロックの予約インターフェース
+     */
+    public interface BlockAllocator {
+        /**
+         * 連番ブロックを予約する
+         *
+         * 予約済の最終連番を blockSize だけ進め、予約した範囲の先頭を返す。
+         * 戻り値が MAX_SEQUENCE を超える場合、その日の連番は使い切っている。
+         *
+         * @param prefix 接頭辞（SUP, AUD, CA）
+         * @param date 採番日
+         * @param blockSize 予約件数
+         * @return 予約した範囲の先頭連番（1始まり）
+         */
+        long reserve(String prefix, LocalDate date, int blockSize);
+    }
+
+    /**
+     * メモリ上で連番を管理するブロック予約（単一ノード・サンプル用）
+     */
+    public static class InMemoryBlockAllocator implements BlockAllocator {
+        private final Map<String, Long> lastValues = new HashMap<>();
+
+        @Override
+        public synchronized long reserve(String prefix, LocalDate date, int blockSize) {
+            String key = prefix + "-" + date;
+            long last = lastValues.getOrDefault(key, 0L);
+            lastValues.put(key, last + blockSize);
+            return last + 1;
+        }
+    }
+
+    /**
+     * 払い出し中の連番ブロック
+     *
+     * next が end に達したら次のブロックを予約する。
+     */
+    private static final class Block {
+        final LocalDate date;
+        final String idPrefix; // 例: "SUP-20251120-"
+        final AtomicLong next;
+        final long end;        // この値は含まない
+
+        Block(String prefix, LocalDate date, long first, long end) {
+            this.date = date;
+            this.idPrefix = prefix + "-" + date.format(DATE_FORMAT) + "-";
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+
+    private final BlockAllocator allocator;
+    private final int blockSize;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, AtomicReference<Block>> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * @param allocator 連番ブロックの予約処理
+     * @param blockSize 1回の予約件数（1〜MAX_SEQUENCE）
+     * @param clock 採番日を決める時計
+     */
+    public IdGenerator(BlockAllocator allocator, int blockSize, Clock clock) {
+        if (blockSize <= 0 || blockSize > MAX_SEQUENCE) {
+            throw new IllegalArgumentException("Block size must be between 1 and " + MAX_SEQUENCE);
+        }
+        this.allocator = allocator;
+        this.blockSize = blockSize;
+        this.clock = clock;
+    }
+
+    public IdGenerator(BlockAllocator allocator) {
+        this(allocator, DEFAULT_BLOCK_SIZE, Clock.systemDefaultZone());
+    }
+
+    public String nextSupplierId() { return nextId("SUP"); }
+    public String nextAuditId() { return nextId("AUD"); }
+    public String nextCorrectiveActionId() { return nextId("CA"); }
+
+    /**
+     * IDを採番する
+     *
+     * @param prefix 接頭辞（SUP, AUD, CA）
+     * @return 新しいID（例: SUP-20251120-001）
+     * @throws IllegalStateException 当日の連番（999件）を使い切った場合
+     */
+    public String nextId(String prefix) {
+        AtomicReference<Block> current = blocks.computeIfAbsent(prefix, p -> new AtomicReference<>());
+        LocalDate today = LocalDate.now(clock);
+
+        while (true) {
+            Block block = current.get();
+            if (block != null && block.date.isAfter(today)) {
+                today = block.date; // 日付変更の直前に時計を読んだ場合は新しい日付で採番する
+            }
+            if (block != null && block.date.equals(today)) {
+                long sequence = block.next.getAndIncrement();
+                if (sequence < block.end) {
+                    return format(block.idPrefix, sequence);
+                }
+            }
+            refill(prefix, current, block, today);
+        }
+    }
+
+    /**
+     * ブロックを使い切った、または日付が変わった場合に次のブロックを予約する
+     *
+     * 予約は接頭辞ごとに1スレッドのみが行い、他スレッドは新しいブロックの設定を待つ。
+     */
+    private void refill(String prefix, AtomicReference<Block> current, Block observed, LocalDate today) {
+        synchronized (current) {
+            Block latest = current.get();
+            if (latest != observed) {
+                return; // 他スレッドが予約済
+            }
+            if (latest != null && latest.date.equals(today) && latest.end > MAX_SEQUENCE) {
+                throw exhausted(prefix, today); // 使い切った後は予約を繰り返さない
+            }
+            long first = allocator.reserve(prefix, today, blockSize);
+            if (first > MAX_SEQUENCE) {
+                current.set(new Block(prefix, today, MAX_SEQUENCE + 1L, MAX_SEQUENCE + 1L));
+                throw exhausted(prefix, today);
+            }
+            long end = Math.min(first + blockSize, MAX_SEQUENCE + 1L);
+            current.set(new Block(prefix, today, first, end));
+        }
+    }
+
+    private static IllegalStateException exhausted(String prefix, LocalDate date) {
+        return new IllegalStateException("ID sequence exhausted for " + prefix + "-" + date.format(DATE_FORMAT)
+            + " (max " + MAX_SEQUENCE + " per day)");
+    }
+
+    private static String format(String idPrefix, long sequence) {
+        StringBuilder sb = new StringBuilder(idPrefix.length() + 3).append(idPrefix);
+        if (sequence < 100) sb.append('0');
+        if (sequence < 10) sb.append('0');
+        return sb.append(sequence).toString();
+    }
+
+    /**
+     * サンプル使用例（テスト用）
+     */
+    public static void main(String[] args) throws InterruptedException {
+        IdGenerator generator = new IdGenerator(new InMemoryBlockAllocator(), 50, Clock.systemDefaultZone());
+
+        System.out.println(generator.nextSupplierId());
+        System.out.println(generator.nextAuditId());
+        System.out.println(generator.nextCorrectiveActionId());
+
+        // 複数スレッドから同時に採番し、重複がないことを確認する
+        Map<String, Boolean> issued = new ConcurrentHashMap<>();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    if (issued.put(generator.nextSupplierId(), Boolean.TRUE) != null) {
+                        System.err.println("Duplicate ID issued");
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println("Issued " + issued.size() + " unique supplier IDs");
+
+        try {
+            for (int i = 0; i < MAX_SEQUENCE; i++) {
+                generator.nextSupplierId();
+            }
+        } catch (IllegalStateException e) {
+            System.out.println("Exhausted: " + e.getMessage());
+        }
+    }
+}
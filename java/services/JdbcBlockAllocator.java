@@ -0,0 +1,55 @@
+package jp.co.company.sqas.service;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import javax.sql.DataSource;
+
+/**
+ * 採番テーブルによる連番ブロック予約
+ * JDBC Block Allocator
+ *
+ * IdSequence テーブルの（接頭辞, 採番日）行を1文で加算し、予約後の最終連番を取得する。
+ * 行ロックは加算文の実行中のみ保持されるため、全ノードの予約はこの行で直列化される。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class JdbcBlockAllocator implements IdGenerator.BlockAllocator {
+
+    private static final String RESERVE_SQL =
+        "INSERT INTO IdSequence (Prefix, SequenceDate, LastValue) VALUES (?, ?, ?)"
+        + " ON CONFLICT (Prefix, SequenceDate)"
+        + " DO UPDATE SET LastValue = IdSequence.LastValue + EXCLUDED.LastValue, UpdatedAt = CURRENT_TIMESTAMP"
+        + " RETURNING LastValue";
+
+    private final DataSource dataSource;
+
+    public JdbcBlockAllocator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public long reserve(String prefix, LocalDate date, int blockSize) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(RESERVE_SQL)) {
+            connection.setAutoCommit(true);
+            ps.setString(1, prefix);
+            ps.setDate(2, Date.valueOf(date));
+            ps.setInt(3, blockSize);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalStateException("No sequence value returned for " + prefix + " " + date);
+                }
+                return rs.getLong(1) - blockSize + 1;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to reserve ID block for " + prefix + " " + date, e);
+        }
+    }
+}
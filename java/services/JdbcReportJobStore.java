@@ -0,0 +1,311 @@
+package jp.co.company.sqas.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import jp.co.company.sqas.service.AuditReportPDFService.OutputFormat;
+import jp.co.company.sqas.service.AuditReportPDFService.ReportForm;
+import jp.co.company.sqas.service.ReportJobQueue.JobStatus;
+import jp.co.company.sqas.service.ReportJobQueue.ReportJob;
+
+/**
+ * 帳票生成依頼テーブル
+ * JDBC Report Job Store
+ *
+ * ReportJobQueue テーブルに帳票生成依頼を保存する。
+ * 未着手の同一依頼のまとめは部分一意索引（UX_ReportJobQueue_Pending）への INSERT ... ON CONFLICT で行い、
+ * 依頼の取得は FOR UPDATE SKIP LOCKED で行うため、複数ノードのワーカーが同じ依頼を取得することはない。
+ * 取得時は ClaimedBy・LeaseRenewedAt にリースを記録し、中断された依頼の再実行は自ノードの依頼とリース切れの依頼に限る。
+ * 完了・失敗・リースの更新は、生成中でかつ自ノードが取得している依頼に限り、更新件数でリースの保持を確認する。
+ * 帳票ファイルパスは AuditReportOutput に審査ID・様式・出力形式ごとに記録し、
+ * AuditHistory.AuditReportFile は審査種別の正本の様式（定期再評価は様式-11、それ以外は様式-8）の PDF に限り更新する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class JdbcReportJobStore implements ReportJobQueue.JobStore {
+
+    private static final String COLUMNS =
+        "TicketID, AuditID, ReportForm, OutputFormat, OutputPath, Status, ClaimedBy, RequestCount,"
+        + " RequestedAt, StartedAt, CompletedAt, ErrorMessage";
+
+    private static final String ENQUEUE_SQL =
+        "INSERT INTO ReportJobQueue (TicketID, AuditID, ReportForm, OutputFormat, OutputPath, RequestedAt)"
+        + " VALUES (?, ?, ?, ?, ?, ?)"
+        + " ON CONFLICT (AuditID, ReportForm, OutputFormat) WHERE Status = 'PENDING'"
+        + " DO UPDATE SET RequestCount = ReportJobQueue.RequestCount + 1"
+        + " RETURNING " + COLUMNS;
+
+    private static final String CLAIM_SQL =
+        "UPDATE ReportJobQueue SET Status = 'RUNNING', ClaimedBy = ?, StartedAt = ?, LeaseRenewedAt = StartedAt"
+        + " WHERE TicketID = (SELECT TicketID FROM ReportJobQueue WHERE Status = 'PENDING'"
+        + " ORDER BY RequestedAt LIMIT 1 FOR UPDATE SKIP LOCKED)"
+        + " RETURNING " + COLUMNS;
+
+    /** 自ノードがリースを保持している生成中の依頼 */
+    private static final String LEASE_HELD_CONDITION =
+        "TicketID = ? AND Status = 'RUNNING' AND ClaimedBy = ?";
+
+    private static final String COMPLETE_SQL =
+        "UPDATE ReportJobQueue SET Status = 'COMPLETED', CompletedAt = ?, LeaseRenewedAt = NULL, ErrorMessage = NULL"
+        + " WHERE " + LEASE_HELD_CONDITION + " RETURNING AuditID, ReportForm, OutputFormat, OutputPath";
+
+    private static final String UPSERT_REPORT_OUTPUT_SQL =
+        "INSERT INTO AuditReportOutput (AuditID, ReportForm, OutputFormat, FilePath, TicketID, GeneratedAt)"
+        + " VALUES (?, ?, ?, ?, ?, ?)"
+        + " ON CONFLICT (AuditID, ReportForm, OutputFormat)"
+        + " DO UPDATE SET FilePath = EXCLUDED.FilePath, TicketID = EXCLUDED.TicketID, GeneratedAt = EXCLUDED.GeneratedAt";
+
+    /** 審査種別の正本の様式の場合のみ更新する（定期再評価は様式-11、それ以外は様式-8） */
+    private static final String UPDATE_AUDIT_REPORT_FILE_SQL =
+        "UPDATE AuditHistory SET AuditReportFile = ?, UpdatedAt = CURRENT_TIMESTAMP, UpdatedBy = 'REPORT_QUEUE'"
+        + " WHERE AuditID = ? AND (CASE AuditType WHEN 'PERIODIC' THEN 'FORM11' ELSE 'FORM8' END) = ?";
+
+    private static final String FAIL_SQL =
+        "UPDATE ReportJobQueue SET Status = 'FAILED', CompletedAt = ?, LeaseRenewedAt = NULL, ErrorMessage = ?"
+        + " WHERE " + LEASE_HELD_CONDITION;
+
+    private static final String RENEW_LEASE_SQL =
+        "UPDATE ReportJobQueue SET LeaseRenewedAt = ? WHERE " + LEASE_HELD_CONDITION;
+
+    /** 中断された依頼（自ノードが取得した依頼、またはリース切れの依頼） */
+    private static final String INTERRUPTED_CONDITION =
+        "Status = 'RUNNING' AND (ClaimedBy = ? OR LeaseRenewedAt < ?)";
+
+    /*
+     * 同じ審査ID・様式・出力形式の未着手の依頼がない場合のみ、同一依頼のうち最も古いものを未着手に戻す
+     * （未着手の依頼の部分一意索引に違反しないため）
+     */
+    private static final String REQUEUE_SQL =
+        "UPDATE ReportJobQueue q SET Status = 'PENDING', ClaimedBy = NULL, StartedAt = NULL, LeaseRenewedAt = NULL"
+        + " WHERE q.TicketID IN (SELECT DISTINCT ON (AuditID, ReportForm, OutputFormat) TicketID"
+        + " FROM ReportJobQueue WHERE " + INTERRUPTED_CONDITION
+        + " ORDER BY AuditID, ReportForm, OutputFormat, RequestedAt)"
+        + " AND NOT EXISTS (SELECT 1 FROM ReportJobQueue p WHERE p.Status = 'PENDING'"
+        + " AND p.AuditID = q.AuditID AND p.ReportForm = q.ReportForm AND p.OutputFormat = q.OutputFormat)";
+
+    /** 未着手に戻せなかった中断された依頼（未着手の同一依頼で生成する） */
+    private static final String FAIL_SUPERSEDED_SQL =
+        "UPDATE ReportJobQueue SET Status = 'FAILED', CompletedAt = ?, LeaseRenewedAt = NULL,"
+        + " ErrorMessage = 'Interrupted; superseded by a pending request' WHERE " + INTERRUPTED_CONDITION;
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 1000;
+
+    private final DataSource dataSource;
+
+    public JdbcReportJobStore(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public ReportJob enqueue(String auditId, ReportForm form, OutputFormat format, String outputPath, Instant now) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(ENQUEUE_SQL)) {
+            connection.setAutoCommit(true);
+            ps.setString(1, UUID.randomUUID().toString());
+            ps.setString(2, auditId);
+            ps.setString(3, form.name());
+            ps.setString(4, format.name());
+            ps.setString(5, outputPath);
+            ps.setTimestamp(6, Timestamp.from(now));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return toJob(rs);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to enqueue report job for audit: " + auditId, e);
+        }
+    }
+
+    @Override
+    public ReportJob claimNext(String nodeId, Instant now) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(CLAIM_SQL)) {
+            connection.setAutoCommit(true);
+            ps.setString(1, nodeId);
+            ps.setTimestamp(2, Timestamp.from(now));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? toJob(rs) : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to claim report job", e);
+        }
+    }
+
+    @Override
+    public boolean complete(String ticketId, String nodeId, Instant now) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement complete = connection.prepareStatement(COMPLETE_SQL);
+                 PreparedStatement upsertOutput = connection.prepareStatement(UPSERT_REPORT_OUTPUT_SQL);
+                 PreparedStatement updateAudit = connection.prepareStatement(UPDATE_AUDIT_REPORT_FILE_SQL)) {
+                complete.setTimestamp(1, Timestamp.from(now));
+                complete.setString(2, ticketId);
+                complete.setString(3, nodeId);
+                String auditId;
+                String form;
+                String format;
+                String outputPath;
+                try (ResultSet rs = complete.executeQuery()) {
+                    if (!rs.next()) {
+                        // 他ノードに戻された（または既に記録された）依頼のため、何も更新しない
+                        connection.rollback();
+                        return false;
+                    }
+                    auditId = rs.getString("AuditID");
+                    form = rs.getString("ReportForm");
+                    format = rs.getString("OutputFormat");
+                    outputPath = rs.getString("OutputPath");
+                }
+                upsertOutput.setString(1, auditId);
+                upsertOutput.setString(2, form);
+                upsertOutput.setString(3, format);
+                upsertOutput.setString(4, outputPath);
+                upsertOutput.setString(5, ticketId);
+                upsertOutput.setTimestamp(6, Timestamp.from(now));
+                upsertOutput.executeUpdate();
+                if (OutputFormat.PDF.name().equals(format)) {
+                    updateAudit.setString(1, outputPath);
+                    updateAudit.setString(2, auditId);
+                    updateAudit.setString(3, form);
+                    updateAudit.executeUpdate();
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to complete report job: " + ticketId, e);
+        }
+    }
+
+    @Override
+    public boolean fail(String ticketId, String nodeId, String errorMessage, Instant now) {
+        String message = errorMessage != null && errorMessage.length() > MAX_ERROR_MESSAGE_LENGTH
+            ? errorMessage.substring(0, MAX_ERROR_MESSAGE_LENGTH) : errorMessage;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(FAIL_SQL)) {
+            connection.setAutoCommit(true);
+            ps.setTimestamp(1, Timestamp.from(now));
+            ps.setString(2, message);
+            ps.setString(3, ticketId);
+            ps.setString(4, nodeId);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to record report job failure: " + ticketId, e);
+        }
+    }
+
+    @Override
+    public boolean renewLease(String ticketId, String nodeId, Instant now) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(RENEW_LEASE_SQL)) {
+            connection.setAutoCommit(true);
+            ps.setTimestamp(1, Timestamp.from(now));
+            ps.setString(2, ticketId);
+            ps.setString(3, nodeId);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to renew lease of report job: " + ticketId, e);
+        }
+    }
+
+    @Override
+    public ReportJob find(String ticketId) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "SELECT " + COLUMNS + " FROM ReportJobQueue WHERE TicketID = ?")) {
+            ps.setString(1, ticketId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? toJob(rs) : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to find report job: " + ticketId, e);
+        }
+    }
+
+    @Override
+    public int countPending() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "SELECT COUNT(*) FROM ReportJobQueue WHERE Status = 'PENDING'");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to count pending report jobs", e);
+        }
+    }
+
+    @Override
+    public Instant oldestPendingRequestedAt() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "SELECT MIN(RequestedAt) FROM ReportJobQueue WHERE Status = 'PENDING'");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            Timestamp oldest = rs.getTimestamp(1);
+            return oldest != null ? oldest.toInstant() : null;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read oldest pending report job", e);
+        }
+    }
+
+    @Override
+    public int requeueInterrupted(String nodeId, Instant expiredBefore) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement requeue = connection.prepareStatement(REQUEUE_SQL);
+                 PreparedStatement failSuperseded = connection.prepareStatement(FAIL_SUPERSEDED_SQL)) {
+                requeue.setString(1, nodeId);
+                requeue.setTimestamp(2, Timestamp.from(expiredBefore));
+                int requeued = requeue.executeUpdate();
+                failSuperseded.setTimestamp(1, Timestamp.from(Instant.now()));
+                failSuperseded.setString(2, nodeId);
+                failSuperseded.setTimestamp(3, Timestamp.from(expiredBefore));
+                int superseded = failSuperseded.executeUpdate();
+                connection.commit();
+                if (superseded > 0) {
+                    System.out.println("Marked " + superseded + " interrupted report job(s) as superseded");
+                }
+                return requeued;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to requeue interrupted report jobs", e);
+        }
+    }
+
+    private static ReportJob toJob(ResultSet rs) throws SQLException {
+        return new ReportJob(
+            rs.getString("TicketID"),
+            rs.getString("AuditID"),
+            ReportForm.valueOf(rs.getString("ReportForm")),
+            OutputFormat.valueOf(rs.getString("OutputFormat")),
+            rs.getString("OutputPath"),
+            JobStatus.valueOf(rs.getString("Status")),
+            rs.getString("ClaimedBy"),
+            rs.getInt("RequestCount"),
+            toInstant(rs.getTimestamp("RequestedAt")),
+            toInstant(rs.getTimestamp("StartedAt")),
+            toInstant(rs.getTimestamp("CompletedAt")),
+            rs.getString("ErrorMessage")
+        );
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
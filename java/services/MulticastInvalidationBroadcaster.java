@@ -0,0 +1,186 @@
+package jp.co.company.sqas.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * マルチキャスト無効化ブロードキャスター
+ * Multicast Invalidation Broadcaster
+ *
+ * 同一ネットワーク内のアプリケーションノード間で、購買先キャッシュの無効化を
+ * UDPマルチキャストで通知する。自ノードが送信した通知は受信時に無視する。
+ *
+ * 通知形式: "&lt;ノードID&gt;|&lt;連番&gt;|&lt;購買先ID&gt;"（UTF-8）
+ *
+ * グループアドレスとポートはシステムプロパティ sqas.cache.invalidation.group / sqas.cache.invalidation.port で
+ * 指定する（既定 239.255.42.1:45731、TTL 1 のため全ノードを同一セグメントに配置すること）。
+ *
+ * 連番は送信ノードごとに1から振る。受信した連番が最大受信連番より2以上先の場合は、欠落した無効化を特定できないため
+ * キャッシュを全件破棄する。最大受信連番以下の連番（遅延・順序の入れ替わり）は欠番とせず、そのまま無効化を適用する。
+ * 最後の通知の欠落など連番で検出できない欠落は、キャッシュの最大保持期間で解消される。
+ * 受信エラーが続く場合は待ち時間を延ばして再試行し、上限回数を超えた場合は受信を停止する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class MulticastInvalidationBroadcaster implements SupplierCache.InvalidationBroadcaster, Closeable {
+
+    /** グループアドレスのシステムプロパティ名 */
+    public static final String GROUP_PROPERTY = "sqas.cache.invalidation.group";
+    /** ポート番号のシステムプロパティ名 */
+    public static final String PORT_PROPERTY = "sqas.cache.invalidation.port";
+
+    public static final String DEFAULT_GROUP = "239.255.42.1";
+    public static final int DEFAULT_PORT = 45731;
+
+    private static final int MAX_MESSAGE_BYTES = 256;
+    private static final long INITIAL_RETRY_DELAY_MILLIS = 100;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+    private static final int MAX_CONSECUTIVE_ERRORS = 20;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private final MulticastSocket socket;
+    private final Thread receiver;
+    private volatile boolean running = true;
+
+    private long lastSentSequence; // this のロック下で採番する
+
+    /** 送信ノードごとの最大受信連番（受信スレッドのみが参照する） */
+    private final Map<String, Long> maxReceivedSequences = new HashMap<>();
+
+    /**
+     * システムプロパティのグループ・ポートに参加する（OS既定のネットワークインターフェースを使用）
+     *
+     * @param cache 受信した無効化を適用するキャッシュ
+     */
+    public MulticastInvalidationBroadcaster(SupplierCache cache) throws IOException {
+        this(cache, System.getProperty(GROUP_PROPERTY, DEFAULT_GROUP), Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT),
+            null);
+    }
+
+    /**
+     * @param cache 受信した無効化を適用するキャッシュ
+     * @param groupAddress マルチキャストグループ（例: 239.1.2.3）
+     * @param port ポート番号
+     * @param networkInterface 使用するネットワークインターフェース（null の場合はOS既定）
+     */
+    public MulticastInvalidationBroadcaster(SupplierCache cache, String groupAddress, int port,
+                                            NetworkInterface networkInterface) throws IOException {
+        this.group = new InetSocketAddress(InetAddress.getByName(groupAddress), port);
+        this.networkInterface = networkInterface;
+        this.socket = new MulticastSocket(port);
+        this.socket.joinGroup(group, networkInterface);
+
+        this.receiver = new Thread(() -> receiveLoop(cache), "sqas-supplier-cache-invalidation");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+        cache.addBroadcaster(this);
+    }
+
+    /**
+     * 連番の順に送信する（並行して送信すると受信側で順序が入れ替わり、欠番と判定されるため）
+     */
+    @Override
+    public synchronized void broadcast(String supplierId) {
+        long sequence = ++lastSentSequence;
+        byte[] message = (nodeId + "|" + sequence + "|" + supplierId).getBytes(StandardCharsets.UTF_8);
+        try {
+            socket.send(new DatagramPacket(message, message.length, group));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to send invalidation: " + supplierId, e);
+        }
+    }
+
+    private void receiveLoop(SupplierCache cache) {
+        byte[] buffer = new byte[MAX_MESSAGE_BYTES];
+        int consecutiveErrors = 0;
+        while (running) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                consecutiveErrors = 0;
+            } catch (IOException e) {
+                if (!running) {
+                    return; // close() によるソケット切断
+                }
+                consecutiveErrors++;
+                if (consecutiveErrors >= MAX_CONSECUTIVE_ERRORS) {
+                    System.err.println("Invalidation receiver stopped after " + consecutiveErrors
+                        + " consecutive errors: " + e.getMessage());
+                    cache.onRemoteInvalidationsLost();
+                    return;
+                }
+                if (consecutiveErrors == 1) {
+                    System.err.println("Invalidation receiver error: " + e.getMessage());
+                }
+                // 受信できない間の無効化は欠落するため、再開時の欠番検出に任せずキャッシュを破棄する
+                cache.onRemoteInvalidationsLost();
+                if (!sleepBeforeRetry(consecutiveErrors)) {
+                    return;
+                }
+                continue;
+            }
+
+            String message = new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8);
+            String[] fields = message.split("\\|", 3);
+            if (fields.length != 3 || fields[0].equals(nodeId)) {
+                continue;
+            }
+            long sequence;
+            try {
+                sequence = Long.parseLong(fields[1]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            Long maxSequence = maxReceivedSequences.get(fields[0]);
+            if (maxSequence == null || sequence > maxSequence) {
+                maxReceivedSequences.put(fields[0], sequence);
+            }
+            if (maxSequence != null && sequence > maxSequence + 1) {
+                System.err.println("Invalidation messages lost from node " + fields[0]
+                    + " (expected " + (maxSequence + 1) + ", received " + sequence + "), clearing cache");
+                cache.onRemoteInvalidationsLost();
+            } else {
+                // 最大受信連番以下の連番は遅延した通知のため、欠番とせずに適用する
+                cache.onRemoteInvalidation(fields[2]);
+            }
+        }
+    }
+
+    /**
+     * @return 待機を完了した場合 true（割り込まれた場合 false）
+     */
+    private boolean sleepBeforeRetry(int consecutiveErrors) {
+        long delay = Math.min(MAX_RETRY_DELAY_MILLIS, INITIAL_RETRY_DELAY_MILLIS << Math.min(consecutiveErrors - 1, 16));
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            socket.leaveGroup(group, networkInterface);
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package jp.co.company.sqas.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+
+/**
+ * 帳票PDF出力
+ * PDF Report Writer
+ *
+ * ReportTemplate が出力する UTF-8 の帳票テキストを受け取り、1行ずつ A4 縦のPDFページへ配置する
+ * WritableByteChannel。StreamingReportWriter の出力先として使用する。
+ *
+ * <pre>
+ * try (StreamingReportWriter out = new StreamingReportWriter(PdfReportWriter.open(path, font))) {
+ *     template.render(data, out);
+ * }
+ * </pre>
+ *
+ * フォントは次のいずれかとする。
+ * <ul>
+ *   <li>埋め込みなし（font = null）: PDFビューア標準の日本語フォント（HeiseiKakuGo-W5、UniJIS-UCS2-HW-H）を参照する。
+ *       フォントの読込は不要で、フォント関連のオブジェクトはJVMで1回だけ符号化して全帳票で共有する。</li>
+ *   <li>埋め込みあり: EmbeddedFont.load で読み込んだ TrueType フォントから、帳票で使用したグリフのみの
+ *       サブセットを埋め込む。フォントファイルの解析はJVMで1回だけ行い、同じグリフ構成のサブセットは再作成しない。</li>
+ * </ul>
+ *
+ * ページ・リソース辞書・コンテンツストリームの定型部分は符号化済のバイト列を全帳票で共有する。
+ * 表の桁を揃えるには、埋め込みなし、または等幅フォント（IPAゴシック ipag.ttf など）を使用すること。
+ * 1行が本文幅を超える場合は折り返す。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class PdfReportWriter implements WritableByteChannel {
+
+    /** A4 縦（ポイント） */
+    static final int PAGE_WIDTH = 595;
+    static final int PAGE_HEIGHT = 842;
+    static final int MARGIN = 40;
+    static final int FONT_SIZE = 9;
+    static final int LEADING = 12;
+    static final int LINES_PER_PAGE = (PAGE_HEIGHT - 2 * MARGIN) / LEADING;
+
+    /** 本文幅（1/1000 em 単位） */
+    private static final int MAX_LINE_WIDTH = (PAGE_WIDTH - 2 * MARGIN) * 1000 / FONT_SIZE;
+
+    /** 同じフォントで保持するサブセットの最大数 */
+    private static final int MAX_CACHED_SUBSETS = 32;
+
+    /** 表示できない文字の代替（全角の疑問符） */
+    private static final int REPLACEMENT_CHARACTER = 0xFF1F;
+
+    // オブジェクト番号（ページはフォント関連の後に 1ページ3オブジェクトずつ採番する）
+    private static final int CATALOG = 1;
+    private static final int PAGES = 2;
+    private static final int RESOURCES = 3;
+    private static final int TYPE0_FONT = 4;
+    private static final int CID_FONT = 5;
+    private static final int FONT_DESCRIPTOR = 6;
+    private static final int FONT_FILE = 7;
+    private static final int TO_UNICODE = 8;
+
+    private static final byte[] HEADER = ascii("%PDF-1.4\n%âãÏÓ\n");
+    private static final byte[] RESOURCES_OBJECT =
+        ascii("<< /Font << /F1 " + TYPE0_FONT + " 0 R >> /ProcSet [/PDF /Text] >>\n");
+    private static final byte[] CONTENT_BEGIN = ascii("BT\n/F1 " + FONT_SIZE + " Tf\n" + LEADING + " TL\n"
+        + MARGIN + " " + (PAGE_HEIGHT - MARGIN - FONT_SIZE) + " Td\n");
+    private static final byte[] CONTENT_END = ascii("ET\n");
+    private static final byte[] END_STREAM = ascii("endstream\n");
+    private static final byte[] PAGE_BEGIN = ascii("<< /Type /Page /Parent " + PAGES
+        + " 0 R /MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT + "] /Resources " + RESOURCES + " 0 R /Contents ");
+    private static final byte[] NEXT_LINE = ascii("T*\n");
+    private static final byte[] SHOW_TEXT = ascii("> Tj\n");
+    private static final byte[] HEX_DIGITS = ascii("0123456789ABCDEF");
+
+    /** 埋め込みなしのフォント関連オブジェクト（TYPE0_FONT, CID_FONT, FONT_DESCRIPTOR の順） */
+    private static final byte[][] STANDARD_FONT_OBJECTS = {
+        ascii("<< /Type /Font /Subtype /Type0 /BaseFont /HeiseiKakuGo-W5 /Encoding /UniJIS-UCS2-HW-H"
+            + " /DescendantFonts [" + CID_FONT + " 0 R] >>\n"),
+        ascii("<< /Type /Font /Subtype /CIDFontType0 /BaseFont /HeiseiKakuGo-W5"
+            + " /CIDSystemInfo << /Registry (Adobe) /Ordering (Japan1) /Supplement 2 >>"
+            + " /FontDescriptor " + FONT_DESCRIPTOR + " 0 R /DW 1000 /W [231 389 500 631 631 500] >>\n"),
+        ascii("<< /Type /FontDescriptor /FontName /HeiseiKakuGo-W5 /Flags 4 /FontBBox [-92 -250 1010 922]"
+            + " /ItalicAngle 0 /Ascent 880 /Descent -120 /CapHeight 737 /StemV 114 >>\n")
+    };
+
+    private static final ConcurrentHashMap<Path, EmbeddedFont> FONTS = new ConcurrentHashMap<>();
+
+    /**
+     * 埋め込みフォント
+     *
+     * フォントファイルの解析結果と、作成済サブセット（圧縮後）を保持する。JVMでフォントファイルごとに1インスタンス。
+     */
+    static final class EmbeddedFont {
+        private final TrueTypeFont font;
+        private final Map<BitSet, CompressedSubset> subsets = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BitSet, CompressedSubset> eldest) {
+                return size() > MAX_CACHED_SUBSETS;
+            }
+        };
+
+        EmbeddedFont(TrueTypeFont font) {
+            this.font = font;
+        }
+
+        /**
+         * フォントファイルを読み込む（同じファイルは2回目以降、読込済のものを返す）
+         *
+         * @param fontFile TrueType フォントファイル
+         * @return 埋め込みフォント
+         */
+        static EmbeddedFont load(Path fontFile) throws IOException {
+            try {
+                return FONTS.computeIfAbsent(fontFile.toAbsolutePath().normalize(), path -> {
+                    try {
+                        return new EmbeddedFont(new TrueTypeFont(path));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        TrueTypeFont getFont() {
+            return font;
+        }
+
+        /**
+         * サブセットを FlateDecode で圧縮したものを取得する
+         */
+        CompressedSubset compressedSubset(BitSet usedGlyphs) {
+            CompressedSubset cached;
+            synchronized (subsets) {
+                cached = subsets.get(usedGlyphs);
+            }
+            if (cached != null) {
+                return cached;
+            }
+            byte[] subset = font.subset(usedGlyphs);
+            CompressedSubset entry = new CompressedSubset(deflate(subset), subset.length);
+            synchronized (subsets) {
+                subsets.put((BitSet) usedGlyphs.clone(), entry);
+            }
+            return entry;
+        }
+
+        int cachedSubsetCount() {
+            synchronized (subsets) {
+                return subsets.size();
+            }
+        }
+    }
+
+    /**
+     * 圧縮済のサブセットフォント
+     */
+    static final class CompressedSubset {
+        final byte[] data;
+        final int originalLength;
+
+        CompressedSubset(byte[] data, int originalLength) {
+            this.data = data;
+            this.originalLength = originalLength;
+        }
+    }
+
+    private final StreamingReportWriter out;
+    private final EmbeddedFont embeddedFont;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer input = ByteBuffer.allocate(4096);
+    private final CharBuffer chars = CharBuffer.allocate(4096);
+
+    private long[] offsets = new long[64];
+    private int nextObject;
+    private int[] pageObjects = new int[16];
+    private int pageCount;
+
+    private boolean pageOpen;
+    private long contentStart;
+    private int lineOnPage;
+    private int lineWidth;
+    private boolean inText;
+    private char highSurrogate;
+
+    // 埋め込みあり: 使用グリフと ToUnicode 用の対応
+    private final BitSet usedGlyphs = new BitSet();
+    private final Map<Integer, Integer> glyphToUnicode = new HashMap<>();
+
+    private boolean closed;
+
+    /**
+     * @param out PDFの出力先（close 時に閉じる）
+     * @param embeddedFont 埋め込みフォント（null の場合は埋め込みなし）
+     */
+    PdfReportWriter(StreamingReportWriter out, EmbeddedFont embeddedFont) throws IOException {
+        this.out = out;
+        this.embeddedFont = embeddedFont;
+        this.nextObject = embeddedFont != null ? TO_UNICODE + 1 : FONT_DESCRIPTOR + 1;
+        out.write(HEADER);
+    }
+
+    /**
+     * PDFファイルへの出力を開く（既存ファイルは上書き）
+     */
+    static PdfReportWriter open(Path outputPath, EmbeddedFont embeddedFont) throws IOException {
+        StreamingReportWriter out = new StreamingReportWriter(FileChannel.open(outputPath,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+        try {
+            return new PdfReportWriter(out, embeddedFont);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        int written = src.remaining();
+        while (src.hasRemaining()) {
+            int n = Math.min(input.remaining(), src.remaining());
+            ByteBuffer slice = src.slice();
+            slice.limit(n);
+            input.put(slice);
+            src.position(src.position() + n);
+            decode(false);
+        }
+        return written;
+    }
+
+    private void decode(boolean endOfInput) throws IOException {
+        input.flip();
+        while (true) {
+            boolean overflow = decoder.decode(input, chars, endOfInput).isOverflow();
+            chars.flip();
+            while (chars.hasRemaining()) {
+                character(chars.get());
+            }
+            chars.clear();
+            if (!overflow) {
+                break;
+            }
+        }
+        input.compact(); // 文字の途中で区切られたバイトは次回に持ち越す
+    }
+
+    private void character(char c) throws IOException {
+        if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+            return;
+        }
+        int codePoint = c;
+        if (Character.isLowSurrogate(c)) {
+            codePoint = highSurrogate != 0 ? Character.toCodePoint(highSurrogate, c) : REPLACEMENT_CHARACTER;
+        } else if (highSurrogate != 0) {
+            codePoint(REPLACEMENT_CHARACTER);
+        }
+        highSurrogate = 0;
+        codePoint(codePoint);
+    }
+
+    private void codePoint(int codePoint) throws IOException {
+        if (codePoint == '\n') {
+            newLine();
+            return;
+        }
+        if (codePoint == '\t') {
+            codePoint = ' ';
+        } else if (codePoint < 0x20 || codePoint == 0x7F) {
+            return; // \r などの制御文字は出力しない
+        }
+
+        int code;
+        int width;
+        if (embeddedFont != null) {
+            code = embeddedFont.getFont().glyphId(codePoint);
+            width = embeddedFont.getFont().advanceWidth(code);
+            if (!usedGlyphs.get(code)) {
+                usedGlyphs.set(code);
+                glyphToUnicode.put(code, codePoint);
+            }
+        } else {
+            code = codePoint <= 0xFFFF ? codePoint : REPLACEMENT_CHARACTER;
+            width = (code >= 0x20 && code < 0x7F) || (code >= 0xFF61 && code <= 0xFF9F) ? 500 : 1000;
+        }
+
+        if (!pageOpen) {
+            beginPage();
+        }
+        if (lineWidth > 0 && lineWidth + width > MAX_LINE_WIDTH) {
+            newLine(); // 折り返し
+            if (!pageOpen) {
+                beginPage();
+            }
+        }
+        if (!inText) {
+            out.append('<');
+            inText = true;
+        }
+        out.append((char) HEX_DIGITS[(code >> 12) & 0xF]).append((char) HEX_DIGITS[(code >> 8) & 0xF])
+            .append((char) HEX_DIGITS[(code >> 4) & 0xF]).append((char) HEX_DIGITS[code & 0xF]);
+        lineWidth += width;
+    }
+
+    private void newLine() throws IOException {
+        if (!pageOpen) {
+            beginPage();
+        }
+        endText();
+        lineWidth = 0;
+        if (++lineOnPage == LINES_PER_PAGE) {
+            endPage();
+        } else {
+            out.write(NEXT_LINE);
+        }
+    }
+
+    private void endText() throws IOException {
+        if (inText) {
+            out.write(SHOW_TEXT);
+            inText = false;
+        }
+    }
+
+    /**
+     * ページを開始する（コンテンツストリーム、長さ、ページの3オブジェクト）
+     */
+    private void beginPage() throws IOException {
+        int content = nextObject;
+        nextObject += 3;
+        if (pageCount == pageObjects.length) {
+            pageObjects = Arrays.copyOf(pageObjects, pageCount * 2);
+        }
+        pageObjects[pageCount++] = content + 2;
+
+        beginObject(content).append("<< /Length ").append(content + 1).append(" 0 R >>\nstream\n");
+        contentStart = out.getBytesWritten();
+        out.write(CONTENT_BEGIN);
+        pageOpen = true;
+        lineOnPage = 0;
+    }
+
+    private void endPage() throws IOException {
+        endText();
+        out.write(CONTENT_END);
+        long length = out.getBytesWritten() - contentStart;
+        out.write(END_STREAM);
+        endObject();
+
+        int content = pageObjects[pageCount - 1] - 2;
+        beginObject(content + 1).append(length).append('\n');
+        endObject();
+        beginObject(content + 2).write(PAGE_BEGIN).append(content).append(" 0 R >>\n");
+        endObject();
+        pageOpen = false;
+    }
+
+    private StreamingReportWriter beginObject(int number) throws IOException {
+        if (number >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, Math.max(number + 1, offsets.length * 2));
+        }
+        offsets[number] = out.getBytesWritten();
+        return out.append(number).append(" 0 obj\n");
+    }
+
+    private void endObject() throws IOException {
+        out.append("endobj\n");
+    }
+
+    /**
+     * 最終ページ・フォント・ページツリー・相互参照表を出力して閉じる
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            decode(true);
+            if (highSurrogate != 0) {
+                codePoint(REPLACEMENT_CHARACTER);
+            }
+            if (!pageOpen && pageCount == 0) {
+                beginPage(); // 空の帳票も1ページとする
+            }
+            if (pageOpen) {
+                endPage();
+            }
+
+            beginObject(RESOURCES).write(RESOURCES_OBJECT);
+            endObject();
+            if (embeddedFont != null) {
+                writeEmbeddedFont();
+            } else {
+                for (int i = 0; i < STANDARD_FONT_OBJECTS.length; i++) {
+                    beginObject(TYPE0_FONT + i).write(STANDARD_FONT_OBJECTS[i]);
+                    endObject();
+                }
+            }
+
+            beginObject(PAGES).append("<< /Type /Pages /Count ").append(pageCount).append(" /Kids [");
+            for (int i = 0; i < pageCount; i++) {
+                out.append(i == 0 ? "" : " ").append(pageObjects[i]).append(" 0 R");
+            }
+            out.append("] >>\n");
+            endObject();
+            beginObject(CATALOG).append("<< /Type /Catalog /Pages ").append(PAGES).append(" 0 R >>\n");
+            endObject();
+
+            long xref = out.getBytesWritten();
+            out.append("xref\n0 ").append(nextObject).append("\n0000000000 65535 f \n");
+            byte[] entry = ascii("0000000000 00000 n \n");
+            for (int i = 1; i < nextObject; i++) {
+                long offset = offsets[i];
+                for (int d = 9; d >= 0; d--) {
+                    entry[d] = (byte) ('0' + offset % 10);
+                    offset /= 10;
+                }
+                out.write(entry);
+            }
+            out.append("trailer\n<< /Size ").append(nextObject).append(" /Root ").append(CATALOG)
+                .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 埋め込みフォント（サブセット）のオブジェクトを出力する
+     */
+    private void writeEmbeddedFont() throws IOException {
+        TrueTypeFont font = embeddedFont.getFont();
+        usedGlyphs.set(0);
+        String baseFont = subsetTag(usedGlyphs) + "+" + font.getPostScriptName();
+
+        beginObject(TYPE0_FONT).append("<< /Type /Font /Subtype /Type0 /BaseFont /").append(baseFont)
+            .append(" /Encoding /Identity-H /DescendantFonts [").append(CID_FONT)
+            .append(" 0 R] /ToUnicode ").append(TO_UNICODE).append(" 0 R >>\n");
+        endObject();
+
+        beginObject(CID_FONT).append("<< /Type /Font /Subtype /CIDFontType2 /BaseFont /").append(baseFont)
+            .append(" /CIDSystemInfo << /Registry (Adobe) /Ordering (Identity) /Supplement 0 >> /FontDescriptor ")
+            .append(FONT_DESCRIPTOR).append(" 0 R /CIDToGIDMap /Identity /DW 1000 /W [");
+        for (int gid = usedGlyphs.nextSetBit(0); gid >= 0; gid = usedGlyphs.nextSetBit(gid + 1)) {
+            out.append(gid).append(" [").append(font.advanceWidth(gid)).append("] ");
+        }
+        out.append("] >>\n");
+        endObject();
+
+        int[] bbox = font.getFontBBox();
+        beginObject(FONT_DESCRIPTOR).append("<< /Type /FontDescriptor /FontName /").append(baseFont)
+            .append(" /Flags 4 /FontBBox [").append(bbox[0]).append(' ').append(bbox[1]).append(' ')
+            .append(bbox[2]).append(' ').append(bbox[3]).append("] /ItalicAngle ").append(font.getItalicAngle())
+            .append(" /Ascent ").append(font.getAscent()).append(" /Descent ").append(font.getDescent())
+            .append(" /CapHeight ").append(font.getCapHeight()).append(" /StemV 80 /FontFile2 ")
+            .append(FONT_FILE).append(" 0 R >>\n");
+        endObject();
+
+        CompressedSubset subset = embeddedFont.compressedSubset(usedGlyphs);
+        writeStream(FONT_FILE, subset.data, " /Length1 " + subset.originalLength);
+        writeStream(TO_UNICODE, deflate(toUnicodeCMap()), "");
+    }
+
+    private void writeStream(int number, byte[] data, String extraEntries) throws IOException {
+        beginObject(number).append("<< /Length ").append(data.length).append(" /Filter /FlateDecode")
+            .append(extraEntries).append(" >>\nstream\n").write(data).append("\nendstream\n");
+        endObject();
+    }
+
+    /**
+     * グリフ番号から Unicode への対応表（テキストのコピー・検索用）
+     */
+    private byte[] toUnicodeCMap() {
+        StringBuilder cmap = new StringBuilder(64 + glyphToUnicode.size() * 20)
+            .append("/CIDInit /ProcSet findresource begin\n12 dict begin\nbegincmap\n")
+            .append("/CIDSystemInfo << /Registry (Adobe) /Ordering (UCS) /Supplement 0 >> def\n")
+            .append("/CMapName /Adobe-Identity-UCS def\n/CMapType 2 def\n")
+            .append("1 begincodespacerange\n<0000> <FFFF>\nendcodespacerange\n");
+        int[] glyphs = glyphToUnicode.keySet().stream().mapToInt(Integer::intValue).filter(g -> g != 0).sorted().toArray();
+        for (int start = 0; start < glyphs.length; start += 100) {
+            int end = Math.min(start + 100, glyphs.length);
+            cmap.append(end - start).append(" beginbfchar\n");
+            for (int i = start; i < end; i++) {
+                cmap.append('<').append(String.format("%04X", glyphs[i])).append("> <");
+                for (char unit : Character.toChars(glyphToUnicode.get(glyphs[i]))) {
+                    cmap.append(String.format("%04X", (int) unit));
+                }
+                cmap.append(">\n");
+            }
+            cmap.append("endbfchar\n");
+        }
+        cmap.append("endcmap\nCMapName currentdict /CMap defineresource pop\nend\nend\n");
+        return cmap.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * サブセットのタグ（グリフ構成から決まる大文字6文字）
+     */
+    private static String subsetTag(BitSet glyphs) {
+        int hash = glyphs.hashCode();
+        char[] tag = new char[6];
+        for (int i = 0; i < tag.length; i++) {
+            tag[i] = (char) ('A' + Math.floorMod(hash, 26));
+            hash /= 26;
+        }
+        return new String(tag);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 出力したページ数
+     */
+    int getPageCount() {
+        return pageCount;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+}
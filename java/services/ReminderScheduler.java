@@ -0,0 +1,175 @@
+package jp.co.company.sqas.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * リマインダースケジューラ
+ * Reminder Scheduler
+ *
+ * 購買先の次回審査予定日と未完了の是正処置の期限を階層型タイミングホイール（TimingWheelScheduler）に保持し、
+ * 通知時刻の到来時にリスナーへ通知する常駐スケジューラ。
+ *
+ * - 再評価通知: 次回審査予定日の30日前から、予定日の前日まで7日ごと
+ * - 是正処置の期限前通知: 期限の3日前
+ * - 是正処置の期限超過通知: 期限の翌日
+ *
+ * 起動時に全件を登録し、以後は次回審査予定日・是正処置の期限・ステータスの変更時に更新する。
+ * 通知を送信するかの最終判断（ステータス・期限・直近の通知履歴の確認）はリスナーが行い、
+ * 日次のリマインダーバッチは停止中や更新漏れによる取りこぼしを補う整合性確認として実行する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class ReminderScheduler implements AutoCloseable {
+
+    public static final int REVIEW_REMINDER_DAYS_BEFORE = 30;
+    public static final int REVIEW_REMINDER_INTERVAL_DAYS = 7;
+    public static final int CORRECTIVE_ACTION_REMINDER_DAYS_BEFORE = 3;
+
+    private static final Duration DEFAULT_TICK = Duration.ofMinutes(1);
+    private static final LocalTime DEFAULT_NOTIFY_TIME = LocalTime.of(9, 0);
+
+    /* キーの接頭辞（通知種別） */
+    private static final String REVIEW_KEY = "REVIEW_REMINDER:";
+    private static final String CORRECTIVE_ACTION_REMINDER_KEY = "CORRECTIVE_ACTION_REMINDER:";
+    private static final String CORRECTIVE_ACTION_OVERDUE_KEY = "CORRECTIVE_ACTION_OVERDUE:";
+
+    /**
+     * 通知時刻の到来を受け取るリスナー（スケジューラの常駐スレッドから呼び出される）
+     */
+    public interface ReminderListener {
+        /**
+         * @param supplierId 購買先ID
+         * @param nextReviewDate 登録時の次回審査予定日
+         */
+        void reviewReminderDue(String supplierId, LocalDate nextReviewDate);
+
+        /**
+         * @param correctiveActionId 是正処置ID
+         * @param deadline 登録時の期限
+         */
+        void correctiveActionReminderDue(String correctiveActionId, LocalDate deadline);
+
+        /**
+         * @param correctiveActionId 是正処置ID
+         * @param deadline 登録時の期限
+         */
+        void correctiveActionOverdue(String correctiveActionId, LocalDate deadline);
+    }
+
+    private final ReminderListener listener;
+    private final TimingWheelScheduler wheel;
+    private final ZoneId zone;
+    private final LocalTime notifyTime;
+
+    /**
+     * @param listener 通知時刻の到来を受け取るリスナー
+     */
+    public ReminderScheduler(ReminderListener listener) {
+        this(listener, new TimingWheelScheduler(DEFAULT_TICK), DEFAULT_NOTIFY_TIME);
+    }
+
+    /**
+     * @param listener 通知時刻の到来を受け取るリスナー
+     * @param wheel タイミングホイール（日付はホイールの Clock のタイムゾーンで扱う）
+     * @param notifyTime 通知時刻
+     */
+    public ReminderScheduler(ReminderListener listener, TimingWheelScheduler wheel, LocalTime notifyTime) {
+        this.listener = listener;
+        this.wheel = wheel;
+        this.zone = wheel.getClock().getZone();
+        this.notifyTime = notifyTime;
+    }
+
+    /**
+     * 購買先の次回審査予定日の変更を反映する（起動時の登録にも使用する）
+     *
+     * @param supplierId 購買先ID
+     * @param nextReviewDate 次回審査予定日（有効な購買先でなくなった場合は null を指定して取り消す）
+     */
+    public void reviewDateChanged(String supplierId, LocalDate nextReviewDate) {
+        String key = REVIEW_KEY + supplierId;
+        if (nextReviewDate == null || !nextReviewDate.isAfter(today())) {
+            wheel.cancel(key);
+            return;
+        }
+        LocalDate notifyDate = nextReviewDate.minusDays(REVIEW_REMINDER_DAYS_BEFORE);
+        wheel.schedule(key, at(notifyDate), reviewTask(supplierId, nextReviewDate, notifyDate));
+    }
+
+    /**
+     * 是正処置の期限・ステータスの変更を反映する（起動時の登録にも使用する）
+     *
+     * @param correctiveActionId 是正処置ID
+     * @param deadline 是正処置期限
+     * @param status ステータス（OPEN / IN_PROGRESS 以外の場合は取り消す）
+     */
+    public void correctiveActionChanged(String correctiveActionId, LocalDate deadline, String status) {
+        String reminderKey = CORRECTIVE_ACTION_REMINDER_KEY + correctiveActionId;
+        String overdueKey = CORRECTIVE_ACTION_OVERDUE_KEY + correctiveActionId;
+        if (deadline == null || !("OPEN".equals(status) || "IN_PROGRESS".equals(status))) {
+            wheel.cancel(reminderKey);
+            wheel.cancel(overdueKey);
+            return;
+        }
+
+        LocalDate reminderDate = deadline.minusDays(CORRECTIVE_ACTION_REMINDER_DAYS_BEFORE);
+        if (reminderDate.isBefore(today())) {
+            wheel.cancel(reminderKey);
+        } else {
+            wheel.schedule(reminderKey, at(reminderDate),
+                () -> listener.correctiveActionReminderDue(correctiveActionId, deadline));
+        }
+        wheel.schedule(overdueKey, at(deadline.plusDays(1)),
+            () -> listener.correctiveActionOverdue(correctiveActionId, deadline));
+    }
+
+    /**
+     * @return 登録中の通知数
+     */
+    public int size() {
+        return wheel.size();
+    }
+
+    /**
+     * 常駐スレッドで通知時刻の監視を開始する
+     */
+    public void start() {
+        wheel.start();
+    }
+
+    @Override
+    public void close() {
+        wheel.close();
+    }
+
+    /**
+     * 再評価通知を行い、次回審査予定日の前日までの間は7日後の通知を登録する
+     */
+    private Runnable reviewTask(String supplierId, LocalDate nextReviewDate, LocalDate notifyDate) {
+        return () -> {
+            listener.reviewReminderDue(supplierId, nextReviewDate);
+
+            LocalDate nextNotifyDate = (notifyDate.isAfter(today()) ? notifyDate : today())
+                .plusDays(REVIEW_REMINDER_INTERVAL_DAYS);
+            if (nextNotifyDate.isBefore(nextReviewDate)) {
+                // 通知中に予定日が変更された場合は変更後の登録を優先する
+                wheel.scheduleIfAbsent(REVIEW_KEY + supplierId, at(nextNotifyDate),
+                    reviewTask(supplierId, nextReviewDate, nextNotifyDate));
+            }
+        };
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(wheel.getClock());
+    }
+
+    private Instant at(LocalDate date) {
+        return date.atTime(notifyTime).atZone(zone).toInstant();
+    }
+}
@@ -0,0 +1,533 @@
+package jp.co.company.sqas.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import javax.sql.DataSource;
+
+import jp.co.company.sqas.service.AuditReportPDFService.OutputFormat;
+import jp.co.company.sqas.service.AuditReportPDFService.ReportForm;
+
+/**
+ * 帳票アーカイブ作成
+ * Report Archive Builder
+ *
+ * 審査報告書ファイル（AuditReportOutput に様式・出力形式ごとに記録したパス）をまとめて1つの ZIP（無圧縮）または TAR として
+ * 出力先チャネルへ逐次書き出す。ファイルの内容は FileChannel.transferTo で出力先へ転送し、
+ * ヒープには読み込まない。HTTP レスポンスへ直接書き出す場合は次のように使用する。
+ *
+ * <pre>
+ * ReportArchiveBuilder builder = new ReportArchiveBuilder(ArchiveFormat.ZIP);
+ * List&lt;Path&gt; files = ReportArchiveBuilder.findReportFiles(dataSource, from, to, ReportForm.FORM8, OutputFormat.PDF);
+ * builder.write(files, response.getOutputStream());
+ * </pre>
+ *
+ * ZIP は STORE（無圧縮）形式とし、ローカルヘッダに CRC-32 とサイズを記録するため、
+ * 各ファイルを CRC 計算用に1回読み込んでから転送する（2回目はOSのページキャッシュから読まれる）。
+ * 4GB を超えるアーカイブ、65,535 件を超えるファイルは ZIP64 形式で記録する。
+ * 使用メモリは入出力用の固定長バッファと、ZIP の中央ディレクトリ用のファイルごとの数十バイトのみ。
+ *
+ * 出力中に見つからないファイルはスキップし、ArchiveResult に記録する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class ReportArchiveBuilder {
+
+    private static final int CRC_BUFFER_SIZE = 64 * 1024;
+    private static final int TAR_BLOCK = 512;
+    private static final long ZIP32_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP16_LIMIT = 0xFFFF;
+    private static final int ZIP_FLAG_UTF8 = 0x0800;
+    private static final int ZIP_VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+
+    /**
+     * アーカイブ形式
+     */
+    public enum ArchiveFormat {
+        /** ZIP（STORE、無圧縮） */
+        ZIP,
+        /** TAR（POSIX ustar、長いファイル名・日本語のファイル名は PAX 拡張ヘッダで記録） */
+        TAR
+    }
+
+    /**
+     * アーカイブ作成結果
+     */
+    public static class ArchiveResult {
+        private final int entryCount;
+        private final long bytesWritten;
+        private final List<Path> skippedFiles;
+
+        ArchiveResult(int entryCount, long bytesWritten, List<Path> skippedFiles) {
+            this.entryCount = entryCount;
+            this.bytesWritten = bytesWritten;
+            this.skippedFiles = Collections.unmodifiableList(skippedFiles);
+        }
+
+        public int getEntryCount() { return entryCount; }
+        public long getBytesWritten() { return bytesWritten; }
+        /** 見つからずスキップしたファイル */
+        public List<Path> getSkippedFiles() { return skippedFiles; }
+
+        @Override
+        public String toString() {
+            return "ArchiveResult{entries=" + entryCount + ", bytes=" + bytesWritten
+                + ", skipped=" + skippedFiles.size() + "}";
+        }
+    }
+
+    /**
+     * 中央ディレクトリに記録する ZIP エントリの情報
+     */
+    private static final class ZipEntryRecord {
+        final byte[] name;
+        final int dosTime;
+        final int crc;
+        final long size;
+        final long offset;
+
+        ZipEntryRecord(byte[] name, int dosTime, int crc, long size, long offset) {
+            this.name = name;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.size = size;
+            this.offset = offset;
+        }
+    }
+
+    private final ArchiveFormat format;
+
+    public ReportArchiveBuilder(ArchiveFormat format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Archive format is required");
+        }
+        this.format = format;
+    }
+
+    /**
+     * 審査日が期間内の審査報告書ファイルのうち、指定の様式・出力形式のパスを取得する（審査日・審査ID順）
+     *
+     * @param from 開始日（含む）
+     * @param to 終了日（含む）
+     * @param form 様式
+     * @param outputFormat 出力形式
+     */
+    public static List<Path> findReportFiles(DataSource dataSource, LocalDate from, LocalDate to,
+                                             ReportForm form, OutputFormat outputFormat) throws SQLException {
+        if (form == null || outputFormat == null) {
+            throw new IllegalArgumentException("Report form and output format are required");
+        }
+        List<Path> files = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "SELECT o.FilePath FROM AuditReportOutput o"
+                 + " JOIN AuditHistory a ON a.AuditID = o.AuditID"
+                 + " WHERE a.AuditDate BETWEEN ? AND ? AND o.ReportForm = ? AND o.OutputFormat = ?"
+                 + " ORDER BY a.AuditDate, a.AuditID")) {
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+            ps.setString(3, form.name());
+            ps.setString(4, outputFormat.name());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    files.add(Paths.get(rs.getString(1)));
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 四半期の開始日・終了日を取得する
+     *
+     * @param year 年
+     * @param quarter 四半期（1〜4、1月〜3月が第1四半期）
+     * @return {開始日, 終了日}
+     */
+    public static LocalDate[] quarterRange(int year, int quarter) {
+        if (quarter < 1 || quarter > 4) {
+            throw new IllegalArgumentException("Quarter must be between 1 and 4: " + quarter);
+        }
+        LocalDate from = LocalDate.of(year, (quarter - 1) * 3 + 1, 1);
+        return new LocalDate[] {from, from.plusMonths(3).minusDays(1)};
+    }
+
+    /**
+     * アーカイブを出力ストリームへ書き出す（ストリームは閉じない）
+     */
+    public ArchiveResult write(Iterable<Path> files, OutputStream target) throws IOException {
+        ArchiveResult result = write(files, Channels.newChannel(target));
+        target.flush();
+        return result;
+    }
+
+    /**
+     * アーカイブを出力先チャネルへ書き出す（チャネルは閉じない）
+     *
+     * @param files アーカイブに含めるファイル（アーカイブ内のファイル名はファイル名部分のみ、重複時は連番を付与）
+     * @param target 出力先
+     * @return 作成結果
+     */
+    public ArchiveResult write(Iterable<Path> files, WritableByteChannel target) throws IOException {
+        return format == ArchiveFormat.ZIP ? writeZip(files.iterator(), target) : writeTar(files.iterator(), target);
+    }
+
+    private ArchiveResult writeZip(Iterator<Path> files, WritableByteChannel target) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer crcBuffer = ByteBuffer.allocateDirect(CRC_BUFFER_SIZE);
+        CRC32 crc = new CRC32();
+        List<ZipEntryRecord> entries = new ArrayList<>();
+        List<Path> skipped = new ArrayList<>();
+        Map<String, Integer> names = new HashMap<>();
+        long position = 0;
+
+        while (files.hasNext()) {
+            Path file = files.next();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                crc.reset();
+                crcBuffer.clear();
+                long read = 0;
+                while (read < size) {
+                    int n = channel.read(crcBuffer, read);
+                    if (n < 0) {
+                        break;
+                    }
+                    read += n;
+                    crcBuffer.flip();
+                    crc.update(crcBuffer);
+                    crcBuffer.clear();
+                }
+                if (read != size) {
+                    throw new IOException("Report file changed while archiving: " + file);
+                }
+
+                byte[] name = uniqueName(file, names).getBytes(StandardCharsets.UTF_8);
+                int dosTime = dosTime(Files.getLastModifiedTime(file).toMillis());
+                boolean zip64 = size >= ZIP32_LIMIT;
+                ZipEntryRecord entry = new ZipEntryRecord(name, dosTime, (int) crc.getValue(), size, position);
+
+                header.clear();
+                header.putInt(0x04034b50)
+                    .putShort((short) (zip64 ? ZIP64_VERSION : ZIP_VERSION))
+                    .putShort((short) ZIP_FLAG_UTF8)
+                    .putShort((short) 0)                  // STORE
+                    .putInt(dosTime)
+                    .putInt(entry.crc)
+                    .putInt(zip64 ? -1 : (int) size)      // 圧縮後サイズ
+                    .putInt(zip64 ? -1 : (int) size)      // 圧縮前サイズ
+                    .putShort((short) name.length)
+                    .putShort((short) (zip64 ? 20 : 0))
+                    .put(name);
+                if (zip64) {
+                    header.putShort((short) 0x0001).putShort((short) 16).putLong(size).putLong(size);
+                }
+                position += writeFully(header, target);
+                position += transferFully(channel, size, target, file);
+                entries.add(entry);
+            } catch (NoSuchFileException e) {
+                System.err.println("Report file not found, skipped: " + file);
+                skipped.add(file);
+            }
+        }
+
+        // 中央ディレクトリ
+        long centralStart = position;
+        for (ZipEntryRecord entry : entries) {
+            boolean sizeOverflow = entry.size >= ZIP32_LIMIT;
+            boolean offsetOverflow = entry.offset >= ZIP32_LIMIT;
+            int extraLength = (sizeOverflow ? 16 : 0) + (offsetOverflow ? 8 : 0);
+            header.clear();
+            header.putInt(0x02014b50)
+                .putShort((short) (extraLength > 0 ? ZIP64_VERSION : ZIP_VERSION))   // 作成バージョン
+                .putShort((short) (extraLength > 0 ? ZIP64_VERSION : ZIP_VERSION))   // 展開に必要なバージョン
+                .putShort((short) ZIP_FLAG_UTF8)
+                .putShort((short) 0)
+                .putInt(entry.dosTime)
+                .putInt(entry.crc)
+                .putInt(sizeOverflow ? -1 : (int) entry.size)
+                .putInt(sizeOverflow ? -1 : (int) entry.size)
+                .putShort((short) entry.name.length)
+                .putShort((short) (extraLength > 0 ? extraLength + 4 : 0))
+                .putShort((short) 0)       // コメント長
+                .putShort((short) 0)       // ディスク番号
+                .putShort((short) 0)       // 内部属性
+                .putInt(0)                 // 外部属性
+                .putInt(offsetOverflow ? -1 : (int) entry.offset)
+                .put(entry.name);
+            if (extraLength > 0) {
+                header.putShort((short) 0x0001).putShort((short) extraLength);
+                if (sizeOverflow) {
+                    header.putLong(entry.size).putLong(entry.size);
+                }
+                if (offsetOverflow) {
+                    header.putLong(entry.offset);
+                }
+            }
+            position += writeFully(header, target);
+        }
+        long centralSize = position - centralStart;
+
+        header.clear();
+        boolean zip64 = entries.size() >= ZIP16_LIMIT || centralStart >= ZIP32_LIMIT || centralSize >= ZIP32_LIMIT;
+        if (zip64) {
+            long zip64End = position;
+            header.putInt(0x06064b50).putLong(44)
+                .putShort((short) ZIP64_VERSION).putShort((short) ZIP64_VERSION)
+                .putInt(0).putInt(0)
+                .putLong(entries.size()).putLong(entries.size())
+                .putLong(centralSize).putLong(centralStart);
+            header.putInt(0x07064b50).putInt(0).putLong(zip64End).putInt(1);
+        }
+        header.putInt(0x06054b50)
+            .putShort((short) 0).putShort((short) 0)
+            .putShort((short) Math.min(entries.size(), ZIP16_LIMIT))
+            .putShort((short) Math.min(entries.size(), ZIP16_LIMIT))
+            .putInt((int) Math.min(centralSize, ZIP32_LIMIT))
+            .putInt((int) Math.min(centralStart, ZIP32_LIMIT))
+            .putShort((short) 0);
+        position += writeFully(header, target);
+
+        return new ArchiveResult(entries.size(), position, skipped);
+    }
+
+    private ArchiveResult writeTar(Iterator<Path> files, WritableByteChannel target) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(TAR_BLOCK * 4);
+        List<Path> skipped = new ArrayList<>();
+        Map<String, Integer> names = new HashMap<>();
+        int entryCount = 0;
+        long position = 0;
+
+        while (files.hasNext()) {
+            Path file = files.next();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long mtime = Files.getLastModifiedTime(file).toMillis() / 1000;
+                String name = uniqueName(file, names);
+                byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+                block.clear();
+                if (nameBytes.length >= 100 || nameBytes.length != name.length()) {
+                    // PAX 拡張ヘッダ（長いファイル名・ASCII 以外のファイル名）
+                    byte[] record = paxRecord("path", nameBytes);
+                    putTarHeader(block, "PaxHeader/" + entryCount, record.length, mtime, 'x');
+                    block.put(record);
+                    padToBlock(block);
+                }
+                putTarHeader(block, asciiFallback(name), size, mtime, '0');
+                position += writeFully(block, target);
+                position += transferFully(channel, size, target, file);
+
+                int padding = (int) ((TAR_BLOCK - size % TAR_BLOCK) % TAR_BLOCK);
+                block.clear();
+                block.put(new byte[padding]);
+                position += writeFully(block, target);
+                entryCount++;
+            } catch (NoSuchFileException e) {
+                System.err.println("Report file not found, skipped: " + file);
+                skipped.add(file);
+            }
+        }
+
+        block.clear();
+        block.put(new byte[TAR_BLOCK * 2]); // 終端（空ブロック2つ）
+        position += writeFully(block, target);
+        return new ArchiveResult(entryCount, position, skipped);
+    }
+
+    /**
+     * ustar ヘッダ（512バイト）を追加する
+     */
+    private static void putTarHeader(ByteBuffer block, String name, long size, long mtime, char type) {
+        int start = block.position();
+        block.put(new byte[TAR_BLOCK]);
+        putField(block, start, 100, name.getBytes(StandardCharsets.US_ASCII));
+        putField(block, start + 100, 8, octal(0644, 7));
+        putField(block, start + 108, 8, octal(0, 7));
+        putField(block, start + 116, 8, octal(0, 7));
+        putField(block, start + 124, 12, octal(size, 11));
+        putField(block, start + 136, 12, octal(mtime, 11));
+        putField(block, start + 148, 8, "        ".getBytes(StandardCharsets.US_ASCII));
+        block.put(start + 156, (byte) type);
+        putField(block, start + 257, 6, "ustar\0".getBytes(StandardCharsets.US_ASCII));
+        putField(block, start + 263, 2, "00".getBytes(StandardCharsets.US_ASCII));
+
+        int checksum = 0;
+        for (int i = 0; i < TAR_BLOCK; i++) {
+            checksum += block.get(start + i) & 0xFF;
+        }
+        byte[] checksumField = octal(checksum, 6);
+        putField(block, start + 148, 7, checksumField);
+        block.put(start + 154, (byte) 0);
+        block.put(start + 155, (byte) ' ');
+    }
+
+    private static void putField(ByteBuffer block, int offset, int length, byte[] value) {
+        block.duplicate().position(offset).put(value, 0, Math.min(length, value.length));
+    }
+
+    private static byte[] octal(long value, int digits) {
+        String text = Long.toOctalString(value);
+        if (text.length() > digits) {
+            throw new IllegalArgumentException("Value too large for tar header: " + value);
+        }
+        StringBuilder padded = new StringBuilder(digits);
+        for (int i = text.length(); i < digits; i++) {
+            padded.append('0');
+        }
+        return padded.append(text).toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * PAX レコード（"長さ キー=値\n"、長さはレコード全体のバイト数）
+     */
+    private static byte[] paxRecord(String key, byte[] value) {
+        int length = key.length() + value.length + 3;
+        int digits = Integer.toString(length).length();
+        while (Integer.toString(length + digits).length() != digits) {
+            digits++;
+        }
+        byte[] prefix = (length + digits + " " + key + "=").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer record = ByteBuffer.allocate(prefix.length + value.length + 1);
+        return record.put(prefix).put(value).put((byte) '\n').array();
+    }
+
+    private static void padToBlock(ByteBuffer block) {
+        int remainder = block.position() % TAR_BLOCK;
+        if (remainder != 0) {
+            block.put(new byte[TAR_BLOCK - remainder]);
+        }
+    }
+
+    /**
+     * PAX 非対応の展開ツール向けの ustar 名（ASCII 以外は '_'、99バイトまで）
+     */
+    private static String asciiFallback(String name) {
+        StringBuilder ascii = new StringBuilder(Math.min(name.length(), 99));
+        for (int i = 0; i < name.length() && ascii.length() < 99; i++) {
+            char c = name.charAt(i);
+            ascii.append(c >= 0x20 && c < 0x7F ? c : '_');
+        }
+        return ascii.toString();
+    }
+
+    /**
+     * アーカイブ内で重複しないファイル名（重複時は "_2", "_3" ... を付与）
+     *
+     * @param names 使用済の名前 → 重複時に次に試す連番
+     */
+    private static String uniqueName(Path file, Map<String, Integer> names) {
+        String name = file.getFileName().toString();
+        Integer next = names.putIfAbsent(name, 2);
+        if (next == null) {
+            return name;
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int i = next; ; i++) {
+            String candidate = base + "_" + i + extension;
+            if (names.putIfAbsent(candidate, 2) == null) {
+                names.put(name, i + 1);
+                return candidate;
+            }
+        }
+    }
+
+    private static int dosTime(long epochMillis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16); // 1980-01-01 00:00
+        }
+        return ((time.getYear() - 1980) << 25) | (time.getMonthValue() << 21) | (time.getDayOfMonth() << 16)
+            | (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() >> 1);
+    }
+
+    private static long writeFully(ByteBuffer buffer, WritableByteChannel target) throws IOException {
+        buffer.flip();
+        long written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        return written;
+    }
+
+    private static long transferFully(FileChannel channel, long size, WritableByteChannel target, Path file)
+            throws IOException {
+        long transferred = 0;
+        while (transferred < size) {
+            long n = channel.transferTo(transferred, size - transferred, target);
+            if (n <= 0) {
+                if (transferred >= channel.size()) {
+                    throw new IOException("Report file changed while archiving: " + file);
+                }
+                continue;
+            }
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * サンプル使用例（テスト用）
+     *
+     * 引数: 出力ファイル（省略時: 一時ファイル）、形式 ZIP / TAR（省略時: ZIP）、件数（省略時: 1000）
+     */
+    public static void main(String[] args) throws IOException {
+        ArchiveFormat archiveFormat = args.length > 1 ? ArchiveFormat.valueOf(args[1]) : ArchiveFormat.ZIP;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        Path output = args.length > 0 ? Paths.get(args[0])
+            : Files.createTempFile("sqas-reports", archiveFormat == ArchiveFormat.ZIP ? ".zip" : ".tar");
+
+        Path reportDir = Files.createTempDirectory("sqas-archive-src");
+        List<Path> files = new ArrayList<>();
+        byte[] content = "審査結果報告書（様式-8）\n".repeat(2000).getBytes(StandardCharsets.UTF_8);
+        for (int i = 1; i <= count; i++) {
+            Path file = reportDir.resolve(String.format("AUD-20250%d01-%03d_form8.txt", 7 + i % 3, i % 1000));
+            Files.write(file, content);
+            files.add(file);
+        }
+        files.add(reportDir.resolve("AUD-20250930-999_form8.txt")); // 存在しないファイル
+
+        LocalDate[] q3 = quarterRange(2025, 3);
+        System.out.println("Q3 range: " + q3[0] + " - " + q3[1]);
+
+        ReportArchiveBuilder builder = new ReportArchiveBuilder(archiveFormat);
+        try (FileChannel target = FileChannel.open(output,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long start = System.nanoTime();
+            ArchiveResult result = builder.write(files, target);
+            System.out.println(result + " in " + (System.nanoTime() - start) / 1_000_000 + "ms -> " + output);
+        }
+    }
+}
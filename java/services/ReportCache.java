@@ -0,0 +1,437 @@
+package jp.co.company.sqas.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import jp.co.company.sqas.service.AuditReportPDFService.AuditReportData;
+import jp.co.company.sqas.service.AuditReportPDFService.OutputFormat;
+import jp.co.company.sqas.service.AuditReportPDFService.ReportForm;
+import jp.co.company.sqas.service.AuditReportPDFService.ScoreDetail;
+
+/**
+ * 帳票キャッシュ
+ * Report Cache
+ *
+ * 生成済の帳票を「入力内容のハッシュ値」をファイル名として保持する。
+ * ハッシュ値は AuditReportData の全項目（採点詳細を含む）、帳票様式とテンプレートのバージョン、出力形式、
+ * 審査実施日に適用される採点ポリシーのバージョンから計算するため、承認済の審査内容・テンプレート・
+ * ポリシーのいずれかが変わった場合のみ再生成される。
+ *
+ * 報告日は初回生成日となる（同一内容の帳票は再発行しない）。
+ *
+ * キャッシュ済の帳票は FileChannel.transferTo で出力先へ転送する（ヒープへの読込なし）。
+ * 件数または合計サイズが上限を超えた場合、最も長く参照されていない帳票から削除する。
+ * 1件で合計サイズの上限を超える帳票はキャッシュせず、生成した一時ファイルを転送後に削除する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class ReportCache {
+
+    private static final String TEXT_SUFFIX = ".txt";
+    private static final String PDF_SUFFIX = ".pdf";
+
+    private final AuditReportPDFService reportService;
+    private final ScoringPolicyRegistry policyRegistry;
+    private final Path cacheDirectory;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    /** ファイル名（ハッシュ値 + 出力形式の拡張子） → ファイルサイズ（参照順） */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /** 生成中の帳票（同一内容の同時要求は1回だけ生成する、上限を超えてキャッシュしない場合は null で完了する） */
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param reportService 帳票生成サービス
+     * @param policyRegistry 採点ポリシーの履歴
+     * @param cacheDirectory 保存先ディレクトリ（既存の帳票は参照日時の古い順に登録する）
+     * @param maxEntries 最大保持件数
+     * @param maxBytes 合計サイズの上限（バイト）
+     */
+    public ReportCache(AuditReportPDFService reportService, ScoringPolicyRegistry policyRegistry,
+                       Path cacheDirectory, int maxEntries, long maxBytes) throws IOException {
+        if (maxEntries <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache limits must be positive");
+        }
+        this.reportService = reportService;
+        this.policyRegistry = policyRegistry;
+        this.cacheDirectory = Files.createDirectories(cacheDirectory);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        loadExistingEntries();
+    }
+
+    private void loadExistingEntries() throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<Path> incomplete = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(cacheDirectory)) {
+            listing.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.endsWith(TEXT_SUFFIX) || name.endsWith(PDF_SUFFIX)) {
+                    files.add(path);
+                } else if (name.endsWith(".tmp")) {
+                    incomplete.add(path);
+                }
+            });
+        }
+        for (Path file : incomplete) {
+            Files.deleteIfExists(file); // 生成途中で停止した一時ファイル
+        }
+        Map<Path, FileTime> modified = new LinkedHashMap<>();
+        for (Path file : files) {
+            modified.put(file, Files.getLastModifiedTime(file));
+        }
+        files.sort((a, b) -> modified.get(a).compareTo(modified.get(b)));
+
+        List<String> evicted;
+        synchronized (entries) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                entries.put(file.getFileName().toString(), size);
+                totalBytes += size;
+            }
+            evicted = evictIfNeeded();
+        }
+        deleteEvicted(evicted);
+    }
+
+    /**
+     * 帳票を読込用に開く（キャッシュに無い場合は生成して保持する）
+     *
+     * 開いたチャネルは、以後の追い出しでファイルが削除されても閉じるまで読み込める。
+     * 合計サイズの上限を超える帳票はキャッシュせず、閉じた時点で削除される一時ファイルを開く。
+     *
+     * @param form 帳票様式
+     * @param format 出力形式
+     * @param reportData 審査結果データ
+     * @return 帳票ファイルのチャネル（呼び出し側で閉じること）
+     */
+    public FileChannel open(ReportForm form, OutputFormat format, AuditReportData reportData) throws IOException {
+        String name = computeKey(form, format, reportData) + (format == OutputFormat.PDF ? PDF_SUFFIX : TEXT_SUFFIX);
+        Path file = fileFor(name);
+
+        boolean cached;
+        synchronized (entries) {
+            cached = entries.get(name) != null;
+        }
+        if (cached) {
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                hits.increment();
+                return channel;
+            } catch (NoSuchFileException e) {
+                // 追い出された直後、または削除済のファイルは再生成する
+                remove(name);
+            }
+        }
+
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(name, created);
+        if (existing != null) {
+            Path generated = await(existing); // 他スレッドが生成中の同一内容を待つ
+            if (generated != null) {
+                try {
+                    FileChannel channel = FileChannel.open(generated, StandardOpenOption.READ);
+                    hits.increment();
+                    return channel;
+                } catch (NoSuchFileException e) {
+                    // 生成直後に追い出された場合は自スレッドでキャッシュせずに生成する
+                }
+            }
+            misses.increment();
+            return openUncached(form, format, reportData, name);
+        }
+
+        misses.increment();
+        try {
+            Path tempFile = Files.createTempFile(cacheDirectory, name, ".tmp");
+            long size;
+            try {
+                reportService.generate(form, format, reportData, tempFile.toString());
+                size = Files.size(tempFile);
+                if (size > maxBytes) {
+                    created.complete(null);
+                    return FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+                }
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(tempFile);
+                throw e;
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            List<String> evicted;
+            synchronized (entries) {
+                Long previous = entries.put(name, size);
+                totalBytes += size - (previous != null ? previous : 0L);
+                evicted = evictIfNeeded();
+            }
+            deleteEvicted(evicted);
+            created.complete(file);
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(name, created);
+        }
+    }
+
+    /**
+     * キャッシュせずに帳票を生成し、閉じた時点で削除される一時ファイルを開く
+     */
+    private FileChannel openUncached(ReportForm form, OutputFormat format, AuditReportData reportData, String name)
+            throws IOException {
+        Path tempFile = Files.createTempFile(cacheDirectory, name, ".tmp");
+        try {
+            reportService.generate(form, format, reportData, tempFile.toString());
+            return FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * 帳票を出力先へ転送する（FileChannel.transferTo によるゼロコピー転送）
+     *
+     * @param form 帳票様式
+     * @param format 出力形式
+     * @param reportData 審査結果データ
+     * @param target 出力先（HTTPレスポンスなど、呼び出し側で閉じること）
+     * @return 転送したバイト数
+     */
+    public long transferTo(ReportForm form, OutputFormat format, AuditReportData reportData,
+                           WritableByteChannel target) throws IOException {
+        try (FileChannel channel = open(form, format, reportData)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return position;
+        }
+    }
+
+    /**
+     * 帳票を出力ストリームへ転送する
+     *
+     * @see #transferTo(ReportForm, OutputFormat, AuditReportData, WritableByteChannel)
+     */
+    public long transferTo(ReportForm form, OutputFormat format, AuditReportData reportData, OutputStream target)
+            throws IOException {
+        return transferTo(form, format, reportData, Channels.newChannel(target));
+    }
+
+    private static Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 上限を超えている間、最も長く参照されていない帳票を登録から外す（entries のロック下で呼ぶこと）
+     *
+     * @return 登録から外したファイル名（ロックの外で deleteEvicted に渡すこと）
+     */
+    private List<String> evictIfNeeded() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            evicted.add(eldest.getKey());
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+            evictions.increment();
+        }
+        return evicted;
+    }
+
+    private void deleteEvicted(List<String> evicted) {
+        for (String name : evicted) {
+            synchronized (entries) {
+                if (entries.containsKey(name)) {
+                    continue; // 登録から外した後に再生成された
+                }
+            }
+            try {
+                Files.deleteIfExists(fileFor(name));
+            } catch (IOException e) {
+                System.err.println("Failed to delete cached report: " + name);
+                System.err.println("Error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * ファイルが存在しない帳票を登録から外す
+     */
+    private void remove(String name) {
+        synchronized (entries) {
+            Long size = entries.remove(name);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+    }
+
+    private Path fileFor(String name) {
+        return cacheDirectory.resolve(name);
+    }
+
+    /**
+     * 帳票の内容を決める全入力から SHA-256 を計算する
+     *
+     * 各項目は長さ付きで連結するため、項目の区切り位置が異なる入力が同じ値になることはない。
+     */
+    String computeKey(ReportForm form, OutputFormat format, AuditReportData data) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        update(digest, form.name());
+        update(digest, form.getTemplateVersion());
+        update(digest, format.name());
+        update(digest, data.getAuditDate() != null
+            ? policyRegistry.policyFor(data.getAuditDate()).getVersion() : null);
+
+        update(digest, data.getAuditId());
+        update(digest, data.getSupplierName());
+        update(digest, data.getSupplierAddress());
+        update(digest, data.getAuditDate());
+        update(digest, data.getAuditorName());
+        update(digest, data.getAuditorDepartment());
+        update(digest, data.getAuditType());
+        update(digest, data.getDocumentAuditScore());
+        update(digest, data.getOnSiteAuditScore());
+        update(digest, data.getTotalScore());
+        update(digest, data.getRating());
+        update(digest, data.getDecision());
+        update(digest, data.getGrade());
+        update(digest, data.getComments());
+        update(digest, data.getApproverName());
+        update(digest, data.getApprovalDate());
+
+        List<ScoreDetail> details = data.getScoreDetails();
+        update(digest, details != null ? details.size() : -1);
+        if (details != null) {
+            for (ScoreDetail detail : details) {
+                update(digest, detail.getQuestionNumber());
+                update(digest, detail.getQuestionText());
+                update(digest, detail.getScore());
+                update(digest, detail.isNotApplicable() ? "NA" : "");
+                update(digest, detail.getRemarks());
+            }
+        }
+
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void update(MessageDigest digest, Object value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        // 帳票と同じ文字列表現で比較する（BigDecimal の 85.5 と 85.50 は別の帳票になる）
+        byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getTotalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReportCache{size=%d, totalBytes=%d, maxEntries=%d, maxBytes=%d, hits=%d, misses=%d, evictions=%d}",
+            size(), getTotalBytes(), maxEntries, maxBytes, getHitCount(), getMissCount(), getEvictionCount());
+    }
+
+    /**
+     * サンプル使用例（テスト用）
+     */
+    public static void main(String[] args) throws IOException {
+        Path cacheDirectory = Files.createTempDirectory("sqas-report-cache");
+        ReportCache cache = new ReportCache(new AuditReportPDFService(),
+            ScoringPolicyRegistry.load(ScoringPolicyRegistry.DEFAULT_CONFIG_FILE),
+            cacheDirectory, 100, 10L * 1024 * 1024);
+
+        List<ScoreDetail> details = List.of(
+            new ScoreDetail(1, "品質マニュアルが整備されているか", 4, false, "適切に整備されている"),
+            new ScoreDetail(2, "組織図が明確に定義されているか", 4, false, ""),
+            new ScoreDetail(3, "品質記録が適切に保管されているか", 2, false, "一部記録に不備あり")
+        );
+        AuditReportData reportData = new AuditReportData(
+            "AUD-20251120-001", "株式会社優良部品製作所", "東京都千代田区千代田1-1-1",
+            LocalDate.of(2025, 11, 20), "品質太郎", "品質保証部", "NEW",
+            BigDecimal.valueOf(85.50), BigDecimal.valueOf(88.00), BigDecimal.valueOf(87.00),
+            "優", "PASS", 1, null, details, "品質部長", LocalDate.of(2025, 11, 21));
+
+        long first = cache.transferTo(ReportForm.FORM8, OutputFormat.TEXT, reportData, OutputStream.nullOutputStream());
+        long second = cache.transferTo(ReportForm.FORM8, OutputFormat.TEXT, reportData, OutputStream.nullOutputStream());
+        long pdf = cache.transferTo(ReportForm.FORM8, OutputFormat.PDF, reportData, OutputStream.nullOutputStream());
+        cache.transferTo(ReportForm.FORM11, OutputFormat.TEXT, reportData, OutputStream.nullOutputStream());
+        System.out.println("Transferred: " + first + " / " + second + " bytes (PDF: " + pdf + " bytes)");
+        System.out.println(cache);
+    }
+}
@@ -0,0 +1,757 @@
+package jp.co.company.sqas.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import jp.co.company.sqas.service.AuditReportPDFService.AuditReportData;
+import jp.co.company.sqas.service.AuditReportPDFService.OutputFormat;
+import jp.co.company.sqas.service.AuditReportPDFService.ReportForm;
+import jp.co.company.sqas.service.AuditReportPDFService.ScoreDetail;
+
+/**
+ * 帳票生成キュー
+ * Report Job Queue
+ *
+ * 帳票生成の依頼を受け付けて受付番号（チケット）を即時に返し、ワーカースレッドが非同期に生成する。
+ * 依頼は JobStore（本番: ReportJobQueue テーブル）に保存するため、再起動後も未処理分を引き継ぐ。
+ * 生成した帳票のパスは、完了時に同一トランザクションで審査ID・様式・出力形式ごとに記録する（AuditReportOutput）。
+ * 審査種別の正本の様式（定期再評価は様式-11、それ以外は様式-8）の PDF は AuditHistory.AuditReportFile にも記録する。
+ *
+ * 同じ審査ID・様式・出力形式の依頼が未着手（PENDING）のまま残っている場合は新たな依頼を作らず、既存の受付番号を返す。
+ * 生成中（RUNNING）の依頼とはまとめない（生成開始後に審査データが更新されている可能性があるため）。
+ *
+ * 呼び出し側は getJob(ticketId) で状態を確認する。
+ *
+ * 生成中の依頼には取得したノードのID（ClaimedBy）とリースの更新日時（LeaseRenewedAt）を記録し、
+ * 生成中はリース期間の 1/3 ごとにリースを更新する。起動時は自ノードが生成中のまま残した依頼を、
+ * 実行中はリースの更新からリース期間を過ぎた他ノードの依頼を未着手に戻す。
+ * 完了・失敗の記録はリースを保持している場合のみ行い、リースを失った生成結果は出力先へ移動せずに破棄する。
+ * 帳票は一時ファイルに出力してから出力先へアトミックに移動するため、生成途中のファイルが参照されることはない。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class ReportJobQueue {
+
+    /** 依頼がない場合の待機時間（他ノードが登録した依頼もこの間隔で取得する） */
+    private static final long IDLE_POLL_MILLIS = 1000;
+
+    /** リース期間の既定値（リースの更新からこの期間を過ぎても生成中の依頼は、ノードの停止により中断されたとみなす） */
+    public static final Duration DEFAULT_LEASE_TIMEOUT = Duration.ofMinutes(30);
+
+    /** 期限切れのリースを確認する間隔 */
+    private static final long LEASE_CHECK_INTERVAL_MILLIS = 60_000;
+
+    /**
+     * 依頼の状態
+     */
+    public enum JobStatus {
+        /** 未着手 */
+        PENDING,
+        /** 生成中 */
+        RUNNING,
+        /** 完了 */
+        COMPLETED,
+        /** 失敗 */
+        FAILED
+    }
+
+    /**
+     * 帳票生成依頼（不変）
+     */
+    public static class ReportJob {
+        private final String ticketId;
+        private final String auditId;
+        private final ReportForm form;
+        private final OutputFormat format;
+        private final String outputPath;
+        private final JobStatus status;
+        private final String claimedBy;
+        private final int requestCount;
+        private final Instant requestedAt;
+        private final Instant startedAt;
+        private final Instant completedAt;
+        private final String errorMessage;
+
+        public ReportJob(String ticketId, String auditId, ReportForm form, OutputFormat format, String outputPath,
+                         JobStatus status, String claimedBy, int requestCount, Instant requestedAt,
+                         Instant startedAt, Instant completedAt, String errorMessage) {
+            this.ticketId = ticketId;
+            this.auditId = auditId;
+            this.form = form;
+            this.format = format;
+            this.outputPath = outputPath;
+            this.status = status;
+            this.claimedBy = claimedBy;
+            this.requestCount = requestCount;
+            this.requestedAt = requestedAt;
+            this.startedAt = startedAt;
+            this.completedAt = completedAt;
+            this.errorMessage = errorMessage;
+        }
+
+        public String getTicketId() { return ticketId; }
+        public String getAuditId() { return auditId; }
+        public ReportForm getForm() { return form; }
+        public OutputFormat getFormat() { return format; }
+        public String getOutputPath() { return outputPath; }
+        public JobStatus getStatus() { return status; }
+        /** 生成中の依頼を取得したノードのID */
+        public String getClaimedBy() { return claimedBy; }
+        /** まとめた依頼を含む依頼件数 */
+        public int getRequestCount() { return requestCount; }
+        public Instant getRequestedAt() { return requestedAt; }
+        public Instant getStartedAt() { return startedAt; }
+        public Instant getCompletedAt() { return completedAt; }
+        public String getErrorMessage() { return errorMessage; }
+
+        public boolean isDone() {
+            return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+        }
+
+        ReportJob withRequestCount(int count) {
+            return new ReportJob(ticketId, auditId, form, format, outputPath, status, claimedBy, count,
+                requestedAt, startedAt, completedAt, errorMessage);
+        }
+
+        ReportJob withStatus(JobStatus newStatus, String nodeId, Instant now, String error) {
+            return new ReportJob(ticketId, auditId, form, format, outputPath, newStatus,
+                newStatus == JobStatus.PENDING ? null : nodeId != null ? nodeId : claimedBy,
+                requestCount, requestedAt,
+                newStatus == JobStatus.RUNNING ? now : newStatus == JobStatus.PENDING ? null : startedAt,
+                newStatus == JobStatus.COMPLETED || newStatus == JobStatus.FAILED ? now : completedAt,
+                error);
+        }
+
+        @Override
+        public String toString() {
+            return "ReportJob{ticket=" + ticketId + ", audit=" + auditId + ", form=" + form
+                + ", status=" + status + ", requests=" + requestCount + "}";
+        }
+    }
+
+    /**
+     * 依頼の保存先
+     *
+     * 各メソッドは1トランザクションで完結させること。複数ノードから同時に使用できる実装とすること。
+     */
+    public interface JobStore {
+        /**
+         * 依頼を登録する（同じ審査ID・様式・出力形式の未着手の依頼があれば、その依頼件数を加算して返す）
+         */
+        ReportJob enqueue(String auditId, ReportForm form, OutputFormat format, String outputPath, Instant now);
+
+        /**
+         * 最も古い未着手の依頼を生成中にして取得する
+         *
+         * @param nodeId 取得するノードのID（リースの所有者として記録する）
+         * @return 依頼（未着手の依頼がない場合 null）
+         */
+        ReportJob claimNext(String nodeId, Instant now);
+
+        /**
+         * 依頼を完了にし、帳票ファイルパスを審査ID・様式・出力形式ごとに記録する
+         * （審査種別の正本の様式の PDF は AuditHistory.AuditReportFile も更新する）
+         *
+         * @param nodeId 自ノードのID
+         * @return 完了にした場合 true（リースを失っていた場合 false、何も更新しない）
+         */
+        boolean complete(String ticketId, String nodeId, Instant now);
+
+        /**
+         * 依頼を失敗にする
+         *
+         * @param nodeId 自ノードのID
+         * @return 失敗にした場合 true（リースを失っていた場合 false、何も更新しない）
+         */
+        boolean fail(String ticketId, String nodeId, String errorMessage, Instant now);
+
+        /**
+         * 生成中の依頼のリースを更新する
+         *
+         * @param nodeId 自ノードのID
+         * @return 更新した場合 true（リースを失っていた場合 false）
+         */
+        boolean renewLease(String ticketId, String nodeId, Instant now);
+
+        /**
+         * 依頼を取得する（存在しない場合 null）
+         */
+        ReportJob find(String ticketId);
+
+        /**
+         * 未着手の依頼件数
+         */
+        int countPending();
+
+        /**
+         * 最も古い未着手の依頼の受付日時（未着手の依頼がない場合 null）
+         */
+        Instant oldestPendingRequestedAt();
+
+        /**
+         * 生成中のまま中断された依頼を未着手に戻す
+         *
+         * 同じ審査ID・様式・出力形式の未着手の依頼が既にある場合は、戻さずに失敗にする。
+         *
+         * @param nodeId 自ノードのID（このノードが取得した依頼はリース期間内でも戻す、起動時以外は null）
+         * @param expiredBefore リースの更新がこれより前の依頼はリース切れとして戻す
+         * @return 戻した件数
+         */
+        int requeueInterrupted(String nodeId, Instant expiredBefore);
+    }
+
+    /**
+     * メモリ上の保存先（テスト・単一ノードの検証用、再起動で依頼は失われる）
+     */
+    public static class InMemoryJobStore implements JobStore {
+        private final Map<String, ReportJob> jobs = new HashMap<>();
+        private final LinkedHashMap<String, String> pendingByKey = new LinkedHashMap<>(); // 審査ID/様式/形式 → 受付番号
+        private final Map<String, Instant> leaseRenewedAt = new HashMap<>(); // 生成中の受付番号 → リースの更新日時
+        private final Map<String, String> reportFiles = new HashMap<>(); // 審査ID/様式/形式 → 帳票ファイルパス
+
+        @Override
+        public synchronized ReportJob enqueue(String auditId, ReportForm form, OutputFormat format,
+                                              String outputPath, Instant now) {
+            String key = auditId + "/" + form + "/" + format;
+            String pendingTicket = pendingByKey.get(key);
+            if (pendingTicket != null) {
+                ReportJob coalesced = jobs.get(pendingTicket);
+                coalesced = coalesced.withRequestCount(coalesced.getRequestCount() + 1);
+                jobs.put(pendingTicket, coalesced);
+                return coalesced;
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), auditId, form, format, outputPath,
+                JobStatus.PENDING, null, 1, now, null, null, null);
+            jobs.put(job.getTicketId(), job);
+            pendingByKey.put(key, job.getTicketId());
+            return job;
+        }
+
+        @Override
+        public synchronized ReportJob claimNext(String nodeId, Instant now) {
+            Iterator<String> iterator = pendingByKey.values().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            String ticketId = iterator.next();
+            iterator.remove();
+            ReportJob running = jobs.get(ticketId).withStatus(JobStatus.RUNNING, nodeId, now, null);
+            jobs.put(ticketId, running);
+            leaseRenewedAt.put(ticketId, now);
+            return running;
+        }
+
+        @Override
+        public synchronized boolean complete(String ticketId, String nodeId, Instant now) {
+            if (!holdsLease(ticketId, nodeId)) {
+                return false;
+            }
+            ReportJob completed = jobs.get(ticketId).withStatus(JobStatus.COMPLETED, null, now, null);
+            jobs.put(ticketId, completed);
+            leaseRenewedAt.remove(ticketId);
+            reportFiles.put(completed.getAuditId() + "/" + completed.getForm() + "/" + completed.getFormat(),
+                completed.getOutputPath());
+            return true;
+        }
+
+        @Override
+        public synchronized boolean fail(String ticketId, String nodeId, String errorMessage, Instant now) {
+            if (!holdsLease(ticketId, nodeId)) {
+                return false;
+            }
+            jobs.put(ticketId, jobs.get(ticketId).withStatus(JobStatus.FAILED, null, now, errorMessage));
+            leaseRenewedAt.remove(ticketId);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean renewLease(String ticketId, String nodeId, Instant now) {
+            if (!holdsLease(ticketId, nodeId)) {
+                return false;
+            }
+            leaseRenewedAt.put(ticketId, now);
+            return true;
+        }
+
+        private boolean holdsLease(String ticketId, String nodeId) {
+            ReportJob job = jobs.get(ticketId);
+            return job != null && job.getStatus() == JobStatus.RUNNING && job.getClaimedBy().equals(nodeId);
+        }
+
+        @Override
+        public synchronized ReportJob find(String ticketId) {
+            return jobs.get(ticketId);
+        }
+
+        @Override
+        public synchronized int countPending() {
+            return pendingByKey.size();
+        }
+
+        @Override
+        public synchronized Instant oldestPendingRequestedAt() {
+            return pendingByKey.isEmpty() ? null : jobs.get(pendingByKey.values().iterator().next()).getRequestedAt();
+        }
+
+        @Override
+        public synchronized int requeueInterrupted(String nodeId, Instant expiredBefore) {
+            int requeued = 0;
+            for (ReportJob job : new ArrayList<>(jobs.values())) {
+                if (job.getStatus() != JobStatus.RUNNING || !(job.getClaimedBy().equals(nodeId)
+                        || leaseRenewedAt.get(job.getTicketId()).isBefore(expiredBefore))) {
+                    continue;
+                }
+                leaseRenewedAt.remove(job.getTicketId());
+                String key = job.getAuditId() + "/" + job.getForm() + "/" + job.getFormat();
+                if (pendingByKey.containsKey(key)) {
+                    // 同一依頼が未着手で再登録済の場合はそちらで生成する
+                    jobs.put(job.getTicketId(), job.withStatus(JobStatus.FAILED, null, expiredBefore,
+                        "Lease expired"));
+                } else {
+                    jobs.put(job.getTicketId(), job.withStatus(JobStatus.PENDING, null, null, null));
+                    pendingByKey.put(key, job.getTicketId());
+                }
+                requeued++;
+            }
+            return requeued;
+        }
+
+        /**
+         * 記録された帳票ファイルパス（AuditReportOutput 相当）
+         */
+        public synchronized String getReportFile(String auditId, ReportForm form, OutputFormat format) {
+            return reportFiles.get(auditId + "/" + form + "/" + format);
+        }
+    }
+
+    /**
+     * キューの統計情報
+     */
+    public static class QueueMetrics {
+        private final int queueDepth;
+        private final int running;
+        private final Duration oldestPendingAge;
+        private final long submitted;
+        private final long coalesced;
+        private final long completed;
+        private final long failed;
+        private final Duration averageWait;
+        private final Duration maxWait;
+
+        QueueMetrics(int queueDepth, int running, Duration oldestPendingAge, long submitted, long coalesced,
+                     long completed, long failed, Duration averageWait, Duration maxWait) {
+            this.queueDepth = queueDepth;
+            this.running = running;
+            this.oldestPendingAge = oldestPendingAge;
+            this.submitted = submitted;
+            this.coalesced = coalesced;
+            this.completed = completed;
+            this.failed = failed;
+            this.averageWait = averageWait;
+            this.maxWait = maxWait;
+        }
+
+        /** 未着手の依頼件数（全ノード分） */
+        public int getQueueDepth() { return queueDepth; }
+        /** このノードで生成中の件数 */
+        public int getRunning() { return running; }
+        /** 最も古い未着手の依頼の待ち時間 */
+        public Duration getOldestPendingAge() { return oldestPendingAge; }
+        public long getSubmitted() { return submitted; }
+        /** 既存の依頼にまとめた件数 */
+        public long getCoalesced() { return coalesced; }
+        public long getCompleted() { return completed; }
+        public long getFailed() { return failed; }
+        /** 受付から生成開始までの平均待ち時間（このノードで生成した依頼） */
+        public Duration getAverageWait() { return averageWait; }
+        public Duration getMaxWait() { return maxWait; }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "QueueMetrics{depth=%d, running=%d, oldestPending=%dms, submitted=%d, coalesced=%d,"
+                + " completed=%d, failed=%d, avgWait=%dms, maxWait=%dms}",
+                queueDepth, running, oldestPendingAge.toMillis(), submitted, coalesced,
+                completed, failed, averageWait.toMillis(), maxWait.toMillis());
+        }
+    }
+
+    private final AuditReportPDFService reportService;
+    private final JobStore store;
+    private final Function<String, AuditReportData> reportDataLoader;
+    private final Path outputDirectory;
+    private final int workerCount;
+    private final String nodeId;
+    private final Duration leaseTimeout;
+    private final Clock clock;
+    private final Object signal = new Object();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong nextLeaseCheckMillis = new AtomicLong();
+
+    /** このノードで生成中の依頼の受付番号（リースの更新対象） */
+    private final Set<String> leasedTickets = ConcurrentHashMap.newKeySet();
+    /** リースの更新に失敗した（他ノードに戻された）依頼の受付番号 */
+    private final Set<String> lostLeases = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService workers;
+    private ScheduledExecutorService leaseRenewer;
+    private volatile boolean stopping;
+
+    /**
+     * @param reportService 帳票生成サービス
+     * @param store 依頼の保存先
+     * @param reportDataLoader 審査IDから帳票データを取得する処理（生成開始時に呼び出す）
+     * @param outputDirectory 帳票の出力ディレクトリ
+     * @param workerCount ワーカースレッド数
+     */
+    public ReportJobQueue(AuditReportPDFService reportService, JobStore store,
+                          Function<String, AuditReportData> reportDataLoader, Path outputDirectory, int workerCount) {
+        this(reportService, store, reportDataLoader, outputDirectory, workerCount, defaultNodeId(),
+            DEFAULT_LEASE_TIMEOUT);
+    }
+
+    /**
+     * @param reportService 帳票生成サービス
+     * @param store 依頼の保存先
+     * @param reportDataLoader 審査IDから帳票データを取得する処理（生成開始時に呼び出す）
+     * @param outputDirectory 帳票の出力ディレクトリ
+     * @param workerCount ワーカースレッド数
+     * @param nodeId ノードID（ノードごとに一意で、再起動後も同じ値とすること）
+     * @param leaseTimeout リース期間（1件の帳票生成に要する時間より十分に長くすること）
+     */
+    public ReportJobQueue(AuditReportPDFService reportService, JobStore store,
+                          Function<String, AuditReportData> reportDataLoader, Path outputDirectory, int workerCount,
+                          String nodeId, Duration leaseTimeout) {
+        this(reportService, store, reportDataLoader, outputDirectory, workerCount, nodeId, leaseTimeout,
+            Clock.systemDefaultZone());
+    }
+
+    ReportJobQueue(AuditReportPDFService reportService, JobStore store,
+                   Function<String, AuditReportData> reportDataLoader, Path outputDirectory, int workerCount,
+                   String nodeId, Duration leaseTimeout, Clock clock) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        if (nodeId == null || nodeId.isEmpty()) {
+            throw new IllegalArgumentException("Node ID is required");
+        }
+        if (leaseTimeout.isNegative() || leaseTimeout.isZero()) {
+            throw new IllegalArgumentException("Lease timeout must be positive");
+        }
+        this.reportService = reportService;
+        this.store = store;
+        this.reportDataLoader = reportDataLoader;
+        this.outputDirectory = outputDirectory;
+        this.workerCount = workerCount;
+        this.nodeId = nodeId;
+        this.leaseTimeout = leaseTimeout;
+        this.clock = clock;
+    }
+
+    /**
+     * @return ホスト名
+     */
+    private static String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Failed to resolve node ID from host name", e);
+        }
+    }
+
+    /**
+     * ワーカーを開始する（自ノードが生成中のまま残した依頼とリース切れの依頼は未着手に戻して再実行する）
+     */
+    public synchronized void start() {
+        if (workers != null) {
+            throw new IllegalStateException("Report job queue already started");
+        }
+        int requeued = store.requeueInterrupted(nodeId, clock.instant().minus(leaseTimeout));
+        if (requeued > 0) {
+            System.out.println("Requeued " + requeued + " interrupted report job(s)");
+        }
+        nextLeaseCheckMillis.set(clock.millis() + LEASE_CHECK_INTERVAL_MILLIS);
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "report-queue-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::workLoop);
+        }
+        leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "report-queue-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long renewIntervalMillis = Math.max(1, leaseTimeout.toMillis() / 3);
+        leaseRenewer.scheduleWithFixedDelay(this::renewLeases, renewIntervalMillis, renewIntervalMillis,
+            TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 帳票生成を依頼する
+     *
+     * @param auditId 審査ID
+     * @param form 帳票様式
+     * @param format 出力形式
+     * @return 依頼（未着手の同一依頼がある場合はその依頼）
+     */
+    public ReportJob submit(String auditId, ReportForm form, OutputFormat format) {
+        if (auditId == null || auditId.isEmpty()) {
+            throw new IllegalArgumentException("Audit ID is required");
+        }
+        String fileName = auditId + "_" + form.name().toLowerCase(Locale.ROOT)
+            + (format == OutputFormat.PDF ? ".pdf" : ".txt");
+        ReportJob job = store.enqueue(auditId, form, format, outputDirectory.resolve(fileName).toString(),
+            clock.instant());
+        submitted.incrementAndGet();
+        if (job.getRequestCount() > 1) {
+            coalesced.incrementAndGet();
+        } else {
+            synchronized (signal) {
+                signal.notify();
+            }
+        }
+        return job;
+    }
+
+    /**
+     * 依頼の状態を取得する
+     *
+     * @param ticketId 受付番号
+     * @return 依頼（存在しない場合 null）
+     */
+    public ReportJob getJob(String ticketId) {
+        return store.find(ticketId);
+    }
+
+    public QueueMetrics getMetrics() {
+        Instant oldest = store.oldestPendingRequestedAt();
+        long startedCount = started.get();
+        return new QueueMetrics(
+            store.countPending(), running.get(),
+            oldest == null ? Duration.ZERO : Duration.between(oldest, clock.instant()),
+            submitted.get(), coalesced.get(), completed.get(), failed.get(),
+            Duration.ofMillis(startedCount == 0 ? 0 : totalWaitMillis.get() / startedCount), Duration.ofMillis(maxWaitMillis.get()));
+    }
+
+    private void workLoop() {
+        while (!stopping) {
+            ReportJob job;
+            try {
+                job = store.claimNext(nodeId, clock.instant());
+            } catch (RuntimeException e) {
+                System.err.println("Failed to claim report job: " + e.getMessage());
+                job = null;
+            }
+            if (job == null) {
+                requeueExpiredLeases();
+                synchronized (signal) {
+                    try {
+                        signal.wait(IDLE_POLL_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                continue;
+            }
+            process(job);
+        }
+    }
+
+    /**
+     * 他ノードのリース切れの依頼を未着手に戻す（待機中のワーカーのうち1つが確認間隔ごとに実行する）
+     */
+    private void requeueExpiredLeases() {
+        long now = clock.millis();
+        long next = nextLeaseCheckMillis.get();
+        if (now < next || !nextLeaseCheckMillis.compareAndSet(next, now + LEASE_CHECK_INTERVAL_MILLIS)) {
+            return;
+        }
+        try {
+            int requeued = store.requeueInterrupted(null, clock.instant().minus(leaseTimeout));
+            if (requeued > 0) {
+                System.out.println("Requeued " + requeued + " report job(s) with expired lease");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to requeue expired report jobs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * このノードで生成中の依頼のリースを更新する（リース期間の 1/3 ごとに実行する）
+     */
+    private void renewLeases() {
+        for (String ticketId : leasedTickets) {
+            try {
+                if (!store.renewLease(ticketId, nodeId, clock.instant())) {
+                    lostLeases.add(ticketId);
+                    System.err.println("Lost lease of report job: " + ticketId);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Failed to renew lease of report job " + ticketId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void process(ReportJob job) {
+        long waitMillis = Duration.between(job.getRequestedAt(), job.getStartedAt()).toMillis();
+        totalWaitMillis.addAndGet(waitMillis);
+        started.incrementAndGet();
+        maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+        running.incrementAndGet();
+        leasedTickets.add(job.getTicketId());
+        try {
+            AuditReportData data = reportDataLoader.apply(job.getAuditId());
+            if (data == null) {
+                throw new IllegalArgumentException("Audit not found: " + job.getAuditId());
+            }
+            writeAtomically(job, data);
+            if (store.complete(job.getTicketId(), nodeId, clock.instant())) {
+                completed.incrementAndGet();
+            } else {
+                System.err.println("Lost lease of report job " + job.getTicketId() + "; completion not recorded");
+            }
+        } catch (Throwable e) {
+            // Error でもワーカーを終了させず、依頼を失敗として記録して次の依頼を処理する
+            System.err.println("Failed to generate report for audit: " + job.getAuditId());
+            System.err.println("Error: " + e);
+            failed.incrementAndGet();
+            try {
+                if (!store.fail(job.getTicketId(), nodeId, String.valueOf(e.getMessage()), clock.instant())) {
+                    System.err.println("Lost lease of report job " + job.getTicketId() + "; failure not recorded");
+                }
+            } catch (RuntimeException storeError) {
+                // 記録できない場合は生成中のまま残り、次回起動時またはリース切れの後に再実行される
+                System.err.println("Failed to record report job failure: " + storeError.getMessage());
+            }
+        } finally {
+            leasedTickets.remove(job.getTicketId());
+            lostLeases.remove(job.getTicketId());
+            running.decrementAndGet();
+        }
+    }
+
+    /**
+     * 一時ファイルに帳票を生成し、出力先へアトミックに移動する
+     *
+     * 移動の直前にリースを更新し、リースを失っていた場合は移動せずに破棄する
+     * （他ノードが再実行した依頼の帳票を上書きしないため）。
+     */
+    private void writeAtomically(ReportJob job, AuditReportData data) throws IOException {
+        Path target = Path.of(job.getOutputPath());
+        Path temporary = target.resolveSibling(target.getFileName() + "." + job.getTicketId() + ".tmp");
+        try {
+            reportService.generate(job.getForm(), job.getFormat(), data, temporary.toString());
+            if (lostLeases.contains(job.getTicketId())
+                    || !store.renewLease(job.getTicketId(), nodeId, clock.instant())) {
+                throw new IllegalStateException("Lost lease of report job " + job.getTicketId()
+                    + "; generated report discarded");
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * ワーカーを停止する（生成中の帳票は完了を待つ、未着手の依頼は保存先に残る）
+     *
+     * @param timeout 最大待機時間
+     * @return 全ワーカーが停止した場合 true
+     */
+    public synchronized boolean shutdown(Duration timeout) throws InterruptedException {
+        if (workers == null) {
+            return true;
+        }
+        stopping = true;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        workers.shutdown();
+        boolean terminated = workers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (terminated) {
+            leaseRenewer.shutdown();
+        }
+        return terminated;
+    }
+
+    /**
+     * サンプル使用例（テスト用）
+     */
+    public static void main(String[] args) throws Exception {
+        List<ScoreDetail> details = new ArrayList<>();
+        for (int i = 1; i <= 60; i++) {
+            details.add(new ScoreDetail(i, "品質記録が適切に保管されているか（設問" + i + "）", 4, false, ""));
+        }
+        Function<String, AuditReportData> loader = auditId -> new AuditReportData(
+            auditId, "株式会社優良部品製作所", "東京都千代田区千代田1-1-1",
+            LocalDate.of(2025, 11, 20), "品質太郎", "品質保証部", "PERIODIC",
+            BigDecimal.valueOf(85.50), BigDecimal.valueOf(88.00), BigDecimal.valueOf(87.00),
+            "優", "PASS", 1, null, details, "品質部長", LocalDate.of(2025, 11, 21));
+
+        InMemoryJobStore store = new InMemoryJobStore();
+        Path outputDir = Files.createTempDirectory("sqas-report-queue");
+        ReportJobQueue queue = new ReportJobQueue(new AuditReportPDFService(), store, loader, outputDir, 2);
+
+        // ワーカー開始前に登録し、同一審査の依頼がまとめられることを確認する
+        List<ReportJob> tickets = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            tickets.add(queue.submit(String.format("AUD-20251120-%03d", i), ReportForm.FORM8, OutputFormat.TEXT));
+        }
+        ReportJob duplicate = queue.submit("AUD-20251120-001", ReportForm.FORM8, OutputFormat.TEXT);
+        System.out.println("Duplicate coalesced: " + duplicate.getTicketId().equals(tickets.get(0).getTicketId())
+            + " (requests=" + duplicate.getRequestCount() + ")");
+        System.out.println("Before start: " + queue.getMetrics());
+
+        queue.start();
+        for (ReportJob ticket : tickets) {
+            while (!queue.getJob(ticket.getTicketId()).isDone()) {
+                Thread.sleep(10);
+            }
+        }
+        System.out.println("After drain: " + queue.getMetrics());
+        System.out.println("Form-8 text of AUD-20251120-001: "
+            + store.getReportFile("AUD-20251120-001", ReportForm.FORM8, OutputFormat.TEXT));
+        queue.shutdown(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,279 @@
+package jp.co.company.sqas.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * 帳票テンプレート
+ * Report Template
+ *
+ * 帳票レイアウトを「UTF-8 符号化済の固定文字列」と「型付きの差込項目」の並びに事前コンパイルする。
+ * 出力時は並びを先頭から順に処理するだけで、書式文字列の解析は行わない。
+ *
+ * 桁揃え（width 指定）は表示幅で行い、全角文字は2桁として数える。
+ * 値が指定幅を超える場合は切り詰めずにそのまま出力する。
+ *
+ * 例:
+ * <pre>
+ * ReportTemplate&lt;ScoreDetail&gt; row = ReportTemplate.&lt;ScoreDetail&gt;builder()
+ *     .number(ScoreDetail::getQuestionNumber, 3)
+ *     .literal(" | ")
+ *     .text(ScoreDetail::getQuestionText, -30)
+ *     .literal("\n")
+ *     .build();
+ * </pre>
+ *
+ * @param <T> 差込データの型
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class ReportTemplate<T> {
+
+    /**
+     * テンプレートの構成要素
+     */
+    private interface Segment<T> {
+        void render(T data, StreamingReportWriter out) throws IOException;
+    }
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy年MM月dd日");
+    private static final byte[] SPACES = new byte[256];
+    private static final byte[][] DIGITS_2 = new byte[100][];
+    private static final byte[] YEAR = "年".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MONTH = "月".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DAY = "日".getBytes(StandardCharsets.UTF_8);
+
+    static {
+        Arrays.fill(SPACES, (byte) ' ');
+        for (int i = 0; i < 100; i++) {
+            DIGITS_2[i] = new byte[] {(byte) ('0' + i / 10), (byte) ('0' + i % 10)};
+        }
+    }
+
+    private final Segment<T>[] segments;
+
+    private ReportTemplate(List<Segment<T>> segments) {
+        @SuppressWarnings("unchecked")
+        Segment<T>[] array = (Segment<T>[]) segments.toArray(new Segment<?>[0]);
+        this.segments = array;
+    }
+
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * データを差し込んで出力する
+     *
+     * @param data 差込データ
+     * @param out 出力先
+     */
+    void render(T data, StreamingReportWriter out) throws IOException {
+        for (Segment<T> segment : segments) {
+            segment.render(data, out);
+        }
+    }
+
+    /**
+     * テンプレートの組立て
+     *
+     * 連続する固定文字列は1つの符号化済バイト列にまとめる。
+     * width は正の値で右寄せ、負の値で左寄せ、0 で桁揃えなしとする（String.format と同じ）。
+     */
+    static final class Builder<T> {
+        private final List<Segment<T>> segments = new ArrayList<>();
+        private final StringBuilder pendingLiteral = new StringBuilder();
+
+        private Builder() {
+        }
+
+        /** 固定文字列 */
+        Builder<T> literal(String text) {
+            pendingLiteral.append(text);
+            return this;
+        }
+
+        /** 文字列項目（null の場合は "null"、CharSequence 以外は String.valueOf で変換） */
+        Builder<T> text(Function<? super T, ?> field) {
+            return text(field, 0);
+        }
+
+        /** 桁揃え付きの文字列項目 */
+        Builder<T> text(Function<? super T, ?> field, int width) {
+            add((data, out) -> {
+                Object value = field.apply(data);
+                CharSequence text = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+                if (width == 0) {
+                    out.append(text);
+                    return;
+                }
+                int padding = Math.abs(width) - displayWidth(text);
+                if (width > 0) {
+                    pad(out, padding);
+                }
+                out.append(text);
+                if (width < 0) {
+                    pad(out, padding);
+                }
+            });
+            return this;
+        }
+
+        /** 整数項目（文字列を生成せずに出力する） */
+        Builder<T> number(ToLongFunction<? super T> field) {
+            return number(field, 0);
+        }
+
+        /** 桁揃え付きの整数項目 */
+        Builder<T> number(ToLongFunction<? super T> field, int width) {
+            add((data, out) -> {
+                long value = field.applyAsLong(data);
+                int padding = Math.abs(width) - digitCount(value);
+                if (width > 0) {
+                    pad(out, padding);
+                }
+                out.append(value);
+                if (width < 0) {
+                    pad(out, padding);
+                }
+            });
+            return this;
+        }
+
+        /** 日付項目（yyyy年MM月dd日） */
+        Builder<T> date(Function<? super T, LocalDate> field) {
+            add((data, out) -> {
+                LocalDate date = field.apply(data);
+                if (date == null) {
+                    out.append("null");
+                    return;
+                }
+                int year = date.getYear();
+                if (year < 1000 || year > 9999) {
+                    out.append(date.format(DATE_FORMATTER));
+                    return;
+                }
+                out.append(year).write(YEAR).write(DIGITS_2[date.getMonthValue()]).write(MONTH)
+                    .write(DIGITS_2[date.getDayOfMonth()]).write(DAY);
+            });
+            return this;
+        }
+
+        /** 条件を満たす場合のみ出力する部分 */
+        Builder<T> when(Predicate<? super T> condition, ReportTemplate<T> section) {
+            add((data, out) -> {
+                if (condition.test(data)) {
+                    section.render(data, out);
+                }
+            });
+            return this;
+        }
+
+        /** 明細など、要素ごとに繰り返し出力する部分 */
+        <E> Builder<T> each(Function<? super T, ? extends Iterable<? extends E>> items, ReportTemplate<E> row) {
+            add((data, out) -> {
+                for (E item : items.apply(data)) {
+                    row.render(item, out);
+                }
+            });
+            return this;
+        }
+
+        /** 他のテンプレートを埋め込む */
+        Builder<T> include(ReportTemplate<? super T> section) {
+            flushLiteral();
+            for (Segment<? super T> segment : section.segments) {
+                segments.add(segment::render);
+            }
+            return this;
+        }
+
+        private void add(Segment<T> segment) {
+            flushLiteral();
+            segments.add(segment);
+        }
+
+        private void flushLiteral() {
+            if (pendingLiteral.length() == 0) {
+                return;
+            }
+            byte[] bytes = pendingLiteral.toString().getBytes(StandardCharsets.UTF_8);
+            pendingLiteral.setLength(0);
+            segments.add((data, out) -> out.write(bytes));
+        }
+
+        ReportTemplate<T> build() {
+            flushLiteral();
+            return new ReportTemplate<>(segments);
+        }
+    }
+
+    private static void pad(StreamingReportWriter out, int columns) throws IOException {
+        while (columns > 0) {
+            int n = Math.min(columns, SPACES.length);
+            out.write(SPACES, n);
+            columns -= n;
+        }
+    }
+
+    private static int digitCount(long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int count = value < 0 ? 2 : 1;
+        long v = Math.abs(value);
+        while (v >= 10) {
+            v /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 表示幅を取得する（全角・East Asian Wide の文字は2、それ以外は1）
+     *
+     * @param text 文字列
+     * @return 表示桁数
+     */
+    static int displayWidth(CharSequence text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x1100) {
+                width++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                width += isWide(Character.toCodePoint(c, text.charAt(++i))) ? 2 : 1;
+            } else {
+                width += isWide(c) ? 2 : 1;
+            }
+        }
+        return width;
+    }
+
+    private static boolean isWide(int codePoint) {
+        return (codePoint >= 0x1100 && codePoint <= 0x115F)     // ハングル字母
+            || (codePoint >= 0x2E80 && codePoint <= 0x303E)     // CJK部首・記号（全角スペース、句読点、括弧）
+            || (codePoint >= 0x3041 && codePoint <= 0x33FF)     // ひらがな・カタカナ・CJK互換
+            || (codePoint >= 0x3400 && codePoint <= 0x4DBF)     // CJK統合漢字拡張A
+            || (codePoint >= 0x4E00 && codePoint <= 0x9FFF)     // CJK統合漢字
+            || (codePoint >= 0xA000 && codePoint <= 0xA4CF)     // イ文字
+            || (codePoint >= 0xAC00 && codePoint <= 0xD7A3)     // ハングル音節
+            || (codePoint >= 0xF900 && codePoint <= 0xFAFF)     // CJK互換漢字
+            || (codePoint >= 0xFE30 && codePoint <= 0xFE4F)     // CJK互換形
+            || (codePoint >= 0xFF00 && codePoint <= 0xFF60)     // 全角英数・記号
+            || (codePoint >= 0xFFE0 && codePoint <= 0xFFE6)     // 全角記号
+            || (codePoint >= 0x1F300 && codePoint <= 0x1F64F)   // 絵文字
+            || (codePoint >= 0x1F900 && codePoint <= 0x1F9FF)   // 絵文字
+            || (codePoint >= 0x20000 && codePoint <= 0x3FFFD);  // CJK統合漢字拡張B以降
+    }
+}
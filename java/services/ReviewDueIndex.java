@@ -0,0 +1,211 @@
+package jp.co.company.sqas.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 再評価期限インデックス
+ * Review Due Index
+ *
+ * 有効な購買先を次回審査予定日（NextReviewDate）のエポック日ごとのバケットに分類して保持する。
+ * 「N日以内に期限到来」「期限超過」の検索・件数取得は、範囲内のバケットのみを参照する。
+ *
+ * 等級更新・ステータス変更のたびに SupplierManagementService から更新される。
+ * 他ノードの更新は購買先マスターキャッシュの無効化通知を受けて、購買先マスターから読み込み直す。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class ReviewDueIndex {
+
+    private final TreeMap<Long, Set<String>> bucketsByEpochDay = new TreeMap<>();
+    private final Map<String, Long> epochDayBySupplier = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 購買先の次回審査予定日を登録・更新する
+     *
+     * @param supplierId 購買先ID
+     * @param nextReviewDate 次回審査予定日（null の場合は削除）
+     */
+    public void put(String supplierId, LocalDate nextReviewDate) {
+        if (nextReviewDate == null) {
+            remove(supplierId);
+            return;
+        }
+        long epochDay = nextReviewDate.toEpochDay();
+        lock.writeLock().lock();
+        try {
+            Long previous = epochDayBySupplier.put(supplierId, epochDay);
+            if (previous != null) {
+                if (previous == epochDay) {
+                    return;
+                }
+                removeFromBucket(previous, supplierId);
+            }
+            bucketsByEpochDay.computeIfAbsent(epochDay, d -> new HashSet<>()).add(supplierId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 登録内容をすべて置き換える（無効化通知の欠落時に購買先マスターから読み込み直す場合に使用）
+     *
+     * @param nextReviewDates 有効な購買先の次回審査予定日（購買先ID → 予定日）
+     */
+    public void replaceAll(Map<String, LocalDate> nextReviewDates) {
+        lock.writeLock().lock();
+        try {
+            bucketsByEpochDay.clear();
+            epochDayBySupplier.clear();
+            for (Map.Entry<String, LocalDate> entry : nextReviewDates.entrySet()) {
+                long epochDay = entry.getValue().toEpochDay();
+                epochDayBySupplier.put(entry.getKey(), epochDay);
+                bucketsByEpochDay.computeIfAbsent(epochDay, d -> new HashSet<>()).add(entry.getKey());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 購買先を削除する（ステータスが ACTIVE 以外になった場合など）
+     *
+     * @param supplierId 購買先ID
+     */
+    public void remove(String supplierId) {
+        lock.writeLock().lock();
+        try {
+            Long previous = epochDayBySupplier.remove(supplierId);
+            if (previous != null) {
+                removeFromBucket(previous, supplierId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeFromBucket(long epochDay, String supplierId) {
+        Set<String> bucket = bucketsByEpochDay.get(epochDay);
+        if (bucket != null && bucket.remove(supplierId) && bucket.isEmpty()) {
+            bucketsByEpochDay.remove(epochDay);
+        }
+    }
+
+    /**
+     * 期限超過（次回審査予定日が基準日より前）の購買先数を取得する
+     *
+     * @param today 基準日
+     * @return 購買先数
+     */
+    public int countOverdue(LocalDate today) {
+        return count(Long.MIN_VALUE, today.toEpochDay() - 1);
+    }
+
+    /**
+     * 基準日の翌日から N 日以内に期限が到来する購買先数を取得する（期限超過は含まない）
+     *
+     * @param today 基準日
+     * @param days 日数
+     * @return 購買先数
+     */
+    public int countDueWithin(LocalDate today, int days) {
+        long from = today.toEpochDay();
+        return count(from + 1, from + days);
+    }
+
+    /**
+     * 次回審査予定日が指定期間内（両端を含む）の購買先数を取得する
+     *
+     * @param from 開始日
+     * @param to 終了日
+     * @return 購買先数
+     */
+    public int countBetween(LocalDate from, LocalDate to) {
+        return count(from.toEpochDay(), to.toEpochDay());
+    }
+
+    private int count(long fromEpochDay, long toEpochDay) {
+        if (fromEpochDay > toEpochDay) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (Set<String> bucket : bucketsByEpochDay.subMap(fromEpochDay, true, toEpochDay, true).values()) {
+                total += bucket.size();
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 次回審査予定日が指定日以前の購買先を、予定日の早い順に処理する
+     *
+     * 処理中は読取ロックを保持するため、action からインデックスを更新しないこと。
+     *
+     * @param thresholdDate 基準日（この日を含む）
+     * @param action 購買先IDごとの処理
+     */
+    public void forEachDueOnOrBefore(LocalDate thresholdDate, Consumer<String> action) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<Long, Set<String>> range = bucketsByEpochDay.headMap(thresholdDate.toEpochDay(), true);
+            for (Set<String> bucket : range.values()) {
+                bucket.forEach(action);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 次回審査予定日が指定日以前の購買先IDを、予定日の早い順に取得する
+     *
+     * @param thresholdDate 基準日（この日を含む）
+     * @return 購買先IDリスト
+     */
+    public List<String> getSuppliersDueOnOrBefore(LocalDate thresholdDate) {
+        List<String> supplierIds = new ArrayList<>();
+        forEachDueOnOrBefore(thresholdDate, supplierIds::add);
+        return supplierIds;
+    }
+
+    /**
+     * 登録済の次回審査予定日を取得する
+     *
+     * @param supplierId 購買先ID
+     * @return 次回審査予定日（未登録の場合 null）
+     */
+    public LocalDate getNextReviewDate(String supplierId) {
+        lock.readLock().lock();
+        try {
+            Long epochDay = epochDayBySupplier.get(supplierId);
+            return epochDay != null ? LocalDate.ofEpochDay(epochDay) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return epochDayBySupplier.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
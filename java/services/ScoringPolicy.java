@@ -0,0 +1,243 @@
+package jp.co.company.sqas.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Properties;
+
+/**
+ * 採点ポリシー
+ * Scoring Policy
+ *
+ * 評価（優/良/可/不可）・判定（PASS/CONDITIONAL/FAIL）・等級（1〜3）の基準点、
+ * 書類審査/実地審査の重み、等級名称をバージョン単位で保持する。
+ *
+ * 生成時に総合点（100倍値 0〜10000）を添字とする参照テーブルへコンパイルし、
+ * 分類は配列の1回参照で行う。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public final class ScoringPolicy {
+
+    /** GCP0602 初版の基準（80/70/60点、重み 0.4/0.6） */
+    public static final ScoringPolicy GCP0602_V1 = new ScoringPolicy(
+        "GCP0602-1.0",
+        LocalDate.of(2000, 1, 1),
+        BigDecimal.valueOf(80), BigDecimal.valueOf(70), BigDecimal.valueOf(60),
+        BigDecimal.valueOf(80), BigDecimal.valueOf(60),
+        BigDecimal.valueOf(80), BigDecimal.valueOf(70), BigDecimal.valueOf(60),
+        new BigDecimal("0.4"), new BigDecimal("0.6"),
+        new String[] {"優良", "良好", "標準"}
+    );
+
+    private final String version;
+    private final LocalDate effectiveFrom;
+    private final BigDecimal[] ratingMinScores;   // 優, 良, 可
+    private final BigDecimal[] decisionMinScores; // PASS, CONDITIONAL
+    private final BigDecimal[] gradeMinScores;    // 1, 2, 3
+    private final BigDecimal documentWeight;
+    private final BigDecimal onSiteWeight;
+    private final String[] gradeLabels;
+
+    private final byte[] ratingTable = new byte[FixedPointScoring.MAX_HUNDREDTHS + 1];
+    private final byte[] decisionTable = new byte[FixedPointScoring.MAX_HUNDREDTHS + 1];
+    private final byte[] gradeTable = new byte[FixedPointScoring.MAX_HUNDREDTHS + 1];
+
+    public ScoringPolicy(String version, LocalDate effectiveFrom,
+                         BigDecimal excellentMinScore, BigDecimal goodMinScore, BigDecimal fairMinScore,
+                         BigDecimal passMinScore, BigDecimal conditionalMinScore,
+                         BigDecimal grade1MinScore, BigDecimal grade2MinScore, BigDecimal grade3MinScore,
+                         BigDecimal documentWeight, BigDecimal onSiteWeight, String[] gradeLabels) {
+        if (version == null || effectiveFrom == null) {
+            throw new IllegalArgumentException("Policy version and effective date cannot be null");
+        }
+        if (documentWeight.add(onSiteWeight).compareTo(BigDecimal.ONE) != 0) {
+            throw new IllegalArgumentException("Sum of weights must equal 1.0");
+        }
+        if (gradeLabels == null || gradeLabels.length != 3) {
+            throw new IllegalArgumentException("Exactly three grade labels are required");
+        }
+
+        this.version = version;
+        this.effectiveFrom = effectiveFrom;
+        this.ratingMinScores = descending("Rating", excellentMinScore, goodMinScore, fairMinScore);
+        this.decisionMinScores = descending("Decision", passMinScore, conditionalMinScore);
+        this.gradeMinScores = descending("Grade", grade1MinScore, grade2MinScore, grade3MinScore);
+        this.documentWeight = documentWeight;
+        this.onSiteWeight = onSiteWeight;
+        this.gradeLabels = gradeLabels.clone();
+
+        compile(ratingTable, ratingMinScores, 0);
+        compile(decisionTable, decisionMinScores, 0);
+        compile(gradeTable, gradeMinScores, 1);
+    }
+
+    private static BigDecimal[] descending(String name, BigDecimal... thresholds) {
+        for (int i = 0; i < thresholds.length; i++) {
+            if (thresholds[i] == null) {
+                throw new IllegalArgumentException(name + " thresholds cannot be null");
+            }
+            if (thresholds[i].stripTrailingZeros().scale() > 2) {
+                throw new IllegalArgumentException(name + " thresholds must be in units of 0.01");
+            }
+            if (i > 0 && thresholds[i - 1].compareTo(thresholds[i]) < 0) {
+                throw new IllegalArgumentException(name + " thresholds must be in descending order");
+            }
+        }
+        return thresholds;
+    }
+
+    /**
+     * 基準点を参照テーブルに展開する
+     *
+     * 基準点 thresholds[k] 以上の総合点にはコード firstCode + k を、
+     * どの基準にも満たない総合点にはコード thresholds.length（等級の場合は 0）を割り当てる。
+     */
+    private static void compile(byte[] table, BigDecimal[] thresholds, int firstCode) {
+        int[] bounds = new int[thresholds.length];
+        for (int k = 0; k < thresholds.length; k++) {
+            long bound = thresholds[k].movePointRight(2).longValue();
+            bounds[k] = (int) Math.max(0, Math.min(bound, table.length));
+        }
+        byte below = (byte) (firstCode == 0 ? thresholds.length : 0);
+        for (int h = 0; h < table.length; h++) {
+            byte code = below;
+            for (int k = 0; k < bounds.length; k++) {
+                if (h >= bounds[k]) {
+                    code = (byte) (firstCode + k);
+                    break;
+                }
+            }
+            table[h] = code;
+        }
+    }
+
+    /**
+     * プロパティから採点ポリシーを読み込む
+     *
+     * キー: policy.&lt;prefix&gt;.version, effectiveFrom, rating.excellent, rating.good, rating.fair,
+     * decision.pass, decision.conditional, grade.1, grade.2, grade.3,
+     * weight.document, weight.onSite, label.1, label.2, label.3
+     *
+     * @param properties 設定
+     * @param prefix ポリシーのキー接頭辞
+     * @return 採点ポリシー
+     */
+    public static ScoringPolicy fromProperties(Properties properties, String prefix) {
+        String p = "policy." + prefix + ".";
+        return new ScoringPolicy(
+            required(properties, p + "version"),
+            LocalDate.parse(required(properties, p + "effectiveFrom")),
+            new BigDecimal(required(properties, p + "rating.excellent")),
+            new BigDecimal(required(properties, p + "rating.good")),
+            new BigDecimal(required(properties, p + "rating.fair")),
+            new BigDecimal(required(properties, p + "decision.pass")),
+            new BigDecimal(required(properties, p + "decision.conditional")),
+            new BigDecimal(required(properties, p + "grade.1")),
+            new BigDecimal(required(properties, p + "grade.2")),
+            new BigDecimal(required(properties, p + "grade.3")),
+            new BigDecimal(required(properties, p + "weight.document")),
+            new BigDecimal(required(properties, p + "weight.onSite")),
+            new String[] {
+                required(properties, p + "label.1"),
+                required(properties, p + "label.2"),
+                required(properties, p + "label.3")
+            }
+        );
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing scoring policy property: " + key);
+        }
+        return value.trim();
+    }
+
+    public String getVersion() { return version; }
+    public LocalDate getEffectiveFrom() { return effectiveFrom; }
+    public BigDecimal getDocumentWeight() { return documentWeight; }
+    public BigDecimal getOnSiteWeight() { return onSiteWeight; }
+    public BigDecimal getGradeMinScore(int grade) { return gradeMinScores[grade - 1]; }
+
+    /** 評価コード（FixedPointScoring.RATINGS の添字）を返す */
+    int ratingCode(long hundredths) {
+        return ratingTable[clamp(hundredths)];
+    }
+
+    /** 判定コード（FixedPointScoring.DECISIONS の添字）を返す */
+    int decisionCode(long hundredths) {
+        return decisionTable[clamp(hundredths)];
+    }
+
+    /** 等級コード（FixedPointScoring.GRADES の添字、0 は登録不可）を返す */
+    int gradeCode(long hundredths) {
+        return gradeTable[clamp(hundredths)];
+    }
+
+    private static int clamp(long hundredths) {
+        return hundredths <= 0 ? 0
+            : hundredths >= FixedPointScoring.MAX_HUNDREDTHS ? FixedPointScoring.MAX_HUNDREDTHS : (int) hundredths;
+    }
+
+    public String determineRating(BigDecimal totalScore) {
+        return FixedPointScoring.RATINGS[ratingCode(FixedPointScoring.toHundredths(totalScore))];
+    }
+
+    public String determineDecision(BigDecimal totalScore) {
+        return FixedPointScoring.DECISIONS[decisionCode(FixedPointScoring.toHundredths(totalScore))];
+    }
+
+    public Integer determineGrade(BigDecimal totalScore) {
+        return FixedPointScoring.GRADES[gradeCode(FixedPointScoring.toHundredths(totalScore))];
+    }
+
+    /**
+     * 等級名称を取得する
+     *
+     * @param grade 等級（1, 2, 3）
+     * @return 等級名称（該当なしの場合 null）
+     */
+    public String getGradeLabel(Integer grade) {
+        if (grade == null || grade < 1 || grade > 3) {
+            return null;
+        }
+        return gradeLabels[grade - 1];
+    }
+
+    /**
+     * 等級の説明（名称と点数範囲）を取得する
+     *
+     * 例: 優良（80点以上）、良好（70-79点）
+     *
+     * @param grade 等級（1, 2, 3）
+     * @return 等級説明（該当なしの場合 null）
+     */
+    public String getGradeDescription(Integer grade) {
+        String label = getGradeLabel(grade);
+        if (label == null) {
+            return null;
+        }
+        BigDecimal min = gradeMinScores[grade - 1];
+        if (grade == 1) {
+            return label + "（" + min.stripTrailingZeros().toPlainString() + "点以上）";
+        }
+        BigDecimal upper = gradeMinScores[grade - 2];
+        if (isIntegral(min) && isIntegral(upper)) {
+            return label + "（" + min.stripTrailingZeros().toPlainString() + "-"
+                + upper.subtract(BigDecimal.ONE).stripTrailingZeros().toPlainString() + "点）";
+        }
+        return label + "（" + min.stripTrailingZeros().toPlainString() + "点以上"
+            + upper.stripTrailingZeros().toPlainString() + "点未満）";
+    }
+
+    private static boolean isIntegral(BigDecimal value) {
+        return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ScoringPolicy{version='" + version + "', effectiveFrom=" + effectiveFrom + "}";
+    }
+}
@@ -0,0 +1,122 @@
+package jp.co.company.sqas.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * 採点ポリシーレジストリ
+ * Scoring Policy Registry
+ *
+ * 複数バージョンの採点ポリシーを適用開始日順に保持し、
+ * 審査実施日（AuditDate）時点で有効なポリシーを返す。
+ * 生成後は変更不可のため、スレッド間で共有できる。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public final class ScoringPolicyRegistry {
+
+    /** 採点ポリシー設定ファイルの既定のパス */
+    public static final Path DEFAULT_CONFIG_FILE = Paths.get("config", "scoring_policies.properties");
+
+    private static final ScoringPolicyRegistry DEFAULT = new ScoringPolicyRegistry(
+        Collections.singletonList(ScoringPolicy.GCP0602_V1));
+
+    private final TreeMap<LocalDate, ScoringPolicy> policiesByEffectiveDate = new TreeMap<>();
+
+    public ScoringPolicyRegistry(Collection<ScoringPolicy> policies) {
+        if (policies == null || policies.isEmpty()) {
+            throw new IllegalArgumentException("At least one scoring policy is required");
+        }
+        for (ScoringPolicy policy : policies) {
+            ScoringPolicy previous = policiesByEffectiveDate.put(policy.getEffectiveFrom(), policy);
+            if (previous != null) {
+                throw new IllegalArgumentException("Policies " + previous.getVersion() + " and "
+                    + policy.getVersion() + " share the same effective date");
+            }
+        }
+    }
+
+    /**
+     * GCP0602 初版のみを含むレジストリを返す
+     */
+    public static ScoringPolicyRegistry defaultRegistry() {
+        return DEFAULT;
+    }
+
+    /**
+     * 設定ファイルからレジストリを読み込む
+     *
+     * @param file 設定ファイル（通常は DEFAULT_CONFIG_FILE）
+     * @return レジストリ
+     */
+    public static ScoringPolicyRegistry load(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return load(input);
+        }
+    }
+
+    /**
+     * プロパティファイルからレジストリを読み込む（config/scoring_policies.properties）
+     *
+     * policies キーにカンマ区切りでポリシーの接頭辞を列挙する。
+     *
+     * @param input プロパティファイル（UTF-8）
+     * @return レジストリ
+     */
+    public static ScoringPolicyRegistry load(InputStream input) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        String list = properties.getProperty("policies");
+        if (list == null || list.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing scoring policy property: policies");
+        }
+        java.util.List<ScoringPolicy> policies = new java.util.ArrayList<>();
+        for (String prefix : list.split(",")) {
+            policies.add(ScoringPolicy.fromProperties(properties, prefix.trim()));
+        }
+        return new ScoringPolicyRegistry(policies);
+    }
+
+    /**
+     * 指定日に有効な採点ポリシーを返す
+     *
+     * @param auditDate 審査実施日
+     * @return 採点ポリシー
+     * @throws IllegalArgumentException 指定日に有効なポリシーが無い場合
+     */
+    public ScoringPolicy policyFor(LocalDate auditDate) {
+        Map.Entry<LocalDate, ScoringPolicy> entry = policiesByEffectiveDate.floorEntry(auditDate);
+        if (entry == null) {
+            throw new IllegalArgumentException("No scoring policy is effective on " + auditDate);
+        }
+        return entry.getValue();
+    }
+
+    /**
+     * 本日時点で有効な採点ポリシーを返す
+     */
+    public ScoringPolicy current() {
+        return policyFor(LocalDate.now());
+    }
+
+    /**
+     * 登録済の全ポリシーを適用開始日順に返す
+     */
+    public Collection<ScoringPolicy> getPolicies() {
+        return Collections.unmodifiableCollection(policiesByEffectiveDate.values());
+    }
+}
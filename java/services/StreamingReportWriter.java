@@ -0,0 +1,213 @@
+package jp.co.company.sqas.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 帳票ストリーミング出力
+ * Streaming Report Writer
+ *
+ * 帳票の文字列を UTF-8 で直接バッファ（DirectByteBuffer）へ符号化し、バッファが満杯になるたびに
+ * チャネルへ書き出す。帳票全体を StringBuilder / String / byte[] に保持しないため、
+ * 1帳票あたりのメモリ使用量は採点詳細の件数によらずバッファサイズ程度で一定となる。
+ *
+ * バッファと符号化器は共有プールから借用し、close 時に返却する。
+ * 仮想スレッドのように帳票ごとにスレッドが変わる場合も再利用できるよう、スレッド単位では保持しない。
+ * 1インスタンスを複数スレッドから使用しないこと。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class StreamingReportWriter implements Closeable {
+
+    static final int BUFFER_SIZE = 32 * 1024;
+
+    /** プールに保持する最大数（同時出力数がこれを超えた分は都度確保して破棄する） */
+    static final int MAX_POOLED = 64;
+
+    /**
+     * 再利用する出力バッファと符号化器
+     */
+    private static final class Resources {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private static final ArrayBlockingQueue<Resources> POOL = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    private final WritableByteChannel channel;
+    private final Resources resources;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+    private long bytesWritten;
+    private boolean closed;
+
+    /**
+     * @param channel 出力先チャネル（close 時に閉じる）
+     */
+    StreamingReportWriter(WritableByteChannel channel) {
+        Resources pooled = POOL.poll();
+        this.resources = pooled != null ? pooled : new Resources();
+        this.channel = channel;
+        this.buffer = resources.buffer;
+        this.encoder = resources.encoder;
+        this.buffer.clear();
+    }
+
+    /**
+     * ファイルへの出力を開く（既存ファイルは上書き）
+     *
+     * @param outputPath 出力ファイルパス
+     * @return 帳票出力
+     */
+    static StreamingReportWriter open(Path outputPath) throws IOException {
+        return new StreamingReportWriter(FileChannel.open(outputPath,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * 文字列を UTF-8 で出力する（null の場合は "null"）
+     */
+    StreamingReportWriter append(CharSequence text) throws IOException {
+        CharSequence cs = text != null ? text : "null";
+        if (cs.length() == 0) {
+            return this;
+        }
+        encoder.reset();
+        CharBuffer in = CharBuffer.wrap(cs);
+        while (true) {
+            CoderResult result = encoder.encode(in, buffer, true);
+            if (result.isUnderflow()) {
+                break;
+            }
+            if (result.isOverflow()) {
+                drain();
+            } else {
+                result.throwException();
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+        return this;
+    }
+
+    /**
+     * オブジェクトの文字列表現を出力する（String.valueOf と同じ）
+     */
+    StreamingReportWriter append(Object value) throws IOException {
+        return append(String.valueOf(value));
+    }
+
+    /**
+     * ASCII文字を出力する
+     */
+    StreamingReportWriter append(char c) throws IOException {
+        if (c >= 0x80) {
+            return append(String.valueOf(c));
+        }
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) c);
+        return this;
+    }
+
+    /**
+     * 整数を10進数で出力する（文字列を生成しない）
+     */
+    StreamingReportWriter append(long value) throws IOException {
+        if (buffer.remaining() < 20) {
+            drain();
+        }
+        if (value == Long.MIN_VALUE) {
+            return append(Long.toString(value));
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + (value / divisor) % 10));
+        }
+        return this;
+    }
+
+    /**
+     * 符号化済のバイト列をそのまま出力する
+     */
+    StreamingReportWriter write(byte[] bytes) throws IOException {
+        return write(bytes, bytes.length);
+    }
+
+    /**
+     * 符号化済のバイト列の先頭 length バイトを出力する
+     */
+    StreamingReportWriter write(byte[] bytes, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(buffer.remaining(), length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+        return this;
+    }
+
+    /**
+     * バッファの内容をチャネルへ書き出す
+     */
+    void flush() throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * これまでに出力したバイト数（バッファ内の未書出分を含む）
+     */
+    long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            drain();
+        } finally {
+            buffer.clear();
+            POOL.offer(resources);
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package jp.co.company.sqas.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import jp.co.company.sqas.service.SupplierManagementService.SupplierInfo;
+
+/**
+ * 購買先マスターキャッシュ
+ * Supplier Master Cache
+ *
+ * SupplierID をキーに SupplierInfo を保持する上限付きキャッシュ（LRU方式で追い出し）。
+ * 等級・ステータスの更新時は新しい内容で置き換え（ライトスルー）、
+ * 登録済のブロードキャスターを通じて他ノードへ無効化を通知する。
+ *
+ * 無効化通知は欠落する可能性があるため（UDPの取りこぼし・送信失敗）、各エントリは最大保持期間（既定30秒）を
+ * 過ぎると破棄して読み込み直す。他ノードの更新が反映されないまま参照される期間は最大保持期間までとなる。
+ *
+ * キャッシュ内の SupplierInfo は共有されるため、呼び出し側で変更しないこと。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class SupplierCache {
+
+    /**
+     * 無効化通知の送受信インターフェース
+     */
+    public interface InvalidationBroadcaster {
+        /**
+         * 他ノードへ無効化を通知する
+         *
+         * @param supplierId 購買先ID
+         */
+        void broadcast(String supplierId);
+    }
+
+    /**
+     * 他ノードからの無効化通知の受信処理（キャッシュ以外に保持している購買先情報の読み込み直し用）
+     *
+     * 受信スレッドから呼び出される。
+     */
+    public interface RemoteInvalidationListener {
+        /**
+         * 他ノードで購買先が更新された
+         *
+         * @param supplierId 購買先ID
+         */
+        void supplierInvalidated(String supplierId);
+
+        /**
+         * 無効化通知が欠落し、キャッシュを全件破棄した（更新された購買先を特定できない）
+         */
+        void allInvalidated();
+    }
+
+    /** 既定の最大保持期間 */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofSeconds(30);
+
+    /**
+     * キャッシュエントリ（読込・置換時刻付き）
+     */
+    private static final class CachedSupplier {
+        final SupplierInfo supplier;
+        final long storedAtNanos;
+
+        CachedSupplier(SupplierInfo supplier, long storedAtNanos) {
+            this.supplier = supplier;
+            this.storedAtNanos = storedAtNanos;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxAgeNanos;
+    private final Function<String, SupplierInfo> loader;
+    private final LinkedHashMap<String, CachedSupplier> entries;
+    private final CopyOnWriteArrayList<InvalidationBroadcaster> broadcasters = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<RemoteInvalidationListener> remoteListeners = new CopyOnWriteArrayList<>();
+
+    private long generation; // entries のロック下で、置換・削除のたびに加算する
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maxEntries 最大保持件数
+     * @param loader キャッシュミス時の読込処理（該当なしの場合 null を返す）
+     */
+    public SupplierCache(int maxEntries, Function<String, SupplierInfo> loader) {
+        this(maxEntries, DEFAULT_MAX_AGE, loader);
+    }
+
+    /**
+     * @param maxEntries 最大保持件数
+     * @param maxAge 最大保持期間（読込・置換からこの期間を過ぎたエントリは読み込み直す）
+     * @param loader キャッシュミス時の読込処理（該当なしの場合 null を返す）
+     */
+    public SupplierCache(int maxEntries, Duration maxAge, Function<String, SupplierInfo> loader) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be positive");
+        }
+        if (maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("Max age must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.loader = loader;
+        this.entries = new LinkedHashMap<String, CachedSupplier>(Math.min(maxEntries, 1 << 16), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSupplier> eldest) {
+                if (size() > SupplierCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public void addBroadcaster(InvalidationBroadcaster broadcaster) {
+        broadcasters.add(broadcaster);
+    }
+
+    public void addRemoteInvalidationListener(RemoteInvalidationListener listener) {
+        remoteListeners.add(listener);
+    }
+
+    /**
+     * 購買先情報を取得する（キャッシュに無い場合は読み込んで保持する）
+     *
+     * @param supplierId 購買先ID
+     * @return 購買先情報（該当なしの場合 null）
+     */
+    public SupplierInfo get(String supplierId) {
+        long loadGeneration;
+        synchronized (entries) {
+            CachedSupplier cached = entries.get(supplierId);
+            if (cached != null) {
+                if (!isExpired(cached, System.nanoTime())) {
+                    hits.increment();
+                    return cached.supplier;
+                }
+                entries.remove(supplierId);
+                expirations.increment();
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+
+        // 読込中はロックを保持しない。読込中に更新・無効化があった場合は、
+        // 読み込んだ内容が古い可能性があるため保持しない
+        SupplierInfo loaded = loader.apply(supplierId);
+        if (loaded != null) {
+            synchronized (entries) {
+                CachedSupplier raced = entries.get(supplierId);
+                if (raced != null) {
+                    return raced.supplier;
+                }
+                if (generation == loadGeneration) {
+                    entries.put(supplierId, new CachedSupplier(loaded, System.nanoTime()));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 更新後の購買先情報で置き換え、他ノードへ無効化を通知する
+     *
+     * @param supplier 更新後の購買先情報
+     */
+    public void put(SupplierInfo supplier) {
+        synchronized (entries) {
+            generation++;
+            entries.put(supplier.getSupplierId(), new CachedSupplier(supplier, System.nanoTime()));
+        }
+        broadcast(supplier.getSupplierId());
+    }
+
+    /**
+     * キャッシュから削除し、他ノードへ無効化を通知する
+     *
+     * @param supplierId 購買先ID
+     */
+    public void invalidate(String supplierId) {
+        evict(supplierId);
+        broadcast(supplierId);
+    }
+
+    /**
+     * 他ノードからの無効化通知を適用する（再通知はしない）
+     *
+     * @param supplierId 購買先ID
+     */
+    public void onRemoteInvalidation(String supplierId) {
+        evict(supplierId);
+        for (RemoteInvalidationListener listener : remoteListeners) {
+            try {
+                listener.supplierInvalidated(supplierId);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to apply remote invalidation for: " + supplierId);
+                System.err.println("Error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 他ノードからの無効化通知が欠落した場合に、キャッシュを全件破棄する
+     */
+    public void onRemoteInvalidationsLost() {
+        clear();
+        for (RemoteInvalidationListener listener : remoteListeners) {
+            try {
+                listener.allInvalidated();
+            } catch (RuntimeException e) {
+                System.err.println("Failed to reload after lost remote invalidations");
+                System.err.println("Error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * キャッシュを全件破棄する
+     */
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    private boolean isExpired(CachedSupplier entry, long nowNanos) {
+        return nowNanos - entry.storedAtNanos > maxAgeNanos;
+    }
+
+    private void evict(String supplierId) {
+        synchronized (entries) {
+            generation++;
+            if (entries.remove(supplierId) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private void broadcast(String supplierId) {
+        for (InvalidationBroadcaster broadcaster : broadcasters) {
+            try {
+                broadcaster.broadcast(supplierId);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to broadcast cache invalidation for: " + supplierId);
+                System.err.println("Error: " + e.getMessage());
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getEvictionCount() { return evictions.sum(); }
+    public long getInvalidationCount() { return invalidations.sum(); }
+    public long getExpirationCount() { return expirations.sum(); }
+
+    /**
+     * ヒット率を取得する
+     *
+     * @return ヒット率（0.0〜1.0、参照なしの場合 0.0）
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "SupplierCache{size=%d, maxEntries=%d, hits=%d, misses=%d, hitRate=%.3f, evictions=%d, invalidations=%d,"
+                + " expirations=%d}",
+            size(), maxEntries, getHitCount(), getMissCount(), getHitRate(), getEvictionCount(), getInvalidationCount(),
+            getExpirationCount()
+        );
+    }
+}
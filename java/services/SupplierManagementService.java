@@ -1,10 +1,17 @@
 package jp.co.company.sqas.service;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
 
 /**
  * 購買先管理サービス
@@ -12,16 +19,95 @@ import java.util.List;
  * 
  * 購買先マスターの管理、等級更新、ステータス管理を実装
  * 
+ * 購買先マスターキャッシュの無効化は MulticastInvalidationBroadcaster で他ノードへ通知する
+ * （DataSource を指定するコンストラクタで参加し、close で離脱する）。
+ * 他ノードからの無効化を受信した場合は、該当の購買先を読み込み直して再評価期限インデックスと
+ * リマインダースケジューラに反映する（通知が欠落した場合はインデックスを全件読み込み直す）。
+ * 
  * @author Supplier Quality Audit System Development Team
  * @version 1.0
  * @since 2025-11-20
  */
-public class SupplierManagementService {
+public class SupplierManagementService implements Closeable {
+
+    private static final int DEFAULT_CACHE_SIZE = 10000;
 
     private AuditScoreCalculationService scoreService;
+    private SupplierCache supplierCache;
+    private ReviewDueIndex reviewDueIndex;
+    private IdGenerator idGenerator;
+    private ReminderScheduler reminderScheduler; // null の場合は日次バッチのみで通知する
+    private MulticastInvalidationBroadcaster invalidationBroadcaster; // 呼び出し側でキャッシュを渡した場合は null
 
-    public SupplierManagementService() {
-        this.scoreService = new AuditScoreCalculationService();
+    /**
+     * @param dataSource 採番テーブル（IdSequence）の接続先
+     * @throws IllegalStateException キャッシュ無効化のマルチキャストグループに参加できない場合
+     */
+    public SupplierManagementService(DataSource dataSource) {
+        this(dataSource, ScoringPolicyRegistry.defaultRegistry());
+    }
+
+    /**
+     * @param dataSource 採番テーブル（IdSequence）の接続先（全ノードで同じ連番ブロックを予約しないよう DB で採番する）
+     * @param policies 採点ポリシーの履歴（config/scoring_policies.properties から読み込んだもの）
+     * @throws IllegalStateException キャッシュ無効化のマルチキャストグループに参加できない場合
+     */
+    public SupplierManagementService(DataSource dataSource, ScoringPolicyRegistry policies) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Data source for ID allocation is required");
+        }
+        this.scoreService = new AuditScoreCalculationService(policies);
+        this.supplierCache = new SupplierCache(DEFAULT_CACHE_SIZE, this::loadSupplierFromDatabase);
+        this.reviewDueIndex = new ReviewDueIndex();
+        this.idGenerator = new IdGenerator(new JdbcBlockAllocator(dataSource));
+        this.reviewDueIndex.replaceAll(loadReviewDueDates());
+        this.supplierCache.addRemoteInvalidationListener(new ReviewDueReloader());
+        try {
+            this.invalidationBroadcaster = new MulticastInvalidationBroadcaster(supplierCache);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to join supplier cache invalidation group", e);
+        }
+    }
+
+    /**
+     * @param supplierCache 購買先マスターキャッシュ（ノード間の無効化通知は呼び出し側で登録すること）
+     * @param reviewDueIndex 再評価期限インデックス（呼び出し側で有効な購買先を登録済であること）
+     */
+    public SupplierManagementService(AuditScoreCalculationService scoreService, SupplierCache supplierCache,
+                                     ReviewDueIndex reviewDueIndex, IdGenerator idGenerator) {
+        this(scoreService, supplierCache, reviewDueIndex, idGenerator, null);
+    }
+
+    /**
+     * @param reviewDueIndex 再評価期限インデックス（呼び出し側で有効な購買先を登録済であること）
+     * @param reminderScheduler リマインダースケジューラ（呼び出し側で有効な購買先を登録済であること。null 可）
+     */
+    public SupplierManagementService(AuditScoreCalculationService scoreService, SupplierCache supplierCache,
+                                     ReviewDueIndex reviewDueIndex, IdGenerator idGenerator,
+                                     ReminderScheduler reminderScheduler) {
+        this.scoreService = scoreService;
+        this.supplierCache = supplierCache;
+        this.reviewDueIndex = reviewDueIndex;
+        this.idGenerator = idGenerator;
+        this.reminderScheduler = reminderScheduler;
+        this.supplierCache.addRemoteInvalidationListener(new ReviewDueReloader());
+    }
+
+    /**
+     * 他ノードで更新された購買先の次回審査予定日を読み込み直す
+     */
+    private final class ReviewDueReloader implements SupplierCache.RemoteInvalidationListener {
+        @Override
+        public void supplierInvalidated(String supplierId) {
+            SupplierInfo supplier = supplierCache.get(supplierId);
+            boolean active = supplier != null && "ACTIVE".equals(supplier.getSupplierStatus());
+            updateReviewDue(supplierId, active ? supplier.getNextReviewDate() : null);
+        }
+
+        @Override
+        public void allInvalidated() {
+            reviewDueIndex.replaceAll(loadReviewDueDates());
+        }
     }
 
     /**
@@ -69,12 +155,27 @@ public class SupplierManagementService {
         public String getSupplierStatus() { return supplierStatus; }
         public void setSupplierStatus(String supplierStatus) { this.supplierStatus = supplierStatus; }
 
+        /**
+         * 同じ内容の新しいインスタンスを作成する（キャッシュ更新用）
+         */
+        SupplierInfo copy() {
+            return new SupplierInfo(supplierId, companyName, iso9001Certified, initialRegistrationDate,
+                currentRating, nextReviewDate, supplierStatus);
+        }
+
         /**
          * 再評価期限が近いかチェック（1ヶ月以内）
          */
         public boolean isReviewDueSoon() {
+            return isReviewDueSoon(LocalDate.now());
+        }
+
+        /**
+         * 再評価期限が近いかチェック（基準日から1ヶ月以内）
+         */
+        public boolean isReviewDueSoon(LocalDate today) {
             if (nextReviewDate == null) return false;
-            LocalDate oneMonthFromNow = LocalDate.now().plusMonths(1);
+            LocalDate oneMonthFromNow = today.plusMonths(1);
             return nextReviewDate.isBefore(oneMonthFromNow) || nextReviewDate.isEqual(oneMonthFromNow);
         }
 
@@ -82,17 +183,31 @@ public class SupplierManagementService {
          * 再評価期限が超過しているかチェック
          */
         public boolean isReviewOverdue() {
+            return isReviewOverdue(LocalDate.now());
+        }
+
+        /**
+         * 再評価期限が基準日時点で超過しているかチェック
+         */
+        public boolean isReviewOverdue(LocalDate today) {
             if (nextReviewDate == null) return false;
-            return nextReviewDate.isBefore(LocalDate.now());
+            return nextReviewDate.isBefore(today);
         }
 
         /**
          * アラートレベルを取得（UI表示用）
          */
         public String getAlertLevel() {
-            if (isReviewOverdue()) {
+            return getAlertLevel(LocalDate.now());
+        }
+
+        /**
+         * 基準日時点のアラートレベルを取得（一覧表示で基準日を揃える場合に使用）
+         */
+        public String getAlertLevel(LocalDate today) {
+            if (isReviewOverdue(today)) {
                 return "CRITICAL"; // 赤色表示
-            } else if (isReviewDueSoon()) {
+            } else if (isReviewDueSoon(today)) {
                 return "WARNING"; // 黄色表示
             } else {
                 return "NORMAL"; // 通常表示
@@ -109,7 +224,7 @@ public class SupplierManagementService {
      * @return 更新後の等級
      */
     public Integer updateSupplierRatingAfterAudit(String supplierId, BigDecimal totalScore, LocalDate auditDate) {
-        Integer newRating = scoreService.determineGrade(totalScore);
+        Integer newRating = scoreService.determineGrade(totalScore, auditDate);
         
         if (newRating == null) {
             throw new IllegalStateException("Score is below 60. Supplier cannot be registered.");
@@ -117,6 +232,26 @@ public class SupplierManagementService {
 
         LocalDate nextReviewDate = auditDate.plusYears(2);
 
+        /*
+        UPDATE SupplierMaster
+        SET CurrentRating = newRating, NextReviewDate = nextReviewDate,
+            UpdatedAt = CURRENT_TIMESTAMP, UpdatedBy = [承認者]
+        WHERE SupplierID = supplierId
+        */
+
+        SupplierInfo cached = supplierCache.get(supplierId);
+        if (cached != null) {
+            SupplierInfo updated = cached.copy();
+            updated.setCurrentRating(newRating);
+            updated.setNextReviewDate(nextReviewDate);
+            supplierCache.put(updated);
+            if ("ACTIVE".equals(updated.getSupplierStatus())) {
+                updateReviewDue(supplierId, nextReviewDate);
+            }
+        } else {
+            supplierCache.invalidate(supplierId);
+            updateReviewDue(supplierId, null);
+        }
 
         System.out.println(String.format(
             "Updated Supplier %s: Rating=%d, NextReviewDate=%s",
@@ -138,6 +273,26 @@ public class SupplierManagementService {
             throw new IllegalArgumentException("Invalid status. Must be ACTIVE, SUSPENDED, or INACTIVE");
         }
 
+        /*
+        UPDATE SupplierMaster
+        SET SupplierStatus = newStatus, UpdatedAt = CURRENT_TIMESTAMP, UpdatedBy = [実行ユーザー]
+        WHERE SupplierID = supplierId
+        */
+
+        SupplierInfo cached = supplierCache.get(supplierId);
+        if (cached != null) {
+            SupplierInfo updated = cached.copy();
+            updated.setSupplierStatus(newStatus);
+            supplierCache.put(updated);
+            if (newStatus.equals("ACTIVE")) {
+                updateReviewDue(supplierId, updated.getNextReviewDate());
+            } else {
+                updateReviewDue(supplierId, null);
+            }
+        } else {
+            supplierCache.invalidate(supplierId);
+            updateReviewDue(supplierId, null);
+        }
 
         System.out.println(String.format(
             "Updated Supplier %s status to %s. Reason: %s",
@@ -145,43 +300,151 @@ public class SupplierManagementService {
         ));
     }
 
+    /**
+     * キャッシュ無効化のマルチキャストグループから離脱する
+     */
+    @Override
+    public void close() throws IOException {
+        if (invalidationBroadcaster != null) {
+            invalidationBroadcaster.close();
+        }
+    }
+
+    /**
+     * 購買先情報を取得する（購買先マスターキャッシュ経由）
+     * 
+     * 返却される SupplierInfo はキャッシュと共有されるため、変更しないこと。
+     * 
+     * @param supplierId 購買先ID
+     * @return 購買先情報（該当なしの場合 null）
+     */
+    public SupplierInfo getSupplier(String supplierId) {
+        return supplierCache.get(supplierId);
+    }
+
+    /**
+     * 購買先マスターキャッシュを取得する（統計情報の参照用）
+     */
+    public SupplierCache getSupplierCache() {
+        return supplierCache;
+    }
+
+    /**
+     * 再評価期限インデックスを取得する（ダッシュボードの件数表示用）
+     */
+    public ReviewDueIndex getReviewDueIndex() {
+        return reviewDueIndex;
+    }
+
+    /**
+     * 再評価期限インデックスとリマインダースケジューラに次回審査予定日の変更を反映する
+     *
+     * @param supplierId 購買先ID
+     * @param nextReviewDate 次回審査予定日（有効な購買先でなくなった場合は null）
+     */
+    private void updateReviewDue(String supplierId, LocalDate nextReviewDate) {
+        reviewDueIndex.put(supplierId, nextReviewDate);
+        if (reminderScheduler != null) {
+            reminderScheduler.reviewDateChanged(supplierId, nextReviewDate);
+        }
+    }
+
+    /**
+     * 有効な購買先の次回審査予定日を読み込む（起動時、および無効化通知の欠落時に実行）
+     *
+     * @return 購買先ID → 次回審査予定日
+     */
+    private Map<String, LocalDate> loadReviewDueDates() {
+        /*
+        SELECT SupplierID, NextReviewDate
+        FROM SupplierMaster
+        WHERE SupplierStatus = 'ACTIVE' AND NextReviewDate IS NOT NULL
+        */
+
+        Map<String, LocalDate> nextReviewDates = new HashMap<>();
+        nextReviewDates.put("SUP-20231201-003", LocalDate.of(2025, 12, 1));
+        return nextReviewDates;
+    }
+
+    /**
+     * 購買先マスターから購買先情報を読み込む（キャッシュミス時に使用）
+     * 
+     * @param supplierId 購買先ID
+     * @return 購買先情報（該当なしの場合 null）
+     */
+    private SupplierInfo loadSupplierFromDatabase(String supplierId) {
+        /*
+        SELECT SupplierID, CompanyName, ISO9001Certified, InitialRegistrationDate,
+               CurrentRating, NextReviewDate, SupplierStatus
+        FROM SupplierMaster
+        WHERE SupplierID = supplierId
+        */
+
+        if ("SUP-20231201-003".equals(supplierId)) {
+            return new SupplierInfo(
+                "SUP-20231201-003",
+                "関西精密株式会社",
+                true,
+                LocalDate.of(2023, 12, 1),
+                3,
+                LocalDate.of(2025, 12, 1),
+                "ACTIVE"
+            );
+        }
+        return null;
+    }
+
     /**
      * 再評価が必要な購買先リストを取得
      * 
+     * 次回審査予定日が基準日以前（期限超過を含む）の有効な購買先を、予定日の早い順に返す。
+     * 再評価期限インデックスの該当日付範囲のみを参照する。
+     * 
      * @param daysBeforeDue 期限前の日数（例: 30日前）
      * @return 再評価が必要な購買先リスト
      */
     public List<SupplierInfo> getSuppliersRequiringReview(int daysBeforeDue) {
         LocalDate thresholdDate = LocalDate.now().plusDays(daysBeforeDue);
-        
 
         List<SupplierInfo> suppliers = new ArrayList<>();
-        
-        suppliers.add(new SupplierInfo(
-            "SUP-20231201-003",
-            "関西精密株式会社",
-            true,
-            LocalDate.of(2023, 12, 1),
-            3,
-            LocalDate.of(2025, 12, 1),
-            "ACTIVE"
-        ));
+        for (String supplierId : reviewDueIndex.getSuppliersDueOnOrBefore(thresholdDate)) {
+            SupplierInfo supplier = supplierCache.get(supplierId);
+            if (supplier != null) {
+                suppliers.add(supplier);
+            }
+        }
 
         return suppliers;
     }
 
+    /**
+     * 再評価期限が超過している購買先数を取得（ダッシュボード表示用）
+     * 
+     * @return 購買先数
+     */
+    public int countSuppliersReviewOverdue() {
+        return reviewDueIndex.countOverdue(LocalDate.now());
+    }
+
+    /**
+     * 再評価期限が指定日数以内に到来する購買先数を取得（期限超過は含まない、ダッシュボード表示用）
+     * 
+     * @param daysBeforeDue 期限前の日数（例: 30日前）
+     * @return 購買先数
+     */
+    public int countSuppliersReviewDueWithin(int daysBeforeDue) {
+        return reviewDueIndex.countDueWithin(LocalDate.now(), daysBeforeDue);
+    }
+
     /**
      * 購買先IDを生成する
      * 形式: SUP-YYYYMMDD-XXX
      * 
      * @return 新しい購買先ID
+     * @throws IllegalStateException 当日の連番（999件）を使い切った場合
      */
     public String generateSupplierId() {
-        String dateStr = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        
-        int sequence = 1; // サンプル
-        
-        return String.format("SUP-%s-%03d", dateStr, sequence);
+        return idGenerator.nextSupplierId();
     }
 
     /**
@@ -195,16 +458,8 @@ public class SupplierManagementService {
             return "未評価";
         }
         
-        switch (rating) {
-            case 1:
-                return "優良（80点以上）";
-            case 2:
-                return "良好（70-79点）";
-            case 3:
-                return "標準（60-69点）";
-            default:
-                return "不明";
-        }
+        String description = scoreService.getCurrentPolicy().getGradeDescription(rating);
+        return description != null ? description : "不明";
     }
 
     /**
@@ -247,8 +502,15 @@ public class SupplierManagementService {
     /**
      * サンプル使用例（テスト用）
      */
-    public static void main(String[] args) {
-        SupplierManagementService service = new SupplierManagementService();
+    public static void main(String[] args) throws IOException, NamingException {
+        DataSource dataSource = (DataSource) new InitialContext().lookup("java:comp/env/jdbc/sqas");
+        try (SupplierManagementService service = new SupplierManagementService(dataSource,
+                ScoringPolicyRegistry.load(ScoringPolicyRegistry.DEFAULT_CONFIG_FILE))) {
+            runSample(service);
+        }
+    }
+
+    private static void runSample(SupplierManagementService service) {
 
         String newSupplierId = service.generateSupplierId();
         System.out.println("Generated Supplier ID: " + newSupplierId);
@@ -265,6 +527,7 @@ public class SupplierManagementService {
         }
 
         List<SupplierInfo> suppliersRequiringReview = service.getSuppliersRequiringReview(30);
+        LocalDate today = LocalDate.now();
         System.out.println("\n=== Suppliers Requiring Review (within 30 days) ===");
         for (SupplierInfo supplier : suppliersRequiringReview) {
             System.out.println(String.format(
@@ -272,9 +535,17 @@ public class SupplierManagementService {
                 supplier.getSupplierId(),
                 supplier.getCompanyName(),
                 supplier.getNextReviewDate(),
-                supplier.getAlertLevel()
+                supplier.getAlertLevel(today)
             ));
         }
+        System.out.println(String.format("Overdue: %d, Due within 30 days: %d",
+            service.countSuppliersReviewOverdue(), service.countSuppliersReviewDueWithin(30)));
+
+        SupplierInfo cachedSupplier = service.getSupplier("SUP-20231201-003");
+        service.updateSupplierStatus("SUP-20231201-003", "SUSPENDED", "是正処置期限超過");
+        System.out.println("\nSupplier status (cached): " + service.getSupplier("SUP-20231201-003").getSupplierStatus()
+            + " (before: " + cachedSupplier.getSupplierStatus() + ")");
+        System.out.println(service.getSupplierCache());
 
         LocalDate expiryDate = LocalDate.of(2026, 2, 1);
         boolean isDueSoon = service.isIso9001ExpiryDueSoon(expiryDate);
@@ -0,0 +1,290 @@
+package jp.co.company.sqas.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 階層型タイミングホイール
+ * Timing Wheel Scheduler
+ *
+ * キー付きのタスクを指定時刻に実行する常駐スケジューラ。64 スロット × 4 階層のホイールで
+ * 約 1,677 万 tick（tick = 1分の場合は約 31 年）先までを保持し、登録・取消はいずれも O(1) で行う。
+ * 上位の階層のスロットは下位の階層が1周するごとに下位へ振り分け直す（カスケード）。
+ *
+ * タスクはホイールのロックの外で、tick を進めたスレッド（start() の場合は常駐スレッド）から実行する。
+ * 実行時刻が過去のタスクは次の tick で実行する。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+public class TimingWheelScheduler implements AutoCloseable {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    /** ホイールで保持できる最大の tick 数（これより先のタスクは最上位の階層で待機し、振り分けのたびに再登録する） */
+    private static final long MAX_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    /**
+     * 登録されたタスク（スロットごとの双方向循環リストの要素）
+     */
+    private static final class Timer {
+        final String key;
+        final long deadlineTick;
+        final Runnable task;
+        Timer prev = this;
+        Timer next = this;
+
+        Timer(String key, long deadlineTick, Runnable task) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+        }
+    }
+
+    private final Clock clock;
+    private final long tickMillis;
+    private final long startMillis;
+
+    /** 階層ごとのスロット（番兵） */
+    private final Timer[][] wheels = new Timer[LEVELS][WHEEL_SIZE];
+    private final Map<String, Timer> timersByKey = new HashMap<>();
+
+    /** 次に処理する tick */
+    private long currentTick;
+
+    private ScheduledExecutorService ticker;
+
+    /**
+     * @param tick 1 tick の長さ（実行時刻の精度）
+     */
+    public TimingWheelScheduler(Duration tick) {
+        this(tick, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param tick 1 tick の長さ（実行時刻の精度）
+     * @param clock 現在時刻
+     */
+    public TimingWheelScheduler(Duration tick, Clock clock) {
+        if (tick.toMillis() <= 0) {
+            throw new IllegalArgumentException("Tick must be at least 1 millisecond");
+        }
+        this.clock = clock;
+        this.tickMillis = tick.toMillis();
+        this.startMillis = clock.millis();
+        for (Timer[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = new Timer(null, 0, null);
+            }
+        }
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * タスクを登録する（同じキーのタスクが登録済の場合は置き換える）
+     *
+     * @param key キー
+     * @param fireAt 実行時刻（tick の精度に切り上げる）
+     * @param task タスク
+     */
+    public synchronized void schedule(String key, Instant fireAt, Runnable task) {
+        Timer previous = timersByKey.remove(key);
+        if (previous != null) {
+            previous.unlink();
+        }
+        add(key, fireAt, task);
+    }
+
+    /**
+     * 同じキーのタスクが登録されていない場合のみタスクを登録する
+     *
+     * @param key キー
+     * @param fireAt 実行時刻（tick の精度に切り上げる）
+     * @param task タスク
+     * @return 登録した場合 true
+     */
+    public synchronized boolean scheduleIfAbsent(String key, Instant fireAt, Runnable task) {
+        if (timersByKey.containsKey(key)) {
+            return false;
+        }
+        add(key, fireAt, task);
+        return true;
+    }
+
+    /**
+     * タスクを取り消す
+     *
+     * @param key キー
+     * @return 取り消した場合 true（未登録・実行済の場合 false）
+     */
+    public synchronized boolean cancel(String key) {
+        Timer timer = timersByKey.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.unlink();
+        return true;
+    }
+
+    public synchronized boolean isScheduled(String key) {
+        return timersByKey.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return timersByKey.size();
+    }
+
+    /**
+     * 常駐スレッドで 1 tick ごとに advance() を実行する
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            throw new IllegalStateException("Scheduler is already started");
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "timing-wheel-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> {
+            try {
+                advance();
+            } catch (RuntimeException e) {
+                System.err.println("Timing wheel tick failed: " + e.getMessage());
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 現在時刻までの tick を処理し、実行時刻が到来したタスクを実行する
+     *
+     * @return 実行したタスク数
+     */
+    public int advance() {
+        List<Timer> expired = new ArrayList<>();
+        synchronized (this) {
+            long nowTick = (clock.millis() - startMillis) / tickMillis;
+            while (currentTick <= nowTick) {
+                if (timersByKey.isEmpty()) {
+                    currentTick = nowTick + 1; // 登録がない間の tick は処理を省略する
+                    break;
+                }
+                tick(expired);
+            }
+        }
+        for (Timer timer : expired) {
+            try {
+                timer.task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Scheduled task failed: " + timer.key + " - " + e.getMessage());
+            }
+        }
+        return expired.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    private void add(String key, Instant fireAt, Runnable task) {
+        long delayMillis = fireAt.toEpochMilli() - startMillis;
+        long deadlineTick = delayMillis <= 0 ? 0 : (delayMillis + tickMillis - 1) / tickMillis;
+        Timer timer = new Timer(key, deadlineTick, task);
+        timersByKey.put(key, timer);
+        insert(timer);
+    }
+
+    /**
+     * 実行時刻までの tick 数に応じた階層のスロットへ追加する
+     */
+    private void insert(Timer timer) {
+        long delta = timer.deadlineTick - currentTick;
+        Timer slot;
+        if (delta < 0) {
+            slot = wheels[0][(int) (currentTick & WHEEL_MASK)];
+        } else {
+            long tick = timer.deadlineTick;
+            if (delta > MAX_TICKS) {
+                delta = MAX_TICKS;
+                tick = currentTick + MAX_TICKS;
+            }
+            int level = 0;
+            while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+                level++;
+            }
+            slot = wheels[level][(int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+        }
+        timer.prev = slot.prev;
+        timer.next = slot;
+        slot.prev.next = timer;
+        slot.prev = timer;
+    }
+
+    /**
+     * currentTick を処理する（下位の階層が1周した場合は上位のスロットを振り分け直す）
+     */
+    private void tick(List<Timer> expired) {
+        int index = (int) (currentTick & WHEEL_MASK);
+        for (int level = 1; index == 0 && level < LEVELS; level++) {
+            index = cascade(level);
+        }
+
+        Timer slot = wheels[0][(int) (currentTick & WHEEL_MASK)];
+        for (Timer timer : detach(slot)) {
+            if (timer.deadlineTick > currentTick) {
+                insert(timer); // 最大 tick 数を超えて登録したタスク
+            } else {
+                timersByKey.remove(timer.key);
+                expired.add(timer);
+            }
+        }
+        currentTick++;
+    }
+
+    /**
+     * @return 振り分けた上位のスロットの位置
+     */
+    private int cascade(int level) {
+        int index = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        for (Timer timer : detach(wheels[level][index])) {
+            insert(timer);
+        }
+        return index;
+    }
+
+    private static List<Timer> detach(Timer slot) {
+        List<Timer> timers = new ArrayList<>();
+        while (slot.next != slot) {
+            Timer timer = slot.next;
+            timer.unlink();
+            timers.add(timer);
+        }
+        return timers;
+    }
+}
@@ -0,0 +1,447 @@
+package jp.co.company.sqas.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TrueType フォント
+ * TrueType Font
+ *
+ * PDF へ埋め込む TrueType（glyf 形式）フォントを読み込み、使用グリフのみのサブセットを作成する。
+ * フォントファイルの解析（文字→グリフ対応表、字幅、グリフ位置）は生成時に1回だけ行い、
+ * 各グリフのデータ（複合グリフの構成グリフを含む）は初回使用時に切り出して保持する。
+ * サブセット作成は保持済のグリフデータを連結するのみで、フォントファイル全体の再解析は行わない。
+ *
+ * サブセットはグリフ番号を変更しない（PDF 側は CIDToGIDMap /Identity で参照する）。
+ * CFF 形式（.otf）には対応しない。TrueType Collection（.ttc）は先頭のフォントを使用する。
+ *
+ * インスタンスはスレッドセーフ。
+ *
+ * @author Supplier Quality Audit System Development Team
+ * @version 1.0
+ * @since 2025-11-20
+ */
+final class TrueTypeFont {
+
+    /** サブセットに含めるテーブル（PDF の FontFile2 に必要なもの） */
+    private static final String[] SUBSET_TABLES = {"cvt ", "fpgm", "glyf", "head", "hhea", "hmtx", "loca", "maxp", "prep"};
+
+    private static final int ARG_1_AND_2_ARE_WORDS = 0x0001;
+    private static final int WE_HAVE_A_SCALE = 0x0008;
+    private static final int MORE_COMPONENTS = 0x0020;
+    private static final int WE_HAVE_AN_X_AND_Y_SCALE = 0x0040;
+    private static final int WE_HAVE_A_TWO_BY_TWO = 0x0080;
+
+    private final ByteBuffer data;
+    private final Map<String, int[]> tables = new HashMap<>(); // タグ → {位置, 長さ}
+    private final String postScriptName;
+    private final int unitsPerEm;
+    private final int[] fontBBox;
+    private final int ascent;
+    private final int descent;
+    private final int capHeight;
+    private final int italicAngle;
+    private final int numGlyphs;
+    private final int[] advanceWidths;
+    private final int[] leftSideBearings;
+    private final int[] glyphOffsets;      // glyf テーブル内の位置（numGlyphs + 1 件）
+    private final char[] bmpGlyphIds;      // U+0000〜U+FFFF → グリフ番号
+    private final Map<Integer, Integer> supplementaryGlyphIds = new HashMap<>();
+    private final AtomicReferenceArray<byte[]> glyphCache;
+
+    /**
+     * フォントファイルを読み込む
+     *
+     * @param fontFile TrueType フォントファイル（.ttf / .ttc）
+     * @throws IllegalArgumentException 対応していない形式の場合
+     */
+    TrueTypeFont(Path fontFile) throws IOException {
+        this(ByteBuffer.wrap(Files.readAllBytes(fontFile)));
+    }
+
+    TrueTypeFont(ByteBuffer fontData) {
+        this.data = fontData;
+        int offsetTable = 0;
+        int tag = data.getInt(0);
+        if (tag == 0x74746366) { // 'ttcf'
+            offsetTable = data.getInt(12);
+            tag = data.getInt(offsetTable);
+        }
+        if (tag == 0x4F54544F) { // 'OTTO'
+            throw new IllegalArgumentException("CFF-based OpenType fonts are not supported");
+        }
+        if (tag != 0x00010000 && tag != 0x74727565) { // 1.0 / 'true'
+            throw new IllegalArgumentException("Not a TrueType font");
+        }
+
+        int numTables = u16(offsetTable + 4);
+        for (int i = 0; i < numTables; i++) {
+            int record = offsetTable + 12 + i * 16;
+            byte[] tagBytes = new byte[4];
+            read(record, tagBytes);
+            tables.put(new String(tagBytes, StandardCharsets.ISO_8859_1),
+                new int[] {data.getInt(record + 8), data.getInt(record + 12)});
+        }
+        for (String required : new String[] {"head", "hhea", "maxp", "hmtx", "loca", "glyf", "cmap"}) {
+            if (!tables.containsKey(required)) {
+                throw new IllegalArgumentException("Missing TrueType table: " + required);
+            }
+        }
+
+        int head = table("head");
+        this.unitsPerEm = u16(head + 18);
+        this.fontBBox = new int[] {
+            scale(data.getShort(head + 36)), scale(data.getShort(head + 38)),
+            scale(data.getShort(head + 40)), scale(data.getShort(head + 42))
+        };
+        boolean longOffsets = data.getShort(head + 50) != 0;
+
+        int hhea = table("hhea");
+        this.ascent = scale(data.getShort(hhea + 4));
+        this.descent = scale(data.getShort(hhea + 6));
+        int numberOfHMetrics = u16(hhea + 34);
+
+        this.numGlyphs = u16(table("maxp") + 4);
+
+        int hmtx = table("hmtx");
+        this.advanceWidths = new int[numGlyphs];
+        this.leftSideBearings = new int[numGlyphs];
+        for (int gid = 0; gid < numGlyphs; gid++) {
+            if (gid < numberOfHMetrics) {
+                advanceWidths[gid] = u16(hmtx + gid * 4);
+                leftSideBearings[gid] = data.getShort(hmtx + gid * 4 + 2);
+            } else {
+                advanceWidths[gid] = advanceWidths[numberOfHMetrics - 1];
+                leftSideBearings[gid] = data.getShort(hmtx + numberOfHMetrics * 4 + (gid - numberOfHMetrics) * 2);
+            }
+        }
+
+        int loca = table("loca");
+        this.glyphOffsets = new int[numGlyphs + 1];
+        for (int gid = 0; gid <= numGlyphs; gid++) {
+            glyphOffsets[gid] = longOffsets ? data.getInt(loca + gid * 4) : u16(loca + gid * 2) * 2;
+        }
+        this.glyphCache = new AtomicReferenceArray<>(numGlyphs);
+
+        int os2 = tables.containsKey("OS/2") ? table("OS/2") : -1;
+        this.capHeight = os2 >= 0 && u16(os2) >= 2 ? scale(data.getShort(os2 + 88)) : ascent;
+        this.italicAngle = tables.containsKey("post") ? data.getShort(table("post") + 4) : 0;
+
+        this.bmpGlyphIds = new char[0x10000];
+        readCmap();
+        this.postScriptName = readPostScriptName();
+    }
+
+    private int table(String tag) {
+        return tables.get(tag)[0];
+    }
+
+    /**
+     * 指定位置からバイト列を読み込む（data の位置は変更しない）
+     */
+    private void read(int position, byte[] target) {
+        data.duplicate().position(position).get(target);
+    }
+
+    private int u16(int position) {
+        return data.getShort(position) & 0xFFFF;
+    }
+
+    private int scale(int fontUnits) {
+        return fontUnits * 1000 / unitsPerEm;
+    }
+
+    /**
+     * Unicode の文字→グリフ対応表を読み込む（形式12 を優先し、なければ形式4）
+     */
+    private void readCmap() {
+        int cmap = table("cmap");
+        int format4 = -1;
+        int format12 = -1;
+        int count = u16(cmap + 2);
+        for (int i = 0; i < count; i++) {
+            int platform = u16(cmap + 4 + i * 8);
+            int encoding = u16(cmap + 6 + i * 8);
+            int subtable = cmap + data.getInt(cmap + 8 + i * 8);
+            int format = u16(subtable);
+            boolean unicode = platform == 0 || (platform == 3 && (encoding == 1 || encoding == 10));
+            if (unicode && format == 12) {
+                format12 = subtable;
+            } else if (unicode && format == 4 && format4 < 0) {
+                format4 = subtable;
+            }
+        }
+
+        if (format12 >= 0) {
+            int groups = data.getInt(format12 + 12);
+            for (int g = 0; g < groups; g++) {
+                int record = format12 + 16 + g * 12;
+                int start = data.getInt(record);
+                int end = data.getInt(record + 4);
+                int glyph = data.getInt(record + 8);
+                for (int cp = start; cp <= end && cp <= 0x10FFFF; cp++) {
+                    mapGlyph(cp, glyph + (cp - start));
+                }
+            }
+        } else if (format4 >= 0) {
+            int segCount = u16(format4 + 6) / 2;
+            int endCodes = format4 + 14;
+            int startCodes = endCodes + segCount * 2 + 2;
+            int idDeltas = startCodes + segCount * 2;
+            int idRangeOffsets = idDeltas + segCount * 2;
+            for (int s = 0; s < segCount; s++) {
+                int end = u16(endCodes + s * 2);
+                int start = u16(startCodes + s * 2);
+                int delta = data.getShort(idDeltas + s * 2);
+                int rangeOffset = u16(idRangeOffsets + s * 2);
+                for (int cp = start; cp <= end && cp != 0xFFFF; cp++) {
+                    int glyph;
+                    if (rangeOffset == 0) {
+                        glyph = (cp + delta) & 0xFFFF;
+                    } else {
+                        int position = idRangeOffsets + s * 2 + rangeOffset + (cp - start) * 2;
+                        glyph = u16(position);
+                        if (glyph != 0) {
+                            glyph = (glyph + delta) & 0xFFFF;
+                        }
+                    }
+                    mapGlyph(cp, glyph);
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("No Unicode cmap subtable found");
+        }
+    }
+
+    private void mapGlyph(int codePoint, int glyph) {
+        if (glyph <= 0 || glyph >= numGlyphs) {
+            return;
+        }
+        if (codePoint <= 0xFFFF) {
+            bmpGlyphIds[codePoint] = (char) glyph;
+        } else {
+            supplementaryGlyphIds.put(codePoint, glyph);
+        }
+    }
+
+    /**
+     * PostScript 名を取得する（PDF の名前に使えない文字は除く）
+     */
+    private String readPostScriptName() {
+        if (tables.containsKey("name")) {
+            int name = table("name");
+            int count = u16(name + 2);
+            int strings = name + u16(name + 4);
+            for (int i = 0; i < count; i++) {
+                int record = name + 6 + i * 12;
+                int platform = u16(record);
+                int nameId = u16(record + 6);
+                if (nameId != 6) {
+                    continue;
+                }
+                byte[] bytes = new byte[u16(record + 8)];
+                read(strings + u16(record + 10), bytes);
+                String value = new String(bytes, platform == 1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_16BE);
+                String sanitized = value.replaceAll("[^A-Za-z0-9_.\\-]", "");
+                if (!sanitized.isEmpty()) {
+                    return sanitized;
+                }
+            }
+        }
+        return "EmbeddedFont";
+    }
+
+    /**
+     * 文字のグリフ番号を取得する
+     *
+     * @param codePoint Unicode コードポイント
+     * @return グリフ番号（フォントに含まれない場合 0 = .notdef）
+     */
+    int glyphId(int codePoint) {
+        if (codePoint <= 0xFFFF) {
+            return codePoint >= 0 ? bmpGlyphIds[codePoint] : 0;
+        }
+        Integer glyph = supplementaryGlyphIds.get(codePoint);
+        return glyph != null ? glyph : 0;
+    }
+
+    /**
+     * グリフの字幅を取得する（1/1000 em 単位）
+     */
+    int advanceWidth(int glyphId) {
+        return scale(advanceWidths[glyphId]);
+    }
+
+    String getPostScriptName() { return postScriptName; }
+    int[] getFontBBox() { return fontBBox.clone(); }
+    int getAscent() { return ascent; }
+    int getDescent() { return descent; }
+    int getCapHeight() { return capHeight; }
+    int getItalicAngle() { return italicAngle; }
+    int getNumGlyphs() { return numGlyphs; }
+
+    /**
+     * グリフデータを取得する（初回のみフォントファイルから切り出し、以後は保持済のものを返す）
+     */
+    private byte[] glyphData(int glyphId) {
+        byte[] cached = glyphCache.get(glyphId);
+        if (cached == null) {
+            int start = glyphOffsets[glyphId];
+            int length = glyphOffsets[glyphId + 1] - start;
+            cached = new byte[Math.max(length, 0)];
+            read(table("glyf") + start, cached);
+            glyphCache.compareAndSet(glyphId, null, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * 複合グリフが参照する構成グリフを、使用グリフに追加する
+     */
+    private void addComponents(int glyphId, BitSet used) {
+        byte[] glyph = glyphData(glyphId);
+        if (glyph.length < 10 || ByteBuffer.wrap(glyph).getShort(0) >= 0) {
+            return; // 空グリフまたは単純グリフ
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(glyph);
+        int position = 10;
+        int flags;
+        do {
+            flags = buffer.getShort(position) & 0xFFFF;
+            int component = buffer.getShort(position + 2) & 0xFFFF;
+            if (component < numGlyphs && !used.get(component)) {
+                used.set(component);
+                addComponents(component, used);
+            }
+            position += 4 + ((flags & ARG_1_AND_2_ARE_WORDS) != 0 ? 4 : 2);
+            if ((flags & WE_HAVE_A_SCALE) != 0) {
+                position += 2;
+            } else if ((flags & WE_HAVE_AN_X_AND_Y_SCALE) != 0) {
+                position += 4;
+            } else if ((flags & WE_HAVE_A_TWO_BY_TWO) != 0) {
+                position += 8;
+            }
+        } while ((flags & MORE_COMPONENTS) != 0 && position + 4 <= glyph.length);
+    }
+
+    /**
+     * 使用グリフのみを含むサブセットフォントを作成する
+     *
+     * グリフ番号は元のフォントと同じ（未使用グリフは空データ）。
+     * グリフ数は使用する最大のグリフ番号 + 1 に切り詰める。
+     *
+     * @param usedGlyphs 使用グリフ（.notdef は常に含める）
+     * @return サブセットフォント（TrueType 形式）
+     */
+    byte[] subset(BitSet usedGlyphs) {
+        BitSet used = (BitSet) usedGlyphs.clone();
+        used.set(0);
+        for (int gid = used.nextSetBit(0); gid >= 0; gid = used.nextSetBit(gid + 1)) {
+            if (gid >= numGlyphs) {
+                break;
+            }
+            addComponents(gid, used);
+        }
+        int subsetGlyphs = Math.min(used.length(), numGlyphs);
+
+        // glyf / loca（long 形式）
+        ByteArrayOutputStream glyf = new ByteArrayOutputStream();
+        ByteBuffer loca = ByteBuffer.allocate((subsetGlyphs + 1) * 4);
+        for (int gid = 0; gid < subsetGlyphs; gid++) {
+            loca.putInt(glyf.size());
+            if (used.get(gid)) {
+                byte[] glyph = glyphData(gid);
+                glyf.write(glyph, 0, glyph.length);
+                while (glyf.size() % 4 != 0) {
+                    glyf.write(0);
+                }
+            }
+        }
+        loca.putInt(glyf.size());
+
+        // hmtx（全グリフの字幅を保持）
+        ByteBuffer hmtx = ByteBuffer.allocate(subsetGlyphs * 4);
+        for (int gid = 0; gid < subsetGlyphs; gid++) {
+            hmtx.putShort((short) advanceWidths[gid]).putShort((short) leftSideBearings[gid]);
+        }
+
+        TreeMap<String, byte[]> output = new TreeMap<>();
+        for (String tag : SUBSET_TABLES) {
+            if (tables.containsKey(tag)) {
+                output.put(tag, copyTable(tag));
+            }
+        }
+        output.put("glyf", glyf.toByteArray());
+        output.put("loca", loca.array());
+        output.put("hmtx", hmtx.array());
+        ByteBuffer.wrap(output.get("head")).putInt(8, 0).putShort(50, (short) 1); // checkSumAdjustment, indexToLocFormat
+        ByteBuffer.wrap(output.get("hhea")).putShort(34, (short) subsetGlyphs);
+        ByteBuffer.wrap(output.get("maxp")).putShort(4, (short) subsetGlyphs);
+
+        return assemble(output);
+    }
+
+    private byte[] copyTable(String tag) {
+        int[] location = tables.get(tag);
+        byte[] bytes = new byte[location[1]];
+        read(location[0], bytes);
+        return bytes;
+    }
+
+    /**
+     * テーブルを連結してフォントファイルを組み立てる（チェックサムを再計算する）
+     */
+    private static byte[] assemble(TreeMap<String, byte[]> output) {
+        int numTables = output.size();
+        int entrySelector = 31 - Integer.numberOfLeadingZeros(numTables);
+        int searchRange = (1 << entrySelector) * 16;
+
+        int headerLength = 12 + numTables * 16;
+        int total = headerLength;
+        for (byte[] table : output.values()) {
+            total += (table.length + 3) & ~3;
+        }
+
+        ByteBuffer font = ByteBuffer.allocate(total);
+        font.putInt(0x00010000).putShort((short) numTables).putShort((short) searchRange)
+            .putShort((short) entrySelector).putShort((short) (numTables * 16 - searchRange));
+
+        int offset = headerLength;
+        int headOffset = 0;
+        for (Map.Entry<String, byte[]> entry : output.entrySet()) {
+            byte[] table = entry.getValue();
+            font.put(entry.getKey().getBytes(StandardCharsets.ISO_8859_1))
+                .putInt(checksum(table)).putInt(offset).putInt(table.length);
+            System.arraycopy(table, 0, font.array(), offset, table.length);
+            if (entry.getKey().equals("head")) {
+                headOffset = offset;
+            }
+            offset += (table.length + 3) & ~3;
+        }
+
+        byte[] bytes = font.array();
+        font.putInt(headOffset + 8, (int) (0xB1B0AFBAL - (checksum(bytes) & 0xFFFFFFFFL)));
+        return bytes;
+    }
+
+    private static int checksum(byte[] table) {
+        int sum = 0;
+        for (int i = 0; i < table.length; i += 4) {
+            int word = 0;
+            for (int j = 0; j < 4; j++) {
+                word = (word << 8) | (i + j < table.length ? table[i + j] & 0xFF : 0);
+            }
+            sum += word;
+        }
+        return sum;
+    }
+}